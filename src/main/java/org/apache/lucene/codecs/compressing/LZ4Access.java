@@ -0,0 +1,65 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.lucene.codecs.compressing;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+
+import java.io.IOException;
+
+/**
+ * Exposes the LZ4 block compression that Lucene uses for its stored fields, which is package private.
+ */
+public final class LZ4Access {
+
+    private LZ4Access() {
+    }
+
+    /**
+     * The scratch hash table of the compressor, which can be reused across calls to
+     * {@link #compress(byte[], int, int, DataOutput, HashTable)} by a single thread.
+     */
+    public static final class HashTable {
+
+        private final LZ4.HashTable hashTable = new LZ4.HashTable();
+    }
+
+    /**
+     * Compresses <code>bytes[off:off+len]</code> into <code>out</code>. The compressed data is at most
+     * {@link #maxCompressedLength(int)} bytes long.
+     */
+    public static void compress(byte[] bytes, int off, int len, DataOutput out, HashTable ht) throws IOException {
+        LZ4.compress(bytes, off, len, out, ht.hashTable);
+    }
+
+    /**
+     * Decompresses <code>decompressedLen</code> bytes into <code>dest[0:decompressedLen]</code>.
+     */
+    public static void decompress(DataInput compressed, int decompressedLen, byte[] dest) throws IOException {
+        LZ4.decompress(compressed, decompressedLen, dest, 0);
+    }
+
+    /**
+     * @return the maximum length of the compressed form of <code>len</code> bytes
+     */
+    public static int maxCompressedLength(int len) {
+        return len + (len / 255) + 16;
+    }
+}
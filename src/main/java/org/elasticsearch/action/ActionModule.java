@@ -315,6 +315,8 @@ public class ActionModule extends AbstractModule {
         registerAction(MultiPercolateAction.INSTANCE, TransportMultiPercolateAction.class, TransportShardMultiPercolateAction.class);
         registerAction(ExplainAction.INSTANCE, TransportExplainAction.class);
         registerAction(ClearScrollAction.INSTANCE, TransportClearScrollAction.class);
+        registerAction(OpenPointInTimeAction.INSTANCE, TransportOpenPointInTimeAction.class);
+        registerAction(ClosePointInTimeAction.INSTANCE, TransportClosePointInTimeAction.class);
         registerAction(RecoveryAction.INSTANCE, TransportRecoveryAction.class);
         registerAction(BenchmarkAction.INSTANCE, TransportBenchmarkAction.class);
         registerAction(AbortBenchmarkAction.INSTANCE, TransportAbortBenchmarkAction.class);
@@ -31,6 +31,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.monitor.jvm.HotThreads;
+import org.elasticsearch.monitor.jvm.ThreadSampler;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
@@ -43,10 +44,14 @@ import java.util.concurrent.atomic.AtomicReferenceArray;
  */
 public class TransportNodesHotThreadsAction extends TransportNodesOperationAction<NodesHotThreadsRequest, NodesHotThreadsResponse, TransportNodesHotThreadsAction.NodeRequest, NodeHotThreads> {
 
+    private final ThreadSampler threadSampler;
+
     @Inject
     public TransportNodesHotThreadsAction(Settings settings, ClusterName clusterName, ThreadPool threadPool,
-                                          ClusterService clusterService, TransportService transportService, ActionFilters actionFilters) {
+                                          ClusterService clusterService, TransportService transportService, ActionFilters actionFilters,
+                                          ThreadSampler threadSampler) {
         super(settings, NodesHotThreadsAction.NAME, clusterName, threadPool, clusterService, transportService, actionFilters);
+        this.threadSampler = threadSampler;
     }
 
     @Override
@@ -88,6 +93,10 @@ public class TransportNodesHotThreadsAction extends TransportNodesOperationActio
 
     @Override
     protected NodeHotThreads nodeOperation(NodeRequest request) throws ElasticsearchException {
+        if (ThreadSampler.TYPE.equals(request.request.type)) {
+            // the interval is the window of time to return the samples of
+            return new NodeHotThreads(clusterService.localNode(), threadSampler.collapsedStacks(request.request.interval));
+        }
         HotThreads hotThreads = new HotThreads()
                 .busiestThreads(request.request.threads)
                 .type(request.request.type)
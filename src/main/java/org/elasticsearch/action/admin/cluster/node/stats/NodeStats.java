@@ -21,6 +21,7 @@ package org.elasticsearch.action.admin.cluster.node.stats;
 
 import org.elasticsearch.Version;
 import org.elasticsearch.action.support.nodes.NodeOperationResponse;
+import org.elasticsearch.cache.recycler.PageCacheRecyclerStats;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.breaker.CircuitBreaker;
@@ -80,13 +81,16 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
     @Nullable
     private AllCircuitBreakerStats breaker;
 
+    @Nullable
+    private PageCacheRecyclerStats pageRecycler;
+
     NodeStats() {
     }
 
     public NodeStats(DiscoveryNode node, long timestamp, @Nullable NodeIndicesStats indices,
                      @Nullable OsStats os, @Nullable ProcessStats process, @Nullable JvmStats jvm, @Nullable ThreadPoolStats threadPool,
                      @Nullable NetworkStats network, @Nullable FsStats fs, @Nullable TransportStats transport, @Nullable HttpStats http,
-                     @Nullable AllCircuitBreakerStats breaker) {
+                     @Nullable AllCircuitBreakerStats breaker, @Nullable PageCacheRecyclerStats pageRecycler) {
         super(node);
         this.timestamp = timestamp;
         this.indices = indices;
@@ -99,6 +103,7 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         this.transport = transport;
         this.http = http;
         this.breaker = breaker;
+        this.pageRecycler = pageRecycler;
     }
 
     public long getTimestamp() {
@@ -181,6 +186,11 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         return this.breaker;
     }
 
+    @Nullable
+    public PageCacheRecyclerStats getPageRecycler() {
+        return this.pageRecycler;
+    }
+
     public static NodeStats readNodeStats(StreamInput in) throws IOException {
         NodeStats nodeInfo = new NodeStats();
         nodeInfo.readFrom(in);
@@ -229,6 +239,9 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
                 breaker = new AllCircuitBreakerStats(new CircuitBreakerStats[] {parentStats, fdStats, reqStats});
             }
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0) && in.readBoolean()) {
+            pageRecycler = PageCacheRecyclerStats.readPageCacheRecyclerStats(in);
+        }
 
     }
 
@@ -296,6 +309,9 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
             // Writing to a 1.3.0 or earlier stream expects only a single breaker stats
             out.writeOptionalStreamable(breaker == null ? null : breaker.getStats(CircuitBreaker.Name.FIELDDATA));
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            out.writeOptionalStreamable(pageRecycler);
+        }
     }
 
     @Override
@@ -346,6 +362,9 @@ public class NodeStats extends NodeOperationResponse implements ToXContent {
         if (getBreaker() != null) {
             getBreaker().toXContent(builder, params);
         }
+        if (getPageRecycler() != null) {
+            getPageRecycler().toXContent(builder, params);
+        }
 
         return builder;
     }
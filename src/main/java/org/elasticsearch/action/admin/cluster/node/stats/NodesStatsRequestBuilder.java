@@ -62,6 +62,14 @@ public class NodesStatsRequestBuilder extends NodesOperationRequestBuilder<Nodes
         return this;
     }
 
+    /**
+     * Should the node page recycler stats be returned.
+     */
+    public NodesStatsRequestBuilder setPageRecycler(boolean pageRecycler) {
+        request.pageRecycler(pageRecycler);
+        return this;
+    }
+
     /**
      * Should the node indices stats be returned.
      */
@@ -30,6 +30,7 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.cache.filter.FilterCacheStats;
 import org.elasticsearch.index.cache.id.IdCacheStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCacheStats;
 import org.elasticsearch.index.engine.SegmentsStats;
 import org.elasticsearch.index.fielddata.FieldDataStats;
 import org.elasticsearch.index.flush.FlushStats;
@@ -116,6 +117,9 @@ public class CommonStats implements Streamable, ToXContent {
                 case QueryCache:
                     queryCache = new QueryCacheStats();
                     break;
+                case TermFrequencyCache:
+                    termFrequencyCache = new TermFrequencyCacheStats();
+                    break;
                 default:
                     throw new IllegalStateException("Unknown Flag: " + flag);
             }
@@ -182,6 +186,9 @@ public class CommonStats implements Streamable, ToXContent {
                 case QueryCache:
                     queryCache = indexShard.queryCache().stats();
                     break;
+                case TermFrequencyCache:
+                    termFrequencyCache = indexShard.termFrequencyCacheStats();
+                    break;
                 default:
                     throw new IllegalStateException("Unknown Flag: " + flag);
             }
@@ -242,6 +249,9 @@ public class CommonStats implements Streamable, ToXContent {
     @Nullable
     public QueryCacheStats queryCache;
 
+    @Nullable
+    public TermFrequencyCacheStats termFrequencyCache;
+
     public void add(CommonStats stats) {
         if (docs == null) {
             if (stats.getDocs() != null) {
@@ -389,6 +399,14 @@ public class CommonStats implements Streamable, ToXContent {
         } else {
             queryCache.add(stats.getQueryCache());
         }
+        if (termFrequencyCache == null) {
+            if (stats.getTermFrequencyCache() != null) {
+                termFrequencyCache = new TermFrequencyCacheStats();
+                termFrequencyCache.add(stats.getTermFrequencyCache());
+            }
+        } else {
+            termFrequencyCache.add(stats.getTermFrequencyCache());
+        }
     }
 
     @Nullable
@@ -481,6 +499,11 @@ public class CommonStats implements Streamable, ToXContent {
         return queryCache;
     }
 
+    @Nullable
+    public TermFrequencyCacheStats getTermFrequencyCache() {
+        return termFrequencyCache;
+    }
+
     public static CommonStats readCommonStats(StreamInput in) throws IOException {
         CommonStats stats = new CommonStats();
         stats.readFrom(in);
@@ -568,6 +591,9 @@ public class CommonStats implements Streamable, ToXContent {
         if (in.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             queryCache = in.readOptionalStreamable(new QueryCacheStats());
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+            termFrequencyCache = in.readOptionalStreamable(new TermFrequencyCacheStats());
+        }
     }
 
     @Override
@@ -669,6 +695,9 @@ public class CommonStats implements Streamable, ToXContent {
         if (out.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             out.writeOptionalStreamable(queryCache);
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            out.writeOptionalStreamable(termFrequencyCache);
+        }
     }
 
     // note, requires a wrapping object
@@ -728,6 +757,9 @@ public class CommonStats implements Streamable, ToXContent {
         if (queryCache != null) {
             queryCache.toXContent(builder, params);
         }
+        if (termFrequencyCache != null) {
+            termFrequencyCache.toXContent(builder, params);
+        }
         return builder;
     }
 }
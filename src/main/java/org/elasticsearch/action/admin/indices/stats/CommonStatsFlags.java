@@ -225,7 +225,8 @@ public class CommonStatsFlags implements Streamable, Cloneable {
         Segments("segments"),
         Translog("translog"),
         Suggest("suggest"),
-        QueryCache("query_cache");
+        QueryCache("query_cache"),
+        TermFrequencyCache("term_frequency_cache");
 
         private final String restName;
 
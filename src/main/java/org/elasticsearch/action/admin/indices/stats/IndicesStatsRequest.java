@@ -265,6 +265,15 @@ public class IndicesStatsRequest extends BroadcastOperationRequest<IndicesStatsR
         return flags.isSet(Flag.QueryCache);
     }
 
+    public IndicesStatsRequest termFrequencyCache(boolean termFrequencyCache) {
+        flags.set(Flag.TermFrequencyCache, termFrequencyCache);
+        return this;
+    }
+
+    public boolean termFrequencyCache() {
+        return flags.isSet(Flag.TermFrequencyCache);
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
@@ -201,6 +201,9 @@ public class TransportIndicesStatsAction extends TransportBroadcastOperationActi
         if (request.request.queryCache()) {
             flags.set(CommonStatsFlags.Flag.QueryCache);
         }
+        if (request.request.termFrequencyCache()) {
+            flags.set(CommonStatsFlags.Flag.TermFrequencyCache);
+        }
 
         return new ShardStats(indexShard, indexShard.routingEntry(), flags);
     }
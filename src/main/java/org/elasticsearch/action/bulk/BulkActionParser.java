@@ -0,0 +1,414 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import com.google.common.base.Charsets;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContent;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+
+import java.io.IOException;
+
+/**
+ * Parses the action and metadata lines of a bulk body, eg. <code>{ "index" : { "_index" : "test", "_id" : "1" } }</code>.
+ * <p/>
+ * JSON lines that only hold plain strings and integers, which is what clients send in practice, are read with a
+ * byte-level scanner straight from the request bytes. Anything else (escaped strings, floating point numbers, other
+ * content types...) is handed to a regular {@link XContentParser}. A single instance is reused for all the lines
+ * of a bulk body and is not thread-safe.
+ */
+final class BulkActionParser {
+
+    private final String defaultIndex;
+    private final String defaultType;
+    private final String defaultRouting;
+    private final boolean allowExplicitIndex;
+
+    String action;
+    String index;
+    String type;
+    String id;
+    String routing;
+    String parent;
+    String timestamp;
+    Long ttl;
+    String opType;
+    long version;
+    VersionType versionType;
+    int retryOnConflict;
+
+    BulkActionParser(String defaultIndex, String defaultType, String defaultRouting, boolean allowExplicitIndex) {
+        this.defaultIndex = defaultIndex;
+        this.defaultType = defaultType;
+        this.defaultRouting = defaultRouting;
+        this.allowExplicitIndex = allowExplicitIndex;
+    }
+
+    private void reset() {
+        action = null;
+        index = defaultIndex;
+        type = defaultType;
+        id = null;
+        routing = defaultRouting;
+        parent = null;
+        timestamp = null;
+        ttl = null;
+        opType = null;
+        version = Versions.MATCH_ANY;
+        versionType = VersionType.INTERNAL;
+        retryOnConflict = 0;
+    }
+
+    /**
+     * Parses the action line held in <code>data[from, to)</code>.
+     *
+     * @return <tt>false</tt> if the line is empty and holds no action
+     */
+    boolean parse(XContent xContent, BytesReference data, int from, int to) throws IOException {
+        reset();
+        if (xContent.type() == XContentType.JSON) {
+            final int result;
+            if (data.hasArray()) {
+                final int offset = data.arrayOffset();
+                result = scan(data.array(), offset + from, offset + to);
+            } else {
+                // paged data, eg. a streamed body: only a line that spans pages is copied
+                final BytesRef line = data.slice(from, to - from).toBytesRef();
+                result = scan(line.bytes, line.offset, line.offset + line.length);
+            }
+            if (result != NOT_HANDLED) {
+                return result == ACTION;
+            }
+            reset();
+        }
+        try (XContentParser parser = xContent.createParser(data.slice(from, to - from))) {
+            return parse(parser);
+        }
+    }
+
+    private boolean parse(XContentParser parser) throws IOException {
+        // Move to START_OBJECT
+        XContentParser.Token token = parser.nextToken();
+        if (token == null) {
+            return false;
+        }
+        assert token == XContentParser.Token.START_OBJECT;
+        // Move to FIELD_NAME, that's the action
+        token = parser.nextToken();
+        assert token == XContentParser.Token.FIELD_NAME;
+        action = parser.currentName();
+
+        // at this stage, next token can either be END_OBJECT (and use default index and type, with auto generated id)
+        // or START_OBJECT which will have another set of parameters
+
+        String currentFieldName = null;
+        while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+            if (token == XContentParser.Token.FIELD_NAME) {
+                currentFieldName = parser.currentName();
+            } else if (token.isValue()) {
+                if ("_index".equals(currentFieldName)) {
+                    if (!allowExplicitIndex) {
+                        throw new ElasticsearchIllegalArgumentException("explicit index in bulk is not allowed");
+                    }
+                    index = parser.text();
+                } else if ("_type".equals(currentFieldName)) {
+                    type = parser.text();
+                } else if ("_id".equals(currentFieldName)) {
+                    id = parser.text();
+                } else if ("_routing".equals(currentFieldName) || "routing".equals(currentFieldName)) {
+                    routing = parser.text();
+                } else if ("_parent".equals(currentFieldName) || "parent".equals(currentFieldName)) {
+                    parent = parser.text();
+                } else if ("_timestamp".equals(currentFieldName) || "timestamp".equals(currentFieldName)) {
+                    timestamp = parser.text();
+                } else if ("_ttl".equals(currentFieldName) || "ttl".equals(currentFieldName)) {
+                    if (parser.currentToken() == XContentParser.Token.VALUE_STRING) {
+                        ttl = TimeValue.parseTimeValue(parser.text(), null).millis();
+                    } else {
+                        ttl = parser.longValue();
+                    }
+                } else if ("op_type".equals(currentFieldName) || "opType".equals(currentFieldName)) {
+                    opType = parser.text();
+                } else if ("_version".equals(currentFieldName) || "version".equals(currentFieldName)) {
+                    version = parser.longValue();
+                } else if ("_version_type".equals(currentFieldName) || "_versionType".equals(currentFieldName) || "version_type".equals(currentFieldName) || "versionType".equals(currentFieldName)) {
+                    versionType = VersionType.fromString(parser.text());
+                } else if ("_retry_on_conflict".equals(currentFieldName) || "_retryOnConflict".equals(currentFieldName)) {
+                    retryOnConflict = parser.intValue();
+                }
+            }
+        }
+        return true;
+    }
+
+    private static final int NOT_HANDLED = -1;
+    private static final int EMPTY = 0;
+    private static final int ACTION = 1;
+
+    // the position of the scanner within the bytes of the current line
+    private byte[] bytes;
+    private int pos;
+    private int end;
+
+    /**
+     * Scans a JSON action line of the form <code>{ "action" : { "field" : value, ... } }</code> where values are
+     * either strings without escape sequences or integers.
+     *
+     * @return {@link #ACTION} or {@link #EMPTY} if the line could be read, {@link #NOT_HANDLED} if the line must go
+     *         through an {@link XContentParser}
+     */
+    private int scan(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.pos = from;
+        this.end = to;
+        try {
+            if (skipWhitespace() == false) {
+                return EMPTY;
+            }
+            if (consume('{') == false || skipWhitespace() == false || bytes[pos] != '"') {
+                return NOT_HANDLED;
+            }
+            int nameStart = pos + 1;
+            int nameEnd = scanString();
+            if (nameEnd < 0) {
+                return NOT_HANDLED;
+            }
+            action = actionName(bytes, nameStart, nameEnd - nameStart);
+            if (action == null || consumeSeparator(':') == false || consumeSeparator('{') == false) {
+                return NOT_HANDLED;
+            }
+            if (skipWhitespace() == false) {
+                return NOT_HANDLED;
+            }
+            if (bytes[pos] == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    if (bytes[pos] != '"') {
+                        return NOT_HANDLED;
+                    }
+                    nameStart = pos + 1;
+                    nameEnd = scanString();
+                    if (nameEnd < 0 || consumeSeparator(':') == false || skipWhitespace() == false) {
+                        return NOT_HANDLED;
+                    }
+                    final int valueStart;
+                    final int valueEnd;
+                    final boolean quoted;
+                    if (bytes[pos] == '"') {
+                        valueStart = pos + 1;
+                        valueEnd = scanString();
+                        quoted = true;
+                    } else {
+                        valueStart = pos;
+                        valueEnd = scanInteger();
+                        quoted = false;
+                    }
+                    if (valueEnd < 0 || field(nameStart, nameEnd - nameStart, valueStart, valueEnd - valueStart, quoted) == false) {
+                        return NOT_HANDLED;
+                    }
+                    if (skipWhitespace() == false) {
+                        return NOT_HANDLED;
+                    }
+                    if (bytes[pos] == '}') {
+                        pos++;
+                        break;
+                    }
+                    if (consume(',') == false || skipWhitespace() == false) {
+                        return NOT_HANDLED;
+                    }
+                }
+            }
+            if (consumeSeparator('}') == false || skipWhitespace()) {
+                // not closed, or trailing content
+                return NOT_HANDLED;
+            }
+            return ACTION;
+        } finally {
+            this.bytes = null;
+        }
+    }
+
+    /**
+     * Assigns a metadata field, mirrors {@link #parse(XContentParser)}.
+     *
+     * @return <tt>false</tt> if the value needs the leniency of an {@link XContentParser}
+     */
+    private boolean field(int nameStart, int nameLength, int valueStart, int valueLength, boolean quoted) {
+        if (nameEquals(nameStart, nameLength, "_index")) {
+            if (!allowExplicitIndex) {
+                throw new ElasticsearchIllegalArgumentException("explicit index in bulk is not allowed");
+            }
+            index = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_type")) {
+            type = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_id")) {
+            id = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_routing") || nameEquals(nameStart, nameLength, "routing")) {
+            routing = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_parent") || nameEquals(nameStart, nameLength, "parent")) {
+            parent = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_timestamp") || nameEquals(nameStart, nameLength, "timestamp")) {
+            timestamp = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_ttl") || nameEquals(nameStart, nameLength, "ttl")) {
+            if (quoted) {
+                ttl = TimeValue.parseTimeValue(text(valueStart, valueLength), null).millis();
+            } else {
+                ttl = parseLong(valueStart, valueLength);
+            }
+        } else if (nameEquals(nameStart, nameLength, "op_type") || nameEquals(nameStart, nameLength, "opType")) {
+            opType = text(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_version") || nameEquals(nameStart, nameLength, "version")) {
+            if (quoted) {
+                return false;
+            }
+            version = parseLong(valueStart, valueLength);
+        } else if (nameEquals(nameStart, nameLength, "_version_type") || nameEquals(nameStart, nameLength, "_versionType")
+                || nameEquals(nameStart, nameLength, "version_type") || nameEquals(nameStart, nameLength, "versionType")) {
+            versionType = VersionType.fromString(text(valueStart, valueLength));
+        } else if (nameEquals(nameStart, nameLength, "_retry_on_conflict") || nameEquals(nameStart, nameLength, "_retryOnConflict")) {
+            if (quoted || valueLength > 9) {
+                return false;
+            }
+            retryOnConflict = (int) parseLong(valueStart, valueLength);
+        }
+        return true;
+    }
+
+    private static String actionName(byte[] bytes, int offset, int length) {
+        if (equals(bytes, offset, length, "index")) {
+            return "index";
+        } else if (equals(bytes, offset, length, "create")) {
+            return "create";
+        } else if (equals(bytes, offset, length, "update")) {
+            return "update";
+        } else if (equals(bytes, offset, length, "delete")) {
+            return "delete";
+        }
+        return null;
+    }
+
+    private boolean nameEquals(int offset, int length, String name) {
+        return equals(bytes, offset, length, name);
+    }
+
+    private static boolean equals(byte[] bytes, int offset, int length, String ascii) {
+        if (length != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[offset + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String text(int offset, int length) {
+        return new String(bytes, offset, length, Charsets.UTF_8);
+    }
+
+    private long parseLong(int offset, int length) {
+        boolean negative = bytes[offset] == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < length; i++) {
+            value = value * 10 + (bytes[offset + i] - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Moves past the string that starts at the current position.
+     *
+     * @return the end (exclusive) of the string content or <tt>-1</tt> if the string is not closed or holds escapes
+     */
+    private int scanString() {
+        for (int i = pos + 1; i < end; i++) {
+            final byte b = bytes[i];
+            if (b == '"') {
+                pos = i + 1;
+                return i;
+            } else if (b == '\\' || (b >= 0 && b < 0x20)) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves past the integer that starts at the current position.
+     *
+     * @return the end (exclusive) of the integer or <tt>-1</tt> if the value is not an integer that fits a long
+     */
+    private int scanInteger() {
+        int i = pos;
+        if (i < end && bytes[i] == '-') {
+            i++;
+        }
+        final int digitsStart = i;
+        while (i < end && bytes[i] >= '0' && bytes[i] <= '9') {
+            i++;
+        }
+        // at most 18 digits so that the value can't overflow
+        if (i == digitsStart || i - digitsStart > 18) {
+            return -1;
+        }
+        if (i < end && (bytes[i] == '.' || bytes[i] == 'e' || bytes[i] == 'E')) {
+            return -1;
+        }
+        pos = i;
+        return i;
+    }
+
+    /**
+     * Skips whitespace and consumes the given character.
+     */
+    private boolean consumeSeparator(char c) {
+        return skipWhitespace() && consume(c);
+    }
+
+    private boolean consume(char c) {
+        if (pos < end && bytes[pos] == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return <tt>true</tt> if there is content left after the whitespace
+     */
+    private boolean skipWhitespace() {
+        while (pos < end) {
+            final byte b = bytes[pos];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+}
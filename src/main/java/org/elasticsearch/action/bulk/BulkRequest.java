@@ -31,11 +31,9 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
-import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContent;
 import org.elasticsearch.common.xcontent.XContentFactory;
-import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.index.VersionType;
 
 import java.io.IOException;
@@ -250,140 +248,106 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
     }
 
     public BulkRequest add(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable String defaultRouting, @Nullable Object payload, boolean allowExplicitIndex) throws Exception {
+        addComplete(data, contentUnsafe, defaultIndex, defaultType, defaultRouting, payload, allowExplicitIndex);
+        return this;
+    }
+
+    /**
+     * Adds the complete actions held in the framed data, ie. the actions whose lines, including the source line of
+     * index, create and update actions, are terminated by the stream separator.
+     *
+     * @return the number of bytes of the data that were consumed, the remaining bytes hold the beginning of an
+     *         action that is not complete yet
+     */
+    public int addComplete(BytesReference data, boolean contentUnsafe, @Nullable String defaultIndex, @Nullable String defaultType, @Nullable String defaultRouting, @Nullable Object payload, boolean allowExplicitIndex) throws Exception {
         XContent xContent = XContentFactory.xContent(data);
+        int consumed = 0;
         int from = 0;
         int length = data.length();
         byte marker = xContent.streamSeparator();
+        BulkActionParser actionParser = new BulkActionParser(defaultIndex, defaultType, defaultRouting, allowExplicitIndex);
         while (true) {
             int nextMarker = findNextMarker(marker, from, data, length);
             if (nextMarker == -1) {
                 break;
             }
             // now parse the action
-
-            try (XContentParser parser = xContent.createParser(data.slice(from, nextMarker - from))) {
-                // move pointers
-                from = nextMarker + 1;
-
-                // Move to START_OBJECT
-                XContentParser.Token token = parser.nextToken();
-                if (token == null) {
-                    continue;
-                }
-                assert token == XContentParser.Token.START_OBJECT;
-                // Move to FIELD_NAME, that's the action
-                token = parser.nextToken();
-                assert token == XContentParser.Token.FIELD_NAME;
-                String action = parser.currentName();
-
-                String index = defaultIndex;
-                String type = defaultType;
-                String id = null;
-                String routing = defaultRouting;
-                String parent = null;
-                String timestamp = null;
-                Long ttl = null;
-                String opType = null;
-                long version = Versions.MATCH_ANY;
-                VersionType versionType = VersionType.INTERNAL;
-                int retryOnConflict = 0;
-
-                // at this stage, next token can either be END_OBJECT (and use default index and type, with auto generated id)
-                // or START_OBJECT which will have another set of parameters
-
-                String currentFieldName = null;
-                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
-                    if (token == XContentParser.Token.FIELD_NAME) {
-                        currentFieldName = parser.currentName();
-                    } else if (token.isValue()) {
-                        if ("_index".equals(currentFieldName)) {
-                            if (!allowExplicitIndex) {
-                                throw new ElasticsearchIllegalArgumentException("explicit index in bulk is not allowed");
-                            }
-                            index = parser.text();
-                        } else if ("_type".equals(currentFieldName)) {
-                            type = parser.text();
-                        } else if ("_id".equals(currentFieldName)) {
-                            id = parser.text();
-                        } else if ("_routing".equals(currentFieldName) || "routing".equals(currentFieldName)) {
-                            routing = parser.text();
-                        } else if ("_parent".equals(currentFieldName) || "parent".equals(currentFieldName)) {
-                            parent = parser.text();
-                        } else if ("_timestamp".equals(currentFieldName) || "timestamp".equals(currentFieldName)) {
-                            timestamp = parser.text();
-                        } else if ("_ttl".equals(currentFieldName) || "ttl".equals(currentFieldName)) {
-                            if (parser.currentToken() == XContentParser.Token.VALUE_STRING) {
-                                ttl = TimeValue.parseTimeValue(parser.text(), null).millis();
-                            } else {
-                                ttl = parser.longValue();
-                            }
-                        } else if ("op_type".equals(currentFieldName) || "opType".equals(currentFieldName)) {
-                            opType = parser.text();
-                        } else if ("_version".equals(currentFieldName) || "version".equals(currentFieldName)) {
-                            version = parser.longValue();
-                        } else if ("_version_type".equals(currentFieldName) || "_versionType".equals(currentFieldName) || "version_type".equals(currentFieldName) || "versionType".equals(currentFieldName)) {
-                            versionType = VersionType.fromString(parser.text());
-                        } else if ("_retry_on_conflict".equals(currentFieldName) || "_retryOnConflict".equals(currentFieldName)) {
-                            retryOnConflict = parser.intValue();
-                        }
-                    }
+            final boolean hasAction = actionParser.parse(xContent, data, from, nextMarker);
+            // move pointers
+            from = nextMarker + 1;
+            if (hasAction == false) {
+                consumed = from;
+                continue;
+            }
+            final String action = actionParser.action;
+            final String index = actionParser.index;
+            final String type = actionParser.type;
+            final String id = actionParser.id;
+            final String routing = actionParser.routing;
+            final String parent = actionParser.parent;
+            final String timestamp = actionParser.timestamp;
+            final Long ttl = actionParser.ttl;
+            final String opType = actionParser.opType;
+            final long version = actionParser.version;
+            final VersionType versionType = actionParser.versionType;
+            final int retryOnConflict = actionParser.retryOnConflict;
+
+            if ("delete".equals(action)) {
+                add(new DeleteRequest(index, type, id).routing(routing).parent(parent).version(version).versionType(versionType), payload);
+                consumed = from;
+            } else {
+                nextMarker = findNextMarker(marker, from, data, length);
+                if (nextMarker == -1) {
+                    break;
                 }
-
-                if ("delete".equals(action)) {
-                    add(new DeleteRequest(index, type, id).routing(routing).parent(parent).version(version).versionType(versionType), payload);
-                } else {
-                    nextMarker = findNextMarker(marker, from, data, length);
-                    if (nextMarker == -1) {
-                        break;
-                    }
-                    // order is important, we set parent after routing, so routing will be set to parent if not set explicitly
-                    // we use internalAdd so we don't fork here, this allows us not to copy over the big byte array to small chunks
-                    // of index request. All index requests are still unsafe if applicable.
-                    if ("index".equals(action)) {
-                        if (opType == null) {
-                            internalAdd(new IndexRequest(index, type, id).routing(routing).parent(parent).timestamp(timestamp).ttl(ttl).version(version).versionType(versionType)
-                                    .source(data.slice(from, nextMarker - from), contentUnsafe), payload);
-                        } else {
-                            internalAdd(new IndexRequest(index, type, id).routing(routing).parent(parent).timestamp(timestamp).ttl(ttl).version(version).versionType(versionType)
-                                    .create("create".equals(opType))
-                                    .source(data.slice(from, nextMarker - from), contentUnsafe), payload);
-                        }
-                    } else if ("create".equals(action)) {
+                // order is important, we set parent after routing, so routing will be set to parent if not set explicitly
+                // we use internalAdd so we don't fork here, this allows us not to copy over the big byte array to small chunks
+                // of index request. All index requests are still unsafe if applicable.
+                if ("index".equals(action)) {
+                    if (opType == null) {
+                        internalAdd(new IndexRequest(index, type, id).routing(routing).parent(parent).timestamp(timestamp).ttl(ttl).version(version).versionType(versionType)
+                                .source(data.slice(from, nextMarker - from), contentUnsafe), payload);
+                    } else {
                         internalAdd(new IndexRequest(index, type, id).routing(routing).parent(parent).timestamp(timestamp).ttl(ttl).version(version).versionType(versionType)
-                                .create(true)
+                                .create("create".equals(opType))
                                 .source(data.slice(from, nextMarker - from), contentUnsafe), payload);
-                    } else if ("update".equals(action)) {
-                        UpdateRequest updateRequest = new UpdateRequest(index, type, id).routing(routing).parent(parent).retryOnConflict(retryOnConflict)
-                                .version(version).versionType(versionType)
-                                .source(data.slice(from, nextMarker - from));
-
-                        IndexRequest upsertRequest = updateRequest.upsertRequest();
-                        if (upsertRequest != null) {
-                            upsertRequest.routing(routing);
-                            upsertRequest.parent(parent); // order is important, set it after routing, so it will set the routing
-                            upsertRequest.timestamp(timestamp);
-                            upsertRequest.ttl(ttl);
-                            upsertRequest.version(version);
-                            upsertRequest.versionType(versionType);
-                        }
-                        IndexRequest doc = updateRequest.doc();
-                        if (doc != null) {
-                            doc.routing(routing);
-                            doc.parent(parent); // order is important, set it after routing, so it will set the routing
-                            doc.timestamp(timestamp);
-                            doc.ttl(ttl);
-                            doc.version(version);
-                            doc.versionType(versionType);
-                        }
-
-                        internalAdd(updateRequest, payload);
                     }
-                    // move pointers
-                    from = nextMarker + 1;
+                } else if ("create".equals(action)) {
+                    internalAdd(new IndexRequest(index, type, id).routing(routing).parent(parent).timestamp(timestamp).ttl(ttl).version(version).versionType(versionType)
+                            .create(true)
+                            .source(data.slice(from, nextMarker - from), contentUnsafe), payload);
+                } else if ("update".equals(action)) {
+                    UpdateRequest updateRequest = new UpdateRequest(index, type, id).routing(routing).parent(parent).retryOnConflict(retryOnConflict)
+                            .version(version).versionType(versionType)
+                            .source(data.slice(from, nextMarker - from));
+
+                    IndexRequest upsertRequest = updateRequest.upsertRequest();
+                    if (upsertRequest != null) {
+                        upsertRequest.routing(routing);
+                        upsertRequest.parent(parent); // order is important, set it after routing, so it will set the routing
+                        upsertRequest.timestamp(timestamp);
+                        upsertRequest.ttl(ttl);
+                        upsertRequest.version(version);
+                        upsertRequest.versionType(versionType);
+                    }
+                    IndexRequest doc = updateRequest.doc();
+                    if (doc != null) {
+                        doc.routing(routing);
+                        doc.parent(parent); // order is important, set it after routing, so it will set the routing
+                        doc.timestamp(timestamp);
+                        doc.ttl(ttl);
+                        doc.version(version);
+                        doc.versionType(versionType);
+                    }
+
+                    internalAdd(updateRequest, payload);
                 }
+                // move pointers
+                from = nextMarker + 1;
+                consumed = from;
             }
         }
-        return this;
+        return consumed;
     }
 
     /**
@@ -444,6 +408,16 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
     }
 
     private int findNextMarker(byte marker, int from, BytesReference data, int length) {
+        if (data.hasArray()) {
+            final byte[] array = data.array();
+            final int offset = data.arrayOffset();
+            for (int i = from; i < length; i++) {
+                if (array[offset + i] == marker) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         for (int i = from; i < length; i++) {
             if (data.get(i) == marker) {
                 return i;
@@ -500,7 +474,7 @@ public class BulkRequest extends ActionRequest<BulkRequest> implements Composite
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeByte(replicationType.id());
+        out.writeByte(replicationType.id(out.getVersion()));
         out.writeByte(consistencyLevel.id());
         out.writeVInt(requests.size());
         for (ActionRequest request : requests) {
@@ -25,6 +25,7 @@ import org.elasticsearch.ElasticsearchIllegalStateException;
 import org.elasticsearch.ElasticsearchWrapperException;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.DocumentRequest;
 import org.elasticsearch.action.RoutingMissingException;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
@@ -62,6 +63,9 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -124,6 +128,15 @@ public class TransportShardBulkAction extends TransportShardReplicationOperation
         return false;
     }
 
+    @Override
+    protected Collection<String> pipelinedDocuments(BulkShardRequest request) {
+        List<String> documents = new ArrayList<>(request.items().length);
+        for (BulkItemRequest item : request.items()) {
+            documents.add(pipelinedDocument((DocumentRequest<?>) item.request()));
+        }
+        return documents;
+    }
+
     @Override
     protected ShardIterator shards(ClusterState clusterState, InternalRequest request) {
         return clusterState.routingTable().index(request.concreteIndex()).shard(request.request().shardId()).shardsIt();
@@ -44,6 +44,9 @@ import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Performs the delete operation.
  */
@@ -100,6 +103,11 @@ public class TransportDeleteAction extends TransportShardReplicationOperationAct
         return true;
     }
 
+    @Override
+    protected Collection<String> pipelinedDocuments(DeleteRequest request) {
+        return Collections.singletonList(pipelinedDocument(request));
+    }
+
     @Override
     protected boolean resolveRequest(final ClusterState state, final InternalRequest request, final ActionListener<DeleteResponse> listener) {
         request.request().routing(state.metaData().resolveIndexRouting(request.request().routing(), request.request().index()));
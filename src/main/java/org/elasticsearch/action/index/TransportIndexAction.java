@@ -47,6 +47,9 @@ import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * Performs the index operation.
  * <p/>
@@ -118,6 +121,11 @@ public class TransportIndexAction extends TransportShardReplicationOperationActi
         return true;
     }
 
+    @Override
+    protected Collection<String> pipelinedDocuments(IndexRequest request) {
+        return Collections.singletonList(pipelinedDocument(request));
+    }
+
     @Override
     protected boolean resolveRequest(ClusterState state, InternalRequest request, ActionListener<IndexResponse> indexResponseActionListener) {
         MetaData metaData = clusterService.state().metaData();
@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.support.broadcast.BroadcastOperationRequest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * A request to open a point in time view of indices, which search requests can then reference to search the
+ * readers the shards had when it was opened. The readers are kept open until the point in time is closed or it
+ * isn't used for longer than its keep alive.
+ *
+ * @see SearchRequest#pointInTime(String, TimeValue)
+ * @see ClosePointInTimeRequest
+ */
+public class OpenPointInTimeRequest extends BroadcastOperationRequest<OpenPointInTimeRequest> {
+
+    private TimeValue keepAlive;
+
+    // assigned on the node that coordinates the request
+    String id;
+
+    OpenPointInTimeRequest() {
+    }
+
+    public OpenPointInTimeRequest(String... indices) {
+        super(indices);
+    }
+
+    public TimeValue keepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * How long the point in time is kept open after it was last used.
+     */
+    public OpenPointInTimeRequest keepAlive(TimeValue keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = super.validate();
+        if (keepAlive == null) {
+            validationException = addValidationError("keep_alive is missing", validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        keepAlive = TimeValue.readTimeValue(in);
+        id = in.readOptionalString();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        keepAlive.writeTo(out);
+        out.writeOptionalString(id);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.broadcast.BroadcastOperationRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.unit.TimeValue;
+
+/**
+ * A request to open a point in time view of indices.
+ */
+public class OpenPointInTimeRequestBuilder extends BroadcastOperationRequestBuilder<OpenPointInTimeRequest, OpenPointInTimeResponse, OpenPointInTimeRequestBuilder, Client> {
+
+    public OpenPointInTimeRequestBuilder(Client client) {
+        super(client, new OpenPointInTimeRequest());
+    }
+
+    /**
+     * How long the point in time is kept open after it was last used.
+     */
+    public OpenPointInTimeRequestBuilder setKeepAlive(TimeValue keepAlive) {
+        request.keepAlive(keepAlive);
+        return this;
+    }
+
+    /**
+     * How long the point in time is kept open after it was last used.
+     */
+    public OpenPointInTimeRequestBuilder setKeepAlive(String keepAlive) {
+        request.keepAlive(TimeValue.parseTimeValue(keepAlive, null));
+        return this;
+    }
+
+    @Override
+    protected void doExecute(ActionListener<OpenPointInTimeResponse> listener) {
+        client.openPointInTime(request, listener);
+    }
+}
@@ -37,6 +37,7 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.PointInTime;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 
@@ -44,6 +45,8 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
 
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+import static org.elasticsearch.search.PointInTime.readPointInTime;
 import static org.elasticsearch.search.Scroll.readScroll;
 
 /**
@@ -85,6 +88,8 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
 
     private Scroll scroll;
 
+    private PointInTime pointInTime;
+
     private String[] types = Strings.EMPTY_ARRAY;
 
     public static final IndicesOptions DEFAULT_INDICES_OPTIONS = IndicesOptions.strictExpandOpenAndForbidClosed();
@@ -115,6 +120,7 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         this.extraSourceUnsafe = searchRequest.extraSourceUnsafe;
         this.queryCache = searchRequest.queryCache;
         this.scroll = searchRequest.scroll;
+        this.pointInTime = searchRequest.pointInTime;
         this.types = searchRequest.types;
         this.indicesOptions = searchRequest.indicesOptions;
     }
@@ -150,6 +156,12 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
 //        if (source == null && extraSource == null) {
 //            validationException = addValidationError("search source is missing", validationException);
 //        }
+        if (pointInTime != null && (scroll != null || searchType == SearchType.SCAN)) {
+            validationException = addValidationError("a point in time can't be used with scroll or scan", validationException);
+        }
+        if (pointInTime != null && preference != null) {
+            validationException = addValidationError("a point in time can't be used with a preference, it picks the shard copies to search", validationException);
+        }
         return validationException;
     }
 
@@ -528,6 +540,29 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         return scroll(new Scroll(TimeValue.parseTimeValue(keepAlive, null)));
     }
 
+    /**
+     * If set, the request searches the given point in time instead of the current readers of the shards.
+     */
+    public PointInTime pointInTime() {
+        return pointInTime;
+    }
+
+    /**
+     * If set, the request searches the given point in time instead of the current readers of the shards.
+     */
+    public SearchRequest pointInTime(PointInTime pointInTime) {
+        this.pointInTime = pointInTime;
+        return this;
+    }
+
+    /**
+     * Searches the point in time of the given id, extending how long it is kept open to the given keep alive if it
+     * isn't <code>null</code>.
+     */
+    public SearchRequest pointInTime(String id, @Nullable TimeValue keepAlive) {
+        return pointInTime(new PointInTime(id, keepAlive));
+    }
+
     /**
      * Sets if this request should use the query cache or not, assuming that it can (for
      * example, if "now" is used, it will never be cached). By default (not set, or null,
@@ -586,6 +621,9 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         if (in.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             queryCache = in.readOptionalBoolean();
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0) && in.readBoolean()) {
+            pointInTime = readPointInTime(in);
+        }
     }
 
     @Override
@@ -631,5 +669,13 @@ public class SearchRequest extends ActionRequest<SearchRequest> implements Indic
         if (out.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             out.writeOptionalBoolean(queryCache);
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            if (pointInTime == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                pointInTime.writeTo(out);
+            }
+        }
     }
 }
@@ -113,6 +113,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Searches the point in time of the given id instead of the current readers of the shards, extending how long
+     * it is kept open to the given keep alive if it isn't <code>null</code>.
+     */
+    public SearchRequestBuilder setPointInTime(String id, @Nullable TimeValue keepAlive) {
+        request.pointInTime(id, keepAlive);
+        return this;
+    }
+
     /**
      * An optional timeout to control how long search is allowed to take.
      */
@@ -138,6 +147,15 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Should the query phase be profiled, reporting the time spent in each node of the query tree and in
+     * each collector per shard. Defaults to <tt>false</tt>.
+     */
+    public SearchRequestBuilder setProfile(boolean profile) {
+        sourceBuilder().profile(profile);
+        return this;
+    }
+
     /**
      * A comma separated list of routing values to control the shards the search will be executed on.
      */
@@ -489,6 +507,16 @@ public class SearchRequestBuilder extends ActionRequestBuilder<SearchRequest, Se
         return this;
     }
 
+    /**
+     * Should the total number of hits be exact. When set to <tt>false</tt>, searches that sort like the index
+     * sort may stop collecting sorted segments early, and the total hits are then only a lower bound. Defaults
+     * to <tt>true</tt>.
+     */
+    public SearchRequestBuilder setTrackTotalHits(boolean trackTotalHits) {
+        sourceBuilder().trackTotalHits(trackTotalHits);
+        return this;
+    }
+
     /**
      * Adds the fields to load and return as part of the search request. If none are specified,
      * the source of the document will be returned.
@@ -20,6 +20,7 @@
 package org.elasticsearch.action.search;
 
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.unit.TimeValue;
@@ -31,9 +32,11 @@ import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.search.suggest.Suggest;
 
 import java.io.IOException;
+import java.util.Map;
 
 import static org.elasticsearch.action.search.ShardSearchFailure.readShardSearchFailure;
 import static org.elasticsearch.search.internal.InternalSearchResponse.readInternalSearchResponse;
@@ -104,6 +107,15 @@ public class SearchResponse extends ActionResponse implements StatusToXContent {
         return internalResponse.suggest();
     }
 
+    /**
+     * The profile of the query phase of each shard, keyed by shard, or <tt>null</tt> if the request was not
+     * profiled.
+     */
+    @Nullable
+    public Map<String, ProfileShardResult> getProfileResults() {
+        return internalResponse.profileResults();
+    }
+
     /**
      * Has the search operation timed out.
      */
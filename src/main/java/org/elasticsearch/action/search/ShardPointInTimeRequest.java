@@ -0,0 +1,81 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.support.broadcast.BroadcastOperationRequest;
+import org.elasticsearch.action.support.broadcast.BroadcastShardOperationRequest;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.io.IOException;
+
+/**
+ * The shard level request to open or close a point in time.
+ */
+class ShardPointInTimeRequest extends BroadcastShardOperationRequest {
+
+    private String id;
+
+    // only set when opening
+    @Nullable
+    private TimeValue keepAlive;
+
+    ShardPointInTimeRequest() {
+    }
+
+    ShardPointInTimeRequest(ShardId shardId, BroadcastOperationRequest request, String id, @Nullable TimeValue keepAlive) {
+        super(shardId, request);
+        this.id = id;
+        this.keepAlive = keepAlive;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public TimeValue keepAlive() {
+        return keepAlive;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        id = in.readString();
+        if (in.readBoolean()) {
+            keepAlive = TimeValue.readTimeValue(in);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(id);
+        if (keepAlive == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            keepAlive.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ShardOperationFailedException;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.DefaultShardOperationFailedException;
+import org.elasticsearch.action.support.broadcast.BroadcastShardOperationFailedException;
+import org.elasticsearch.action.support.broadcast.TransportBroadcastOperationAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Closes a point in time on all the shard copies of the requested indices.
+ */
+public class TransportClosePointInTimeAction extends TransportBroadcastOperationAction<ClosePointInTimeRequest, ClosePointInTimeResponse, ShardPointInTimeRequest, ShardPointInTimeResponse> {
+
+    private final SearchService searchService;
+
+    @Inject
+    public TransportClosePointInTimeAction(Settings settings, ThreadPool threadPool, ClusterService clusterService,
+                                           TransportService transportService, SearchService searchService, ActionFilters actionFilters) {
+        super(settings, ClosePointInTimeAction.NAME, threadPool, clusterService, transportService, actionFilters);
+        this.searchService = searchService;
+    }
+
+    @Override
+    protected String executor() {
+        return ThreadPool.Names.SEARCH;
+    }
+
+    @Override
+    protected ClosePointInTimeRequest newRequest() {
+        return new ClosePointInTimeRequest();
+    }
+
+    @Override
+    protected ClosePointInTimeResponse newResponse(ClosePointInTimeRequest request, AtomicReferenceArray shardsResponses, ClusterState clusterState) {
+        int numFreed = 0;
+        int successfulShards = 0;
+        int failedShards = 0;
+        List<ShardOperationFailedException> shardFailures = null;
+        for (int i = 0; i < shardsResponses.length(); i++) {
+            Object shardResponse = shardsResponses.get(i);
+            if (shardResponse == null) {
+                // non active shard, ignore
+            } else if (shardResponse instanceof BroadcastShardOperationFailedException) {
+                failedShards++;
+                if (shardFailures == null) {
+                    shardFailures = newArrayList();
+                }
+                shardFailures.add(new DefaultShardOperationFailedException((BroadcastShardOperationFailedException) shardResponse));
+            } else {
+                successfulShards++;
+                if (((ShardPointInTimeResponse) shardResponse).freed()) {
+                    numFreed++;
+                }
+            }
+        }
+        return new ClosePointInTimeResponse(numFreed, shardsResponses.length(), successfulShards, failedShards, shardFailures);
+    }
+
+    @Override
+    protected ShardPointInTimeRequest newShardRequest() {
+        return new ShardPointInTimeRequest();
+    }
+
+    @Override
+    protected ShardPointInTimeRequest newShardRequest(int numShards, ShardRouting shard, ClosePointInTimeRequest request) {
+        return new ShardPointInTimeRequest(shard.shardId(), request, request.id(), null);
+    }
+
+    @Override
+    protected ShardPointInTimeResponse newShardResponse() {
+        return new ShardPointInTimeResponse();
+    }
+
+    @Override
+    protected ShardPointInTimeResponse shardOperation(ShardPointInTimeRequest request) throws ElasticsearchException {
+        return new ShardPointInTimeResponse(request.shardId(), searchService.freePointInTime(request.shardId(), request.id()));
+    }
+
+    /**
+     * The point in time is closed on *all* shard copies, including the ones that are relocating.
+     */
+    @Override
+    protected GroupShardsIterator shards(ClusterState clusterState, ClosePointInTimeRequest request, String[] concreteIndices) {
+        return clusterState.routingTable().allAssignedShardsGrouped(concreteIndices, true, true);
+    }
+
+    @Override
+    protected ClusterBlockException checkGlobalBlock(ClusterState state, ClosePointInTimeRequest request) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.READ);
+    }
+
+    @Override
+    protected ClusterBlockException checkRequestBlock(ClusterState state, ClosePointInTimeRequest request, String[] concreteIndices) {
+        return state.blocks().indicesBlockedException(ClusterBlockLevel.READ, concreteIndices);
+    }
+}
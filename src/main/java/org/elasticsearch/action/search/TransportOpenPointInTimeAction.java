@@ -0,0 +1,142 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ShardOperationFailedException;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.DefaultShardOperationFailedException;
+import org.elasticsearch.action.support.broadcast.BroadcastShardOperationFailedException;
+import org.elasticsearch.action.support.broadcast.TransportBroadcastOperationAction;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockException;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.search.PointInTime;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Opens a point in time on one copy of every shard of the requested indices, the one that searches that reference
+ * it go to first. Every copy refreshes on its own, so searches that go to different copies of the same shard would
+ * see different documents.
+ */
+public class TransportOpenPointInTimeAction extends TransportBroadcastOperationAction<OpenPointInTimeRequest, OpenPointInTimeResponse, ShardPointInTimeRequest, ShardPointInTimeResponse> {
+
+    private final SearchService searchService;
+
+    @Inject
+    public TransportOpenPointInTimeAction(Settings settings, ThreadPool threadPool, ClusterService clusterService,
+                                          TransportService transportService, SearchService searchService, ActionFilters actionFilters) {
+        super(settings, OpenPointInTimeAction.NAME, threadPool, clusterService, transportService, actionFilters);
+        this.searchService = searchService;
+    }
+
+    @Override
+    protected void doExecute(OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener) {
+        request.id = Strings.randomBase64UUID();
+        super.doExecute(request, listener);
+    }
+
+    @Override
+    protected String executor() {
+        return ThreadPool.Names.SEARCH;
+    }
+
+    @Override
+    protected OpenPointInTimeRequest newRequest() {
+        return new OpenPointInTimeRequest();
+    }
+
+    @Override
+    protected OpenPointInTimeResponse newResponse(OpenPointInTimeRequest request, AtomicReferenceArray shardsResponses, ClusterState clusterState) {
+        int successfulShards = 0;
+        int failedShards = 0;
+        List<ShardOperationFailedException> shardFailures = null;
+        for (int i = 0; i < shardsResponses.length(); i++) {
+            Object shardResponse = shardsResponses.get(i);
+            if (shardResponse == null) {
+                // non active shard, ignore
+            } else if (shardResponse instanceof BroadcastShardOperationFailedException) {
+                failedShards++;
+                if (shardFailures == null) {
+                    shardFailures = newArrayList();
+                }
+                shardFailures.add(new DefaultShardOperationFailedException((BroadcastShardOperationFailedException) shardResponse));
+            } else {
+                successfulShards++;
+            }
+        }
+        return new OpenPointInTimeResponse(request.id, shardsResponses.length(), successfulShards, failedShards, shardFailures);
+    }
+
+    @Override
+    protected ShardPointInTimeRequest newShardRequest() {
+        return new ShardPointInTimeRequest();
+    }
+
+    @Override
+    protected ShardPointInTimeRequest newShardRequest(int numShards, ShardRouting shard, OpenPointInTimeRequest request) {
+        return new ShardPointInTimeRequest(shard.shardId(), request, request.id, request.keepAlive());
+    }
+
+    @Override
+    protected ShardPointInTimeResponse newShardResponse() {
+        return new ShardPointInTimeResponse();
+    }
+
+    @Override
+    protected ShardPointInTimeResponse shardOperation(ShardPointInTimeRequest request) throws ElasticsearchException {
+        searchService.openPointInTime(request.shardId(), request.id(), request.keepAlive());
+        return new ShardPointInTimeResponse(request.shardId(), false);
+    }
+
+    /**
+     * The point in time is opened on the first copy of every shard that its {@link PointInTime#preference(String)}
+     * picks, or the next one if that fails, just like searches do.
+     */
+    @Override
+    protected GroupShardsIterator shards(ClusterState clusterState, OpenPointInTimeRequest request, String[] concreteIndices) {
+        return clusterService.operationRouting().searchShards(clusterState, request.indices(), concreteIndices, null, PointInTime.preference(request.id));
+    }
+
+    @Override
+    protected ClusterBlockException checkGlobalBlock(ClusterState state, OpenPointInTimeRequest request) {
+        return state.blocks().globalBlockedException(ClusterBlockLevel.READ);
+    }
+
+    @Override
+    protected ClusterBlockException checkRequestBlock(ClusterState state, OpenPointInTimeRequest request, String[] concreteIndices) {
+        return state.blocks().indicesBlockedException(ClusterBlockLevel.READ, concreteIndices);
+    }
+}
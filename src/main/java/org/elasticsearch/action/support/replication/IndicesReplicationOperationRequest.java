@@ -157,7 +157,7 @@ public abstract class IndicesReplicationOperationRequest<T extends IndicesReplic
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeByte(replicationType.id());
+        out.writeByte(replicationType.id(out.getVersion()));
         out.writeByte(consistencyLevel.id());
         timeout.writeTo(out);
         out.writeStringArrayNullable(indices);
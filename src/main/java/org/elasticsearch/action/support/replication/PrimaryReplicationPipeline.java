@@ -0,0 +1,184 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.support.replication;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.math.MathUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The primary side of a pipelined replication stream of a shard. Hands out a sequence of numbers per target node and
+ * bounds the number of operations that were acknowledged to the client before all their replicas acknowledged them.
+ * <p/>
+ * Sequence numbers are assigned while holding the locks returned by {@link #lock(Collection)}, in the same critical
+ * section as the primary operation, so that operations on the same document get numbers in the order the primary
+ * applied them. Only operations that write to the same documents exclude each other, the order of operations on
+ * different documents doesn't matter to the replicas. A number stays unresolved until
+ * its operation was acknowledged by the replica, or couldn't be sent to it. Replica requests carry the lowest number
+ * that is unresolved for their node, which lets the replica skip numbers that will never reach it rather than waiting
+ * for the gap timeout.
+ */
+final class PrimaryReplicationPipeline {
+
+    private final long id;
+    private final int maxOutstanding;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    // operations that don't tell the documents they write to lock the whole shard
+    private final ReentrantReadWriteLock shardLock = new ReentrantReadWriteLock();
+    private final ReentrantLock[] documentLocks;
+    // guarded by this
+    private final Map<String, NodeSequence> nodes = new HashMap<>();
+
+    PrimaryReplicationPipeline(long id, int maxOutstanding, int numDocumentLocks) {
+        this.id = id;
+        this.maxOutstanding = maxOutstanding;
+        this.documentLocks = new ReentrantLock[numDocumentLocks];
+        for (int i = 0; i < documentLocks.length; i++) {
+            documentLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The id of this pipeline, replicas sequence the operations of each pipeline separately.
+     */
+    long id() {
+        return id;
+    }
+
+    /**
+     * Locks the given documents, or the whole shard if they are <code>null</code>, for executing a primary operation
+     * and assigning its sequence numbers. Operations on other documents can run at the same time.
+     */
+    Releasable lock(@Nullable Collection<String> documents) {
+        if (documents == null) {
+            shardLock.writeLock().lock();
+            return new Releasable() {
+                @Override
+                public void close() throws ElasticsearchException {
+                    shardLock.writeLock().unlock();
+                }
+            };
+        }
+        // locks are taken in increasing order so that operations on several documents don't deadlock
+        final TreeSet<Integer> locks = new TreeSet<>();
+        for (String document : documents) {
+            locks.add(MathUtils.mod(DjbHashFunction.DJB_HASH(document), documentLocks.length));
+        }
+        shardLock.readLock().lock();
+        for (Integer lock : locks) {
+            documentLocks[lock].lock();
+        }
+        return new Releasable() {
+            @Override
+            public void close() throws ElasticsearchException {
+                for (Integer lock : locks.descendingSet()) {
+                    documentLocks[lock].unlock();
+                }
+                shardLock.readLock().unlock();
+            }
+        };
+    }
+
+    /**
+     * Assigns the next sequence number of each of the given nodes to an operation, the returned map is owned by
+     * the caller.
+     */
+    synchronized Map<String, Long> assign(Collection<String> nodeIds) {
+        assert shardLock.getReadHoldCount() > 0 || shardLock.isWriteLockedByCurrentThread() : "sequence numbers must be assigned in the order of the primary operations";
+        Map<String, Long> seqNos = new HashMap<>();
+        for (String nodeId : nodeIds) {
+            NodeSequence sequence = nodes.get(nodeId);
+            if (sequence == null) {
+                sequence = new NodeSequence();
+                nodes.put(nodeId, sequence);
+            }
+            final long seqNo = sequence.next++;
+            sequence.unresolved.add(seqNo);
+            seqNos.put(nodeId, seqNo);
+        }
+        return seqNos;
+    }
+
+    /**
+     * Returns the lowest sequence number of the given node that is not resolved yet, all lower numbers were either
+     * applied by the replica already or will never be sent to it.
+     */
+    synchronized long minUnresolved(String nodeId) {
+        NodeSequence sequence = nodes.get(nodeId);
+        if (sequence == null) {
+            return 0;
+        }
+        return sequence.unresolved.isEmpty() ? sequence.next : sequence.unresolved.first();
+    }
+
+    /**
+     * Marks a sequence number as resolved, once its operation was acknowledged or could not be sent.
+     */
+    synchronized void resolve(String nodeId, long seqNo) {
+        NodeSequence sequence = nodes.get(nodeId);
+        if (sequence != null) {
+            sequence.unresolved.remove(seqNo);
+        }
+    }
+
+    /**
+     * Tries to reserve a slot for an operation that doesn't wait for its replicas, returns <tt>false</tt> if the
+     * pipeline is full.
+     */
+    boolean tryAcquire() {
+        while (true) {
+            final int current = outstanding.get();
+            if (current >= maxOutstanding) {
+                return false;
+            }
+            if (outstanding.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot reserved with {@link #tryAcquire()} once all replicas acknowledged the operation.
+     */
+    void release() {
+        int current = outstanding.decrementAndGet();
+        assert current >= 0 : "released more slots than were acquired";
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+
+    private static final class NodeSequence {
+        long next;
+        final TreeSet<Long> unresolved = new TreeSet<>();
+    }
+}
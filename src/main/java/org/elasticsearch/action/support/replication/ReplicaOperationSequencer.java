@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.support.replication;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Applies the replica operations of a pipelined replication stream in the order of their sequence numbers. Operations
+ * that arrive ahead of their turn are held back, without blocking the thread that received them, and are run by whichever
+ * thread fills the gap in front of them. If a gap is not filled within the gap timeout (the operation was lost on its way,
+ * for example because the connection to the primary broke) it is skipped, which is safe as replica operations are
+ * versioned. Gaps that the primary knows about, because it failed to send an operation, are skipped as soon as a later
+ * operation tells the replica about them.
+ */
+final class ReplicaOperationSequencer {
+
+    private final ThreadPool threadPool;
+    private final TimeValue gapTimeout;
+
+    // all guarded by this
+    private final TreeMap<Long, Runnable> pending = new TreeMap<>();
+    private long nextSeqNo = 0;
+    private boolean draining = false;
+    private boolean gapCheckScheduled = false;
+
+    ReplicaOperationSequencer(ThreadPool threadPool, TimeValue gapTimeout) {
+        this.threadPool = threadPool;
+        this.gapTimeout = gapTimeout;
+    }
+
+    /**
+     * Runs the given operation once all operations with lower sequence numbers ran, or were skipped. All operations
+     * with a sequence number lower than <code>minSeqNo</code> were either run already or will never arrive according
+     * to the primary, so they are not waited for.
+     */
+    void submit(long seqNo, long minSeqNo, Runnable operation) {
+        assert minSeqNo <= seqNo : "min seq no [" + minSeqNo + "] is above the seq no [" + seqNo + "]";
+        final List<Runnable> skipped;
+        final boolean late;
+        final boolean drain;
+        synchronized (this) {
+            skipped = skipTo(minSeqNo);
+            late = seqNo < nextSeqNo;
+            if (late == false) {
+                pending.put(seqNo, operation);
+            }
+            drain = late == false && draining == false;
+            if (drain) {
+                draining = true;
+            }
+        }
+        // operations below the min seq no which arrived although the primary gave up on them
+        for (Runnable runnable : skipped) {
+            runnable.run();
+        }
+        if (late) {
+            // the gap in front of this operation was skipped already
+            operation.run();
+        } else if (drain) {
+            drain();
+        }
+    }
+
+    // must be called while holding the lock
+    private List<Runnable> skipTo(long minSeqNo) {
+        if (minSeqNo <= nextSeqNo) {
+            return Collections.emptyList();
+        }
+        nextSeqNo = minSeqNo;
+        SortedMap<Long, Runnable> below = pending.headMap(minSeqNo);
+        if (below.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Runnable> skipped = new ArrayList<>(below.values());
+        below.clear();
+        return skipped;
+    }
+
+    /**
+     * @return the sequence number of the next operation to run
+     */
+    synchronized long nextSeqNo() {
+        return nextSeqNo;
+    }
+
+    /**
+     * @return the number of operations waiting for their turn
+     */
+    synchronized int pending() {
+        return pending.size();
+    }
+
+    private void drain() {
+        while (true) {
+            final Runnable operation;
+            synchronized (this) {
+                operation = pending.remove(nextSeqNo);
+                if (operation == null) {
+                    draining = false;
+                    if (pending.isEmpty() == false) {
+                        scheduleGapCheck();
+                    }
+                    return;
+                }
+                nextSeqNo++;
+            }
+            operation.run();
+        }
+    }
+
+    // must be called while holding the lock
+    private void scheduleGapCheck() {
+        if (gapCheckScheduled) {
+            return;
+        }
+        gapCheckScheduled = true;
+        final long waitingFor = nextSeqNo;
+        threadPool.schedule(gapTimeout, ThreadPool.Names.GENERIC, new Runnable() {
+            @Override
+            public void run() {
+                skipGap(waitingFor);
+            }
+        });
+    }
+
+    private void skipGap(long waitingFor) {
+        synchronized (this) {
+            gapCheckScheduled = false;
+            if (draining || pending.isEmpty()) {
+                return;
+            }
+            if (nextSeqNo != waitingFor) {
+                // there was progress since the check was scheduled, give the new gap its own timeout
+                scheduleGapCheck();
+                return;
+            }
+            nextSeqNo = pending.firstKey();
+            draining = true;
+        }
+        drain();
+    }
+}
@@ -20,6 +20,7 @@
 package org.elasticsearch.action.support.replication;
 
 import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.Version;
 
 /**
  * The type of replication to perform.
@@ -36,7 +37,13 @@ public enum ReplicationType {
     /**
      * Use the default replication type configured for this node.
      */
-    DEFAULT((byte) 2);
+    DEFAULT((byte) 2),
+    /**
+     * Pipelined replication. Like async replication the request returns once the primary performed the operation,
+     * but replica operations are sequenced per replica and applied in order, and the number of operations a primary
+     * keeps outstanding per shard is bounded, requests beyond the bound wait for the replicas like sync replication.
+     */
+    PIPELINED((byte) 3);
 
     private byte id;
 
@@ -51,6 +58,17 @@ public enum ReplicationType {
         return id;
     }
 
+    /**
+     * The internal representation of the operation type to send to a node of the given version. Nodes before 2.0
+     * don't know about pipelined replication and get async replication instead.
+     */
+    public byte id(Version version) {
+        if (this == PIPELINED && version.before(Version.V_2_0_0)) {
+            return ASYNC.id;
+        }
+        return id;
+    }
+
     /**
      * Constructs the operation type from its internal representation.
      */
@@ -61,6 +79,8 @@ public enum ReplicationType {
             return ASYNC;
         } else if (id == 2) {
             return DEFAULT;
+        } else if (id == 3) {
+            return PIPELINED;
         } else {
             throw new ElasticsearchIllegalArgumentException("No type match for [" + id + "]");
         }
@@ -76,7 +96,9 @@ public enum ReplicationType {
             return SYNC;
         } else if ("default".equals(type)) {
             return DEFAULT;
+        } else if ("pipelined".equals(type)) {
+            return PIPELINED;
         }
-        throw new ElasticsearchIllegalArgumentException("No replication type match for [" + type + "], should be either `async`, or `sync`");
+        throw new ElasticsearchIllegalArgumentException("No replication type match for [" + type + "], should be either `async`, `sync` or `pipelined`");
     }
 }
@@ -210,7 +210,7 @@ public abstract class ShardReplicationOperationRequest<T extends ShardReplicatio
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeByte(replicationType.id());
+        out.writeByte(replicationType.id(out.getVersion()));
         out.writeByte(consistencyLevel.id());
         timeout.writeTo(out);
         out.writeSharedString(index);
@@ -19,6 +19,9 @@
 
 package org.elasticsearch.action.support.replication;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.elasticsearch.*;
 import org.elasticsearch.action.*;
 import org.elasticsearch.action.support.ActionFilters;
@@ -34,11 +37,14 @@ import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.*;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.engine.DocumentAlreadyExistsException;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.service.IndexService;
@@ -51,6 +57,12 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.*;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -66,6 +78,12 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
     protected final WriteConsistencyLevel defaultWriteConsistencyLevel;
     protected final TransportRequestOptions transportOptions;
 
+    final int pipelineMaxOutstanding;
+    final int pipelineDocumentLocks;
+    final TimeValue pipelineGapTimeout;
+    final LoadingCache<ShardId, PrimaryReplicationPipeline> primaryPipelines;
+    final LoadingCache<Long, ReplicaOperationSequencer> replicaSequencers;
+
     final String transportReplicaAction;
     final String executor;
     final boolean checkWriteConsistency;
@@ -90,6 +108,30 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
 
         this.defaultReplicationType = ReplicationType.fromString(settings.get("action.replication_type", "sync"));
         this.defaultWriteConsistencyLevel = WriteConsistencyLevel.fromString(settings.get("action.write_consistency", "quorum"));
+
+        this.pipelineMaxOutstanding = settings.getAsInt("action.replication.pipelined.max_outstanding", 16);
+        this.pipelineGapTimeout = settings.getAsTime("action.replication.pipelined.gap_timeout", TimeValue.timeValueSeconds(5));
+        // like the engine's per document locks, enough of them so that writes to different documents rarely share one
+        this.pipelineDocumentLocks = EsExecutors.boundedNumberOfProcessors(settings) * 50;
+        // pipelines of shards that are no longer written to, or no longer primaries here, are let go after a while. Replicas
+        // keep their side twice as long so that a pipeline that is still in use on the primary is never forgotten on a replica
+        TimeValue pipelineKeepAlive = settings.getAsTime("action.replication.pipelined.keep_alive", TimeValue.timeValueMinutes(5));
+        this.primaryPipelines = CacheBuilder.newBuilder()
+                .expireAfterAccess(pipelineKeepAlive.millis(), TimeUnit.MILLISECONDS)
+                .build(new CacheLoader<ShardId, PrimaryReplicationPipeline>() {
+                    @Override
+                    public PrimaryReplicationPipeline load(ShardId shardId) {
+                        return new PrimaryReplicationPipeline(ThreadLocalRandom.current().nextLong(), pipelineMaxOutstanding, pipelineDocumentLocks);
+                    }
+                });
+        this.replicaSequencers = CacheBuilder.newBuilder()
+                .expireAfterAccess(pipelineKeepAlive.millis() * 2, TimeUnit.MILLISECONDS)
+                .build(new CacheLoader<Long, ReplicaOperationSequencer>() {
+                    @Override
+                    public ReplicaOperationSequencer load(Long pipelineId) {
+                        return new ReplicaOperationSequencer(TransportShardReplicationOperationAction.this.threadPool, pipelineGapTimeout);
+                    }
+                });
     }
 
     @Override
@@ -150,6 +192,21 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         return false;
     }
 
+    /**
+     * The documents a pipelined primary operation writes to, as <tt>type#id</tt>. Pipelined operations on different
+     * documents run concurrently on the primary, while operations on the same document run one after the other so that
+     * replicas apply them in the same order. Defaults to <tt>null</tt>, which runs the operation alone on its shard,
+     * as needed by operations that don't know the documents they write to up front.
+     */
+    @Nullable
+    protected Collection<String> pipelinedDocuments(Request request) {
+        return null;
+    }
+
+    protected static String pipelinedDocument(DocumentRequest<?> request) {
+        return request.type() + "#" + request.id();
+    }
+
     protected boolean retryPrimaryException(Throwable e) {
         return TransportActions.isShardNotAvailableException(e);
     }
@@ -242,6 +299,31 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
 
         @Override
         public void messageReceived(final ReplicaOperationRequest request, final TransportChannel channel) throws Exception {
+            if (request.seqNo >= 0) {
+                // pipelined replication, operations are applied in the order the primary sent them
+                replicaSequencers.getUnchecked(request.pipelineId).submit(request.seqNo, request.minSeqNo, new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            shardOperationOnReplica(request);
+                        } catch (Throwable t) {
+                            failReplicaIfNeeded(request.shardId.getIndex(), request.shardId.id(), t);
+                            try {
+                                channel.sendResponse(t);
+                            } catch (Throwable e) {
+                                logger.warn("Failed to send response for " + transportReplicaAction, e);
+                            }
+                            return;
+                        }
+                        try {
+                            channel.sendResponse(TransportResponse.Empty.INSTANCE);
+                        } catch (Throwable e) {
+                            logger.warn("Failed to send response for " + transportReplicaAction, e);
+                        }
+                    }
+                });
+                return;
+            }
             try {
                 shardOperationOnReplica(request);
             } catch (Throwable t) {
@@ -266,6 +348,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
 
         public ShardId shardId;
         public ReplicaRequest request;
+        // the position of this operation in a pipelined replication stream, -1 if not pipelined, and the lowest
+        // position the replica has to wait for
+        long pipelineId;
+        long seqNo = -1;
+        long minSeqNo;
 
         ReplicaOperationRequest() {
         }
@@ -302,6 +389,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 //older nodes will send the concrete index as part of the request
                 shardId = new ShardId(request.index(), shard);
             }
+            if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+                pipelineId = in.readLong();
+                seqNo = in.readLong();
+                minSeqNo = in.readLong();
+            }
         }
 
         @Override
@@ -315,6 +407,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 request.index(shardId.getIndex());
             }
             request.writeTo(out);
+            if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+                out.writeLong(pipelineId);
+                out.writeLong(seqNo);
+                out.writeLong(minSeqNo);
+            }
         }
     }
 
@@ -325,6 +422,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
         private final AtomicBoolean primaryOperationStarted = new AtomicBoolean();
         private final ReplicationType replicationType;
         private volatile ClusterStateObserver observer;
+        // set for pipelined replication, and whether the listener was notified before the replicas acknowledged
+        private volatile PrimaryReplicationPipeline pipeline;
+        private volatile boolean pipelineSlotAcquired;
+        // the sequence numbers of the replica nodes that the operation was not sent to yet
+        private volatile Map<String, Long> replicaSeqNos;
 
         AsyncShardOperationAction(Request request, ActionListener<Response> listener) {
             this.internalRequest = new InternalRequest(request);
@@ -508,8 +610,24 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 return;
             }
             try {
-                PrimaryResponse<Response, ReplicaRequest> response = shardOperationOnPrimary(clusterState, new PrimaryOperationRequest(primaryShardId, internalRequest.concreteIndex(), internalRequest.request()));
-                performReplicas(response);
+                PrimaryOperationRequest primaryRequest = new PrimaryOperationRequest(primaryShardId, internalRequest.concreteIndex(), internalRequest.request());
+                PrimaryResponse<Response, ReplicaRequest> response;
+                if (replicationType == ReplicationType.PIPELINED) {
+                    pipeline = primaryPipelines.getUnchecked(shardIt.shardId());
+                    // replicas apply the operations in the order of their sequence numbers, which must hence be the
+                    // order the primary applied the operations on the same documents in
+                    try (Releasable lock = pipeline.lock(pipelinedDocuments(internalRequest.request()))) {
+                        response = shardOperationOnPrimary(clusterState, primaryRequest);
+                        replicaSeqNos = pipeline.assign(remoteReplicaNodeIds(clusterState));
+                    }
+                } else {
+                    response = shardOperationOnPrimary(clusterState, primaryRequest);
+                }
+                try {
+                    performReplicas(response);
+                } finally {
+                    resolveUnsentSeqNos();
+                }
             } catch (Throwable e) {
                 internalRequest.request.setCanHaveDuplicates();
                 // shard has not been allocated yet, retry it here
@@ -604,6 +722,13 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                 listener.onResponse(response.response());
                 // now, trick the counter so it won't decrease to 0 and notify the listeners
                 replicaCounter = Integer.MIN_VALUE;
+            } else if (replicationType == ReplicationType.PIPELINED) {
+                if (pipeline.tryAcquire()) {
+                    pipelineSlotAcquired = true;
+                    postPrimaryOperation(internalRequest, response);
+                    listener.onResponse(response.response());
+                }
+                // otherwise the pipeline is full, wait for the replicas like sync replication does
             }
 
             // we add one to the replica count to do the postPrimaryOperation
@@ -646,10 +771,60 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
             }
 
             // now do the postPrimary operation, and check if the listener needs to be invoked
-            postPrimaryOperation(internalRequest, response);
+            if (pipelineSlotAcquired == false) {
+                postPrimaryOperation(internalRequest, response);
+            }
             // we also invoke here in case replicas finish before postPrimaryAction does
+            onReplicaDone(counter, response);
+        }
+
+        /**
+         * The remote nodes that hold a replica of the shard, or the target of a relocation, in the given state.
+         */
+        private Set<String> remoteReplicaNodeIds(ClusterState clusterState) {
+            Set<String> nodeIds = new HashSet<>();
+            String localNodeId = clusterState.nodes().localNodeId();
+            shardIt.reset();
+            ShardRouting shard;
+            while ((shard = shardIt.nextOrNull()) != null) {
+                if (shard.unassigned()) {
+                    continue;
+                }
+                if (shard.primary() == false) {
+                    nodeIds.add(shard.currentNodeId());
+                }
+                if (shard.relocating()) {
+                    nodeIds.add(shard.relocatingNodeId());
+                }
+            }
+            shardIt.reset();
+            nodeIds.remove(localNodeId);
+            return nodeIds;
+        }
+
+        /**
+         * Resolves the sequence numbers of the nodes the operation was not sent to, so that their replicas don't wait
+         * for it.
+         */
+        private void resolveUnsentSeqNos() {
+            Map<String, Long> seqNos = replicaSeqNos;
+            if (seqNos == null) {
+                return;
+            }
+            for (Map.Entry<String, Long> entry : seqNos.entrySet()) {
+                pipeline.resolve(entry.getKey(), entry.getValue());
+            }
+            seqNos.clear();
+        }
+
+        void onReplicaDone(AtomicInteger counter, PrimaryResponse<Response, ReplicaRequest> response) {
             if (counter.decrementAndGet() == 0) {
-                listener.onResponse(response.response());
+                if (pipelineSlotAcquired) {
+                    // the listener was notified already, make room in the pipeline for the next operation
+                    pipeline.release();
+                } else {
+                    listener.onResponse(response.response());
+                }
             }
         }
 
@@ -657,15 +832,21 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
             // if we don't have that node, it means that it might have failed and will be created again, in
             // this case, we don't have to do the operation, and just let it failover
             if (!observer.observedState().nodes().nodeExists(nodeId)) {
-                if (counter.decrementAndGet() == 0) {
-                    listener.onResponse(response.response());
-                }
+                onReplicaDone(counter, response);
                 return;
             }
 
             final ReplicaOperationRequest shardRequest = new ReplicaOperationRequest(shardIt.shardId(), response.replicaRequest());
             if (!nodeId.equals(observer.observedState().nodes().localNodeId())) {
                 final DiscoveryNode node = observer.observedState().nodes().get(nodeId);
+                final Long seqNo = pipeline == null ? null : replicaSeqNos.remove(nodeId);
+                if (seqNo != null) {
+                    shardRequest.pipelineId = pipeline.id();
+                    shardRequest.seqNo = seqNo;
+                    shardRequest.minSeqNo = pipeline.minUnresolved(nodeId);
+                }
+                // a node that had no sequence number assigned, because it became a target after the primary operation,
+                // gets the operation without one, which it applies right away like with async replication
                 transportService.sendRequest(node, transportReplicaAction, shardRequest, transportOptions, new EmptyTransportResponseHandler(ThreadPool.Names.SAME) {
                     @Override
                     public void handleResponse(TransportResponse.Empty vResponse) {
@@ -684,9 +865,11 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                     }
 
                     private void finishIfPossible() {
-                        if (counter.decrementAndGet() == 0) {
-                            listener.onResponse(response.response());
+                        if (seqNo != null) {
+                            // acknowledged, or will never be, either way later operations don't have to wait for it
+                            pipeline.resolve(node.id(), seqNo);
                         }
+                        onReplicaDone(counter, response);
                     }
                 });
             } else {
@@ -701,9 +884,7 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                                 } catch (Throwable e) {
                                     failReplicaIfNeeded(shard.index(), shard.id(), e);
                                 }
-                                if (counter.decrementAndGet() == 0) {
-                                    listener.onResponse(response.response());
-                                }
+                                onReplicaDone(counter, response);
                             }
 
                             // we must never reject on because of thread pool capacity on replicas
@@ -720,9 +901,7 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                         failReplicaIfNeeded(shard.index(), shard.id(), e);
                         // we want to decrement the counter here, in teh failure handling, cause we got rejected
                         // from executing on the thread pool
-                        if (counter.decrementAndGet() == 0) {
-                            listener.onResponse(response.response());
-                        }
+                        onReplicaDone(counter, response);
                     }
                 } else {
                     try {
@@ -730,9 +909,7 @@ public abstract class TransportShardReplicationOperationAction<Request extends S
                     } catch (Throwable e) {
                         failReplicaIfNeeded(shard.index(), shard.id(), e);
                     }
-                    if (counter.decrementAndGet() == 0) {
-                        listener.onResponse(response.response());
-                    }
+                    onReplicaDone(counter, response);
                 }
             }
         }
@@ -685,7 +685,7 @@ public class UpdateRequest extends InstanceShardOperationRequest<UpdateRequest>
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         super.writeTo(out);
-        out.writeByte(replicationType.id());
+        out.writeByte(replicationType.id(out.getVersion()));
         out.writeByte(consistencyLevel.id());
         out.writeSharedString(type);
         out.writeString(id);
@@ -23,13 +23,18 @@ import com.google.common.base.Strings;
 import org.elasticsearch.ElasticsearchIllegalArgumentException;
 import org.elasticsearch.common.component.AbstractComponent;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.recycler.AbstractRecyclerC;
+import org.elasticsearch.common.recycler.MagazineRecycler;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DirectByteBuffers;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -40,15 +45,40 @@ public class PageCacheRecycler extends AbstractComponent {
 
     public static final String TYPE = "page.type";
     public static final String LIMIT_HEAP = "page.limit.heap";
+    public static final String LIMIT_OFF_HEAP = "page.limit.off_heap";
     public static final String LIMIT_PER_THREAD = "page.limit.per_thread";
     public static final String WEIGHT = "page.weight";
 
+    /**
+     * Creates the pages of {@link BigArrays#PAGE_SIZE_IN_BYTES} bytes that are stored outside of the heap, and frees
+     * them as soon as they are not kept for reuse: when the recycler is full, disabled or closed.
+     */
+    public static final Recycler.C<ByteBuffer> DIRECT_PAGE = new AbstractRecyclerC<ByteBuffer>() {
+        @Override
+        public ByteBuffer newInstance(int sizing) {
+            return ByteBuffer.allocateDirect(BigArrays.PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+        }
+        @Override
+        public void recycle(ByteBuffer value) {
+            // nothing to do
+        }
+        @Override
+        public void destroy(ByteBuffer value) {
+            // don't wait for the garbage collector, which may not run before direct memory runs out
+            DirectByteBuffers.free(value);
+        }
+    };
+
     private final Recycler<byte[]> bytePage;
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<float[]> floatPage;
     private final Recycler<double[]> doublePage;
     private final Recycler<Object[]> objectPage;
+    private final Recycler<ByteBuffer> directPage;
+
+    private final CounterMetric hits = new CounterMetric();
+    private final CounterMetric misses = new CounterMetric();
 
     public void close() {
         bytePage.close();
@@ -57,6 +87,27 @@ public class PageCacheRecycler extends AbstractComponent {
         floatPage.close();
         doublePage.close();
         objectPage.close();
+        directPage.close();
+    }
+
+    public PageCacheRecyclerStats stats() {
+        long contended = 0;
+        for (Recycler<?> recycler : Arrays.<Recycler<?>>asList(bytePage, intPage, longPage, floatPage, doublePage, objectPage, directPage)) {
+            if (recycler instanceof MagazineRecycler) {
+                contended += ((MagazineRecycler<?>) recycler).contended();
+            }
+        }
+        return new PageCacheRecyclerStats(hits.count(), misses.count(), contended);
+    }
+
+    private <T> Recycler.V<T> obtain(Recycler<T> recycler) {
+        final Recycler.V<T> v = recycler.obtain();
+        if (v.isRecycled()) {
+            hits.inc();
+        } else {
+            misses.inc();
+        }
+        return v;
     }
 
     private static int maximumSearchThreadPoolSize(ThreadPool threadPool, Settings settings) {
@@ -171,10 +222,13 @@ public class PageCacheRecycler extends AbstractComponent {
                 Arrays.fill(value, null); // we need to remove the strong refs on the objects stored in the array
             }
         });
+        // direct pages are only used by big arrays that are stored off-heap, so they have a limit of their own
+        final long offHeapLimit = componentSettings.getAsMemory(LIMIT_OFF_HEAP, "10%").bytes();
+        directPage = build(type, (int) (offHeapLimit / BigArrays.PAGE_SIZE_IN_BYTES), searchThreadPoolSize, availableProcessors, DIRECT_PAGE);
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
-        final Recycler.V<byte[]> v = bytePage.obtain();
+        final Recycler.V<byte[]> v = obtain(bytePage);
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), (byte) 0);
         }
@@ -182,7 +236,7 @@ public class PageCacheRecycler extends AbstractComponent {
     }
 
     public Recycler.V<int[]> intPage(boolean clear) {
-        final Recycler.V<int[]> v = intPage.obtain();
+        final Recycler.V<int[]> v = obtain(intPage);
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0);
         }
@@ -190,7 +244,7 @@ public class PageCacheRecycler extends AbstractComponent {
     }
 
     public Recycler.V<long[]> longPage(boolean clear) {
-        final Recycler.V<long[]> v = longPage.obtain();
+        final Recycler.V<long[]> v = obtain(longPage);
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0L);
         }
@@ -198,7 +252,7 @@ public class PageCacheRecycler extends AbstractComponent {
     }
 
     public Recycler.V<float[]> floatPage(boolean clear) {
-        final Recycler.V<float[]> v = floatPage.obtain();
+        final Recycler.V<float[]> v = obtain(floatPage);
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0f);
         }
@@ -206,7 +260,7 @@ public class PageCacheRecycler extends AbstractComponent {
     }
 
     public Recycler.V<double[]> doublePage(boolean clear) {
-        final Recycler.V<double[]> v = doublePage.obtain();
+        final Recycler.V<double[]> v = obtain(doublePage);
         if (v.isRecycled() && clear) {
             Arrays.fill(v.v(), 0d);
         }
@@ -215,7 +269,22 @@ public class PageCacheRecycler extends AbstractComponent {
 
     public Recycler.V<Object[]> objectPage() {
         // object pages are cleared on release anyway
-        return objectPage.obtain();
+        return obtain(objectPage);
+    }
+
+    /**
+     * Returns a page of {@link BigArrays#PAGE_SIZE_IN_BYTES} bytes that is allocated outside of the heap, in native
+     * byte order.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        final Recycler.V<ByteBuffer> v = obtain(directPage);
+        if (v.isRecycled() && clear) {
+            final ByteBuffer page = v.v();
+            for (int i = 0; i < BigArrays.PAGE_SIZE_IN_BYTES; i += 8) {
+                page.putLong(i, 0L);
+            }
+        }
+        return v;
     }
 
     private static <T> Recycler<T> build(Type type, int limit, int estimatedThreadPoolSize, int availableProcessors, Recycler.C<T> c) {
@@ -247,6 +316,14 @@ public class PageCacheRecycler extends AbstractComponent {
                 return concurrent(dequeFactory(c, limit / availableProcessors), availableProcessors);
             }
         },
+        MAGAZINE {
+            @Override
+            <T> Recycler<T> build(Recycler.C<T> c, int limit, int estimatedThreadPoolSize, int availableProcessors) {
+                // per-thread magazines may hold up to half of the limit if all threads of the search thread pool use them
+                final int magazineSize = Math.max(1, Math.min(64, limit / (2 * estimatedThreadPoolSize)));
+                return magazine(c, limit, magazineSize, availableProcessors);
+            }
+        },
         NONE {
             @Override
             <T> Recycler<T> build(Recycler.C<T> c, int limit, int estimatedThreadPoolSize, int availableProcessors) {
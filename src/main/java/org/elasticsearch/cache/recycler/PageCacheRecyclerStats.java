@@ -0,0 +1,108 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cache.recycler;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+
+/**
+ * Statistics about the pages obtained from the {@link PageCacheRecycler}.
+ */
+public class PageCacheRecyclerStats implements Streamable, ToXContent {
+
+    private long hits;
+    private long misses;
+    private long contended;
+
+    PageCacheRecyclerStats() {
+
+    }
+
+    public PageCacheRecyclerStats(long hits, long misses, long contended) {
+        this.hits = hits;
+        this.misses = misses;
+        this.contended = contended;
+    }
+
+    /**
+     * @return the number of pages that were recycled
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of pages that had to be allocated
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return the number of times a thread had to wait for another one to access a shared cache of pages, only
+     *         tracked by the <code>magazine</code> recycler type
+     */
+    public long getContended() {
+        return this.contended;
+    }
+
+    public static PageCacheRecyclerStats readPageCacheRecyclerStats(StreamInput in) throws IOException {
+        PageCacheRecyclerStats stats = new PageCacheRecyclerStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        hits = in.readVLong();
+        misses = in.readVLong();
+        contended = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(hits);
+        out.writeVLong(misses);
+        out.writeVLong(contended);
+    }
+
+    static final class Fields {
+        static final XContentBuilderString PAGE_RECYCLER = new XContentBuilderString("page_recycler");
+        static final XContentBuilderString HITS = new XContentBuilderString("hits");
+        static final XContentBuilderString MISSES = new XContentBuilderString("misses");
+        static final XContentBuilderString CONTENDED = new XContentBuilderString("contended");
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.PAGE_RECYCLER);
+        builder.field(Fields.HITS, hits);
+        builder.field(Fields.MISSES, misses);
+        builder.field(Fields.CONTENDED, contended);
+        builder.endObject();
+        return builder;
+    }
+}
@@ -683,6 +683,36 @@ public interface Client extends ElasticsearchClient<Client>, Releasable {
      */
     void clearScroll(ClearScrollRequest request, ActionListener<ClearScrollResponse> listener);
 
+    /**
+     * Opens a point in time view of the given indices, that search requests can reference.
+     */
+    OpenPointInTimeRequestBuilder prepareOpenPointInTime(String... indices);
+
+    /**
+     * Opens a point in time view of the indices of the request, that search requests can reference.
+     */
+    ActionFuture<OpenPointInTimeResponse> openPointInTime(OpenPointInTimeRequest request);
+
+    /**
+     * Opens a point in time view of the indices of the request, that search requests can reference.
+     */
+    void openPointInTime(OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener);
+
+    /**
+     * Closes a point in time, releasing the readers it keeps open.
+     */
+    ClosePointInTimeRequestBuilder prepareClosePointInTime(String... indices);
+
+    /**
+     * Closes a point in time, releasing the readers it keeps open.
+     */
+    ActionFuture<ClosePointInTimeResponse> closePointInTime(ClosePointInTimeRequest request);
+
+    /**
+     * Closes a point in time, releasing the readers it keeps open.
+     */
+    void closePointInTime(ClosePointInTimeRequest request, ActionListener<ClosePointInTimeResponse> listener);
+
     /**
      * Runs a benchmark on the server
      */
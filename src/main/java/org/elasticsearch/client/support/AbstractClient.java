@@ -549,6 +549,36 @@ public abstract class AbstractClient implements Client {
         return new ClearScrollRequestBuilder(this);
     }
 
+    @Override
+    public OpenPointInTimeRequestBuilder prepareOpenPointInTime(String... indices) {
+        return new OpenPointInTimeRequestBuilder(this).setIndices(indices);
+    }
+
+    @Override
+    public ActionFuture<OpenPointInTimeResponse> openPointInTime(OpenPointInTimeRequest request) {
+        return execute(OpenPointInTimeAction.INSTANCE, request);
+    }
+
+    @Override
+    public void openPointInTime(OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener) {
+        execute(OpenPointInTimeAction.INSTANCE, request, listener);
+    }
+
+    @Override
+    public ClosePointInTimeRequestBuilder prepareClosePointInTime(String... indices) {
+        return new ClosePointInTimeRequestBuilder(this).setIndices(indices);
+    }
+
+    @Override
+    public ActionFuture<ClosePointInTimeResponse> closePointInTime(ClosePointInTimeRequest request) {
+        return execute(ClosePointInTimeAction.INSTANCE, request);
+    }
+
+    @Override
+    public void closePointInTime(ClosePointInTimeRequest request, ActionListener<ClosePointInTimeResponse> listener) {
+        execute(ClosePointInTimeAction.INSTANCE, request, listener);
+    }
+
     @Override
     public void bench(BenchmarkRequest request, ActionListener<BenchmarkResponse> listener) {
         execute(BenchmarkAction.INSTANCE, request, listener);
@@ -0,0 +1,37 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+/**
+ * A {@link ClusterStateUpdateTask} that can be executed together with other pending tasks. When the cluster service
+ * gets to such a task it takes all the pending tasks that declare the same {@link ClusterStateBatchExecutor}, applies
+ * them to the cluster state in one go and publishes the resulting cluster state once.
+ * <p/>
+ * Cluster service implementations that don't batch just call {@link ClusterStateUpdateTask#execute(ClusterState)}, so
+ * batched tasks must be able to execute on their own as well, see {@link ClusterStateBatchExecutor#execute(ClusterState, ClusterStateUpdateTask)}.
+ */
+public interface BatchedClusterStateUpdateTask {
+
+    /**
+     * The executor of the batches this task is part of. Tasks are batched with the pending tasks that return the same
+     * executor instance, so it also serves as the batching key.
+     */
+    ClusterStateBatchExecutor batchExecutor();
+}
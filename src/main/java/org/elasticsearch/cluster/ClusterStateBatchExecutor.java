@@ -0,0 +1,70 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+import com.google.common.collect.ImmutableList;
+import org.elasticsearch.ExceptionsHelper;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a batch of {@link BatchedClusterStateUpdateTask}s to a cluster state. The default implementation applies the
+ * tasks one after the other by calling their {@link ClusterStateUpdateTask#execute(ClusterState)}, subclasses can
+ * override {@link #execute(ClusterState, List, Map)} to apply all the tasks of a batch at once, for example to reroute
+ * only once for a whole batch of shard events.
+ */
+public class ClusterStateBatchExecutor<T extends ClusterStateUpdateTask> {
+
+    /**
+     * Applies the given tasks to the given state and returns the resulting state, or the <b>same instance</b> if nothing
+     * changed. Tasks that fail must not contribute to the resulting state, they are put into the given failures map
+     * and notified by the cluster service, all the other tasks are considered to be successfully applied.
+     */
+    public ClusterState execute(ClusterState currentState, List<T> tasks, Map<T, Throwable> failures) throws Exception {
+        ClusterState state = currentState;
+        for (T task : tasks) {
+            try {
+                state = task.execute(state);
+            } catch (Throwable t) {
+                failures.put(task, t);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Applies a single task, tasks whose executor overrides {@link #execute(ClusterState, List, Map)} can implement
+     * {@link ClusterStateUpdateTask#execute(ClusterState)} with it.
+     */
+    public final ClusterState execute(ClusterState currentState, T task) throws Exception {
+        Map<T, Throwable> failures = new HashMap<>(1);
+        ClusterState newState = execute(currentState, ImmutableList.of(task), failures);
+        Throwable failure = failures.get(task);
+        if (failure != null) {
+            if (failure instanceof Exception) {
+                throw (Exception) failure;
+            }
+            throw ExceptionsHelper.convertToRuntime(failure);
+        }
+        return newState;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.cluster;
+
+/**
+ * An extension interface to {@link ClusterStateUpdateTask} for tasks that further updates get merged into
+ * while they are pending, instead of submitting a task of their own. The number of merged updates is shown
+ * with the task in the pending tasks.
+ */
+public interface CoalescingClusterStateUpdateTask {
+
+    /**
+     * @return the number of updates this task stands for, including the one it was submitted for
+     */
+    int coalescedUpdates();
+}
@@ -26,14 +26,18 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRunnable;
 import org.elasticsearch.action.admin.indices.alias.Alias;
 import org.elasticsearch.action.admin.indices.create.CreateIndexClusterStateUpdateRequest;
 import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.BatchedClusterStateUpdateTask;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateBatchExecutor;
+import org.elasticsearch.cluster.ack.AckedRequest;
 import org.elasticsearch.cluster.ack.ClusterStateUpdateResponse;
 import org.elasticsearch.cluster.block.ClusterBlock;
 import org.elasticsearch.cluster.block.ClusterBlocks;
@@ -63,6 +67,7 @@ import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.IndexQueryParserService;
 import org.elasticsearch.index.service.IndexService;
+import org.elasticsearch.index.sort.IndexSort;
 import org.elasticsearch.indices.IndexAlreadyExistsException;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.InvalidIndexNameException;
@@ -102,6 +107,8 @@ public class MetaDataCreateIndexService extends AbstractComponent {
     private final String riverIndexName;
     private final AliasValidator aliasValidator;
     private final IndexTemplateFilter indexTemplateFilter;
+    // pending create index tasks are applied to the cluster state one after the other, and published once
+    private final ClusterStateBatchExecutor<CreateIndexTask> createIndexExecutor = new ClusterStateBatchExecutor<>();
 
     @Inject
     public MetaDataCreateIndexService(Settings settings, Environment environment, ThreadPool threadPool, ClusterService clusterService, IndicesService indicesService,
@@ -202,7 +209,7 @@ public class MetaDataCreateIndexService extends AbstractComponent {
         }
         request.settings(updatedSettingsBuilder.build());
 
-        clusterService.submitStateUpdateTask("create-index [" + request.index() + "], cause [" + request.cause() + "]", Priority.URGENT, new AckedClusterStateUpdateTask<ClusterStateUpdateResponse>(request, listener) {
+        clusterService.submitStateUpdateTask("create-index [" + request.index() + "], cause [" + request.cause() + "]", Priority.URGENT, new CreateIndexTask(request, listener) {
 
             @Override
             protected ClusterStateUpdateResponse newResponse(boolean acknowledged) {
@@ -401,6 +408,13 @@ public class MetaDataCreateIndexService extends AbstractComponent {
                         }
                     }
 
+                    try {
+                        IndexSort.validate(actualIndexSettings, mapperService);
+                    } catch (ElasticsearchIllegalArgumentException e) {
+                        removalReason = "failed to validate the index sort on index creation";
+                        throw e;
+                    }
+
                     IndexQueryParserService indexQueryParserService = indexService.queryParserService();
                     for (Alias alias : request.aliases()) {
                         if (Strings.hasLength(alias.filter())) {
@@ -484,6 +498,18 @@ public class MetaDataCreateIndexService extends AbstractComponent {
         });
     }
 
+    private abstract class CreateIndexTask extends AckedClusterStateUpdateTask<ClusterStateUpdateResponse> implements BatchedClusterStateUpdateTask {
+
+        CreateIndexTask(AckedRequest request, ActionListener<ClusterStateUpdateResponse> listener) {
+            super(request, listener);
+        }
+
+        @Override
+        public ClusterStateBatchExecutor batchExecutor() {
+            return createIndexExecutor;
+        }
+    }
+
     private Map<String, Object> parseMapping(String mappingSource) throws Exception {
         return XContentFactory.xContent(mappingSource).createParser(mappingSource).mapAndClose();
     }
@@ -25,8 +25,11 @@ import com.google.common.collect.Maps;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesClusterStateUpdateRequest;
 import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.BatchedClusterStateUpdateTask;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateBatchExecutor;
+import org.elasticsearch.cluster.ack.AckedRequest;
 import org.elasticsearch.cluster.ack.ClusterStateUpdateResponse;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.Strings;
@@ -53,6 +56,9 @@ public class MetaDataIndexAliasesService extends AbstractComponent {
 
     private final AliasValidator aliasValidator;
 
+    // pending alias tasks are applied to the cluster state one after the other, and published once
+    private final ClusterStateBatchExecutor<IndicesAliasesTask> indicesAliasesExecutor = new ClusterStateBatchExecutor<>();
+
     @Inject
     public MetaDataIndexAliasesService(Settings settings, ClusterService clusterService, IndicesService indicesService, AliasValidator aliasValidator) {
         super(settings);
@@ -62,7 +68,7 @@ public class MetaDataIndexAliasesService extends AbstractComponent {
     }
 
     public void indicesAliases(final IndicesAliasesClusterStateUpdateRequest request, final ActionListener<ClusterStateUpdateResponse> listener) {
-        clusterService.submitStateUpdateTask("index-aliases", Priority.URGENT, new AckedClusterStateUpdateTask<ClusterStateUpdateResponse>(request, listener) {
+        clusterService.submitStateUpdateTask("index-aliases", Priority.URGENT, new IndicesAliasesTask(request, listener) {
             @Override
             protected ClusterStateUpdateResponse newResponse(boolean acknowledged) {
                 return new ClusterStateUpdateResponse(acknowledged);
@@ -159,4 +165,16 @@ public class MetaDataIndexAliasesService extends AbstractComponent {
             }
         });
     }
+
+    private abstract class IndicesAliasesTask extends AckedClusterStateUpdateTask<ClusterStateUpdateResponse> implements BatchedClusterStateUpdateTask {
+
+        IndicesAliasesTask(AckedRequest request, ActionListener<ClusterStateUpdateResponse> listener) {
+            super(request, listener);
+        }
+
+        @Override
+        public ClusterStateBatchExecutor batchExecutor() {
+            return indicesAliasesExecutor;
+        }
+    }
 }
@@ -26,10 +26,14 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.indices.mapping.delete.DeleteMappingClusterStateUpdateRequest;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingClusterStateUpdateRequest;
 import org.elasticsearch.cluster.AckedClusterStateUpdateTask;
+import org.elasticsearch.cluster.BatchedClusterStateUpdateTask;
 import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateBatchExecutor;
+import org.elasticsearch.cluster.CoalescingClusterStateUpdateTask;
 import org.elasticsearch.cluster.ProcessedClusterStateUpdateTask;
 import org.elasticsearch.cluster.ack.ClusterStateUpdateResponse;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Priority;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractComponent;
@@ -62,11 +66,12 @@ public class MetaDataMappingService extends AbstractComponent {
     private final ClusterService clusterService;
     private final IndicesService indicesService;
 
-    // the mutex protect all the refreshOrUpdate variables!
-    private final Object refreshOrUpdateMutex = new Object();
-    private final List<MappingTask> refreshOrUpdateQueue = new ArrayList<>();
-    private long refreshOrUpdateInsertOrder;
-    private long refreshOrUpdateProcessedInsertOrder;
+    private final MappingTaskExecutor mappingTaskExecutor = new MappingTaskExecutor();
+
+    // the mutex protects the pending update tasks and the mapping tasks that get merged into them
+    private final Object mappingTasksMutex = new Object();
+    // update tasks per index and type that haven't been executed yet, further updates are merged into them
+    private final Map<Tuple<String, String>, MappingClusterTask> pendingUpdateTasks = new HashMap<>();
 
     @Inject
     public MetaDataMappingService(Settings settings, ThreadPool threadPool, ClusterService clusterService, IndicesService indicesService) {
@@ -113,33 +118,104 @@ public class MetaDataMappingService extends AbstractComponent {
     }
 
     /**
-     * Batch method to apply all the queued refresh or update operations. The idea is to try and batch as much
-     * as possible so we won't create the same index all the time for example for the updates on the same mapping
-     * and generate a single cluster change event out of all of those.
+     * A cluster state update task for refresh or update operations. Update operations for an index and type
+     * are merged into the task that is pending for them, if there is one, and all pending tasks are executed
+     * together by the {@link MappingTaskExecutor}, see {@link BatchedClusterStateUpdateTask}.
      */
-    Tuple<ClusterState, List<MappingTask>> executeRefreshOrUpdate(final ClusterState currentState, final long insertionOrder) throws Exception {
-        final List<MappingTask> allTasks = new ArrayList<>();
+    class MappingClusterTask extends ProcessedClusterStateUpdateTask implements BatchedClusterStateUpdateTask, CoalescingClusterStateUpdateTask {
+
+        @Nullable
+        private final Tuple<String, String> indexAndType; // null for refresh tasks
+        private final List<MappingTask> tasks = new ArrayList<>(1); // guarded by mappingTasksMutex
+        private boolean claimed; // guarded by mappingTasksMutex
+
+        MappingClusterTask(@Nullable Tuple<String, String> indexAndType, MappingTask task) {
+            this.indexAndType = indexAndType;
+            this.tasks.add(task);
+        }
+
+        /**
+         * Takes the mapping tasks of this task, no more tasks get merged into it afterwards.
+         */
+        List<MappingTask> claim() {
+            synchronized (mappingTasksMutex) {
+                if (claimed == false) {
+                    claimed = true;
+                    if (indexAndType != null && pendingUpdateTasks.get(indexAndType) == this) {
+                        pendingUpdateTasks.remove(indexAndType);
+                    }
+                }
+                return new ArrayList<>(tasks);
+            }
+        }
 
-        synchronized (refreshOrUpdateMutex) {
-            if (refreshOrUpdateQueue.isEmpty()) {
-                return Tuple.tuple(currentState, allTasks);
+        @Override
+        public ClusterStateBatchExecutor batchExecutor() {
+            return mappingTaskExecutor;
+        }
+
+        @Override
+        public int coalescedUpdates() {
+            synchronized (mappingTasksMutex) {
+                return tasks.size();
+            }
+        }
+
+        @Override
+        public ClusterState execute(ClusterState currentState) throws Exception {
+            return mappingTaskExecutor.execute(currentState, this);
+        }
+
+        @Override
+        public void onFailure(String source, Throwable t) {
+            boolean notified = false;
+            for (MappingTask task : claim()) {
+                if (task instanceof UpdateTask) {
+                    notified = true;
+                    ((UpdateTask) task).listener.onFailure(t);
+                }
+            }
+            if (notified == false) {
+                logger.warn("failure during [{}]", t, source);
             }
+        }
 
-            // we already processed this task in a bulk manner in a previous cluster event, simply ignore
-            // it so we will let other tasks get in and processed ones, we will handle the queued ones
-            // later on in a subsequent cluster state event
-            if (insertionOrder < refreshOrUpdateProcessedInsertOrder) {
-                return Tuple.tuple(currentState, allTasks);
+        @Override
+        public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+            for (MappingTask task : claim()) {
+                if (task instanceof UpdateTask) {
+                    UpdateTask uTask = (UpdateTask) task;
+                    ClusterStateUpdateResponse response = new ClusterStateUpdateResponse(true);
+                    try {
+                        uTask.listener.onResponse(response);
+                    } catch (Throwable t) {
+                        logger.debug("failed ot ping back on response of mapping processing for task [{}]", t, uTask.listener);
+                    }
+                }
             }
+        }
+    }
 
-            allTasks.addAll(refreshOrUpdateQueue);
-            refreshOrUpdateQueue.clear();
+    /**
+     * Applies all the pending refresh or update operations in one go. The idea is to try and batch as much
+     * as possible so we won't create the same index all the time for example for the updates on the same mapping
+     * and generate a single cluster change event out of all of those.
+     */
+    class MappingTaskExecutor extends ClusterStateBatchExecutor<MappingClusterTask> {
 
-            refreshOrUpdateProcessedInsertOrder = refreshOrUpdateInsertOrder;
+        @Override
+        public ClusterState execute(ClusterState currentState, List<MappingClusterTask> tasks, Map<MappingClusterTask, Throwable> failures) throws Exception {
+            List<MappingTask> allTasks = new ArrayList<>();
+            for (MappingClusterTask task : tasks) {
+                allTasks.addAll(task.claim());
+            }
+            return executeRefreshOrUpdate(currentState, allTasks);
         }
+    }
 
+    ClusterState executeRefreshOrUpdate(final ClusterState currentState, final List<MappingTask> allTasks) throws Exception {
         if (allTasks.isEmpty()) {
-            return Tuple.tuple(currentState, allTasks);
+            return currentState;
         }
 
         // break down to tasks per index, so we can optimize the on demand index service creation
@@ -247,9 +323,9 @@ public class MetaDataMappingService extends AbstractComponent {
         }
 
         if (!dirty) {
-            return Tuple.tuple(currentState, allTasks);
+            return currentState;
         }
-        return Tuple.tuple(ClusterState.builder(currentState).metaData(mdBuilder).build(), allTasks);
+        return ClusterState.builder(currentState).metaData(mdBuilder).build();
     }
 
     private boolean processIndexMappingTasks(List<MappingTask> tasks, IndexService indexService, IndexMetaData.Builder builder) {
@@ -257,6 +333,9 @@ public class MetaDataMappingService extends AbstractComponent {
         String index = indexService.index().name();
         // keep track of what we already refreshed, no need to refresh it again...
         Set<String> processedRefreshes = Sets.newHashSet();
+        // the updates of a type are merged one after the other, its mapping meta data is only built once at the end
+        Map<String, DocumentMapper> updatedMappers = new HashMap<>();
+        Map<String, Integer> mergedUpdates = new HashMap<>();
         for (MappingTask task : tasks) {
             if (task instanceof RefreshTask) {
                 RefreshTask refreshTask = (RefreshTask) task;
@@ -300,22 +379,9 @@ public class MetaDataMappingService extends AbstractComponent {
 
                     DocumentMapper updatedMapper = indexService.mapperService().merge(type, mappingSource, false);
                     processedRefreshes.add(type);
-
-                    // if we end up with the same mapping as the original once, ignore
-                    if (mappingMetaData != null && mappingMetaData.source().equals(updatedMapper.mappingSource())) {
-                        logger.debug("[{}] update_mapping [{}] ignoring mapping update task as it results in the same source as what we have", index, updateTask.type);
-                        continue;
-                    }
-
-                    // build the updated mapping source
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("[{}] update_mapping [{}] (dynamic) with source [{}]", index, type, updatedMapper.mappingSource());
-                    } else if (logger.isInfoEnabled()) {
-                        logger.info("[{}] update_mapping [{}] (dynamic)", index, type);
-                    }
-
-                    builder.putMapping(new MappingMetaData(updatedMapper));
-                    dirty = true;
+                    updatedMappers.put(type, updatedMapper);
+                    Integer merged = mergedUpdates.get(type);
+                    mergedUpdates.put(type, merged == null ? 1 : merged + 1);
                 } catch (Throwable t) {
                     logger.warn("[{}] failed to update-mapping in cluster state, type [{}]", index, updateTask.type);
                 }
@@ -323,6 +389,30 @@ public class MetaDataMappingService extends AbstractComponent {
                 logger.warn("illegal state, got wrong mapping task type [{}]", task);
             }
         }
+        for (Map.Entry<String, DocumentMapper> entry : updatedMappers.entrySet()) {
+            String type = entry.getKey();
+            DocumentMapper updatedMapper = entry.getValue();
+            try {
+                // if we end up with the same mapping as the original once, ignore
+                MappingMetaData mappingMetaData = builder.mapping(type);
+                if (mappingMetaData != null && mappingMetaData.source().equals(updatedMapper.mappingSource())) {
+                    logger.debug("[{}] update_mapping [{}] ignoring mapping update tasks as they result in the same source as what we have", index, type);
+                    continue;
+                }
+
+                // build the updated mapping source
+                if (logger.isDebugEnabled()) {
+                    logger.debug("[{}] update_mapping [{}] (dynamic) with source [{}], merged [{}] updates", index, type, updatedMapper.mappingSource(), mergedUpdates.get(type));
+                } else if (logger.isInfoEnabled()) {
+                    logger.info("[{}] update_mapping [{}] (dynamic), merged [{}] updates", index, type, mergedUpdates.get(type));
+                }
+
+                builder.putMapping(new MappingMetaData(updatedMapper));
+                dirty = true;
+            } catch (Throwable t) {
+                logger.warn("[{}] failed to update-mapping in cluster state, type [{}]", index, type);
+            }
+        }
         return dirty;
     }
 
@@ -330,80 +420,35 @@ public class MetaDataMappingService extends AbstractComponent {
      * Refreshes mappings if they are not the same between original and parsed version
      */
     public void refreshMapping(final String index, final String indexUUID, final String... types) {
-        final long insertOrder;
-        synchronized (refreshOrUpdateMutex) {
-            insertOrder = ++refreshOrUpdateInsertOrder;
-            refreshOrUpdateQueue.add(new RefreshTask(index, indexUUID, types));
-        }
-        clusterService.submitStateUpdateTask("refresh-mapping [" + index + "][" + Arrays.toString(types) + "]", Priority.HIGH, new ProcessedClusterStateUpdateTask() {
-            private volatile List<MappingTask> allTasks;
-
-            @Override
-            public void onFailure(String source, Throwable t) {
-                logger.warn("failure during [{}]", t, source);
-            }
-
-            @Override
-            public ClusterState execute(ClusterState currentState) throws Exception {
-                Tuple<ClusterState, List<MappingTask>> tuple = executeRefreshOrUpdate(currentState, insertOrder);
-                this.allTasks = tuple.v2();
-                return tuple.v1();
-            }
-
-            @Override
-            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
-                if (allTasks == null) {
-                    return;
-                }
-                for (Object task : allTasks) {
-                    if (task instanceof UpdateTask) {
-                        UpdateTask uTask = (UpdateTask) task;
-                        ClusterStateUpdateResponse response = new ClusterStateUpdateResponse(true);
-                        uTask.listener.onResponse(response);
-                    }
-                }
-            }
-        });
+        MappingClusterTask task = new MappingClusterTask(null, new RefreshTask(index, indexUUID, types));
+        clusterService.submitStateUpdateTask("refresh-mapping [" + index + "][" + Arrays.toString(types) + "]", Priority.HIGH, task);
     }
 
+    /**
+     * Updates the mapping of the given type with the given mapping source. Updates of an index and type are merged
+     * into the update task that is still pending for them, if there is one, so that a single task per index and type
+     * waits in the pending cluster tasks.
+     */
     public void updateMapping(final String index, final String indexUUID, final String type, final CompressedString mappingSource, final long order, final String nodeId, final ActionListener<ClusterStateUpdateResponse> listener) {
-        final long insertOrder;
-        synchronized (refreshOrUpdateMutex) {
-            insertOrder = ++refreshOrUpdateInsertOrder;
-            refreshOrUpdateQueue.add(new UpdateTask(index, indexUUID, type, mappingSource, order, nodeId, listener));
-        }
-        clusterService.submitStateUpdateTask("update-mapping [" + index + "][" + type + "] / node [" + nodeId + "], order [" + order + "]", Priority.HIGH, new ProcessedClusterStateUpdateTask() {
-            private volatile List<MappingTask> allTasks;
-
-            public void onFailure(String source, Throwable t) {
-                listener.onFailure(t);
+        final UpdateTask updateTask = new UpdateTask(index, indexUUID, type, mappingSource, order, nodeId, listener);
+        final Tuple<String, String> indexAndType = Tuple.tuple(index, type);
+        final MappingClusterTask task;
+        synchronized (mappingTasksMutex) {
+            MappingClusterTask pending = pendingUpdateTasks.get(indexAndType);
+            if (pending != null) {
+                pending.tasks.add(updateTask);
+                return;
             }
-
-            @Override
-            public ClusterState execute(final ClusterState currentState) throws Exception {
-                Tuple<ClusterState, List<MappingTask>> tuple = executeRefreshOrUpdate(currentState, insertOrder);
-                this.allTasks = tuple.v2();
-                return tuple.v1();
-            }
-
-            @Override
-            public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
-                if (allTasks == null) {
-                    return;
-                }
-                for (Object task : allTasks) {
-                    if (task instanceof UpdateTask) {
-                        UpdateTask uTask = (UpdateTask) task;
-                        ClusterStateUpdateResponse response = new ClusterStateUpdateResponse(true);
-                        try {
-                            uTask.listener.onResponse(response);
-                        } catch (Throwable t) {
-                            logger.debug("failed ot ping back on response of mapping processing for task [{}]", t, uTask.listener);
-                        }
-                    }
-                }
-            }
-        });
+            task = new MappingClusterTask(indexAndType, updateTask);
+            pendingUpdateTasks.put(indexAndType, task);
+        }
+        final String source = "update-mapping [" + index + "][" + type + "] / node [" + nodeId + "], order [" + order + "]";
+        try {
+            clusterService.submitStateUpdateTask(source, Priority.HIGH, task);
+        } catch (Throwable t) {
+            // updates may have been merged into the task already
+            task.onFailure(source, t);
+        }
     }
 
     public void removeMapping(final DeleteMappingClusterStateUpdateRequest request, final ActionListener<ClusterStateUpdateResponse> listener) {
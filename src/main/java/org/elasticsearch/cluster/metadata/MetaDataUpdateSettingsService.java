@@ -39,6 +39,7 @@ import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.settings.IndexDynamicSettings;
+import org.elasticsearch.index.sort.IndexSort;
 
 import java.util.*;
 
@@ -184,6 +185,11 @@ public class MetaDataUpdateSettingsService extends AbstractComponent implements
                 listener.onFailure(new ElasticsearchIllegalArgumentException("can't change the number of shards for an index"));
                 return;
             }
+            // nor the index sort, segments that were merged already would keep their order
+            if (key.equals(IndexSort.INDEX_SORT_FIELD) || key.equals(IndexSort.INDEX_SORT_ORDER)) {
+                listener.onFailure(new ElasticsearchIllegalArgumentException("can't change the index sort [" + key + "] of an index"));
+                return;
+            }
         }
 
         final Settings closeSettings = updatedSettingsBuilder.build();
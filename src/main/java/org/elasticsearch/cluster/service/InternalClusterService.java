@@ -52,6 +52,7 @@ import org.elasticsearch.transport.TransportService;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.elasticsearch.common.util.concurrent.EsExecutors.daemonThreadFactory;
 
@@ -96,6 +97,9 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
 
     private volatile ClusterState clusterState;
 
+    // the pending tasks of each batch executor, guarded by itself
+    private final Map<ClusterStateBatchExecutor, List<UpdateTask>> pendingBatches = new IdentityHashMap<>();
+
     private final ClusterBlocks.Builder initialBlocks;
 
     private volatile ScheduledFuture reconnectToNodes;
@@ -264,11 +268,26 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         }
         try {
             final UpdateTask task = new UpdateTask(source, priority, updateTask);
+            if (updateTask instanceof BatchedClusterStateUpdateTask) {
+                ClusterStateBatchExecutor executor = ((BatchedClusterStateUpdateTask) updateTask).batchExecutor();
+                synchronized (pendingBatches) {
+                    List<UpdateTask> pending = pendingBatches.get(executor);
+                    if (pending == null) {
+                        pending = new ArrayList<>();
+                        pendingBatches.put(executor, pending);
+                    }
+                    pending.add(task);
+                }
+            }
             if (updateTask instanceof TimeoutClusterStateUpdateTask) {
                 final TimeoutClusterStateUpdateTask timeoutUpdateTask = (TimeoutClusterStateUpdateTask) updateTask;
                 updateTasksExecutor.execute(task, threadPool.scheduler(), timeoutUpdateTask.timeout(), new Runnable() {
                     @Override
                     public void run() {
+                        if (task.processed.compareAndSet(false, true) == false && updateTask instanceof BatchedClusterStateUpdateTask) {
+                            // processed as part of a batch before its own turn came
+                            return;
+                        }
                         threadPool.generic().execute(new Runnable() {
                             @Override
                             public void run() {
@@ -299,7 +318,16 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
             final long timeInQueue;
             if (pending.task instanceof UpdateTask) {
                 UpdateTask updateTask = (UpdateTask) pending.task;
-                source = updateTask.source;
+                if (updateTask.processed.get() && pending.executing == false) {
+                    // processed as part of a batch already
+                    continue;
+                }
+                if (updateTask.updateTask instanceof CoalescingClusterStateUpdateTask) {
+                    int coalesced = ((CoalescingClusterStateUpdateTask) updateTask.updateTask).coalescedUpdates();
+                    source = coalesced > 1 ? updateTask.source + " (" + coalesced + " coalesced updates)" : updateTask.source;
+                } else {
+                    source = updateTask.source;
+                }
                 timeInQueue = now - updateTask.addedAt;
             } else {
                 source = "unknown";
@@ -316,6 +344,8 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         public final String source;
         public final ClusterStateUpdateTask updateTask;
         public final long addedAt = System.currentTimeMillis();
+        // set once a batched task was claimed by a batch or by its timeout
+        final AtomicBoolean processed = new AtomicBoolean();
 
         UpdateTask(String source, Priority priority, ClusterStateUpdateTask updateTask) {
             super(priority);
@@ -329,60 +359,137 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
                 logger.debug("processing [{}]: ignoring, cluster_service not started", source);
                 return;
             }
-            logger.debug("processing [{}]: execute", source);
-            ClusterState previousClusterState = clusterState;
-            if (!previousClusterState.nodes().localNodeMaster() && updateTask.runOnlyOnMaster()) {
-                logger.debug("failing [{}]: local node is no longer master", source);
-                updateTask.onNoLongerMaster(source);
-                return;
+            if (updateTask instanceof BatchedClusterStateUpdateTask) {
+                List<UpdateTask> batch = pollBatch(((BatchedClusterStateUpdateTask) updateTask).batchExecutor());
+                if (batch.isEmpty()) {
+                    logger.trace("processing [{}]: ignoring, already processed as part of a batch", source);
+                    return;
+                }
+                runTasks(batch);
+            } else {
+                runTasks(Collections.singletonList(this));
+            }
+        }
+    }
+
+    /**
+     * Takes all the pending tasks of the given executor that haven't been claimed yet.
+     */
+    private List<UpdateTask> pollBatch(ClusterStateBatchExecutor executor) {
+        final List<UpdateTask> pending;
+        synchronized (pendingBatches) {
+            pending = pendingBatches.remove(executor);
+        }
+        if (pending == null) {
+            return Collections.emptyList();
+        }
+        List<UpdateTask> batch = new ArrayList<>(pending.size());
+        for (UpdateTask task : pending) {
+            if (task.processed.compareAndSet(false, true)) {
+                batch.add(task);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Executes the given tasks, which are either a single task or a batch of tasks of the same executor, on the
+     * current cluster state and applies (and publishes, if master) the resulting cluster state once.
+     */
+    @SuppressWarnings("unchecked")
+    private void runTasks(List<UpdateTask> tasks) {
+        ClusterState previousClusterState = clusterState;
+        List<UpdateTask> toExecute = new ArrayList<>(tasks.size());
+        for (UpdateTask task : tasks) {
+            if (!previousClusterState.nodes().localNodeMaster() && task.updateTask.runOnlyOnMaster()) {
+                logger.debug("failing [{}]: local node is no longer master", task.source);
+                task.updateTask.onNoLongerMaster(task.source);
+            } else {
+                toExecute.add(task);
             }
-            ClusterState newClusterState;
-            try {
-                newClusterState = updateTask.execute(previousClusterState);
-            } catch (Throwable e) {
-                if (logger.isTraceEnabled()) {
-                    StringBuilder sb = new StringBuilder("failed to execute cluster state update, state:\nversion [").append(previousClusterState.version()).append("], source [").append(source).append("]\n");
-                    sb.append(previousClusterState.nodes().prettyPrint());
-                    sb.append(previousClusterState.routingTable().prettyPrint());
-                    sb.append(previousClusterState.readOnlyRoutingNodes().prettyPrint());
-                    logger.trace(sb.toString(), e);
+        }
+        if (toExecute.isEmpty()) {
+            return;
+        }
+        final String source = batchSource(toExecute);
+        logger.debug("processing [{}]: execute", source);
+
+        ClusterState newClusterState;
+        Map<ClusterStateUpdateTask, Throwable> failures = new HashMap<>();
+        try {
+            if (toExecute.size() == 1 && !(toExecute.get(0).updateTask instanceof BatchedClusterStateUpdateTask)) {
+                newClusterState = toExecute.get(0).updateTask.execute(previousClusterState);
+            } else {
+                List<ClusterStateUpdateTask> updateTasks = new ArrayList<>(toExecute.size());
+                for (UpdateTask task : toExecute) {
+                    updateTasks.add(task.updateTask);
                 }
-                updateTask.onFailure(source, e);
-                return;
+                ClusterStateBatchExecutor executor = ((BatchedClusterStateUpdateTask) updateTasks.get(0)).batchExecutor();
+                newClusterState = executor.execute(previousClusterState, updateTasks, failures);
+            }
+        } catch (Throwable e) {
+            newClusterState = null;
+            for (UpdateTask task : toExecute) {
+                failures.put(task.updateTask, e);
             }
+        }
 
-            if (previousClusterState == newClusterState) {
-                logger.debug("processing [{}]: no change in cluster_state", source);
-                if (updateTask instanceof AckedClusterStateUpdateTask) {
+        List<UpdateTask> succeeded = new ArrayList<>(toExecute.size());
+        for (UpdateTask task : toExecute) {
+            Throwable failure = failures.get(task.updateTask);
+            if (failure == null) {
+                succeeded.add(task);
+                continue;
+            }
+            if (logger.isTraceEnabled()) {
+                StringBuilder sb = new StringBuilder("failed to execute cluster state update, state:\nversion [").append(previousClusterState.version()).append("], source [").append(task.source).append("]\n");
+                sb.append(previousClusterState.nodes().prettyPrint());
+                sb.append(previousClusterState.routingTable().prettyPrint());
+                sb.append(previousClusterState.readOnlyRoutingNodes().prettyPrint());
+                logger.trace(sb.toString(), failure);
+            }
+            task.updateTask.onFailure(task.source, failure);
+        }
+        if (succeeded.isEmpty()) {
+            return;
+        }
+
+        if (previousClusterState == newClusterState) {
+            logger.debug("processing [{}]: no change in cluster_state", source);
+            for (UpdateTask task : succeeded) {
+                if (task.updateTask instanceof AckedClusterStateUpdateTask) {
                     //no need to wait for ack if nothing changed, the update can be counted as acknowledged
-                    ((AckedClusterStateUpdateTask) updateTask).onAllNodesAcked(null);
+                    ((AckedClusterStateUpdateTask) task.updateTask).onAllNodesAcked(null);
                 }
-                if (updateTask instanceof ProcessedClusterStateUpdateTask) {
-                    ((ProcessedClusterStateUpdateTask) updateTask).clusterStateProcessed(source, previousClusterState, newClusterState);
+                if (task.updateTask instanceof ProcessedClusterStateUpdateTask) {
+                    ((ProcessedClusterStateUpdateTask) task.updateTask).clusterStateProcessed(task.source, previousClusterState, newClusterState);
                 }
-                return;
             }
+            return;
+        }
 
-            try {
-                Discovery.AckListener ackListener = new NoOpAckListener();
-                if (newClusterState.nodes().localNodeMaster()) {
-                    // only the master controls the version numbers
-                    Builder builder = ClusterState.builder(newClusterState).version(newClusterState.version() + 1);
-                    if (previousClusterState.routingTable() != newClusterState.routingTable()) {
-                        builder.routingTable(RoutingTable.builder(newClusterState.routingTable()).version(newClusterState.routingTable().version() + 1));
-                    }
-                    if (previousClusterState.metaData() != newClusterState.metaData()) {
-                        builder.metaData(MetaData.builder(newClusterState.metaData()).version(newClusterState.metaData().version() + 1));
-                    }
-                    newClusterState = builder.build();
+        try {
+            Discovery.AckListener ackListener = new NoOpAckListener();
+            if (newClusterState.nodes().localNodeMaster()) {
+                // only the master controls the version numbers
+                Builder builder = ClusterState.builder(newClusterState).version(newClusterState.version() + 1);
+                if (previousClusterState.routingTable() != newClusterState.routingTable()) {
+                    builder.routingTable(RoutingTable.builder(newClusterState.routingTable()).version(newClusterState.routingTable().version() + 1));
+                }
+                if (previousClusterState.metaData() != newClusterState.metaData()) {
+                    builder.metaData(MetaData.builder(newClusterState.metaData()).version(newClusterState.metaData().version() + 1));
+                }
+                newClusterState = builder.build();
 
-                    if (updateTask instanceof AckedClusterStateUpdateTask) {
-                        final AckedClusterStateUpdateTask ackedUpdateTask = (AckedClusterStateUpdateTask) updateTask;
+                List<Discovery.AckListener> ackListeners = new ArrayList<>();
+                for (UpdateTask task : succeeded) {
+                    if (task.updateTask instanceof AckedClusterStateUpdateTask) {
+                        final AckedClusterStateUpdateTask ackedUpdateTask = (AckedClusterStateUpdateTask) task.updateTask;
                         if (ackedUpdateTask.ackTimeout() == null || ackedUpdateTask.ackTimeout().millis() == 0) {
                             ackedUpdateTask.onAckTimeout();
                         } else {
                             try {
-                                ackListener = new AckCountDownListener(ackedUpdateTask, newClusterState.version(), newClusterState.nodes(), threadPool);
+                                ackListeners.add(new AckCountDownListener(ackedUpdateTask, newClusterState.version(), newClusterState.nodes(), threadPool));
                             } catch (EsRejectedExecutionException ex) {
                                 if (logger.isDebugEnabled()) {
                                     logger.debug("Couldn't schedule timeout thread - node might be shutting down", ex);
@@ -393,100 +500,114 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
                         }
                     }
                 }
+                if (ackListeners.size() == 1) {
+                    ackListener = ackListeners.get(0);
+                } else if (ackListeners.size() > 1) {
+                    ackListener = new DelegatingAckListener(ackListeners);
+                }
+            }
 
-                newClusterState.status(ClusterState.ClusterStateStatus.BEING_APPLIED);
+            newClusterState.status(ClusterState.ClusterStateStatus.BEING_APPLIED);
 
-                if (logger.isTraceEnabled()) {
-                    StringBuilder sb = new StringBuilder("cluster state updated, source [").append(source).append("]\n");
-                    sb.append(newClusterState.prettyPrint());
-                    logger.trace(sb.toString());
-                } else if (logger.isDebugEnabled()) {
-                    logger.debug("cluster state updated, version [{}], source [{}]", newClusterState.version(), source);
-                }
+            if (logger.isTraceEnabled()) {
+                StringBuilder sb = new StringBuilder("cluster state updated, source [").append(source).append("]\n");
+                sb.append(newClusterState.prettyPrint());
+                logger.trace(sb.toString());
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("cluster state updated, version [{}], source [{}]", newClusterState.version(), source);
+            }
 
-                ClusterChangedEvent clusterChangedEvent = new ClusterChangedEvent(source, newClusterState, previousClusterState);
-                // new cluster state, notify all listeners
-                final DiscoveryNodes.Delta nodesDelta = clusterChangedEvent.nodesDelta();
-                if (nodesDelta.hasChanges() && logger.isInfoEnabled()) {
-                    String summary = nodesDelta.shortSummary();
-                    if (summary.length() > 0) {
-                        logger.info("{}, reason: {}", summary, source);
-                    }
+            ClusterChangedEvent clusterChangedEvent = new ClusterChangedEvent(source, newClusterState, previousClusterState);
+            // new cluster state, notify all listeners
+            final DiscoveryNodes.Delta nodesDelta = clusterChangedEvent.nodesDelta();
+            if (nodesDelta.hasChanges() && logger.isInfoEnabled()) {
+                String summary = nodesDelta.shortSummary();
+                if (summary.length() > 0) {
+                    logger.info("{}, reason: {}", summary, source);
                 }
+            }
 
-                // TODO, do this in parallel (and wait)
-                for (DiscoveryNode node : nodesDelta.addedNodes()) {
-                    if (!nodeRequiresConnection(node)) {
-                        continue;
-                    }
-                    try {
-                        transportService.connectToNode(node);
-                    } catch (Throwable e) {
-                        // the fault detection will detect it as failed as well
-                        logger.warn("failed to connect to node [" + node + "]", e);
-                    }
+            // TODO, do this in parallel (and wait)
+            for (DiscoveryNode node : nodesDelta.addedNodes()) {
+                if (!nodeRequiresConnection(node)) {
+                    continue;
                 }
-
-                // if we are the master, publish the new state to all nodes
-                // we publish here before we send a notification to all the listeners, since if it fails
-                // we don't want to notify
-                if (newClusterState.nodes().localNodeMaster()) {
-                    logger.debug("publishing cluster state version {}", newClusterState.version());
-                    discoveryService.publish(newClusterState, ackListener);
+                try {
+                    transportService.connectToNode(node);
+                } catch (Throwable e) {
+                    // the fault detection will detect it as failed as well
+                    logger.warn("failed to connect to node [" + node + "]", e);
                 }
+            }
 
-                // update the current cluster state
-                clusterState = newClusterState;
-                logger.debug("set local cluster state to version {}", newClusterState.version());
-                for (ClusterStateListener listener : preAppliedListeners) {
-                    try {
-                        listener.clusterChanged(clusterChangedEvent);
-                    } catch (Exception ex) {
-                        logger.warn("failed to notify ClusterStateListener", ex);
-                    }
+            // if we are the master, publish the new state to all nodes
+            // we publish here before we send a notification to all the listeners, since if it fails
+            // we don't want to notify
+            if (newClusterState.nodes().localNodeMaster()) {
+                logger.debug("publishing cluster state version {}", newClusterState.version());
+                discoveryService.publish(newClusterState, ackListener);
+            }
+
+            // update the current cluster state
+            clusterState = newClusterState;
+            logger.debug("set local cluster state to version {}", newClusterState.version());
+            for (ClusterStateListener listener : preAppliedListeners) {
+                try {
+                    listener.clusterChanged(clusterChangedEvent);
+                } catch (Exception ex) {
+                    logger.warn("failed to notify ClusterStateListener", ex);
                 }
+            }
 
-                for (DiscoveryNode node : nodesDelta.removedNodes()) {
-                    try {
-                        transportService.disconnectFromNode(node);
-                    } catch (Throwable e) {
-                        logger.warn("failed to disconnect to node [" + node + "]", e);
-                    }
+            for (DiscoveryNode node : nodesDelta.removedNodes()) {
+                try {
+                    transportService.disconnectFromNode(node);
+                } catch (Throwable e) {
+                    logger.warn("failed to disconnect to node [" + node + "]", e);
                 }
+            }
 
-                newClusterState.status(ClusterState.ClusterStateStatus.APPLIED);
+            newClusterState.status(ClusterState.ClusterStateStatus.APPLIED);
 
-                for (ClusterStateListener listener : postAppliedListeners) {
-                    try {
-                        listener.clusterChanged(clusterChangedEvent);
-                    } catch (Exception ex) {
-                        logger.warn("failed to notify ClusterStateListener", ex);
-                    }
+            for (ClusterStateListener listener : postAppliedListeners) {
+                try {
+                    listener.clusterChanged(clusterChangedEvent);
+                } catch (Exception ex) {
+                    logger.warn("failed to notify ClusterStateListener", ex);
                 }
+            }
 
-                //manual ack only from the master at the end of the publish
-                if (newClusterState.nodes().localNodeMaster()) {
-                    try {
-                        ackListener.onNodeAck(newClusterState.nodes().localNode(), null);
-                    } catch (Throwable t) {
-                        logger.debug("error while processing ack for master node [{}]", t, newClusterState.nodes().localNode());
-                    }
+            //manual ack only from the master at the end of the publish
+            if (newClusterState.nodes().localNodeMaster()) {
+                try {
+                    ackListener.onNodeAck(newClusterState.nodes().localNode(), null);
+                } catch (Throwable t) {
+                    logger.debug("error while processing ack for master node [{}]", t, newClusterState.nodes().localNode());
                 }
+            }
 
-                if (updateTask instanceof ProcessedClusterStateUpdateTask) {
-                    ((ProcessedClusterStateUpdateTask) updateTask).clusterStateProcessed(source, previousClusterState, newClusterState);
+            for (UpdateTask task : succeeded) {
+                if (task.updateTask instanceof ProcessedClusterStateUpdateTask) {
+                    ((ProcessedClusterStateUpdateTask) task.updateTask).clusterStateProcessed(task.source, previousClusterState, newClusterState);
                 }
-
-                logger.debug("processing [{}]: done applying updated cluster_state (version: {})", source, newClusterState.version());
-            } catch (Throwable t) {
-                StringBuilder sb = new StringBuilder("failed to apply updated cluster state:\nversion [").append(newClusterState.version()).append("], source [").append(source).append("]\n");
-                sb.append(newClusterState.nodes().prettyPrint());
-                sb.append(newClusterState.routingTable().prettyPrint());
-                sb.append(newClusterState.readOnlyRoutingNodes().prettyPrint());
-                logger.warn(sb.toString(), t);
-                // TODO: do we want to call updateTask.onFailure here?
             }
+
+            logger.debug("processing [{}]: done applying updated cluster_state (version: {})", source, newClusterState.version());
+        } catch (Throwable t) {
+            StringBuilder sb = new StringBuilder("failed to apply updated cluster state:\nversion [").append(newClusterState.version()).append("], source [").append(source).append("]\n");
+            sb.append(newClusterState.nodes().prettyPrint());
+            sb.append(newClusterState.routingTable().prettyPrint());
+            sb.append(newClusterState.readOnlyRoutingNodes().prettyPrint());
+            logger.warn(sb.toString(), t);
+            // TODO: do we want to call updateTask.onFailure here?
+        }
+    }
+
+    private static String batchSource(List<UpdateTask> tasks) {
+        if (tasks.size() == 1) {
+            return tasks.get(0).source;
         }
+        return tasks.get(0).source + " and [" + (tasks.size() - 1) + "] more batched tasks";
     }
 
     class NotifyTimeout implements Runnable {
@@ -658,6 +779,29 @@ public class InternalClusterService extends AbstractLifecycleComponent<ClusterSe
         }
     }
 
+    private static class DelegatingAckListener implements Discovery.AckListener {
+
+        private final List<Discovery.AckListener> listeners;
+
+        private DelegatingAckListener(List<Discovery.AckListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void onNodeAck(DiscoveryNode node, @Nullable Throwable t) {
+            for (Discovery.AckListener listener : listeners) {
+                listener.onNodeAck(node, t);
+            }
+        }
+
+        @Override
+        public void onTimeout() {
+            for (Discovery.AckListener listener : listeners) {
+                listener.onTimeout();
+            }
+        }
+    }
+
     private static class AckCountDownListener implements Discovery.AckListener {
 
         private static final ESLogger logger = Loggers.getLogger(AckCountDownListener.class);
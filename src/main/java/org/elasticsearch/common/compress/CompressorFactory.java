@@ -22,10 +22,12 @@ package org.elasticsearch.common.compress;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.MapBuilder;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
 import org.elasticsearch.common.compress.lzf.LZFCompressor;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
@@ -39,18 +41,45 @@ import java.util.List;
 import java.util.Locale;
 
 /**
+ * Compressed data is always detected by its header, so data that was compressed with any of the known compressors
+ * can be read, whichever compressor is used to compress new data. The compressor is picked with the
+ * <code>compress.default.type</code> setting, which can be overridden per use site with
+ * <code>compress.[use_site].type</code>, where the use site is one of {@link #TRANSPORT}, {@link #RECOVERY},
+ * {@link #CLUSTER_STATE} and {@link #SOURCE}.
  */
 public class CompressorFactory {
 
+    /**
+     * Transport messages, when transport compression is enabled.
+     */
+    public static final String TRANSPORT = "transport";
+    /**
+     * Transport messages of recoveries, when recovery compression is enabled.
+     */
+    public static final String RECOVERY = "recovery";
+    /**
+     * Cluster states published by the master.
+     */
+    public static final String CLUSTER_STATE = "cluster_state";
+    /**
+     * The <code>_source</code> of documents, when it is mapped as compressed.
+     */
+    public static final String SOURCE = "source";
+
+    private static final String[] USE_SITES = {TRANSPORT, RECOVERY, CLUSTER_STATE, SOURCE};
+
     private static final LZFCompressor LZF = new LZFCompressor();
+    private static final LZ4Compressor LZ4 = new LZ4Compressor();
 
     private static final Compressor[] compressors;
     private static final ImmutableMap<String, Compressor> compressorsByType;
     private static Compressor defaultCompressor;
+    private static volatile ImmutableMap<String, Compressor> compressorsByUseSite = ImmutableMap.of();
 
     static {
         List<Compressor> compressorsX = Lists.newArrayList();
         compressorsX.add(LZF);
+        compressorsX.add(LZ4);
 
         compressors = compressorsX.toArray(new Compressor[compressorsX.size()]);
         MapBuilder<String, Compressor> compressorsByTypeX = MapBuilder.newMapBuilder();
@@ -78,6 +107,20 @@ public class CompressorFactory {
         if (!found) {
             Loggers.getLogger(CompressorFactory.class).warn("failed to find default type [{}]", defaultType);
         }
+        MapBuilder<String, Compressor> compressorsByUseSiteX = MapBuilder.newMapBuilder();
+        for (String useSite : USE_SITES) {
+            String type = settings.get("compress." + useSite + ".type");
+            if (type == null) {
+                continue;
+            }
+            Compressor compressor = compressorsByType.get(type.toLowerCase(Locale.ENGLISH));
+            if (compressor == null) {
+                Loggers.getLogger(CompressorFactory.class).warn("failed to find type [{}] for [{}]", type, useSite);
+            } else {
+                compressorsByUseSiteX.put(useSite, compressor);
+            }
+        }
+        compressorsByUseSite = compressorsByUseSiteX.immutableMap();
     }
 
     public static synchronized void setDefaultCompressor(Compressor defaultCompressor) {
@@ -88,6 +131,27 @@ public class CompressorFactory {
         return defaultCompressor;
     }
 
+    /**
+     * Returns the compressor to compress new data with at the given use site, which is the default compressor
+     * unless another one is configured for the use site.
+     */
+    public static Compressor defaultCompressor(String useSite) {
+        Compressor compressor = compressorsByUseSite.get(useSite);
+        return compressor == null ? defaultCompressor : compressor;
+    }
+
+    /**
+     * Returns the compressor to compress data with at the given use site, when the data is sent to a node of the given
+     * version. Nodes before {@link Version#V_2_0_0} can only read LZF, which is used for them whatever is configured.
+     */
+    public static Compressor defaultCompressor(String useSite, Version version) {
+        Compressor compressor = defaultCompressor(useSite);
+        if (compressor != LZF && version.before(Version.V_2_0_0)) {
+            return LZF;
+        }
+        return compressor;
+    }
+
     public static boolean isCompressed(BytesReference bytes) {
         return compressor(bytes) != null;
     }
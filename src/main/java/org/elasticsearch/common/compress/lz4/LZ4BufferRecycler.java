@@ -0,0 +1,89 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.LZ4Access;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * Keeps the buffers and the hash table of the last LZ4 stream of each thread around, so that they don't need to
+ * be allocated for every message that gets compressed or decompressed.
+ */
+final class LZ4BufferRecycler {
+
+    private static final ThreadLocal<SoftReference<LZ4BufferRecycler>> RECYCLER = new ThreadLocal<>();
+
+    static LZ4BufferRecycler instance() {
+        SoftReference<LZ4BufferRecycler> ref = RECYCLER.get();
+        LZ4BufferRecycler recycler = ref == null ? null : ref.get();
+        if (recycler == null) {
+            recycler = new LZ4BufferRecycler();
+            RECYCLER.set(new SoftReference<>(recycler));
+        }
+        return recycler;
+    }
+
+    private byte[] uncompressedBuffer;
+    private byte[] compressedBuffer;
+    private LZ4Access.HashTable hashTable;
+
+    private LZ4BufferRecycler() {
+    }
+
+    byte[] allocUncompressedBuffer() {
+        byte[] buffer = uncompressedBuffer;
+        if (buffer == null) {
+            return new byte[LZ4Compressor.CHUNK_SIZE];
+        }
+        uncompressedBuffer = null;
+        return buffer;
+    }
+
+    void releaseUncompressedBuffer(byte[] buffer) {
+        uncompressedBuffer = buffer;
+    }
+
+    byte[] allocCompressedBuffer() {
+        byte[] buffer = compressedBuffer;
+        if (buffer == null) {
+            return new byte[LZ4Access.maxCompressedLength(LZ4Compressor.CHUNK_SIZE)];
+        }
+        compressedBuffer = null;
+        return buffer;
+    }
+
+    void releaseCompressedBuffer(byte[] buffer) {
+        compressedBuffer = buffer;
+    }
+
+    LZ4Access.HashTable allocHashTable() {
+        LZ4Access.HashTable ht = hashTable;
+        if (ht == null) {
+            return new LZ4Access.HashTable();
+        }
+        hashTable = null;
+        return ht;
+    }
+
+    void releaseHashTable(LZ4Access.HashTable ht) {
+        hashTable = ht;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.LZ4Access;
+import org.apache.lucene.store.BufferedIndexInput;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.IndexInput;
+import org.elasticsearch.common.compress.CompressedIndexInput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ */
+@Deprecated
+public class LZ4CompressedIndexInput extends CompressedIndexInput<LZ4CompressorContext> {
+
+    // scratch area buffer
+    private byte[] inputBuffer;
+    private ByteArrayDataInput compressedIn;
+
+    public LZ4CompressedIndexInput(IndexInput in) throws IOException {
+        super(in, LZ4CompressorContext.INSTANCE);
+
+        this.uncompressed = new byte[LZ4Compressor.CHUNK_SIZE];
+        this.uncompressedLength = LZ4Compressor.CHUNK_SIZE;
+        this.inputBuffer = new byte[LZ4Access.maxCompressedLength(LZ4Compressor.CHUNK_SIZE)];
+        this.compressedIn = new ByteArrayDataInput();
+    }
+
+    @Override
+    protected void readHeader(IndexInput in) throws IOException {
+        byte[] header = new byte[LZ4Compressor.HEADER.length];
+        in.readBytes(header, 0, header.length, false);
+        if (!Arrays.equals(header, LZ4Compressor.HEADER)) {
+            throw new IOException("wrong lz4 compressed header [" + Arrays.toString(header) + "]");
+        }
+    }
+
+    @Override
+    protected int uncompress(IndexInput in, byte[] out) throws IOException {
+        final int uncompressedLength = in.readVInt();
+        final int compressedLength = in.readVInt();
+        if (uncompressedLength > out.length || compressedLength > inputBuffer.length) {
+            throw new IOException("corrupted lz4 chunk of length [" + uncompressedLength + "] compressed to [" + compressedLength + "]");
+        }
+        in.readBytes(inputBuffer, 0, compressedLength);
+        compressedIn.reset(inputBuffer, 0, compressedLength);
+        LZ4Access.decompress(compressedIn, uncompressedLength, out);
+        return uncompressedLength;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        // nothing to do here...
+    }
+
+    @Override
+    public IndexInput clone() {
+        LZ4CompressedIndexInput cloned = (LZ4CompressedIndexInput) super.clone();
+        cloned.inputBuffer = new byte[inputBuffer.length];
+        cloned.compressedIn = new ByteArrayDataInput();
+        return cloned;
+    }
+
+    @Override
+    public IndexInput slice(String description, long offset, long length) throws IOException {
+        return BufferedIndexInput.wrap(description, this, offset, length);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.codecs.compressing.LZ4Access;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.elasticsearch.common.compress.CompressedStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ */
+public class LZ4CompressedStreamInput extends CompressedStreamInput<LZ4CompressorContext> {
+
+    private final LZ4BufferRecycler recycler;
+    private final ByteArrayDataInput compressedIn = new ByteArrayDataInput();
+    // scratch area buffer
+    private byte[] inputBuffer;
+
+    public LZ4CompressedStreamInput(StreamInput in) throws IOException {
+        super(in, LZ4CompressorContext.INSTANCE);
+        this.recycler = LZ4BufferRecycler.instance();
+        this.uncompressed = recycler.allocUncompressedBuffer();
+        this.inputBuffer = recycler.allocCompressedBuffer();
+    }
+
+    @Override
+    public void readHeader(StreamInput in) throws IOException {
+        byte[] header = new byte[LZ4Compressor.HEADER.length];
+        in.readBytes(header, 0, header.length);
+        if (!Arrays.equals(header, LZ4Compressor.HEADER)) {
+            throw new IOException("wrong lz4 compressed header [" + Arrays.toString(header) + "]");
+        }
+    }
+
+    @Override
+    public int uncompress(StreamInput in, byte[] out) throws IOException {
+        final int firstByte = in.read();
+        if (firstByte == -1) {
+            return -1;
+        }
+        final int uncompressedLength = readVInt(in, firstByte);
+        final int compressedLength = in.readVInt();
+        if (uncompressedLength > out.length || compressedLength > inputBuffer.length) {
+            throw new IOException("corrupted lz4 chunk of length [" + uncompressedLength + "] compressed to [" + compressedLength + "]");
+        }
+        in.readBytes(inputBuffer, 0, compressedLength);
+        compressedIn.reset(inputBuffer, 0, compressedLength);
+        LZ4Access.decompress(compressedIn, uncompressedLength, out);
+        return uncompressedLength;
+    }
+
+    /**
+     * Reads the rest of a vint of which the first byte has already been read, since the end of the stream can only be
+     * detected on the first byte of a chunk.
+     */
+    private static int readVInt(StreamInput in, int firstByte) throws IOException {
+        int b = firstByte;
+        int i = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift > 28) {
+                throw new EOFException("corrupted lz4 chunk length");
+            }
+            b = in.readByte();
+            i |= (b & 0x7F) << shift;
+        }
+        return i;
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        byte[] buf = inputBuffer;
+        if (buf != null) {
+            inputBuffer = null;
+            recycler.releaseCompressedBuffer(buf);
+        }
+        buf = uncompressed;
+        if (buf != null) {
+            uncompressed = null;
+            recycler.releaseUncompressedBuffer(buf);
+        }
+    }
+}
@@ -311,7 +311,13 @@ public class GeoHashUtils {
         return ret.reset((interval[0] + interval[1]) / 2D, (interval[2] + interval[3]) / 2D);
     }
 
-    private static double[] decodeCell(String geohash) {
+    /**
+     * Decodes the given geohash into the bounds of its cell
+     *
+     * @param geohash Geohash to decode
+     * @return the bounds of the cell as <code>{minLat, maxLat, minLon, maxLon}</code>
+     */
+    public static double[] decodeCell(String geohash) {
         double[] interval = {-90.0, 90.0, -180.0, 180.0};
         boolean isEven = true;
 
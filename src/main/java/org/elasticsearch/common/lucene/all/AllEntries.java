@@ -20,9 +20,15 @@
 package org.elasticsearch.common.lucene.all;
 
 import com.google.common.collect.Lists;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.util.ArrayUtil;
 import org.elasticsearch.ElasticsearchIllegalStateException;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.FastCharArrayWriter;
 import org.elasticsearch.common.io.FastStringReader;
+import org.elasticsearch.index.analysis.FieldNameAnalyzer;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -43,6 +49,13 @@ public class AllEntries extends Reader {
         private final int startOffset;
         private final float boost;
 
+        // the tokens that the text of this entry was analyzed into, if they were captured
+        Analyzer analyzer;
+        boolean captured;
+        int firstToken;
+        int numTokens;
+        int endPositionIncrement;
+
         public Entry(String name, FastStringReader reader, int startOffset, float boost) {
             this.name = name;
             this.reader = reader;
@@ -77,7 +90,29 @@ public class AllEntries extends Reader {
 
     private boolean customBoost = false;
 
-    public void addText(String name, String text, float boost) {
+    private boolean captureTokens = false;
+
+    // the captured tokens of all entries: the start and length of the term in termChars, the position increment,
+    // and the start and end offsets relative to the text of the entry
+    private static final int TOKEN_INTS = 5;
+    private char[] termChars = new char[0];
+    private int numTermChars;
+    private int[] tokens = new int[0];
+    private int numTokens;
+
+    /**
+     * Sets whether the tokens that the fields of the entries are indexed with should be captured, so that they
+     * don't need to be analyzed again for the all field. See {@link AllEntryField}.
+     */
+    public void captureTokens(boolean captureTokens) {
+        this.captureTokens = captureTokens;
+    }
+
+    public boolean captureTokens() {
+        return captureTokens;
+    }
+
+    public Entry addText(String name, String text, float boost) {
         if (boost != 1.0f) {
             customBoost = true;
         }
@@ -91,6 +126,7 @@ public class AllEntries extends Reader {
         final int startOffset = lastStartOffset + 1; // +1 because we insert a space between tokens
         Entry entry = new Entry(name, new FastStringReader(text), startOffset, boost);
         entries.add(entry);
+        return entry;
     }
 
     public boolean customBoost() {
@@ -102,6 +138,8 @@ public class AllEntries extends Reader {
         this.current = null;
         this.it = null;
         itsSeparatorTime = false;
+        numTermChars = 0;
+        numTokens = 0;
     }
 
     public void reset() {
@@ -164,6 +202,104 @@ public class AllEntries extends Reader {
         return 1.0f;
     }
 
+    void startCapture(Entry entry, Analyzer analyzer) {
+        entry.analyzer = analyzer;
+        entry.captured = false;
+        entry.firstToken = numTokens;
+        entry.numTokens = 0;
+    }
+
+    void captureToken(Entry entry, char[] term, int termLength, int positionIncrement, int startOffset, int endOffset) {
+        assert entry.firstToken + entry.numTokens == numTokens : "tokens of an entry must be captured in a row";
+        termChars = ArrayUtil.grow(termChars, numTermChars + termLength);
+        System.arraycopy(term, 0, termChars, numTermChars, termLength);
+        tokens = ArrayUtil.grow(tokens, (numTokens + 1) * TOKEN_INTS);
+        final int base = numTokens * TOKEN_INTS;
+        tokens[base] = numTermChars;
+        tokens[base + 1] = termLength;
+        tokens[base + 2] = positionIncrement;
+        tokens[base + 3] = startOffset;
+        tokens[base + 4] = endOffset;
+        numTermChars += termLength;
+        numTokens++;
+        entry.numTokens++;
+    }
+
+    void endCapture(Entry entry, int endPositionIncrement) {
+        entry.endPositionIncrement = endPositionIncrement;
+        entry.captured = true;
+    }
+
+    void failCapture(Entry entry) {
+        entry.analyzer = null;
+        entry.captured = false;
+    }
+
+    /**
+     * Returns a token stream over the captured tokens of all entries, as if their texts were analyzed one after
+     * the other with the given analyzer, or <code>null</code> if tokens can't be captured for some entries. Entries
+     * whose tokens weren't captured with the same analyzer are analyzed again on their own.
+     *
+     * @param boostPayloads whether the boosts of the entries should be added to the tokens as payloads
+     */
+    @Nullable
+    public TokenStream capturedTokenStream(String fieldName, Analyzer analyzer, boolean boostPayloads) throws IOException {
+        final Analyzer fieldAnalyzer = fieldAnalyzer(analyzer, fieldName);
+        for (Entry entry : entries) {
+            if (entry.captured == false || entry.analyzer != fieldAnalyzer) {
+                try (TokenStream stream = new AllEntryCaptureFilter(fieldAnalyzer.tokenStream(fieldName, entry.reader().toString()), this, entry, fieldAnalyzer)) {
+                    stream.reset();
+                    while (stream.incrementToken()) {
+                    }
+                    stream.end();
+                }
+                if (entry.captured == false) {
+                    return null;
+                }
+            }
+        }
+        return new CapturedAllTokenStream(this, boostPayloads);
+    }
+
+    // accessors of the captured tokens, which are replayed by CapturedAllTokenStream
+
+    int termStart(int token) {
+        return tokens[token * TOKEN_INTS];
+    }
+
+    int termLength(int token) {
+        return tokens[token * TOKEN_INTS + 1];
+    }
+
+    char[] termChars() {
+        return termChars;
+    }
+
+    int positionIncrement(int token) {
+        return tokens[token * TOKEN_INTS + 2];
+    }
+
+    int startOffset(int token) {
+        return tokens[token * TOKEN_INTS + 3];
+    }
+
+    int endOffset(int token) {
+        return tokens[token * TOKEN_INTS + 4];
+    }
+
+    /**
+     * Returns the analyzer that the given analyzer of a document analyzes the given field with.
+     */
+    static Analyzer fieldAnalyzer(Analyzer analyzer, String fieldName) {
+        if (analyzer instanceof FieldNameAnalyzer) {
+            analyzer = ((FieldNameAnalyzer) analyzer).getAnalyzer(fieldName);
+        }
+        while (analyzer instanceof NamedAnalyzer) {
+            analyzer = ((NamedAnalyzer) analyzer).analyzer();
+        }
+        return analyzer;
+    }
+
     @Override
     public int read(char[] cbuf, int off, int len) throws IOException {
         if (current == null) {
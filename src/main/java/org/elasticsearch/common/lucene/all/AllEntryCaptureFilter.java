@@ -0,0 +1,101 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.lucene.all;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttributeImpl;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PackedTokenAttributeImpl;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+
+import java.io.IOException;
+
+/**
+ * A filter that captures the tokens of a {@link AllEntries.Entry} while they are consumed. Tokens are only captured
+ * if their terms are plain chars and they have no payloads, which are the only tokens that can be replayed as is.
+ */
+final class AllEntryCaptureFilter extends TokenFilter {
+
+    private final AllEntries allEntries;
+    private final AllEntries.Entry entry;
+    private final Analyzer analyzer;
+
+    private final CharTermAttribute termAttribute;
+    private final PositionIncrementAttribute positionIncrementAttribute;
+    private final OffsetAttribute offsetAttribute;
+    private final PayloadAttribute payloadAttribute;
+
+    private boolean capturing;
+
+    AllEntryCaptureFilter(TokenStream input, AllEntries allEntries, AllEntries.Entry entry, Analyzer analyzer) {
+        super(input);
+        this.allEntries = allEntries;
+        this.entry = entry;
+        this.analyzer = analyzer;
+        termAttribute = addAttribute(CharTermAttribute.class);
+        positionIncrementAttribute = addAttribute(PositionIncrementAttribute.class);
+        offsetAttribute = addAttribute(OffsetAttribute.class);
+        payloadAttribute = hasAttribute(PayloadAttribute.class) ? getAttribute(PayloadAttribute.class) : null;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        // other term attributes, such as collation keys, may index different bytes than their chars
+        final Class<?> termClass = termAttribute.getClass();
+        capturing = termClass == CharTermAttributeImpl.class || termClass == PackedTokenAttributeImpl.class;
+        if (capturing) {
+            allEntries.startCapture(entry, analyzer);
+        } else {
+            allEntries.failCapture(entry);
+        }
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        if (input.incrementToken() == false) {
+            return false;
+        }
+        if (capturing) {
+            if (payloadAttribute != null && payloadAttribute.getPayload() != null) {
+                capturing = false;
+                allEntries.failCapture(entry);
+            } else {
+                allEntries.captureToken(entry, termAttribute.buffer(), termAttribute.length(), positionIncrementAttribute.getPositionIncrement(),
+                        offsetAttribute.startOffset(), offsetAttribute.endOffset());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        if (capturing) {
+            capturing = false;
+            allEntries.endCapture(entry, positionIncrementAttribute.getPositionIncrement());
+        }
+    }
+}
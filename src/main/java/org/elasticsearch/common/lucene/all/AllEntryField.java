@@ -0,0 +1,62 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.lucene.all;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.elasticsearch.common.Nullable;
+
+import java.io.IOException;
+
+/**
+ * A field whose value is also an entry of the {@link AllField} of its document. If the {@link AllEntries} capture
+ * tokens, the tokens that this field is indexed with are captured, so that the all field can replay them instead of
+ * analyzing the value again if it uses the same analyzer. The all field needs to be indexed after this field.
+ */
+public class AllEntryField extends Field {
+
+    private AllEntries allEntries;
+    private AllEntries.Entry entry;
+
+    public AllEntryField(String name, String value, FieldType type) {
+        super(name, value, type);
+    }
+
+    /**
+     * Sets the entry of the all field that this field's value was added as, or <code>null</code> if the value
+     * isn't included in the all field.
+     */
+    public void allEntry(@Nullable AllEntries allEntries, @Nullable AllEntries.Entry entry) {
+        this.allEntries = allEntries;
+        this.entry = entry;
+    }
+
+    @Override
+    public TokenStream tokenStream(Analyzer analyzer, TokenStream reuse) throws IOException {
+        final TokenStream tokenStream = super.tokenStream(analyzer, reuse);
+        if (tokenStream == null || entry == null || allEntries.captureTokens() == false || fieldType().tokenized() == false) {
+            return tokenStream;
+        }
+        return new AllEntryCaptureFilter(tokenStream, allEntries, entry, AllEntries.fieldAnalyzer(analyzer, name()));
+    }
+}
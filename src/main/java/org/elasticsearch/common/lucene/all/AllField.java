@@ -66,7 +66,15 @@ public class AllField extends Field {
     public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
         try {
             allEntries.reset(); // reset the all entries, just in case it was read already
-            if (allEntries.customBoost() && fieldType().indexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0) {
+            final boolean boostPayloads = allEntries.customBoost() && fieldType().indexOptions().compareTo(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS) >= 0;
+            if (allEntries.captureTokens()) {
+                // replay the tokens that the fields of the entries were indexed with instead of analyzing them again
+                final TokenStream captured = allEntries.capturedTokenStream(name, analyzer, boostPayloads);
+                if (captured != null) {
+                    return captured;
+                }
+            }
+            if (boostPayloads) {
                 // TODO: we should be able to reuse "previous" if its instanceof AllTokenStream?
                 // but we need to be careful this optimization is safe (and tested)...
                 
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.lucene.all;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.apache.lucene.analysis.payloads.PayloadHelper.encodeFloat;
+
+/**
+ * A token stream that replays the captured tokens of all entries in order. Offsets are shifted by the start offset
+ * of their entry, and the position increment of the last tokens that were skipped at the end of an entry is carried
+ * over to the first token of the next one, so that tokens are the same as if the text of the entries were analyzed
+ * one after the other.
+ */
+final class CapturedAllTokenStream extends TokenStream {
+
+    private final AllEntries allEntries;
+    private final List<AllEntries.Entry> entries;
+    private final boolean boostPayloads;
+
+    private final BytesRef payloadSpare = new BytesRef(new byte[4]);
+
+    private final CharTermAttribute termAttribute;
+    private final PositionIncrementAttribute positionIncrementAttribute;
+    private final OffsetAttribute offsetAttribute;
+    private final PayloadAttribute payloadAttribute;
+
+    private int entryIndex;
+    private int tokenIndex;
+    private int pendingPositionIncrement;
+    private int finalOffset;
+
+    CapturedAllTokenStream(AllEntries allEntries, boolean boostPayloads) {
+        this.allEntries = allEntries;
+        this.entries = allEntries.entries();
+        this.boostPayloads = boostPayloads;
+        termAttribute = addAttribute(CharTermAttribute.class);
+        positionIncrementAttribute = addAttribute(PositionIncrementAttribute.class);
+        offsetAttribute = addAttribute(OffsetAttribute.class);
+        payloadAttribute = boostPayloads ? addAttribute(PayloadAttribute.class) : null;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        super.reset();
+        entryIndex = 0;
+        tokenIndex = 0;
+        pendingPositionIncrement = 0;
+        finalOffset = 0;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+        clearAttributes();
+        while (entryIndex < entries.size()) {
+            final AllEntries.Entry entry = entries.get(entryIndex);
+            if (tokenIndex < entry.numTokens) {
+                final int token = entry.firstToken + tokenIndex++;
+                termAttribute.copyBuffer(allEntries.termChars(), allEntries.termStart(token), allEntries.termLength(token));
+                positionIncrementAttribute.setPositionIncrement(pendingPositionIncrement + allEntries.positionIncrement(token));
+                pendingPositionIncrement = 0;
+                offsetAttribute.setOffset(entry.startOffset() + allEntries.startOffset(token), entry.startOffset() + allEntries.endOffset(token));
+                if (boostPayloads) {
+                    if (entry.boost() != 1.0f) {
+                        encodeFloat(entry.boost(), payloadSpare.bytes, payloadSpare.offset);
+                        payloadAttribute.setPayload(payloadSpare);
+                    } else {
+                        payloadAttribute.setPayload(null);
+                    }
+                }
+                return true;
+            }
+            pendingPositionIncrement += entry.endPositionIncrement;
+            finalOffset = entry.startOffset() + entry.reader().toString().length();
+            entryIndex++;
+            tokenIndex = 0;
+        }
+        return false;
+    }
+
+    @Override
+    public void end() throws IOException {
+        super.end();
+        positionIncrementAttribute.setPositionIncrement(pendingPositionIncrement);
+        offsetAttribute.setOffset(finalOffset, finalOffset);
+    }
+
+    @Override
+    public String toString() {
+        return allEntries.toString();
+    }
+}
@@ -129,6 +129,9 @@ public class FunctionScoreQuery extends Query {
                 return null;
             }
             function.setNextReader(context);
+            if (function.supportsBatchScoring()) {
+                return new BatchFunctionFactorScorer(this, subQueryScorer, function, maxBoost, combineFunction, minScore);
+            }
             return new FunctionFactorScorer(this, subQueryScorer, function, maxBoost, combineFunction, minScore);
         }
 
@@ -162,6 +165,131 @@ public class FunctionScoreQuery extends Query {
         }
     }
 
+    /**
+     * Scores the documents of the sub query in blocks with {@link ScoreFunction#score(int[], float[], int, double[])},
+     * reading ahead of the current document. Blocks grow while documents are consumed with {@link #nextDoc()} and
+     * shrink back to a single document on {@link #advance(int)}, so that leap-frogging with other scorers doesn't
+     * score many documents that are skipped.
+     */
+    static class BatchFunctionFactorScorer extends Scorer {
+
+        static final int MAX_BLOCK_SIZE = 128;
+
+        private final Scorer scorer;
+        private final ScoreFunction function;
+        private final float subQueryBoost;
+        private final float maxBoost;
+        private final CombineFunction scoreCombiner;
+        private final Float minScore;
+
+        private final int[] docs = new int[MAX_BLOCK_SIZE];
+        private final float[] subQueryScores = new float[MAX_BLOCK_SIZE];
+        private final double[] functionScores = new double[MAX_BLOCK_SIZE];
+        private final float[] scores = new float[MAX_BLOCK_SIZE];
+        private int blockSize = 1;
+        private int count;
+        private int upto;
+        private int doc = -1;
+        private boolean exhausted;
+
+        BatchFunctionFactorScorer(CustomBoostFactorWeight w, Scorer scorer, ScoreFunction function, float maxBoost, CombineFunction scoreCombiner, Float minScore) {
+            super(w);
+            this.scorer = scorer;
+            this.function = function;
+            this.subQueryBoost = w.getQuery().getBoost();
+            this.maxBoost = maxBoost;
+            this.scoreCombiner = scoreCombiner;
+            this.minScore = minScore;
+        }
+
+        @Override
+        public int docID() {
+            return doc;
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            while (true) {
+                if (++upto >= count) {
+                    if (exhausted || fill(scorer.nextDoc()) == false) {
+                        return doc = NO_MORE_DOCS;
+                    }
+                    blockSize = Math.min(blockSize << 1, MAX_BLOCK_SIZE);
+                }
+                if (competitive(upto)) {
+                    return doc = docs[upto];
+                }
+            }
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            while (++upto < count) {
+                if (docs[upto] >= target) {
+                    if (competitive(upto)) {
+                        return doc = docs[upto];
+                    }
+                    return nextDoc();
+                }
+            }
+            blockSize = 1;
+            if (exhausted || fill(scorer.advance(target)) == false) {
+                return doc = NO_MORE_DOCS;
+            }
+            if (competitive(upto)) {
+                return doc = docs[upto];
+            }
+            return nextDoc();
+        }
+
+        private boolean competitive(int index) {
+            return minScore == null || scores[index] >= minScore;
+        }
+
+        /**
+         * Reads the next block of documents of the sub query, starting with the given one, and scores it.
+         */
+        private boolean fill(int first) throws IOException {
+            upto = 0;
+            count = 0;
+            for (int d = first; ; d = scorer.nextDoc()) {
+                if (d == NO_MORE_DOCS) {
+                    exhausted = true;
+                    break;
+                }
+                docs[count] = d;
+                subQueryScores[count] = scorer.score();
+                if (++count == blockSize) {
+                    break;
+                }
+            }
+            if (count == 0) {
+                return false;
+            }
+            function.score(docs, subQueryScores, count, functionScores);
+            for (int i = 0; i < count; i++) {
+                scores[i] = scoreCombiner.combine(subQueryBoost, subQueryScores[i], functionScores[i], maxBoost);
+            }
+            return true;
+        }
+
+        @Override
+        public float score() throws IOException {
+            return scores[upto];
+        }
+
+        @Override
+        public int freq() throws IOException {
+            // the sub query may already be positioned on a document that was read ahead
+            return scorer.docID() == doc ? scorer.freq() : 1;
+        }
+
+        @Override
+        public long cost() {
+            return scorer.cost();
+        }
+    }
+
     public String toString(String field) {
         StringBuilder sb = new StringBuilder();
         sb.append("function score (").append(subQuery.toString(field)).append(",function=").append(function).append(')');
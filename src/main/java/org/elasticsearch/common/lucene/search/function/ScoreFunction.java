@@ -35,6 +35,23 @@ public abstract class ScoreFunction {
 
     public abstract Explanation explainScore(int docId, float subQueryScore);
 
+    /**
+     * Scores the first <code>count</code> documents of <code>docIds</code>, which are in increasing order,
+     * as if {@link #score(int, float)} was called for each of them.
+     */
+    public void score(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+        for (int i = 0; i < count; i++) {
+            scores[i] = score(docIds[i], subQueryScores[i]);
+        }
+    }
+
+    /**
+     * @return whether this function scores blocks of documents more efficiently than one document at a time
+     */
+    public boolean supportsBatchScoring() {
+        return false;
+    }
+
     public CombineFunction getDefaultScoreCombiner() {
         return scoreCombiner;
     }
@@ -22,6 +22,7 @@ package org.elasticsearch.common.lucene.search.function;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.Scorer;
+import org.elasticsearch.script.BatchSearchScript;
 import org.elasticsearch.script.SearchScript;
 
 import java.io.IOException;
@@ -99,6 +100,20 @@ public class ScriptScoreFunction extends ScoreFunction {
         return script.runAsDouble();
     }
 
+    @Override
+    public void score(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+        if (script instanceof BatchSearchScript) {
+            ((BatchSearchScript) script).runAsDoubles(docIds, subQueryScores, count, scores);
+        } else {
+            super.score(docIds, subQueryScores, count, scores);
+        }
+    }
+
+    @Override
+    public boolean supportsBatchScoring() {
+        return script instanceof BatchSearchScript;
+    }
+
     @Override
     public Explanation explainScore(int docId, float subQueryScore) {
         Explanation exp;
@@ -62,6 +62,20 @@ public class WeightFactorFunction extends ScoreFunction {
         return scoreFunction.score(docId, subQueryScore) * getWeight();
     }
 
+    @Override
+    public void score(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+        scoreFunction.score(docIds, subQueryScores, count, scores);
+        final float weight = getWeight();
+        for (int i = 0; i < count; i++) {
+            scores[i] *= weight;
+        }
+    }
+
+    @Override
+    public boolean supportsBatchScoring() {
+        return scoreFunction.supportsBatchScoring();
+    }
+
     @Override
     public Explanation explainScore(int docId, float score) {
         Explanation functionScoreExplanation;
@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the distribution of the latencies of an operation in the log-linear buckets of {@link LatencyStats}.
+ * <p/>
+ * Latencies are recorded without locking in stripes that threads are spread over by their id, so that threads
+ * that record concurrently rarely touch the same counters, and stripes are merged when the stats are read.
+ * Stripes are only allocated once a thread records into them.
+ * <p/>
+ * A stripe holds a counter per bucket, 304 longs or about 2.4KB, and there are at most {@link #MAX_STRIPES}
+ * of them, so a metric takes up to about 10KB once threads have recorded into all of its stripes. A shard
+ * tracks five of them (index, delete, get, query and fetch), up to about 50KB per shard.
+ */
+public class LatencyMetric implements Metric {
+
+    // more stripes would lower contention further, but every stripe costs a full set of counters per metric
+    static final int MAX_STRIPES = 4;
+    private static final int NUM_STRIPES;
+
+    static {
+        int stripes = 1;
+        final int processors = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors());
+        while (stripes < processors) {
+            stripes <<= 1;
+        }
+        NUM_STRIPES = stripes;
+    }
+
+    private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(NUM_STRIPES);
+
+    /**
+     * Records an operation that took the given number of nanoseconds.
+     */
+    public void inc(long tookInNanos) {
+        final int index = LatencyStats.bucket(TimeUnit.NANOSECONDS.toMicros(tookInNanos));
+        stripe().incrementAndGet(index);
+    }
+
+    private AtomicLongArray stripe() {
+        final int index = (int) Thread.currentThread().getId() & (NUM_STRIPES - 1);
+        AtomicLongArray stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new AtomicLongArray(LatencyStats.NUM_BUCKETS));
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    /**
+     * @return a snapshot of the latencies recorded so far
+     */
+    public LatencyStats stats() {
+        final long[] counts = new long[LatencyStats.NUM_BUCKETS];
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            final AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                for (int j = 0; j < counts.length; j++) {
+                    counts[j] += stripe.get(j);
+                }
+            }
+        }
+        return new LatencyStats(counts);
+    }
+
+    public void clear() {
+        for (int i = 0; i < NUM_STRIPES; i++) {
+            final AtomicLongArray stripe = stripes.get(i);
+            if (stripe != null) {
+                for (int j = 0; j < stripe.length(); j++) {
+                    stripe.set(j, 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of the latencies of an operation, in microseconds, as recorded by a {@link LatencyMetric}.
+ * <p/>
+ * Latencies are counted in log-linear buckets in the manner of HDR histograms: latencies under
+ * <code>2^SUB_BUCKET_BITS</code> micros have a bucket each, and every further power of two is split into
+ * <code>2^SUB_BUCKET_BITS</code> buckets of equal width, so that a percentile is never off by more than 12.5%
+ * whatever its magnitude. Latencies of more than {@link #MAX_VALUE} micros, about 12 days, are counted in the
+ * last bucket. Unlike means, the buckets of several shards or nodes can be summed and still give the right
+ * percentiles of the total.
+ */
+public class LatencyStats implements Streamable, ToXContent {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The highest latency in micros that has a bucket of its own.
+     */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    static final int NUM_BUCKETS = bucket(MAX_VALUE) + 1;
+
+    private static final double[] PERCENTS = new double[] { 50, 90, 99, 99.9 };
+    private static final XContentBuilderString[] FIELDS = new XContentBuilderString[] {
+            new XContentBuilderString("p50"), new XContentBuilderString("p90"),
+            new XContentBuilderString("p99"), new XContentBuilderString("p999") };
+    private static final XContentBuilderString[] FIELDS_IN_MICROS = new XContentBuilderString[] {
+            new XContentBuilderString("p50_in_micros"), new XContentBuilderString("p90_in_micros"),
+            new XContentBuilderString("p99_in_micros"), new XContentBuilderString("p999_in_micros") };
+
+    private long[] counts;
+    private long count;
+
+    public LatencyStats() {
+        this(new long[NUM_BUCKETS]);
+    }
+
+    LatencyStats(long[] counts) {
+        assert counts.length == NUM_BUCKETS;
+        this.counts = counts;
+        for (long c : counts) {
+            count += c;
+        }
+    }
+
+    static int bucket(long micros) {
+        final long value = Math.min(Math.max(0, micros), MAX_VALUE);
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        return ((long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1)))) << ((bucket >>> SUB_BUCKET_BITS) - 1);
+    }
+
+    /**
+     * Adds the latencies of the given stats to these stats.
+     */
+    public void add(LatencyStats stats) {
+        if (stats == null) {
+            return;
+        }
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += stats.counts[i];
+        }
+        count += stats.count;
+    }
+
+    /**
+     * @return the number of latencies that have been recorded
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the latency in micros that the given percentage, in <code>[0, 100]</code>, of the operations
+     * took at most, or <code>0</code> if no latencies have been recorded. The returned value is the upper bound
+     * of the bucket the percentile falls in, so that it errs on the side of being too high.
+     */
+    public long getPercentileInMicros(double percent) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.min(count, Math.max(1, (long) Math.ceil(percent / 100 * count)));
+        long cumulative = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return i == NUM_BUCKETS - 1 ? MAX_VALUE : lowerBound(i + 1) - 1;
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    public TimeValue getPercentile(double percent) {
+        return new TimeValue(getPercentileInMicros(percent), TimeUnit.MICROSECONDS);
+    }
+
+    public static LatencyStats readLatencyStats(StreamInput in) throws IOException {
+        LatencyStats stats = new LatencyStats();
+        stats.readFrom(in);
+        return stats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        counts = new long[NUM_BUCKETS];
+        count = 0;
+        // only the non empty buckets are written
+        final int size = in.readVInt();
+        for (int i = 0; i < size; i++) {
+            final int bucket = in.readVInt();
+            final long c = in.readVLong();
+            counts[bucket] = c;
+            count += c;
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        int size = 0;
+        for (long c : counts) {
+            if (c != 0) {
+                size++;
+            }
+        }
+        out.writeVInt(size);
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            if (counts[i] != 0) {
+                out.writeVInt(i);
+                out.writeVLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Renders the p50, p90, p99 and p999 latencies, in micros and, if human readable output is asked for,
+     * as time values.
+     */
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        for (int i = 0; i < PERCENTS.length; i++) {
+            final long micros = getPercentileInMicros(PERCENTS[i]);
+            if (builder.humanReadable()) {
+                builder.field(FIELDS[i], new TimeValue(micros, TimeUnit.MICROSECONDS).toString());
+            }
+            builder.field(FIELDS_IN_MICROS[i], micros);
+        }
+        return builder;
+    }
+}
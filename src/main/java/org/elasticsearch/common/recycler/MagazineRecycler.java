@@ -0,0 +1,242 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.recycler;
+
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.ElasticsearchIllegalStateException;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A concurrent {@link Recycler} that caches objects in per-thread magazines, which are refilled from and flushed to
+ * a shared depot in batches. Most calls to {@link #obtain()} and {@link Recycler.V#close()} only touch the magazine
+ * of the current thread and don't need any synchronization, and the depot is striped by thread to reduce contention
+ * further when batches are exchanged.
+ * <p/>
+ * A single thread caches at most <code>limit</code> objects: <code>magazineSize</code> in its magazine and the rest in
+ * its stripe of the depot. Every other thread that uses this recycler may cache up to <code>magazineSize</code> more
+ * objects in its own magazine, which are dropped when the thread dies.
+ */
+public class MagazineRecycler<T> extends AbstractRecycler<T> {
+
+    private final int magazineSize;
+    private final Depot[] depots;
+    private final Queue<WeakReference<Magazine>> magazines = ConcurrentCollections.newQueue();
+    private final ThreadLocal<Magazine> magazine = new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+            final Magazine magazine = new Magazine(magazineSize);
+            // forget about the magazines of threads that died
+            for (Iterator<WeakReference<Magazine>> it = magazines.iterator(); it.hasNext(); ) {
+                if (it.next().get() == null) {
+                    it.remove();
+                }
+            }
+            magazines.add(new WeakReference<>(magazine));
+            return magazine;
+        }
+    };
+
+    private final CounterMetric contended = new CounterMetric();
+
+    public MagazineRecycler(C<T> c, int limit, int magazineSize, int numDepots) {
+        super(c);
+        if (limit < 1 || magazineSize < 1 || numDepots < 1) {
+            throw new ElasticsearchIllegalArgumentException("limit, magazineSize and numDepots must be >= 1");
+        }
+        this.magazineSize = Math.min(magazineSize, limit);
+        final int depotLimit = limit - this.magazineSize;
+        depots = new Depot[numDepots];
+        for (int i = 0; i < numDepots; ++i) {
+            // spread the remainder over the first depots
+            depots[i] = new Depot(depotLimit / numDepots + (i < depotLimit % numDepots ? 1 : 0));
+        }
+    }
+
+    /**
+     * @return the number of times a thread had to wait for another one in order to exchange objects with the depot
+     */
+    public long contended() {
+        return contended.count();
+    }
+
+    private Depot depot() {
+        return depots[(int) (Thread.currentThread().getId() % depots.length)];
+    }
+
+    @Override
+    public V<T> obtain(int sizing) {
+        final Magazine magazine = this.magazine.get();
+        if (magazine.count == 0) {
+            // only take half of a magazine to leave room for releases
+            depot().take(magazine, Math.max(1, magazineSize >>> 1));
+        }
+        if (magazine.count == 0) {
+            return new MV(c.newInstance(sizing), false);
+        }
+        @SuppressWarnings("unchecked")
+        final T value = (T) magazine.pop();
+        return new MV(value, true);
+    }
+
+    void release(T value) {
+        final Magazine magazine = this.magazine.get();
+        if (magazine.count == magazineSize) {
+            depot().put(magazine, Math.max(1, magazineSize >>> 1));
+        }
+        if (magazine.count == magazineSize) {
+            c.destroy(value);
+        } else {
+            c.recycle(value);
+            magazine.push(value);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void close() {
+        for (WeakReference<Magazine> ref : magazines) {
+            final Magazine magazine = ref.get();
+            if (magazine != null) {
+                while (magazine.count > 0) {
+                    c.destroy((T) magazine.pop());
+                }
+            }
+        }
+        magazines.clear();
+        for (Depot depot : depots) {
+            depot.lock.lock();
+            try {
+                while (depot.count > 0) {
+                    c.destroy((T) depot.items[--depot.count]);
+                    depot.items[depot.count] = null;
+                }
+            } finally {
+                depot.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Magazine {
+
+        final Object[] items;
+        int count;
+
+        Magazine(int size) {
+            items = new Object[size];
+        }
+
+        Object pop() {
+            final Object item = items[--count];
+            items[count] = null;
+            return item;
+        }
+
+        void push(Object item) {
+            items[count++] = item;
+        }
+    }
+
+    private final class Depot {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Object[] items;
+        int count;
+
+        Depot(int limit) {
+            items = new Object[limit];
+        }
+
+        private void lock() {
+            if (lock.tryLock() == false) {
+                contended.inc();
+                lock.lock();
+            }
+        }
+
+        /** Moves up to <code>max</code> objects from this depot to the given magazine. */
+        void take(Magazine magazine, int max) {
+            lock();
+            try {
+                final int n = Math.min(max, Math.min(count, magazine.items.length - magazine.count));
+                count -= n;
+                System.arraycopy(items, count, magazine.items, magazine.count, n);
+                magazine.count += n;
+                for (int i = count; i < count + n; ++i) {
+                    items[i] = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Moves up to <code>max</code> objects from the given magazine to this depot. */
+        void put(Magazine magazine, int max) {
+            lock();
+            try {
+                final int n = Math.min(max, Math.min(magazine.count, items.length - count));
+                magazine.count -= n;
+                System.arraycopy(magazine.items, magazine.count, items, count, n);
+                count += n;
+                for (int i = magazine.count; i < magazine.count + n; ++i) {
+                    magazine.items[i] = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private class MV implements Recycler.V<T> {
+
+        T value;
+        final boolean recycled;
+
+        MV(T value, boolean recycled) {
+            this.value = value;
+            this.recycled = recycled;
+        }
+
+        @Override
+        public T v() {
+            return value;
+        }
+
+        @Override
+        public boolean isRecycled() {
+            return recycled;
+        }
+
+        @Override
+        public void close() {
+            if (value == null) {
+                throw new ElasticsearchIllegalStateException("recycler entry already released...");
+            }
+            final T v = value;
+            value = null;
+            release(v);
+        }
+    }
+}
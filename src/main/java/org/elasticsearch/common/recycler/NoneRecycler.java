@@ -22,6 +22,7 @@ package org.elasticsearch.common.recycler;
 import org.elasticsearch.ElasticsearchIllegalStateException;
 
 /**
+ * A {@link Recycler} that never reuses objects, they are destroyed as soon as they are released.
  */
 public class NoneRecycler<T> extends AbstractRecycler<T> {
 
@@ -31,7 +32,7 @@ public class NoneRecycler<T> extends AbstractRecycler<T> {
 
     @Override
     public V<T> obtain(int sizing) {
-        return new NV<>(c.newInstance(sizing));
+        return new NV<>(c, c.newInstance(sizing));
     }
 
     @Override
@@ -41,9 +42,11 @@ public class NoneRecycler<T> extends AbstractRecycler<T> {
 
     public static class NV<T> implements Recycler.V<T> {
 
+        final C<T> c;
         T value;
 
-        NV(T value) {
+        NV(C<T> c, T value) {
+            this.c = c;
             this.value = value;
         }
 
@@ -62,6 +65,7 @@ public class NoneRecycler<T> extends AbstractRecycler<T> {
             if (value == null) {
                 throw new ElasticsearchIllegalStateException("recycler entry already released...");
             }
+            c.destroy(value);
             value = null;
         }
     }
@@ -43,6 +43,16 @@ public enum Recyclers {
         return new ConcurrentDequeRecycler<>(c, limit);
     }
 
+    /**
+     * Return a concurrent recycler that caches objects in per-thread magazines of <code>magazineSize</code> objects,
+     * backed by a depot that is split into <code>numDepots</code> stripes.
+     *
+     * @see MagazineRecycler
+     */
+    public static <T> MagazineRecycler<T> magazine(Recycler.C<T> c, int limit, int magazineSize, int numDepots) {
+        return new MagazineRecycler<>(c, limit, magazineSize, numDepots);
+    }
+
     /**
      * Return a recycler based on a deque.
      */
@@ -125,6 +125,58 @@ public abstract class TimeZoneRounding extends Rounding {
         }
     }
 
+    /**
+     * Rounds down a local time to the given unit. Units of a fixed length are rounded with integer math while months,
+     * quarters and years go through the unit's {@link DateTimeField}.
+     */
+    static long roundFloor(DateTimeUnit unit, DateTimeField field, long localMillis) {
+        switch (unit) {
+            case SECOND_OF_MINUTE:
+                return floor(localMillis, DateTimeConstants.MILLIS_PER_SECOND);
+            case MINUTES_OF_HOUR:
+                return floor(localMillis, DateTimeConstants.MILLIS_PER_MINUTE);
+            case HOUR_OF_DAY:
+                return floor(localMillis, DateTimeConstants.MILLIS_PER_HOUR);
+            case DAY_OF_MONTH:
+                return floor(localMillis, DateTimeConstants.MILLIS_PER_DAY);
+            case WEEK_OF_WEEKYEAR:
+                // weeks start on monday, the epoch is a thursday
+                return floor(localMillis - FIRST_MONDAY_MILLIS, DateTimeConstants.MILLIS_PER_WEEK) + FIRST_MONDAY_MILLIS;
+            default:
+                return field.roundFloor(localMillis);
+        }
+    }
+
+    private static final long FIRST_MONDAY_MILLIS = 4L * DateTimeConstants.MILLIS_PER_DAY;
+
+    private static long floor(long value, long unitMillis) {
+        return Rounding.Interval.roundKey(value, unitMillis) * unitMillis;
+    }
+
+    /**
+     * Resolves the offsets of a zone through a {@link TimeZoneTransitions} table which is built around the first
+     * instant that is looked up, the values that get rounded by a single aggregation are usually close to each other.
+     */
+    static final class ZoneOffsets {
+
+        private final DateTimeZone tz;
+        private TimeZoneTransitions transitions;
+
+        ZoneOffsets(DateTimeZone tz) {
+            this.tz = tz;
+        }
+
+        int getOffset(long utcMillis) {
+            TimeZoneTransitions transitions = this.transitions;
+            if (transitions == null) {
+                // the table is immutable, building it more than once under concurrent use is harmless
+                transitions = TimeZoneTransitions.around(tz, utcMillis);
+                this.transitions = transitions;
+            }
+            return transitions.getOffset(utcMillis);
+        }
+    }
+
     static class TimeTimeZoneRoundingFloor extends TimeZoneRounding {
 
         static final byte ID = 1;
@@ -134,6 +186,8 @@ public abstract class TimeZoneRounding extends Rounding {
         private DurationField durationField;
         private DateTimeZone preTz;
         private DateTimeZone postTz;
+        private ZoneOffsets preOffsets;
+        private ZoneOffsets postOffsets;
 
         TimeTimeZoneRoundingFloor() { // for serialization
         }
@@ -144,6 +198,8 @@ public abstract class TimeZoneRounding extends Rounding {
             durationField = field.getDurationField();
             this.preTz = preTz;
             this.postTz = postTz;
+            this.preOffsets = new ZoneOffsets(preTz);
+            this.postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -153,15 +209,15 @@ public abstract class TimeZoneRounding extends Rounding {
 
         @Override
         public long roundKey(long utcMillis) {
-            long offset = preTz.getOffset(utcMillis);
+            long offset = preOffsets.getOffset(utcMillis);
             long time = utcMillis + offset;
-            return field.roundFloor(time) - offset;
+            return roundFloor(unit, field, time) - offset;
         }
 
         @Override
         public long valueForKey(long time) {
             // now apply post Tz
-            time = time + postTz.getOffset(time);
+            time = time + postOffsets.getOffset(time);
             return time;
         }
 
@@ -177,6 +233,8 @@ public abstract class TimeZoneRounding extends Rounding {
             durationField = field.getDurationField();
             preTz = DateTimeZone.forID(in.readSharedString());
             postTz = DateTimeZone.forID(in.readSharedString());
+            preOffsets = new ZoneOffsets(preTz);
+            postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -211,7 +269,7 @@ public abstract class TimeZoneRounding extends Rounding {
 
         @Override
         public long roundKey(long utcMillis) {
-            return field.roundFloor(utcMillis);
+            return roundFloor(unit, field, utcMillis);
         }
 
         @Override
@@ -246,6 +304,8 @@ public abstract class TimeZoneRounding extends Rounding {
         private DurationField durationField;
         private DateTimeZone preTz;
         private DateTimeZone postTz;
+        private ZoneOffsets preOffsets;
+        private ZoneOffsets postOffsets;
 
         DayTimeZoneRoundingFloor() { // for serialization
         }
@@ -256,6 +316,8 @@ public abstract class TimeZoneRounding extends Rounding {
             durationField = field.getDurationField();
             this.preTz = preTz;
             this.postTz = postTz;
+            this.preOffsets = new ZoneOffsets(preTz);
+            this.postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -265,15 +327,15 @@ public abstract class TimeZoneRounding extends Rounding {
 
         @Override
         public long roundKey(long utcMillis) {
-            long time = utcMillis + preTz.getOffset(utcMillis);
-            return field.roundFloor(time);
+            long time = utcMillis + preOffsets.getOffset(utcMillis);
+            return roundFloor(unit, field, time);
         }
 
         @Override
         public long valueForKey(long time) {
             // after rounding, since its day level (and above), its actually UTC!
             // now apply post Tz
-            time = time + postTz.getOffset(time);
+            time = time + postOffsets.getOffset(time);
             return time;
         }
 
@@ -289,6 +351,8 @@ public abstract class TimeZoneRounding extends Rounding {
             durationField = field.getDurationField();
             preTz = DateTimeZone.forID(in.readSharedString());
             postTz = DateTimeZone.forID(in.readSharedString());
+            preOffsets = new ZoneOffsets(preTz);
+            postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -351,6 +415,8 @@ public abstract class TimeZoneRounding extends Rounding {
         private long interval;
         private DateTimeZone preTz;
         private DateTimeZone postTz;
+        private ZoneOffsets preOffsets;
+        private ZoneOffsets postOffsets;
 
         TimeIntervalTimeZoneRounding() { // for serialization
         }
@@ -359,6 +425,8 @@ public abstract class TimeZoneRounding extends Rounding {
             this.interval = interval;
             this.preTz = preTz;
             this.postTz = postTz;
+            this.preOffsets = new ZoneOffsets(preTz);
+            this.postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -368,7 +436,7 @@ public abstract class TimeZoneRounding extends Rounding {
 
         @Override
         public long roundKey(long utcMillis) {
-            long time = utcMillis + preTz.getOffset(utcMillis);
+            long time = utcMillis + preOffsets.getOffset(utcMillis);
             return Rounding.Interval.roundKey(time, interval);
         }
 
@@ -376,9 +444,9 @@ public abstract class TimeZoneRounding extends Rounding {
         public long valueForKey(long key) {
             long time = Rounding.Interval.roundValue(key, interval);
             // now, time is still in local, move it to UTC
-            time = time - preTz.getOffset(time);
+            time = time - preOffsets.getOffset(time);
             // now apply post Tz
-            time = time + postTz.getOffset(time);
+            time = time + postOffsets.getOffset(time);
             return time;
         }
 
@@ -392,6 +460,8 @@ public abstract class TimeZoneRounding extends Rounding {
             interval = in.readVLong();
             preTz = DateTimeZone.forID(in.readSharedString());
             postTz = DateTimeZone.forID(in.readSharedString());
+            preOffsets = new ZoneOffsets(preTz);
+            postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -409,6 +479,8 @@ public abstract class TimeZoneRounding extends Rounding {
         private long interval;
         private DateTimeZone preTz;
         private DateTimeZone postTz;
+        private ZoneOffsets preOffsets;
+        private ZoneOffsets postOffsets;
 
         DayIntervalTimeZoneRounding() { // for serialization
         }
@@ -417,6 +489,8 @@ public abstract class TimeZoneRounding extends Rounding {
             this.interval = interval;
             this.preTz = preTz;
             this.postTz = postTz;
+            this.preOffsets = new ZoneOffsets(preTz);
+            this.postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -426,7 +500,7 @@ public abstract class TimeZoneRounding extends Rounding {
 
         @Override
         public long roundKey(long utcMillis) {
-            long time = utcMillis + preTz.getOffset(utcMillis);
+            long time = utcMillis + preOffsets.getOffset(utcMillis);
             return Rounding.Interval.roundKey(time, interval);
         }
 
@@ -435,7 +509,7 @@ public abstract class TimeZoneRounding extends Rounding {
             long time = Rounding.Interval.roundValue(key, interval);
             // after rounding, since its day level (and above), its actually UTC!
             // now apply post Tz
-            time = time + postTz.getOffset(time);
+            time = time + postOffsets.getOffset(time);
             return time;
         }
 
@@ -449,6 +523,8 @@ public abstract class TimeZoneRounding extends Rounding {
             interval = in.readVLong();
             preTz = DateTimeZone.forID(in.readSharedString());
             postTz = DateTimeZone.forID(in.readSharedString());
+            preOffsets = new ZoneOffsets(preTz);
+            postOffsets = new ZoneOffsets(postTz);
         }
 
         @Override
@@ -0,0 +1,135 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.rounding;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.joda.time.DateTimeConstants;
+import org.joda.time.DateTimeZone;
+
+import java.util.Arrays;
+
+/**
+ * A precomputed table of the offset transitions of a {@link DateTimeZone} over a bounded range of UTC instants.
+ * Offsets of instants within the range are resolved with a binary search over primitive arrays, instants outside
+ * of it fall back to {@link DateTimeZone#getOffset(long)}.
+ */
+final class TimeZoneTransitions {
+
+    /**
+     * The range covered on each side of the instant a table is built around, 20 years is about 40 transitions
+     * for zones that observe daylight savings.
+     */
+    static final long WINDOW = 20L * 366 * DateTimeConstants.MILLIS_PER_DAY;
+
+    /**
+     * Upper bound on the number of periods a table may hold, protects against zones with unusually frequent transitions.
+     */
+    static final int MAX_PERIODS = 1024;
+
+    private final DateTimeZone tz;
+    private final long min; // inclusive
+    private final long max; // exclusive
+    private final long[] starts;
+    private final int[] offsets;
+
+    private TimeZoneTransitions(DateTimeZone tz, long min, long max, long[] starts, int[] offsets) {
+        this.tz = tz;
+        this.min = min;
+        this.max = max;
+        this.starts = starts;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds a table of the transitions of the given zone within {@link #WINDOW} of the given instant.
+     */
+    static TimeZoneTransitions around(DateTimeZone tz, long utcMillis) {
+        long min = utcMillis < Long.MIN_VALUE + WINDOW ? Long.MIN_VALUE : utcMillis - WINDOW;
+        long max = utcMillis > Long.MAX_VALUE - WINDOW ? Long.MAX_VALUE : utcMillis + WINDOW;
+        return build(tz, min, max);
+    }
+
+    /**
+     * Builds a table of the transitions of the given zone for instants in <code>[min, max)</code>.
+     */
+    static TimeZoneTransitions build(DateTimeZone tz, long min, long max) {
+        if (tz.isFixed()) {
+            return new TimeZoneTransitions(tz, Long.MIN_VALUE, Long.MAX_VALUE, new long[] { Long.MIN_VALUE }, new int[] { tz.getOffset(min) });
+        }
+        long[] starts = new long[16];
+        int[] offsets = new int[16];
+        int count = 0;
+        long start = min;
+        while (true) {
+            starts = ArrayUtil.grow(starts, count + 1);
+            offsets = ArrayUtil.grow(offsets, count + 1);
+            starts[count] = start;
+            offsets[count] = tz.getOffset(start);
+            count++;
+            final long next = tz.nextTransition(start);
+            if (next <= start || next >= max) {
+                // no more transitions within the range
+                break;
+            }
+            if (count == MAX_PERIODS) {
+                // stop the table where the next period would start, instants after that go through the zone
+                max = next;
+                break;
+            }
+            start = next;
+        }
+        return new TimeZoneTransitions(tz, min, max, Arrays.copyOf(starts, count), Arrays.copyOf(offsets, count));
+    }
+
+    /**
+     * @return whether the given instant is covered by this table
+     */
+    boolean contains(long utcMillis) {
+        return utcMillis >= min && utcMillis < max;
+    }
+
+    /**
+     * Returns the offset of the zone at the given instant, equivalent to {@link DateTimeZone#getOffset(long)}.
+     */
+    int getOffset(long utcMillis) {
+        if (utcMillis < min || utcMillis >= max) {
+            return tz.getOffset(utcMillis);
+        }
+        // find the last period that starts before or at the given instant
+        int lo = 0;
+        int hi = starts.length - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (starts[mid] <= utcMillis) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return offsets[lo];
+    }
+
+    /**
+     * @return the number of periods of constant offset held in this table
+     */
+    int size() {
+        return starts.length;
+    }
+}
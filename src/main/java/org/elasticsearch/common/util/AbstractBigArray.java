@@ -25,8 +25,10 @@ import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.cache.recycler.PageCacheRecycler;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.recycler.Recyclers;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /** Common implementation for array lists that slice data into fixed-size blocks. */
@@ -34,6 +36,8 @@ abstract class AbstractBigArray extends AbstractArray {
 
     private static final long EMPTY_SIZE = RamUsageEstimator.shallowSizeOfInstance(AbstractBigArray.class) + RamUsageEstimator.NUM_BYTES_OBJECT_REF + RamUsageEstimator.NUM_BYTES_ARRAY_HEADER;
 
+    private static final Recycler<ByteBuffer> UNRECYCLED_DIRECT_PAGES = Recyclers.none(PageCacheRecycler.DIRECT_PAGE);
+
     private final PageCacheRecycler recycler;
     private Recycler.V<?>[] cache;
 
@@ -96,12 +100,20 @@ abstract class AbstractBigArray extends AbstractArray {
     }
 
     private <T> T registerNewPage(Recycler.V<T> v, int page, int expectedSize) {
+        assert Array.getLength(v.v()) == expectedSize;
+        return registerNewPage(v, page);
+    }
+
+    private <T> T registerNewPage(Recycler.V<T> v, int page) {
+        if (cache == null) {
+            // only happens for direct pages when there is no recycler, they still need to be freed
+            cache = new Recycler.V<?>[16];
+        }
         cache = grow(cache, page + 1);
         assert cache[page] == null;
         cache[page] = v;
-        assert Array.getLength(v.v()) == expectedSize;
         return v.v();
-      }
+    }
 
     protected final byte[] newBytePage(int page) {
         if (recycler != null) {
@@ -157,8 +169,20 @@ abstract class AbstractBigArray extends AbstractArray {
         }
     }
 
-    protected final void releasePage(int page) {
+    /** Returns a page of {@link BigArrays#PAGE_SIZE_IN_BYTES} bytes that is stored outside of the heap. */
+    protected final ByteBuffer newDirectPage(int page) {
         if (recycler != null) {
+            final Recycler.V<ByteBuffer> v = recycler.directPage(clearOnResize);
+            assert v.v().capacity() == BigArrays.PAGE_SIZE_IN_BYTES;
+            return registerNewPage(v, page);
+        } else {
+            // not recycled, but freed on release instead of waiting for the garbage collector
+            return registerNewPage(UNRECYCLED_DIRECT_PAGES.obtain(), page);
+        }
+    }
+
+    protected final void releasePage(int page) {
+        if (cache != null) {
             cache[page].close();
             cache[page] = null;
         }
@@ -166,7 +190,7 @@ abstract class AbstractBigArray extends AbstractArray {
 
     @Override
     protected final void doClose() {
-        if (recycler != null) {
+        if (cache != null) {
             Releasables.close(cache);
             cache = null;
         }
@@ -44,6 +44,11 @@ public class BigArrays extends AbstractComponent {
 
     public static final BigArrays NON_RECYCLING_INSTANCE = new BigArrays(ImmutableSettings.EMPTY, null, null);
 
+    /**
+     * Whether to store the pages of int, long, float and double arrays outside of the heap, in direct byte buffers.
+     */
+    public static final String OFF_HEAP = "bigarrays.off_heap";
+
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
     public static final int BYTE_PAGE_SIZE = BigArrays.PAGE_SIZE_IN_BYTES / RamUsageEstimator.NUM_BYTES_BYTE;
@@ -366,6 +371,7 @@ public class BigArrays extends AbstractComponent {
     final PageCacheRecycler recycler;
     final CircuitBreakerService breakerService;
     final boolean checkBreaker;
+    final boolean offHeap;
 
     @Inject
     public BigArrays(Settings settings, PageCacheRecycler recycler, @Nullable final CircuitBreakerService breakerService) {
@@ -378,6 +384,7 @@ public class BigArrays extends AbstractComponent {
         this.checkBreaker = checkBreaker;
         this.recycler = recycler;
         this.breakerService = breakerService;
+        this.offHeap = settings.getAsBoolean(OFF_HEAP, false);
     }
 
     /**
@@ -529,7 +536,9 @@ public class BigArrays extends AbstractComponent {
      */
     public IntArray newIntArray(long size, boolean clearOnResize) {
         final IntArray array;
-        if (size > INT_PAGE_SIZE) {
+        if (offHeap && size >= INT_PAGE_SIZE / 2) {
+            array = new DirectIntArray(size, this, clearOnResize);
+        } else if (size > INT_PAGE_SIZE) {
             array = new BigIntArray(size, this, clearOnResize);
         } else if (size >= INT_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<int[]> page = recycler.intPage(clearOnResize);
@@ -552,6 +561,8 @@ public class BigArrays extends AbstractComponent {
     public IntArray resize(IntArray array, long size) {
         if (array instanceof BigIntArray) {
             return resizeInPlace((BigIntArray) array, size);
+        } else if (array instanceof DirectIntArray) {
+            return resizeInPlace((DirectIntArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final IntArray newArray = newIntArray(size, arr.clearOnResize);
@@ -579,7 +590,9 @@ public class BigArrays extends AbstractComponent {
      */
     public LongArray newLongArray(long size, boolean clearOnResize) {
         final LongArray array;
-        if (size > LONG_PAGE_SIZE) {
+        if (offHeap && size >= LONG_PAGE_SIZE / 2) {
+            array = new DirectLongArray(size, this, clearOnResize);
+        } else if (size > LONG_PAGE_SIZE) {
             array = new BigLongArray(size, this, clearOnResize);
         } else if (size >= LONG_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<long[]> page = recycler.longPage(clearOnResize);
@@ -602,6 +615,8 @@ public class BigArrays extends AbstractComponent {
     public LongArray resize(LongArray array, long size) {
         if (array instanceof BigLongArray) {
             return resizeInPlace((BigLongArray) array, size);
+        } else if (array instanceof DirectLongArray) {
+            return resizeInPlace((DirectLongArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -629,7 +644,9 @@ public class BigArrays extends AbstractComponent {
      */
     public DoubleArray newDoubleArray(long size, boolean clearOnResize) {
         final DoubleArray arr;
-        if (size > DOUBLE_PAGE_SIZE) {
+        if (offHeap && size >= DOUBLE_PAGE_SIZE / 2) {
+            arr = new DirectDoubleArray(size, this, clearOnResize);
+        } else if (size > DOUBLE_PAGE_SIZE) {
             arr = new BigDoubleArray(size, this, clearOnResize);
         } else if (size >= DOUBLE_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<double[]> page = recycler.doublePage(clearOnResize);
@@ -649,6 +666,8 @@ public class BigArrays extends AbstractComponent {
     public DoubleArray resize(DoubleArray array, long size) {
         if (array instanceof BigDoubleArray) {
             return resizeInPlace((BigDoubleArray) array, size);
+        } else if (array instanceof DirectDoubleArray) {
+            return resizeInPlace((DirectDoubleArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
@@ -676,7 +695,9 @@ public class BigArrays extends AbstractComponent {
      */
     public FloatArray newFloatArray(long size, boolean clearOnResize) {
         final FloatArray array;
-        if (size > FLOAT_PAGE_SIZE) {
+        if (offHeap && size >= FLOAT_PAGE_SIZE / 2) {
+            array = new DirectFloatArray(size, this, clearOnResize);
+        } else if (size > FLOAT_PAGE_SIZE) {
             array = new BigFloatArray(size, this, clearOnResize);
         } else if (size >= FLOAT_PAGE_SIZE / 2 && recycler != null) {
             final Recycler.V<float[]> page = recycler.floatPage(clearOnResize);
@@ -696,6 +717,8 @@ public class BigArrays extends AbstractComponent {
     public FloatArray resize(FloatArray array, long size) {
         if (array instanceof BigFloatArray) {
             return resizeInPlace((BigFloatArray) array, size);
+        } else if (array instanceof DirectFloatArray) {
+            return resizeInPlace((DirectFloatArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final FloatArray newArray = newFloatArray(size, arr.clearOnResize);
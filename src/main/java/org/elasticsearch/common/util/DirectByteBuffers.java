@@ -0,0 +1,96 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.common.util;
+
+import org.elasticsearch.common.logging.ESLogger;
+import org.elasticsearch.common.logging.Loggers;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Utility methods to release the memory of direct {@link ByteBuffer}s without waiting for them to be garbage
+ * collected. The JVM only frees direct memory when the buffers get collected, and only triggers a collection
+ * itself through {@link System#gc()} when direct memory runs out, which does nothing when explicit GCs are
+ * disabled, as they are by the startup scripts. Buffers that are not going to be used anymore should therefore
+ * be freed explicitly.
+ */
+public enum DirectByteBuffers {
+    ;
+
+    private static final ESLogger logger = Loggers.getLogger(DirectByteBuffers.class);
+
+    private static final Method CLEANER_METHOD;
+    private static final Method CLEAN_METHOD;
+
+    static {
+        Method cleanerMethod = null;
+        Method cleanMethod = null;
+        try {
+            // the same hack as Lucene's MMapDirectory uses to unmap buffers
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(1);
+            cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            final Object cleaner = cleanerMethod.invoke(buffer);
+            cleanMethod = cleaner.getClass().getMethod("clean");
+            cleanMethod.setAccessible(true);
+            cleanMethod.invoke(cleaner);
+        } catch (Throwable t) {
+            logger.debug("direct byte buffers can't be freed explicitly on this JVM, they will be freed when garbage collected", t);
+            cleanerMethod = null;
+            cleanMethod = null;
+        }
+        CLEANER_METHOD = cleanerMethod;
+        CLEAN_METHOD = cleanMethod;
+    }
+
+    /**
+     * @return whether direct buffers can be freed explicitly on this JVM
+     */
+    public static boolean freeSupported() {
+        return CLEAN_METHOD != null;
+    }
+
+    /**
+     * Frees the memory of the given direct buffer right away. The buffer, as well as any view of it, must not be
+     * accessed anymore afterwards. Buffers that are not direct, or that are views of other buffers, are left to
+     * the garbage collector.
+     *
+     * @return whether the memory of the buffer has been freed
+     */
+    public static boolean free(ByteBuffer buffer) {
+        if (buffer.isDirect() == false || CLEAN_METHOD == null) {
+            return false;
+        }
+        try {
+            final Object cleaner = CLEANER_METHOD.invoke(buffer);
+            if (cleaner == null) {
+                // slices and duplicates don't own their memory
+                return false;
+            }
+            CLEAN_METHOD.invoke(cleaner);
+            return true;
+        } catch (Throwable t) {
+            logger.debug("failed to free direct byte buffer", t);
+            return false;
+        }
+    }
+}
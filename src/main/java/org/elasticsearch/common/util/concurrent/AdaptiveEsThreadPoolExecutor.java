@@ -0,0 +1,191 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed size thread pool whose bounded queue adapts to the time tasks spend in it.
+ * <p/>
+ * Overload is detected the way CoDel does: the time tasks spent in the queue is measured when they start,
+ * and when the minimum of these times over an interval exceeds the target, the queue is standing rather than
+ * absorbing a burst. While it is, tasks that waited longer than the target are rejected instead of executed,
+ * which drains the queue quickly and fails requests that likely already timed out at the client, instead of
+ * executing them after everything else. Moreover, the capacity of the queue is resized at the end of every
+ * interval to the number of tasks that the pool can execute in one interval, given the mean service time
+ * of the tasks of the last interval, bounded by the minimum and maximum queue sizes.
+ * <p/>
+ * Only tasks that extend {@link AbstractRunnable} are measured and may be rejected once queued, other tasks
+ * are executed as with a fixed thread pool.
+ */
+public class AdaptiveEsThreadPoolExecutor extends EsThreadPoolExecutor {
+
+    private final SizeBlockingQueue<Runnable> queue;
+    private final EsAbortPolicy abortPolicy;
+    private final int minQueueSize;
+    private final int maxQueueSize;
+    private final TimeValue target;
+    private final TimeValue interval;
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private final Object mutex = new Object();
+    // the state of the current interval, guarded by the mutex
+    private long intervalStart;
+    private long minQueueTime = Long.MAX_VALUE;
+    private long serviceTime;
+    private long serviceCount;
+    private volatile boolean overloaded;
+
+    AdaptiveEsThreadPoolExecutor(int size, int minQueueSize, int maxQueueSize, TimeValue target, TimeValue interval,
+                                 SizeBlockingQueue<Runnable> queue, ThreadFactory threadFactory, EsAbortPolicy abortPolicy) {
+        super(size, size, 0, TimeUnit.MILLISECONDS, queue, threadFactory, abortPolicy);
+        this.queue = queue;
+        this.abortPolicy = abortPolicy;
+        this.minQueueSize = minQueueSize;
+        this.maxQueueSize = maxQueueSize;
+        this.target = target;
+        this.interval = interval;
+        this.targetNanos = target.nanos();
+        this.intervalNanos = interval.nanos();
+        this.intervalStart = System.nanoTime();
+    }
+
+    public int getMinQueueSize() {
+        return minQueueSize;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public TimeValue getTarget() {
+        return target;
+    }
+
+    public TimeValue getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the current capacity of the queue
+     */
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * @return whether tasks that waited longer than the target in the queue are currently rejected
+     */
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command instanceof AbstractRunnable) {
+            command = new TimedRunnable((AbstractRunnable) command);
+        }
+        super.execute(command);
+    }
+
+    /**
+     * Called when a task is about to start, returns whether it should be rejected instead.
+     */
+    boolean onStart(long queueTime, long now) {
+        synchronized (mutex) {
+            minQueueTime = Math.min(minQueueTime, queueTime);
+            if (now - intervalStart >= intervalNanos) {
+                overloaded = minQueueTime > targetNanos;
+                if (serviceCount > 0) {
+                    final long meanServiceTime = Math.max(1, serviceTime / serviceCount);
+                    final long capacity = getMaximumPoolSize() * intervalNanos / meanServiceTime;
+                    queue.capacity((int) Math.max(minQueueSize, Math.min(maxQueueSize, capacity)));
+                }
+                intervalStart = now;
+                minQueueTime = Long.MAX_VALUE;
+                serviceTime = 0;
+                serviceCount = 0;
+            }
+            return overloaded && queueTime > targetNanos;
+        }
+    }
+
+    void onCompleted(long serviceTime) {
+        synchronized (mutex) {
+            this.serviceTime += serviceTime;
+            serviceCount++;
+        }
+    }
+
+    private final class TimedRunnable extends AbstractRunnable {
+
+        private final AbstractRunnable delegate;
+        private final long queuedNanos = System.nanoTime();
+
+        TimedRunnable(AbstractRunnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            final long start = System.nanoTime();
+            if (onStart(start - queuedNanos, start) && delegate.isForceExecution() == false) {
+                abortPolicy.incrementRejected();
+                delegate.onRejection(new EsRejectedExecutionException("rejected execution (queued for ["
+                        + TimeValue.timeValueNanos(start - queuedNanos) + "], more than the target of [" + target + "]) on " + delegate));
+                return;
+            }
+            try {
+                delegate.doRun();
+            } finally {
+                onCompleted(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public boolean isForceExecution() {
+            return delegate.isForceExecution();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            delegate.onFailure(t);
+        }
+
+        @Override
+        public void onRejection(Throwable t) {
+            delegate.onRejection(t);
+        }
+
+        @Override
+        public void onAfter() {
+            delegate.onAfter();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
@@ -62,6 +62,13 @@ public class EsAbortPolicy implements XRejectedExecutionHandler {
         throw new EsRejectedExecutionException(sb.toString());
     }
 
+    /**
+     * Counts a task that was rejected after it had been queued.
+     */
+    void incrementRejected() {
+        rejected.inc();
+    }
+
     @Override
     public long rejected() {
         return rejected.count();
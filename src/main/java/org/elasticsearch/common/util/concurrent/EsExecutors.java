@@ -21,6 +21,7 @@ package org.elasticsearch.common.util.concurrent;
 
 import com.google.common.base.Joiner;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -73,6 +74,15 @@ public class EsExecutors {
         return new EsThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, queue, threadFactory, new EsAbortPolicy());
     }
 
+    /**
+     * Creates a fixed size thread pool whose queue rejects tasks that waited too long when it is overloaded, and
+     * is resized between the given minimum and maximum sizes, see {@link AdaptiveEsThreadPoolExecutor}.
+     */
+    public static AdaptiveEsThreadPoolExecutor newAdaptive(int size, int minQueueSize, int maxQueueSize, TimeValue target, TimeValue interval, ThreadFactory threadFactory) {
+        SizeBlockingQueue<Runnable> queue = new SizeBlockingQueue<>(ConcurrentCollections.<Runnable>newBlockingQueue(), maxQueueSize);
+        return new AdaptiveEsThreadPoolExecutor(size, minQueueSize, maxQueueSize, target, interval, queue, threadFactory, new EsAbortPolicy());
+    }
+
     public static String threadName(Settings settings, String ... names) {
         return threadName(settings, "[" +  Joiner.on(".").skipNulls().join(names) + "]");
     }
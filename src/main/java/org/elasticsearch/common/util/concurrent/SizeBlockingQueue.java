@@ -36,7 +36,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class SizeBlockingQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
 
     private final BlockingQueue<E> queue;
-    private final int capacity;
+    private volatile int capacity;
 
     private final AtomicInteger size = new AtomicInteger();
 
@@ -55,6 +55,15 @@ public class SizeBlockingQueue<E> extends AbstractQueue<E> implements BlockingQu
         return this.capacity;
     }
 
+    /**
+     * Changes the capacity of this queue. Elements that are already queued are kept even if there are more
+     * of them than the new capacity.
+     */
+    void capacity(int capacity) {
+        assert capacity >= 0;
+        this.capacity = capacity;
+    }
+
     @Override
     public Iterator<E> iterator() {
         final Iterator<E> it = queue.iterator();
@@ -54,6 +54,8 @@ import org.elasticsearch.discovery.Discovery;
 import org.elasticsearch.discovery.DiscoverySettings;
 import org.elasticsearch.discovery.InitialStateDiscoveryListener;
 import org.elasticsearch.discovery.zen.elect.ElectMasterService;
+import org.elasticsearch.discovery.zen.fd.FaultDetection;
+import org.elasticsearch.discovery.zen.fd.GossipFaultDetection;
 import org.elasticsearch.discovery.zen.fd.MasterFaultDetection;
 import org.elasticsearch.discovery.zen.fd.NodesFaultDetection;
 import org.elasticsearch.discovery.zen.membership.MembershipAction;
@@ -106,6 +108,10 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
     private final ZenPingService pingService;
     private final MasterFaultDetection masterFD;
     private final NodesFaultDetection nodesFD;
+    private final NodeFaultDetectionListener nodeFDListener;
+    // the gossip handlers are registered on every node, but it only replaces nodesFD if it is configured
+    private final GossipFaultDetection gossipFD;
+    private final boolean gossipEnabled;
     private final PublishClusterStateAction publishClusterState;
     private final MembershipAction membership;
 
@@ -190,7 +196,20 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         this.masterFD.addListener(new MasterNodeFailureListener());
 
         this.nodesFD = new NodesFaultDetection(settings, threadPool, transportService, clusterName);
-        this.nodesFD.addListener(new NodeFaultDetectionListener());
+        this.nodeFDListener = new NodeFaultDetectionListener();
+        this.nodesFD.addListener(nodeFDListener);
+
+        String fdType = settings.get(FaultDetection.SETTING_TYPE, "ping");
+        if (GossipFaultDetection.TYPE.equals(fdType)) {
+            this.gossipEnabled = true;
+        } else if ("ping".equals(fdType)) {
+            this.gossipEnabled = false;
+        } else {
+            throw new ElasticsearchIllegalArgumentException("'" + FaultDetection.SETTING_TYPE + "' must be one of [ping, gossip]. got [" + fdType + "]");
+        }
+        // always created so that nodes answer the probes of gossip nodes, even if they are configured with ping
+        this.gossipFD = new GossipFaultDetection(settings, threadPool, transportService, clusterName);
+        this.gossipFD.addListener(new GossipFaultDetectionListener());
 
         this.publishClusterState = new PublishClusterStateAction(settings, transportService, this, new NewClusterStateListener(), discoverySettings, clusterName);
         this.pingService.setPingContextProvider(this);
@@ -232,6 +251,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
     @Override
     protected void doStart() throws ElasticsearchException {
         nodesFD.setLocalNode(clusterService.localNode());
+        gossipFD.setLocalNode(clusterService.localNode());
         joinThreadControl.start();
         pingService.start();
 
@@ -256,7 +276,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         joinThreadControl.stop();
         pingService.stop();
         masterFD.stop("zen disco stop");
-        nodesFD.stop();
+        stopNodesFD();
         initialStateSent.set(false);
         DiscoveryNodes nodes = nodes();
         if (sendLeaveRequest) {
@@ -289,6 +309,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
     protected void doClose() throws ElasticsearchException {
         masterFD.close();
         nodesFD.close();
+        gossipFD.close();
         publishClusterState.close();
         membership.close();
         pingService.close();
@@ -338,10 +359,29 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         if (!clusterState.getNodes().localNodeMaster()) {
             throw new ElasticsearchIllegalStateException("Shouldn't publish state when not master");
         }
-        nodesFD.updateNodesAndPing(clusterState);
+        startNodesFD(clusterState);
         publishClusterState.publish(clusterState, ackListener);
     }
 
+    /**
+     * starts or updates the fault detection of the nodes of the given cluster state, called on the master only
+     */
+    private void startNodesFD(ClusterState clusterState) {
+        if (gossipEnabled) {
+            gossipFD.updateNodesAndProbe(clusterState);
+        } else {
+            nodesFD.updateNodesAndPing(clusterState);
+        }
+    }
+
+    private void stopNodesFD() {
+        if (gossipEnabled) {
+            gossipFD.stop();
+        } else {
+            nodesFD.stop();
+        }
+    }
+
     /**
      * returns true if zen discovery is started and there is a currently a background thread active for (re)joining
      * the cluster used for testing.
@@ -400,7 +440,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
                     if (newState.nodes().localNodeMaster()) {
                         // we only starts nodesFD if we are master (it may be that we received a cluster state while pinging)
                         joinThreadControl.markThreadAsDone(currentThread);
-                        nodesFD.updateNodesAndPing(newState); // start the nodes FD
+                        startNodesFD(newState); // start the nodes FD
                     } else {
                         // if we're not a master it means another node published a cluster state while we were pinging
                         // make sure we go through another pinging round and actively join it
@@ -659,11 +699,11 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
                     masterFD.stop("got elected as new master since master left (reason = " + reason + ")");
                     discoveryNodes = DiscoveryNodes.builder(discoveryNodes).masterNodeId(localNode.id()).build();
                     ClusterState newState = ClusterState.builder(currentState).nodes(discoveryNodes).build();
-                    nodesFD.updateNodesAndPing(newState);
+                    startNodesFD(newState);
                     return newState;
 
                 } else {
-                    nodesFD.stop();
+                    stopNodesFD();
                     if (electedMaster != null) {
                         discoveryNodes = DiscoveryNodes.builder(discoveryNodes).masterNodeId(electedMaster.id()).build();
                         masterFD.restart(electedMaster, "possible elected master since master left (reason = " + reason + ")");
@@ -807,6 +847,11 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
                             masterFD.restart(updatedState.nodes().masterNode(), "new cluster state received and we are monitoring the wrong master [" + masterFD.masterNode() + "]");
                         }
 
+                        // with gossip fault detection all nodes take part in monitoring the nodes, not only the master
+                        if (gossipEnabled) {
+                            gossipFD.updateNodesAndProbe(updatedState);
+                        }
+
                         if (currentState.blocks().hasGlobalBlock(discoverySettings.getNoMasterBlock())) {
                             // its a fresh update from the master as we transition from a start of not having a master to having one
                             logger.debug("got first state from fresh master [{}]", updatedState.nodes().masterNodeId());
@@ -1051,7 +1096,7 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         assert Thread.currentThread().getName().contains(InternalClusterService.UPDATE_THREAD_NAME);
 
         logger.warn(reason + ", current nodes: {}", clusterState.nodes());
-        nodesFD.stop();
+        stopNodesFD();
         masterFD.stop(reason);
 
 
@@ -1142,6 +1187,10 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
 
         @Override
         public void onPingReceived(final NodesFaultDetection.PingRequest pingRequest) {
+            onPingFromMaster(pingRequest.masterNode(), pingRequest.clusterStateVersion());
+        }
+
+        void onPingFromMaster(@Nullable final DiscoveryNode masterNode, final long clusterStateVersion) {
             // if we are master, we don't expect any fault detection from another node. If we get it
             // means we potentially have two masters in the cluster.
             if (!localNodeMaster()) {
@@ -1150,21 +1199,21 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
             }
 
             // nodes pre 1.4.0 do not send this information
-            if (pingRequest.masterNode() == null) {
+            if (masterNode == null) {
                 return;
             }
 
             if (pingsWhileMaster.incrementAndGet() < maxPingsFromAnotherMaster) {
-                logger.trace("got a ping from another master {}. current ping count: [{}]", pingRequest.masterNode(), pingsWhileMaster.get());
+                logger.trace("got a ping from another master {}. current ping count: [{}]", masterNode, pingsWhileMaster.get());
                 return;
             }
-            logger.debug("got a ping from another master {}. resolving who should rejoin. current ping count: [{}]", pingRequest.masterNode(), pingsWhileMaster.get());
+            logger.debug("got a ping from another master {}. resolving who should rejoin. current ping count: [{}]", masterNode, pingsWhileMaster.get());
             clusterService.submitStateUpdateTask("ping from another master", Priority.IMMEDIATE, new ClusterStateUpdateTask() {
 
                 @Override
                 public ClusterState execute(ClusterState currentState) throws Exception {
                     pingsWhileMaster.set(0);
-                    return handleAnotherMaster(currentState, pingRequest.masterNode(), pingRequest.clusterStateVersion(), "node fd ping");
+                    return handleAnotherMaster(currentState, masterNode, clusterStateVersion, "node fd ping");
                 }
 
                 @Override
@@ -1175,6 +1224,19 @@ public class ZenDiscovery extends AbstractLifecycleComponent<Discovery> implemen
         }
     }
 
+    private class GossipFaultDetectionListener extends GossipFaultDetection.Listener {
+
+        @Override
+        public void onNodeFailure(DiscoveryNode node, String reason) {
+            handleNodeFailure(node, reason);
+        }
+
+        @Override
+        public void onProbeFromMaster(DiscoveryNode masterNode, long clusterStateVersion) {
+            nodeFDListener.onPingFromMaster(masterNode, clusterStateVersion);
+        }
+    }
+
     private class MasterNodeFailureListener implements MasterFaultDetection.Listener {
 
         @Override
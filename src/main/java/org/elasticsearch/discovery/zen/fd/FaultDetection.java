@@ -30,11 +30,12 @@ import org.elasticsearch.transport.TransportService;
 import static org.elasticsearch.common.unit.TimeValue.timeValueSeconds;
 
 /**
- * A base class for {@link org.elasticsearch.discovery.zen.fd.MasterFaultDetection} & {@link org.elasticsearch.discovery.zen.fd.NodesFaultDetection},
- * making sure both use the same setting.
+ * A base class for {@link org.elasticsearch.discovery.zen.fd.MasterFaultDetection}, {@link org.elasticsearch.discovery.zen.fd.NodesFaultDetection}
+ * & {@link org.elasticsearch.discovery.zen.fd.GossipFaultDetection}, making sure all use the same setting.
  */
 public abstract class FaultDetection extends AbstractComponent {
 
+    public static final String SETTING_TYPE = "discovery.zen.fd.type";
     public static final String SETTING_CONNECT_ON_NETWORK_DISCONNECT = "discovery.zen.fd.connect_on_network_disconnect";
     public static final String SETTING_PING_INTERVAL = "discovery.zen.fd.ping_interval";
     public static final String SETTING_PING_TIMEOUT = "discovery.zen.fd.ping_timeout";
@@ -0,0 +1,665 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.discovery.zen.fd;
+
+import org.elasticsearch.ElasticsearchIllegalStateException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.common.util.concurrent.ConcurrentCollections.newConcurrentMap;
+import static org.elasticsearch.transport.TransportRequestOptions.options;
+
+/**
+ * A SWIM style fault detection of the nodes of the cluster, which is used instead of {@link NodesFaultDetection}
+ * if <code>discovery.zen.fd.type</code> is set to <code>gossip</code>.
+ * <p/>
+ * Instead of the master pinging every node, every node probes one other node per <code>ping_interval</code>, going
+ * through the nodes of the cluster in a random order that is reshuffled on every round. A node that doesn't answer
+ * is probed indirectly through <code>discovery.zen.fd.gossip.indirect_probes</code> random other nodes, so that a
+ * bad link between two nodes doesn't fail either of them. If none of these probes succeeds either, the node is
+ * reported as suspected to the master, which pings it itself with the usual <code>ping_timeout</code> and
+ * <code>ping_retries</code> before it reports it as failed. The master only does work for suspected nodes, so its
+ * load doesn't grow with the size of the cluster. The master itself is still monitored by {@link MasterFaultDetection}.
+ * <p/>
+ * The probe handlers are registered on every node, whatever fault detection it is configured with, so that nodes
+ * that don't probe themselves still answer the probes of the others. Nodes that don't know the probe action at all
+ * are treated as alive, the failure shows they answered. The setting should still be the same on all nodes: with
+ * mixed settings only the gossip nodes take part in the probing, while a ping master keeps pinging every node itself.
+ */
+public class GossipFaultDetection extends FaultDetection {
+
+    public static final String TYPE = "gossip";
+
+    public static final String PROBE_ACTION_NAME = "internal:discovery/zen/fd/gossip/probe";
+    public static final String INDIRECT_PROBE_ACTION_NAME = "internal:discovery/zen/fd/gossip/indirect_probe";
+    public static final String SUSPECT_ACTION_NAME = "internal:discovery/zen/fd/gossip/suspect";
+
+    public static final String SETTING_INDIRECT_PROBES = "discovery.zen.fd.gossip.indirect_probes";
+
+    public abstract static class Listener {
+
+        public void onNodeFailure(DiscoveryNode node, String reason) {}
+
+        public void onProbeFromMaster(DiscoveryNode masterNode, long clusterStateVersion) {}
+
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final int indirectProbes;
+
+    // the suspected nodes the master is currently pinging
+    private final ConcurrentMap<String, DiscoveryNode> verifying = newConcurrentMap();
+
+    private volatile DiscoveryNode localNode;
+
+    private volatile DiscoveryNodes nodes;
+
+    private volatile long clusterStateVersion = ClusterState.UNKNOWN_VERSION;
+
+    private volatile Prober prober;
+
+    public GossipFaultDetection(Settings settings, ThreadPool threadPool, TransportService transportService, ClusterName clusterName) {
+        super(settings, threadPool, transportService, clusterName);
+        this.indirectProbes = settings.getAsInt(SETTING_INDIRECT_PROBES, 3);
+
+        logger.debug("[gossip] uses ping_interval [{}], ping_timeout [{}], ping_retries [{}], indirect_probes [{}]", pingInterval, pingRetryTimeout, pingRetryCount, indirectProbes);
+
+        transportService.registerHandler(PROBE_ACTION_NAME, new ProbeRequestHandler());
+        transportService.registerHandler(INDIRECT_PROBE_ACTION_NAME, new IndirectProbeRequestHandler());
+        transportService.registerHandler(SUSPECT_ACTION_NAME, new SuspectRequestHandler());
+    }
+
+    public void setLocalNode(DiscoveryNode localNode) {
+        this.localNode = localNode;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * make sure that the nodes in clusterState are probed, starting the probing if it isn't running yet
+     */
+    public synchronized void updateNodesAndProbe(ClusterState clusterState) {
+        this.nodes = clusterState.nodes();
+        this.clusterStateVersion = clusterState.version();
+        for (DiscoveryNode node : verifying.values()) {
+            if (!clusterState.nodes().nodeExists(node.id())) {
+                verifying.remove(node.id(), node);
+            }
+        }
+        if (prober == null) {
+            prober = new Prober();
+            // we use schedule with a 0 time value to run the prober on the pool as it will run on later
+            threadPool.schedule(TimeValue.timeValueMillis(0), ThreadPool.Names.SAME, prober);
+        }
+    }
+
+    /** stops all probing **/
+    public synchronized GossipFaultDetection stop() {
+        prober = null;
+        nodes = null;
+        verifying.clear();
+        return this;
+    }
+
+    public void close() {
+        super.close();
+        stop();
+        transportService.removeHandler(PROBE_ACTION_NAME);
+        transportService.removeHandler(INDIRECT_PROBE_ACTION_NAME);
+        transportService.removeHandler(SUSPECT_ACTION_NAME);
+    }
+
+    @Override
+    protected void handleTransportDisconnect(DiscoveryNode node) {
+        // only the master acts on disconnects, other nodes will find out on their next probe of the node
+        final DiscoveryNodes nodes = this.nodes;
+        if (nodes == null || !nodes.localNodeMaster() || !monitored(nodes, node)) {
+            return;
+        }
+        logger.trace("[gossip] [{}] transport disconnected", node);
+        verify(node, "transport disconnected");
+    }
+
+    /**
+     * Whether the given node is probed by the gossip rounds. The local node doesn't need to be probed and the
+     * master is monitored by {@link MasterFaultDetection} already.
+     */
+    private boolean monitored(DiscoveryNodes nodes, DiscoveryNode node) {
+        return node.equals(nodes.get(node.id())) && !node.equals(localNode) && !node.equals(nodes.masterNode());
+    }
+
+    private void sendProbe(final DiscoveryNode node, final ProbeListener listener) {
+        final DiscoveryNodes nodes = this.nodes;
+        // let the node know if it is probed by a master, which it uses to detect that there are two masters
+        final DiscoveryNode masterNode = nodes != null && nodes.localNodeMaster() ? localNode : null;
+        final ProbeRequest probeRequest = new ProbeRequest(node.id(), clusterName, masterNode, clusterStateVersion);
+        final TransportRequestOptions options = options().withType(TransportRequestOptions.Type.PING).withTimeout(pingRetryTimeout);
+        transportService.sendRequest(node, PROBE_ACTION_NAME, probeRequest, options, new BaseTransportResponseHandler<TransportResponse.Empty>() {
+            @Override
+            public TransportResponse.Empty newInstance() {
+                return TransportResponse.Empty.INSTANCE;
+            }
+
+            @Override
+            public void handleResponse(TransportResponse.Empty response) {
+                listener.onAck();
+            }
+
+            @Override
+            public void handleException(TransportException exp) {
+                if (ExceptionsHelper.unwrapCause(exp) instanceof ActionNotFoundTransportException) {
+                    // the node answered, it just doesn't know about gossip probes (e.g. a node of an older version)
+                    logger.trace("[gossip] [{}] doesn't support probes, treating it as alive", node);
+                    listener.onAck();
+                } else {
+                    listener.onFailure(exp);
+                }
+            }
+
+            @Override
+            public String executor() {
+                return ThreadPool.Names.SAME;
+            }
+        });
+    }
+
+    /**
+     * Probes the given node through other random nodes, the master is never used so that it doesn't get the load
+     * of the probes. The listener is acked if any of these nodes could probe the node.
+     */
+    private void sendIndirectProbes(DiscoveryNodes nodes, final DiscoveryNode node, final ProbeListener listener) {
+        final List<DiscoveryNode> candidates = new ArrayList<>();
+        for (DiscoveryNode candidate : nodes) {
+            if (!candidate.equals(node) && !candidate.equals(localNode) && !candidate.equals(nodes.masterNode())) {
+                candidates.add(candidate);
+            }
+        }
+        Collections.shuffle(candidates, ThreadLocalRandom.current());
+        final int count = Math.min(indirectProbes, candidates.size());
+        if (count == 0) {
+            listener.onFailure(new ElasticsearchIllegalStateException("no nodes to probe [" + node + "] through"));
+            return;
+        }
+        final AtomicInteger pending = new AtomicInteger(count);
+        final AtomicBoolean acked = new AtomicBoolean();
+        final IndirectProbeRequest request = new IndirectProbeRequest(clusterName, node);
+        // give the other node enough time to wait for its own probe
+        final TransportRequestOptions options = options().withType(TransportRequestOptions.Type.PING).withTimeout(TimeValue.timeValueMillis(pingRetryTimeout.millis() * 2));
+        for (int i = 0; i < count; i++) {
+            transportService.sendRequest(candidates.get(i), INDIRECT_PROBE_ACTION_NAME, request, options, new BaseTransportResponseHandler<TransportResponse.Empty>() {
+                @Override
+                public TransportResponse.Empty newInstance() {
+                    return TransportResponse.Empty.INSTANCE;
+                }
+
+                @Override
+                public void handleResponse(TransportResponse.Empty response) {
+                    if (acked.compareAndSet(false, true)) {
+                        listener.onAck();
+                    }
+                }
+
+                @Override
+                public void handleException(TransportException exp) {
+                    if (pending.decrementAndGet() == 0) {
+                        listener.onFailure(exp);
+                    }
+                }
+
+                @Override
+                public String executor() {
+                    return ThreadPool.Names.SAME;
+                }
+            });
+        }
+    }
+
+    private void reportSuspect(DiscoveryNode node, String reason) {
+        final DiscoveryNodes nodes = this.nodes;
+        if (nodes == null) {
+            return;
+        }
+        if (nodes.localNodeMaster()) {
+            verify(node, reason);
+            return;
+        }
+        final DiscoveryNode masterNode = nodes.masterNode();
+        if (masterNode == null) {
+            return;
+        }
+        transportService.sendRequest(masterNode, SUSPECT_ACTION_NAME, new SuspectRequest(clusterName, node, localNode, reason), EmptyTransportResponseHandler.INSTANCE_SAME);
+    }
+
+    /**
+     * Called on the master for suspected nodes, pings the node and fails it if it doesn't answer.
+     */
+    private void verify(DiscoveryNode node, String reason) {
+        final DiscoveryNodes nodes = this.nodes;
+        if (nodes == null || !nodes.localNodeMaster() || !monitored(nodes, node)) {
+            return;
+        }
+        if (verifying.putIfAbsent(node.id(), node) != null) {
+            // already being verified
+            return;
+        }
+        logger.debug("[gossip] [{}] is suspected to have failed ({}), pinging it", node, reason);
+        sendProbe(node, new Verification(node, reason));
+    }
+
+    private void notifyNodeFailure(final DiscoveryNode node, final String reason) {
+        threadPool.generic().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Listener listener : listeners) {
+                    listener.onNodeFailure(node, reason);
+                }
+            }
+        });
+    }
+
+    private void notifyProbeFromMaster(final DiscoveryNode masterNode, final long clusterStateVersion) {
+        threadPool.generic().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Listener listener : listeners) {
+                    listener.onProbeFromMaster(masterNode, clusterStateVersion);
+                }
+            }
+        });
+    }
+
+    private interface ProbeListener {
+
+        void onAck();
+
+        void onFailure(Throwable t);
+    }
+
+    /**
+     * Runs the gossip rounds, probing one node per protocol period.
+     */
+    private class Prober implements Runnable {
+
+        // the nodes of the current round, in the random order they are probed in
+        private final List<DiscoveryNode> round = new ArrayList<>();
+        private int index;
+
+        private boolean running() {
+            return Prober.this.equals(prober);
+        }
+
+        private void scheduleNext() {
+            if (running()) {
+                threadPool.schedule(pingInterval, ThreadPool.Names.SAME, Prober.this);
+            }
+        }
+
+        @Nullable
+        private DiscoveryNode nextNode(DiscoveryNodes nodes) {
+            while (index < round.size()) {
+                final DiscoveryNode node = round.get(index++);
+                if (monitored(nodes, node)) {
+                    return node;
+                }
+            }
+            // start a new round, picking up nodes that joined in the meantime
+            round.clear();
+            index = 0;
+            for (DiscoveryNode node : nodes) {
+                if (monitored(nodes, node)) {
+                    round.add(node);
+                }
+            }
+            Collections.shuffle(round, ThreadLocalRandom.current());
+            return round.isEmpty() ? null : round.get(index++);
+        }
+
+        @Override
+        public void run() {
+            if (!running()) {
+                return;
+            }
+            final DiscoveryNodes nodes = GossipFaultDetection.this.nodes;
+            final DiscoveryNode node = nodes == null ? null : nextNode(nodes);
+            if (node == null) {
+                scheduleNext();
+                return;
+            }
+            sendProbe(node, new ProbeListener() {
+                @Override
+                public void onAck() {
+                    scheduleNext();
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (!running()) {
+                        return;
+                    }
+                    logger.trace("[gossip] failed to probe [{}], probing it through other nodes", t, node);
+                    sendIndirectProbes(nodes, node, new ProbeListener() {
+                        @Override
+                        public void onAck() {
+                            scheduleNext();
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                            if (!running()) {
+                                return;
+                            }
+                            logger.debug("[gossip] failed to probe [{}] directly and through other nodes, reporting it to the master", t, node);
+                            reportSuspect(node, "failed to probe, directly and through other nodes");
+                            scheduleNext();
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    /**
+     * Pings a suspected node on the master, with the same timeout and retries as {@link NodesFaultDetection}.
+     */
+    private class Verification implements ProbeListener {
+
+        private final DiscoveryNode node;
+        private final String reason;
+        private int retryCount;
+
+        private Verification(DiscoveryNode node, String reason) {
+            this.node = node;
+            this.reason = reason;
+        }
+
+        private boolean running() {
+            return node.equals(verifying.get(node.id()));
+        }
+
+        @Override
+        public void onAck() {
+            if (verifying.remove(node.id(), node)) {
+                logger.debug("[gossip] suspected node [{}] answered, ignoring the suspicion ({})", node, reason);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            if (!running()) {
+                return;
+            }
+            if (t instanceof ConnectTransportException || t.getCause() instanceof ConnectTransportException) {
+                failed("transport disconnected (suspected: " + reason + ")");
+                return;
+            }
+            retryCount++;
+            logger.trace("[gossip] failed to ping suspected node [{}], retry [{}] out of [{}]", t, node, retryCount, pingRetryCount);
+            if (retryCount >= pingRetryCount) {
+                failed("failed to ping, tried [" + pingRetryCount + "] times, each with maximum [" + pingRetryTimeout + "] timeout (suspected: " + reason + ")");
+            } else {
+                sendProbe(node, this);
+            }
+        }
+
+        private void failed(String failure) {
+            if (verifying.remove(node.id(), node)) {
+                logger.debug("[gossip] suspected node [{}] failed: {}", node, failure);
+                notifyNodeFailure(node, failure);
+            }
+        }
+    }
+
+    class ProbeRequestHandler extends BaseTransportRequestHandler<ProbeRequest> {
+
+        @Override
+        public ProbeRequest newInstance() {
+            return new ProbeRequest();
+        }
+
+        @Override
+        public void messageReceived(ProbeRequest request, TransportChannel channel) throws Exception {
+            // if we are not the node we are supposed to be probed, send an exception
+            // this can happen when a kill -9 is sent, and another node is started using the same port
+            if (!localNode.id().equals(request.nodeId)) {
+                throw new ElasticsearchIllegalStateException("Got probed as node [" + request.nodeId + "], but I am node [" + localNode.id() + "]");
+            }
+            if (!request.clusterName.equals(clusterName)) {
+                throw new ElasticsearchIllegalStateException("Got probed with cluster name [" + request.clusterName + "], but I'm part of cluster [" + clusterName + "]");
+            }
+            if (request.masterNode != null) {
+                notifyProbeFromMaster(request.masterNode, request.clusterStateVersion);
+            }
+            channel.sendResponse(TransportResponse.Empty.INSTANCE);
+        }
+
+        @Override
+        public String executor() {
+            return ThreadPool.Names.SAME;
+        }
+    }
+
+    class IndirectProbeRequestHandler extends BaseTransportRequestHandler<IndirectProbeRequest> {
+
+        @Override
+        public IndirectProbeRequest newInstance() {
+            return new IndirectProbeRequest();
+        }
+
+        @Override
+        public void messageReceived(final IndirectProbeRequest request, final TransportChannel channel) throws Exception {
+            if (!request.clusterName.equals(clusterName)) {
+                throw new ElasticsearchIllegalStateException("Got an indirect probe with cluster name [" + request.clusterName + "], but I'm part of cluster [" + clusterName + "]");
+            }
+            sendProbe(request.node, new ProbeListener() {
+                @Override
+                public void onAck() {
+                    try {
+                        channel.sendResponse(TransportResponse.Empty.INSTANCE);
+                    } catch (IOException e) {
+                        logger.warn("[gossip] failed to send the response to an indirect probe of [{}]", e, request.node);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    try {
+                        channel.sendResponse(t);
+                    } catch (IOException e) {
+                        logger.warn("[gossip] failed to send the failure of an indirect probe of [{}]", e, request.node);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public String executor() {
+            return ThreadPool.Names.SAME;
+        }
+    }
+
+    class SuspectRequestHandler extends BaseTransportRequestHandler<SuspectRequest> {
+
+        @Override
+        public SuspectRequest newInstance() {
+            return new SuspectRequest();
+        }
+
+        @Override
+        public void messageReceived(SuspectRequest request, TransportChannel channel) throws Exception {
+            if (!request.clusterName.equals(clusterName)) {
+                throw new ElasticsearchIllegalStateException("Got a suspect report with cluster name [" + request.clusterName + "], but I'm part of cluster [" + clusterName + "]");
+            }
+            verify(request.node, request.reason + ", reported by [" + request.reporter + "]");
+            channel.sendResponse(TransportResponse.Empty.INSTANCE);
+        }
+
+        @Override
+        public String executor() {
+            return ThreadPool.Names.SAME;
+        }
+    }
+
+    static class ProbeRequest extends TransportRequest {
+
+        // the (assumed) node id we are probing
+        private String nodeId;
+
+        private ClusterName clusterName;
+
+        // the probing node if it is a master, null otherwise
+        @Nullable
+        private DiscoveryNode masterNode;
+
+        private long clusterStateVersion = ClusterState.UNKNOWN_VERSION;
+
+        ProbeRequest() {
+        }
+
+        ProbeRequest(String nodeId, ClusterName clusterName, @Nullable DiscoveryNode masterNode, long clusterStateVersion) {
+            this.nodeId = nodeId;
+            this.clusterName = clusterName;
+            this.masterNode = masterNode;
+            this.clusterStateVersion = clusterStateVersion;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            super.readFrom(in);
+            nodeId = in.readString();
+            clusterName = ClusterName.readClusterName(in);
+            if (in.readBoolean()) {
+                masterNode = DiscoveryNode.readNode(in);
+            }
+            clusterStateVersion = in.readLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeString(nodeId);
+            clusterName.writeTo(out);
+            if (masterNode == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                masterNode.writeTo(out);
+            }
+            out.writeLong(clusterStateVersion);
+        }
+    }
+
+    static class IndirectProbeRequest extends TransportRequest {
+
+        private ClusterName clusterName;
+
+        // the node to probe
+        private DiscoveryNode node;
+
+        IndirectProbeRequest() {
+        }
+
+        IndirectProbeRequest(ClusterName clusterName, DiscoveryNode node) {
+            this.clusterName = clusterName;
+            this.node = node;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            super.readFrom(in);
+            clusterName = ClusterName.readClusterName(in);
+            node = DiscoveryNode.readNode(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            clusterName.writeTo(out);
+            node.writeTo(out);
+        }
+    }
+
+    static class SuspectRequest extends TransportRequest {
+
+        private ClusterName clusterName;
+
+        // the suspected node
+        private DiscoveryNode node;
+
+        private DiscoveryNode reporter;
+
+        private String reason;
+
+        SuspectRequest() {
+        }
+
+        SuspectRequest(ClusterName clusterName, DiscoveryNode node, DiscoveryNode reporter, String reason) {
+            this.clusterName = clusterName;
+            this.node = node;
+            this.reporter = reporter;
+            this.reason = reason;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            super.readFrom(in);
+            clusterName = ClusterName.readClusterName(in);
+            node = DiscoveryNode.readNode(in);
+            reporter = DiscoveryNode.readNode(in);
+            reason = in.readString();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            clusterName.writeTo(out);
+            node.writeTo(out);
+            reporter.writeTo(out);
+            out.writeString(reason);
+        }
+    }
+}
@@ -39,6 +39,7 @@ import org.elasticsearch.discovery.zen.DiscoveryNodesProvider;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.*;
 
+import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -104,12 +105,7 @@ public class PublishClusterStateAction extends AbstractComponent {
             BytesReference bytes = serializedStates.get(node.version());
             if (bytes == null) {
                 try {
-                    BytesStreamOutput bStream = new BytesStreamOutput();
-                    StreamOutput stream = new HandlesStreamOutput(CompressorFactory.defaultCompressor().streamOutput(bStream));
-                    stream.setVersion(node.version());
-                    ClusterState.Builder.writeTo(clusterState, stream);
-                    stream.close();
-                    bytes = bStream.bytes();
+                    bytes = serializeClusterState(clusterState, node.version());
                     serializedStates.put(node.version(), bytes);
                 } catch (Throwable e) {
                     logger.warn("failed to serialize cluster_state before publishing it to node {}", e, node);
@@ -161,6 +157,19 @@ public class PublishClusterStateAction extends AbstractComponent {
         }
     }
 
+    /**
+     * Serializes and compresses the cluster state for nodes of the given version, which must be able to read the
+     * compression format.
+     */
+    static BytesReference serializeClusterState(ClusterState clusterState, Version nodeVersion) throws IOException {
+        BytesStreamOutput bStream = new BytesStreamOutput();
+        StreamOutput stream = new HandlesStreamOutput(CompressorFactory.defaultCompressor(CompressorFactory.CLUSTER_STATE, nodeVersion).streamOutput(bStream));
+        stream.setVersion(nodeVersion);
+        ClusterState.Builder.writeTo(clusterState, stream);
+        stream.close();
+        return bStream.bytes();
+    }
+
     private class PublishClusterStateRequestHandler extends BaseTransportRequestHandler<BytesTransportRequest> {
 
         @Override
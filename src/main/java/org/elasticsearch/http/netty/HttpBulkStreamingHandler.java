@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.elasticsearch.ElasticsearchException;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.ChannelStateEvent;
+import org.jboss.netty.channel.Channels;
+import org.jboss.netty.channel.MessageEvent;
+import org.jboss.netty.channel.SimpleChannelUpstreamHandler;
+import org.jboss.netty.channel.UpstreamMessageEvent;
+import org.jboss.netty.handler.codec.http.DefaultHttpRequest;
+import org.jboss.netty.handler.codec.http.HttpChunk;
+import org.jboss.netty.handler.codec.http.HttpHeaders;
+import org.jboss.netty.handler.codec.http.HttpMethod;
+import org.jboss.netty.handler.codec.http.HttpRequest;
+import org.jboss.netty.util.CharsetUtil;
+
+import java.util.Map;
+
+/**
+ * Hands the body of chunked <code>_bulk</code> requests to the REST layer as it is received instead of aggregating
+ * it first, see {@link org.elasticsearch.rest.RestRequest#contentStream()}. The request is passed on as soon as its
+ * headers are received, with an empty body, and its chunks are fed to a {@link NettyHttpContentStream}.
+ * <p/>
+ * Must be placed before the chunk aggregator, the handler holds the state of the channel's current request so an
+ * instance can't be shared between channels.
+ */
+public class HttpBulkStreamingHandler extends SimpleChannelUpstreamHandler {
+
+    private static final ChannelBuffer CONTINUE = ChannelBuffers.copiedBuffer("HTTP/1.1 100 Continue\r\n\r\n", CharsetUtil.US_ASCII);
+
+    private NettyHttpContentStream current;
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+        Object msg = e.getMessage();
+        if (current != null && msg instanceof HttpChunk) {
+            HttpChunk chunk = (HttpChunk) msg;
+            NettyHttpContentStream contentStream = current;
+            if (chunk.isLast()) {
+                current = null;
+            }
+            contentStream.onChunk(chunk.getContent(), chunk.isLast());
+            return;
+        }
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (request.isChunked() && isBulk(request)) {
+                if (HttpHeaders.is100ContinueExpected(request)) {
+                    // the aggregator is bypassed, so we have to answer the client ourselves
+                    Channels.write(ctx, Channels.succeededFuture(ctx.getChannel()), CONTINUE.duplicate());
+                }
+                current = new NettyHttpContentStream(ctx.getChannel());
+                ctx.sendUpstream(new UpstreamMessageEvent(ctx.getChannel(), new StreamedHttpRequest(request, current), e.getRemoteAddress()));
+                return;
+            }
+        }
+        ctx.sendUpstream(e);
+    }
+
+    @Override
+    public void channelClosed(ChannelHandlerContext ctx, ChannelStateEvent e) throws Exception {
+        if (current != null) {
+            current.onFailure(new ElasticsearchException("channel closed before the request body was fully received"));
+            current = null;
+        }
+        super.channelClosed(ctx, e);
+    }
+
+    static boolean isBulk(HttpRequest request) {
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.POST && method != HttpMethod.PUT) {
+            return false;
+        }
+        String uri = request.getUri();
+        int pathEndPos = uri.indexOf('?');
+        String path = pathEndPos < 0 ? uri : uri.substring(0, pathEndPos);
+        return path.endsWith("/_bulk");
+    }
+
+    /**
+     * A non chunked copy of a request, so that the aggregator lets it through, which carries the stream of its body.
+     * The <code>Transfer-Encoding</code> and <code>Expect</code> headers are not copied: the copy has no body to
+     * transfer, and the client was already answered, which the aggregator would otherwise do a second time.
+     */
+    static class StreamedHttpRequest extends DefaultHttpRequest {
+
+        private final NettyHttpContentStream contentStream;
+
+        StreamedHttpRequest(HttpRequest request, NettyHttpContentStream contentStream) {
+            super(request.getProtocolVersion(), request.getMethod(), request.getUri());
+            for (Map.Entry<String, String> header : request.headers().entries()) {
+                if (HttpHeaders.Names.TRANSFER_ENCODING.equalsIgnoreCase(header.getKey())
+                        || HttpHeaders.Names.EXPECT.equalsIgnoreCase(header.getKey())) {
+                    continue;
+                }
+                headers().add(header.getKey(), header.getValue());
+            }
+            this.contentStream = contentStream;
+        }
+
+        NettyHttpContentStream contentStream() {
+            return contentStream;
+        }
+    }
+}
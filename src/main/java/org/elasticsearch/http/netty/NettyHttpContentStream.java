@@ -0,0 +1,92 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ChannelBufferBytesReference;
+import org.elasticsearch.rest.RestContentStream;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link RestContentStream} that is fed with the chunks of a request by {@link HttpBulkStreamingHandler}, pausing
+ * the stream stops reading from the channel.
+ */
+public class NettyHttpContentStream implements RestContentStream {
+
+    private final Channel channel;
+
+    // chunks received before the listener was set
+    private final List<BytesReference> pending = new ArrayList<>();
+    private boolean lastReceived;
+    private Throwable failure;
+
+    private Listener listener;
+
+    public NettyHttpContentStream(Channel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public synchronized void listener(Listener listener) {
+        assert this.listener == null : "listener already set";
+        this.listener = listener;
+        for (int i = 0; i < pending.size(); i++) {
+            listener.onChunk(pending.get(i), lastReceived && i == pending.size() - 1);
+        }
+        pending.clear();
+        if (failure != null) {
+            listener.onFailure(failure);
+        }
+    }
+
+    @Override
+    public void pause() {
+        channel.setReadable(false);
+    }
+
+    @Override
+    public void resume() {
+        channel.setReadable(true);
+    }
+
+    synchronized void onChunk(ChannelBuffer content, boolean last) {
+        // the listener may hold on to the chunk after it returns, so we take a copy
+        BytesReference chunk = content.readable() ? new ChannelBufferBytesReference(content).copyBytesArray() : BytesArray.EMPTY;
+        if (listener == null) {
+            pending.add(chunk);
+            lastReceived = last;
+        } else {
+            listener.onChunk(chunk, last);
+        }
+    }
+
+    synchronized void onFailure(Throwable t) {
+        if (listener == null) {
+            failure = t;
+        } else {
+            listener.onFailure(t);
+        }
+    }
+}
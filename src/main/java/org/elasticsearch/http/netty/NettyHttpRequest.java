@@ -23,6 +23,7 @@ import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ChannelBufferBytesReference;
 import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.rest.RestContentStream;
 import org.elasticsearch.rest.support.RestUtils;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.handler.codec.http.HttpMethod;
@@ -41,6 +42,7 @@ public class NettyHttpRequest extends HttpRequest {
     private final Map<String, String> params;
     private final String rawPath;
     private final BytesReference content;
+    private final NettyHttpContentStream contentStream;
 
     public NettyHttpRequest(org.jboss.netty.handler.codec.http.HttpRequest request, Channel channel) {
         this.request = request;
@@ -51,6 +53,11 @@ public class NettyHttpRequest extends HttpRequest {
         } else {
             this.content = BytesArray.EMPTY;
         }
+        if (request instanceof HttpBulkStreamingHandler.StreamedHttpRequest) {
+            this.contentStream = ((HttpBulkStreamingHandler.StreamedHttpRequest) request).contentStream();
+        } else {
+            this.contentStream = null;
+        }
 
         String uri = request.getUri();
         int pathEndPos = uri.indexOf('?');
@@ -123,6 +130,11 @@ public class NettyHttpRequest extends HttpRequest {
         return content;
     }
 
+    @Override
+    public RestContentStream contentStream() {
+        return contentStream;
+    }
+
     /**
      * Returns the remote address where this rest request channel is "connected to".  The
      * returned {@link SocketAddress} is supposed to be down-cast into more
@@ -57,7 +57,10 @@ public final class FieldNameAnalyzer extends DelegatingAnalyzerWrapper {
         return getAnalyzer(fieldName);
     }
 
-    private Analyzer getAnalyzer(String name) {
+    /**
+     * Returns the analyzer of the given field, or the default analyzer if it doesn't have one.
+     */
+    public Analyzer getAnalyzer(String name) {
         Analyzer analyzer = analyzers.get(name);
         if (analyzer != null) {
             return analyzer;
@@ -32,6 +32,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCache;
 import org.elasticsearch.index.cache.filter.FilterCache;
 import org.elasticsearch.index.cache.query.parser.QueryParserCache;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCache;
 import org.elasticsearch.index.settings.IndexSettings;
 
 /**
@@ -42,15 +43,18 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
     private final FilterCache filterCache;
     private final QueryParserCache queryParserCache;
     private final BitsetFilterCache bitsetFilterCache;
+    private final TermFrequencyCache termFrequencyCache;
 
     private ClusterService clusterService;
 
     @Inject
-    public IndexCache(Index index, @IndexSettings Settings indexSettings, FilterCache filterCache, QueryParserCache queryParserCache, BitsetFilterCache bitsetFilterCache) {
+    public IndexCache(Index index, @IndexSettings Settings indexSettings, FilterCache filterCache, QueryParserCache queryParserCache, BitsetFilterCache bitsetFilterCache,
+                      TermFrequencyCache termFrequencyCache) {
         super(index, indexSettings);
         this.filterCache = filterCache;
         this.queryParserCache = queryParserCache;
         this.bitsetFilterCache = bitsetFilterCache;
+        this.termFrequencyCache = termFrequencyCache;
     }
 
     @Inject(optional = true)
@@ -72,6 +76,13 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         return bitsetFilterCache;
     }
 
+    /**
+     * Return the {@link TermFrequencyCache} for this index.
+     */
+    public TermFrequencyCache termFrequencyCache() {
+        return termFrequencyCache;
+    }
+
     public QueryParserCache queryParserCache() {
         return this.queryParserCache;
     }
@@ -81,6 +92,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         filterCache.close();
         queryParserCache.close();
         bitsetFilterCache.close();
+        termFrequencyCache.close();
         if (clusterService != null) {
             clusterService.remove(this);
         }
@@ -90,6 +102,7 @@ public class IndexCache extends AbstractIndexComponent implements CloseableCompo
         filterCache.clear(reason);
         queryParserCache.clear();
         bitsetFilterCache.clear(reason);
+        termFrequencyCache.clear(reason);
     }
 
     @Override
@@ -24,6 +24,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.cache.bitset.BitsetFilterCacheModule;
 import org.elasticsearch.index.cache.filter.FilterCacheModule;
 import org.elasticsearch.index.cache.query.parser.QueryParserCacheModule;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCacheModule;
 
 /**
  *
@@ -41,6 +42,7 @@ public class IndexCacheModule extends AbstractModule {
         new FilterCacheModule(settings).configure(binder());
         new QueryParserCacheModule(settings).configure(binder());
         new BitsetFilterCacheModule(settings).configure(binder());
+        new TermFrequencyCacheModule(settings).configure(binder());
 
         bind(IndexCache.class).asEagerSingleton();
     }
@@ -0,0 +1,468 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.termfreq;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.component.CloseableComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.SegmentReaderUtils;
+import org.elasticsearch.common.lucene.docset.DocIdSets;
+import org.elasticsearch.common.lucene.search.NoCacheFilter;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.AbstractIndexComponent;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.settings.IndexSettings;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.shard.ShardUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache for the document frequencies of the terms of a field, optionally counting only the documents that match a
+ * filter. This is what the significant terms aggregations use as background frequencies, which are otherwise looked
+ * up in the terms dictionary of every segment, and counted by running the background filter over the postings of
+ * every candidate term, on every request.
+ * <p/>
+ * Frequencies are cached per segment, by field and filter, and are loaded lazily as terms are looked up. The entries
+ * of a segment are removed when the segment is closed, entries that count the documents of a filter are reloaded
+ * when the deleted documents of their segment changed. The memory used by the entries of a segment is bounded by
+ * <tt>index.cache.term_frequency.segment_size</tt>, the least recently used entries are evicted beyond that.
+ */
+public class TermFrequencyCache extends AbstractIndexComponent implements LeafReader.CoreClosedListener, CloseableComponent {
+
+    /**
+     * The maximum memory that the frequencies of a segment may use, <code>0</code> disables the cache.
+     */
+    public static final String SEGMENT_SIZE = "index.cache.term_frequency.segment_size";
+
+    // the approximate overhead of a cached term, on top of its bytes: the cache entry, the key and the boxed frequency
+    static final int TERM_OVERHEAD = 128;
+    // the approximate overhead of a cached field and filter, the filter itself is shared with the request
+    static final int KEY_OVERHEAD = 256;
+
+    private final long segmentSize;
+    private final Cache<Object, SegmentCache> loadedFrequencies;
+    private final ConcurrentMap<ShardId, Stats> shardStats = ConcurrentCollections.newConcurrentMap();
+    // the stats of the segments that don't belong to a shard
+    private final Stats unassignedStats = new Stats();
+
+    @Inject
+    public TermFrequencyCache(Index index, @IndexSettings Settings indexSettings) {
+        super(index, indexSettings);
+        this.segmentSize = indexSettings.getAsBytesSize(SEGMENT_SIZE, new ByteSizeValue(1, ByteSizeUnit.MB)).bytes();
+        this.loadedFrequencies = CacheBuilder.newBuilder().removalListener(new RemovalListener<Object, SegmentCache>() {
+            @Override
+            public void onRemoval(RemovalNotification<Object, SegmentCache> notification) {
+                // release the memory of the entries of the segment
+                notification.getValue().entries.invalidateAll();
+            }
+        }).build();
+    }
+
+    /**
+     * Returns the stats of the entries of the segments of all shards.
+     */
+    public TermFrequencyCacheStats stats() {
+        TermFrequencyCacheStats stats = unassignedStats.stats();
+        for (Stats shard : shardStats.values()) {
+            stats.add(shard.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the stats of the entries of the segments of the given shard.
+     */
+    public TermFrequencyCacheStats stats(ShardId shardId) {
+        Stats stats = shardStats.get(shardId);
+        return stats == null ? new TermFrequencyCacheStats() : stats.stats();
+    }
+
+    /**
+     * Returns the document frequencies of the terms of the given field in the given reader, counting only the
+     * documents that match the given filter if it isn't <code>null</code>. The returned instance must not be
+     * shared between threads.
+     */
+    public Frequencies frequencies(IndexReader reader, String field, @Nullable Filter filter) throws IOException {
+        final boolean cacheable = segmentSize > 0 && (filter instanceof NoCacheFilter) == false;
+        final Key key = new Key(field, filter);
+        final List<LeafReaderContext> leaves = reader.leaves();
+        final Leaf[] leafFrequencies = new Leaf[leaves.size()];
+        long numDocs = 0;
+        for (int i = 0; i < leafFrequencies.length; i++) {
+            final LeafReaderContext context = leaves.get(i);
+            final Bits liveDocs = filter == null ? null : context.reader().getLiveDocs();
+            SegmentFrequencies cached = cacheable ? getIfPresent(context, key, liveDocs) : null;
+            Bits bits = null;
+            final int leafNumDocs;
+            if (filter == null) {
+                // Important - need to use the doc count that includes deleted docs
+                // or we have this issue: https://github.com/elasticsearch/elasticsearch/issues/7951
+                leafNumDocs = context.reader().maxDoc();
+            } else if (cached != null) {
+                leafNumDocs = cached.numDocs;
+            } else {
+                // we want to force apply deleted docs
+                DocIdSet docIdSet = filter.getDocIdSet(context, liveDocs);
+                int count = 0;
+                if (DocIdSets.isEmpty(docIdSet) == false) {
+                    DocIdSetIterator iterator = docIdSet.iterator();
+                    if (iterator != null) {
+                        while (iterator.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+                            count++;
+                        }
+                    }
+                    bits = DocIdSets.toSafeBits(context.reader(), docIdSet);
+                }
+                leafNumDocs = count;
+            }
+            if (cacheable && cached == null) {
+                cached = put(context, key, liveDocs, leafNumDocs);
+            }
+            leafFrequencies[i] = new Leaf(context, field, filter, leafNumDocs, bits, cached);
+            numDocs += leafNumDocs;
+        }
+        return new Frequencies(leafFrequencies, numDocs);
+    }
+
+    @Nullable
+    private SegmentFrequencies getIfPresent(LeafReaderContext context, Key key, @Nullable Bits liveDocs) {
+        SegmentCache segmentCache = loadedFrequencies.getIfPresent(context.reader().getCoreCacheKey());
+        if (segmentCache == null) {
+            return null;
+        }
+        SegmentFrequencies cached = (SegmentFrequencies) segmentCache.entries.getIfPresent(key);
+        if (cached == null || cached.liveDocs != liveDocs) {
+            return null;
+        }
+        return cached;
+    }
+
+    private SegmentFrequencies put(final LeafReaderContext context, Key key, @Nullable Bits liveDocs, int numDocs) {
+        try {
+            SegmentCache segmentCache = loadedFrequencies.get(context.reader().getCoreCacheKey(), new Callable<SegmentCache>() {
+                @Override
+                public SegmentCache call() throws Exception {
+                    SegmentReaderUtils.registerCoreListener(context.reader(), TermFrequencyCache.this);
+                    return new SegmentCache(shardStats(ShardUtils.extractShardId(context.reader())), segmentSize);
+                }
+            });
+            SegmentFrequencies frequencies = new SegmentFrequencies(segmentCache, liveDocs, numDocs);
+            segmentCache.stats.memorySize.inc(KEY_OVERHEAD);
+            // replaces the frequencies that were counted with other deleted documents, if any
+            segmentCache.entries.put(key, frequencies);
+            return frequencies;
+        } catch (ExecutionException e) {
+            throw ExceptionsHelper.convertToElastic(e);
+        }
+    }
+
+    private Stats shardStats(@Nullable ShardId shardId) {
+        if (shardId == null) {
+            return unassignedStats;
+        }
+        Stats stats = shardStats.get(shardId);
+        if (stats == null) {
+            stats = new Stats();
+            Stats existing = shardStats.putIfAbsent(shardId, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    @Override
+    public void onClose(Object ownerCoreCacheKey) {
+        loadedFrequencies.invalidate(ownerCoreCacheKey);
+    }
+
+    @Override
+    public void close() throws ElasticsearchException {
+        clear("close");
+    }
+
+    public void clear(String reason) {
+        logger.debug("Clearing all term frequencies because [{}]", reason);
+        loadedFrequencies.invalidateAll();
+        loadedFrequencies.cleanUp();
+    }
+
+    Cache<Object, SegmentCache> getLoadedFrequencies() {
+        return loadedFrequencies;
+    }
+
+    /**
+     * The document frequencies of the terms of a field in a top level reader.
+     */
+    public static final class Frequencies {
+
+        private final Leaf[] leaves;
+        private final long numDocs;
+
+        Frequencies(Leaf[] leaves, long numDocs) {
+            this.leaves = leaves;
+            this.numDocs = numDocs;
+        }
+
+        /**
+         * @return the number of documents that frequencies are counted on: the documents that match the filter,
+         *         or all documents including deleted ones if there is no filter
+         */
+        public long numDocs() {
+            return numDocs;
+        }
+
+        /**
+         * @return the number of documents that contain the given term
+         */
+        public long docFreq(BytesRef term) throws IOException {
+            long docFreq = 0;
+            for (Leaf leaf : leaves) {
+                docFreq += leaf.docFreq(term);
+            }
+            return docFreq;
+        }
+    }
+
+    private final class Leaf {
+
+        private final LeafReaderContext context;
+        private final String field;
+        @Nullable
+        private final Filter filter;
+        private final int numDocs;
+        @Nullable
+        private final SegmentFrequencies cached;
+        private Bits bits;
+        private TermsEnum termsEnum;
+        private DocsEnum docsEnum;
+
+        Leaf(LeafReaderContext context, String field, @Nullable Filter filter, int numDocs, @Nullable Bits bits, @Nullable SegmentFrequencies cached) {
+            this.context = context;
+            this.field = field;
+            this.filter = filter;
+            this.numDocs = numDocs;
+            this.bits = bits;
+            this.cached = cached;
+        }
+
+        int docFreq(BytesRef term) throws IOException {
+            if (numDocs == 0) {
+                return 0;
+            }
+            if (cached != null) {
+                Integer docFreq = cached.get(term);
+                if (docFreq != null) {
+                    return docFreq;
+                }
+            }
+            final int docFreq = loadDocFreq(term);
+            if (cached != null) {
+                cached.put(term, docFreq);
+            }
+            return docFreq;
+        }
+
+        private int loadDocFreq(BytesRef term) throws IOException {
+            if (termsEnum == null) {
+                Terms terms = context.reader().terms(field);
+                termsEnum = terms == null ? TermsEnum.EMPTY : terms.iterator(null);
+            }
+            if (termsEnum.seekExact(term) == false) {
+                return 0;
+            }
+            if (filter == null) {
+                return termsEnum.docFreq();
+            }
+            if (bits == null) {
+                // the filter was counted by an earlier request, it only needs to be loaded on a cache miss
+                bits = DocIdSets.toSafeBits(context.reader(), filter.getDocIdSet(context, context.reader().getLiveDocs()));
+            }
+            docsEnum = termsEnum.docs(bits, docsEnum, DocsEnum.FLAG_NONE);
+            int docFreq = 0;
+            while (docsEnum.nextDoc() != DocIdSetIterator.NO_MORE_DOCS) {
+                docFreq++;
+            }
+            return docFreq;
+        }
+    }
+
+    private static final class Stats {
+
+        final CounterMetric memorySize = new CounterMetric();
+        final CounterMetric evictions = new CounterMetric();
+
+        TermFrequencyCacheStats stats() {
+            return new TermFrequencyCacheStats(memorySize.count(), evictions.count());
+        }
+    }
+
+    /**
+     * The entries of a segment: the {@link SegmentFrequencies} by {@link Key}, and their document frequencies by
+     * {@link TermKey}, which share the memory of the segment so that the least recently used ones are evicted first.
+     */
+    static final class SegmentCache implements RemovalListener<Object, Object> {
+
+        final Stats stats;
+        final Cache<Object, Object> entries;
+
+        SegmentCache(Stats stats, long maxWeight) {
+            this.stats = stats;
+            this.entries = CacheBuilder.newBuilder()
+                    .maximumWeight(maxWeight)
+                    .weigher(new Weigher<Object, Object>() {
+                        @Override
+                        public int weigh(Object key, Object value) {
+                            return SegmentCache.weigh(key);
+                        }
+                    })
+                    .removalListener(this)
+                    .build();
+        }
+
+        static int weigh(Object key) {
+            if (key instanceof TermKey) {
+                return TERM_OVERHEAD + ((TermKey) key).term.length;
+            }
+            return KEY_OVERHEAD;
+        }
+
+        @Override
+        public void onRemoval(RemovalNotification<Object, Object> notification) {
+            if (notification.wasEvicted()) {
+                stats.evictions.inc();
+            }
+            stats.memorySize.dec(weigh(notification.getKey()));
+        }
+    }
+
+    static final class SegmentFrequencies {
+
+        // the live docs the frequencies were counted with, null if they were counted without a filter
+        @Nullable
+        final Bits liveDocs;
+        final int numDocs;
+        final SegmentCache segmentCache;
+
+        SegmentFrequencies(SegmentCache segmentCache, @Nullable Bits liveDocs, int numDocs) {
+            this.segmentCache = segmentCache;
+            this.liveDocs = liveDocs;
+            this.numDocs = numDocs;
+        }
+
+        @Nullable
+        Integer get(BytesRef term) {
+            return (Integer) segmentCache.entries.getIfPresent(new TermKey(this, term));
+        }
+
+        void put(BytesRef term, int docFreq) {
+            final TermKey key = new TermKey(this, BytesRef.deepCopyOf(term));
+            final int weight = SegmentCache.weigh(key);
+            // account for the entry before adding it, its removal may be notified right away
+            segmentCache.stats.memorySize.inc(weight);
+            if (segmentCache.entries.asMap().putIfAbsent(key, docFreq) != null) {
+                segmentCache.stats.memorySize.dec(weight);
+            }
+        }
+    }
+
+    /**
+     * The key of the document frequency of a term, counted for the field and filter of the owning frequencies.
+     */
+    static final class TermKey {
+
+        final SegmentFrequencies owner;
+        final BytesRef term;
+
+        TermKey(SegmentFrequencies owner, BytesRef term) {
+            this.owner = owner;
+            this.term = term;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TermKey termKey = (TermKey) o;
+            return owner == termKey.owner && term.equals(termKey.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner) + term.hashCode();
+        }
+    }
+
+    static final class Key {
+
+        final String field;
+        @Nullable
+        final Filter filter;
+
+        Key(String field, @Nullable Filter filter) {
+            this.field = field;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            if (!field.equals(key.field)) return false;
+            if (filter != null ? !filter.equals(key.filter) : key.filter != null) return false;
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = field.hashCode();
+            result = 31 * result + (filter != null ? filter.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -99,6 +99,7 @@ import org.elasticsearch.index.settings.IndexSettingsService;
 import org.elasticsearch.index.shard.AbstractIndexShardComponent;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.similarity.SimilarityService;
+import org.elasticsearch.index.sort.IndexSort;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.indices.warmer.IndicesWarmer;
@@ -195,6 +196,8 @@ public class InternalEngine extends AbstractIndexShardComponent implements Engin
     private final ApplySettings applySettings = new ApplySettings();
 
     private volatile boolean failOnMergeFailure;
+    @Nullable
+    private final IndexSort indexSort;
     private Throwable failedEngine = null;
     private final Lock failEngineLock = new ReentrantLock();
     private final CopyOnWriteArrayList<FailedEngineListener> failedEngineListeners = new CopyOnWriteArrayList<>();
@@ -246,6 +249,7 @@ public class InternalEngine extends AbstractIndexShardComponent implements Engin
         this.indexSettingsService.addListener(applySettings);
         this.failEngineOnCorruption = indexSettings.getAsBoolean(INDEX_FAIL_ON_CORRUPTION, true);
         this.failOnMergeFailure = indexSettings.getAsBoolean(INDEX_FAIL_ON_MERGE_FAILURE, true);
+        this.indexSort = IndexSort.parse(indexSettings);
         if (failOnMergeFailure) {
             this.mergeScheduler.addFailureListener(new FailEngineOnMergeFailure());
         }
@@ -1442,8 +1446,8 @@ public class InternalEngine extends AbstractIndexShardComponent implements Engin
             config.setMergeScheduler(mergeScheduler.newMergeScheduler());
             MergePolicy mergePolicy = mergePolicyProvider.getMergePolicy();
             // Give us the opportunity to upgrade old segments while performing
-            // background merges
-            mergePolicy = new ElasticsearchMergePolicy(mergePolicy);
+            // background merges, or to sort merged segments
+            mergePolicy = new ElasticsearchMergePolicy(mergePolicy, indexSort == null ? null : indexSort.sort());
             config.setMergePolicy(mergePolicy);
             config.setSimilarity(similarityService.similarity());
             config.setRAMBufferSizeMB(indexingBufferSize.mbFrac());
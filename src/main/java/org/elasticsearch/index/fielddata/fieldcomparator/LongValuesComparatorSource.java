@@ -53,6 +53,14 @@ public class LongValuesComparatorSource extends IndexFieldData.XFieldComparatorS
         return SortField.Type.LONG;
     }
 
+    /**
+     * Returns whether this comparator orders documents like the default sort on the field: on their minimum value
+     * in ascending order or their maximum value in descending order, with missing values last and no nesting.
+     */
+    public boolean hasDefaultOrder(boolean reversed) {
+        return nested == null && sortMode == (reversed ? MultiValueMode.MAX : MultiValueMode.MIN) && sortMissingLast(missingValue);
+    }
+
     @Override
     public FieldComparator<?> newComparator(String fieldname, int numHits, int sortPos, boolean reversed) throws IOException {
         assert indexFieldData == null || fieldname.equals(indexFieldData.getFieldNames().indexName());
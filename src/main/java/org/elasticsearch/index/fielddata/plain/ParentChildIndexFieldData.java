@@ -21,7 +21,6 @@ package org.elasticsearch.index.fielddata.plain;
 
 import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
 import com.carrotsearch.hppc.cursors.ObjectObjectCursor;
-import com.google.common.collect.ImmutableSortedSet;
 import org.apache.lucene.index.*;
 import org.apache.lucene.index.MultiDocValues.OrdinalMap;
 import org.apache.lucene.util.Accountable;
@@ -46,6 +45,7 @@ import org.elasticsearch.index.fielddata.ordinals.OrdinalsBuilder;
 import org.elasticsearch.index.mapper.*;
 import org.elasticsearch.index.mapper.FieldMapper.Names;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
+import org.elasticsearch.index.mapper.internal.TypeFieldMapper;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.index.settings.IndexSettings;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -57,7 +57,10 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * ParentChildIndexFieldData is responsible for loading the id cache mapping
- * needed for has_child and has_parent queries into memory.
+ * needed for has_child and has_parent queries. Segments that hold the join keys
+ * of a parent type as sorted doc values (see {@link ParentFieldMapper#joinField(String)})
+ * use them directly, other segments load the join keys into memory from the
+ * <tt>_uid</tt> and <tt>_parent</tt> terms.
  */
 public class ParentChildIndexFieldData extends AbstractIndexFieldData<AtomicParentChildFieldData> implements IndexParentChildFieldData, DocumentTypeListener {
 
@@ -92,10 +95,22 @@ public class ParentChildIndexFieldData extends AbstractIndexFieldData<AtomicPare
                 "acceptable_transient_overhead_ratio", OrdinalsBuilder.DEFAULT_ACCEPTABLE_OVERHEAD_RATIO
         );
 
-        final NavigableSet<BytesRef> parentTypes;
+        final NavigableSet<BytesRef> parentTypes = new TreeSet<>(BytesRef.getUTF8SortedAsUnicodeComparator());
         synchronized (lock) {
-            parentTypes = ImmutableSortedSet.copyOf(BytesRef.getUTF8SortedAsUnicodeComparator(), this.parentTypes);
+            parentTypes.addAll(this.parentTypes);
         }
+        ImmutableOpenMap.Builder<String, AtomicOrdinalsFieldData> typeToAtomicFieldData = ImmutableOpenMap.builder();
+        for (Iterator<BytesRef> it = parentTypes.iterator(); it.hasNext(); ) {
+            String parentType = it.next().utf8ToString();
+            if (hasJoinDocValues(reader, parentType)) {
+                typeToAtomicFieldData.put(parentType, new JoinDocValuesAtomicFieldData(reader, ParentFieldMapper.joinField(parentType)));
+                it.remove();
+            }
+        }
+        if (parentTypes.isEmpty()) {
+            return new ParentChildAtomicFieldData(typeToAtomicFieldData.build());
+        }
+
         boolean success = false;
         ParentChildAtomicFieldData data = null;
         ParentChildFilteredTermsEnum termsEnum = new ParentChildFilteredTermsEnum(
@@ -130,7 +145,6 @@ public class ParentChildIndexFieldData extends AbstractIndexFieldData<AtomicPare
                     }
                 }
 
-                ImmutableOpenMap.Builder<String, AtomicOrdinalsFieldData> typeToAtomicFieldData = ImmutableOpenMap.builder(typeBuilders.size());
                 for (ObjectObjectCursor<String, TypeBuilder> cursor : typeBuilders) {
                     PagedBytes.Reader bytesReader = cursor.value.bytes.freeze(true);
                     final Ordinals ordinals = cursor.value.builder.build(fieldDataType.getSettings());
@@ -157,6 +171,75 @@ public class ParentChildIndexFieldData extends AbstractIndexFieldData<AtomicPare
         }
     }
 
+    /**
+     * Returns whether the join keys of the given parent type can be read from doc values in the given segment. This is
+     * the case if the segment has the join doc values field and every document of the parent type has a value in it,
+     * documents indexed before their type became a parent type don't have one.
+     */
+    static boolean hasJoinDocValues(LeafReader reader, String parentType) throws IOException {
+        final String joinField = ParentFieldMapper.joinField(parentType);
+        final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(joinField);
+        if (fieldInfo == null || fieldInfo.getDocValuesType() != DocValuesType.SORTED) {
+            return false;
+        }
+        final Terms types = reader.terms(TypeFieldMapper.NAME);
+        if (types == null) {
+            // we can't tell the documents of the parent type apart
+            return false;
+        }
+        final TermsEnum typesEnum = types.iterator(null);
+        if (typesEnum.seekExact(new BytesRef(parentType)) == false) {
+            // only children in this segment
+            return true;
+        }
+        final SortedDocValues joinValues = reader.getSortedDocValues(joinField);
+        final DocsEnum parents = typesEnum.docs(null, null, DocsEnum.FLAG_NONE);
+        for (int docId = parents.nextDoc(); docId != DocsEnum.NO_MORE_DOCS; docId = parents.nextDoc()) {
+            if (joinValues.getOrd(docId) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The join keys of a parent type in a segment, read from the sorted doc values of its join field.
+     */
+    static final class JoinDocValuesAtomicFieldData extends AbstractAtomicOrdinalsFieldData {
+
+        private final LeafReader reader;
+        private final String field;
+
+        JoinDocValuesAtomicFieldData(LeafReader reader, String field) {
+            this.reader = reader;
+            this.field = field;
+        }
+
+        @Override
+        public RandomAccessOrds getOrdinalsValues() {
+            try {
+                return FieldData.maybeSlowRandomAccessOrds(DocValues.singleton(DocValues.getSorted(reader, field)));
+            } catch (IOException e) {
+                throw new ElasticsearchIllegalStateException("cannot load docvalues", e);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            // the doc values live in the index, not on the heap
+            return 0;
+        }
+
+        @Override
+        public Iterable<? extends Accountable> getChildResources() {
+            return Collections.emptyList();
+        }
+    }
+
     @Override
     public void beforeCreate(DocumentMapper mapper) {
         synchronized (lock) {
@@ -19,9 +19,12 @@
 
 package org.elasticsearch.index.get;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.metrics.LatencyStats;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -38,6 +41,8 @@ public class GetStats implements Streamable, ToXContent {
     private long missingCount;
     private long missingTimeInMillis;
     private long current;
+    @Nullable
+    private LatencyStats latency;
 
     public GetStats() {
     }
@@ -50,6 +55,11 @@ public class GetStats implements Streamable, ToXContent {
         this.current = current;
     }
 
+    public GetStats(long existsCount, long existsTimeInMillis, long missingCount, long missingTimeInMillis, long current, @Nullable LatencyStats latency) {
+        this(existsCount, existsTimeInMillis, missingCount, missingTimeInMillis, current);
+        this.latency = latency;
+    }
+
     public void add(GetStats stats) {
         if (stats == null) {
             return;
@@ -59,6 +69,12 @@ public class GetStats implements Streamable, ToXContent {
         missingCount += stats.missingCount;
         missingTimeInMillis += stats.missingTimeInMillis;
         current += stats.current;
+        if (stats.latency != null) {
+            if (latency == null) {
+                latency = new LatencyStats();
+            }
+            latency.add(stats.latency);
+        }
     }
 
     public long getCount() {
@@ -101,11 +117,24 @@ public class GetStats implements Streamable, ToXContent {
         return this.current;
     }
 
+    /**
+     * @return the distribution of the latencies of get operations, whether the document exists or not
+     */
+    @Nullable
+    public LatencyStats getLatency() {
+        return this.latency;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.GET);
         builder.field(Fields.TOTAL, getCount());
         builder.timeValueField(Fields.TIME_IN_MILLIS, Fields.TIME, getTimeInMillis());
+        if (latency != null) {
+            builder.startObject(Fields.LATENCY);
+            latency.toXContent(builder, params);
+            builder.endObject();
+        }
         builder.field(Fields.EXISTS_TOTAL, existsCount);
         builder.timeValueField(Fields.EXISTS_TIME_IN_MILLIS, Fields.EXISTS_TIME, existsTimeInMillis);
         builder.field(Fields.MISSING_TOTAL, missingCount);
@@ -120,6 +149,7 @@ public class GetStats implements Streamable, ToXContent {
         static final XContentBuilderString TOTAL = new XContentBuilderString("total");
         static final XContentBuilderString TIME = new XContentBuilderString("getTime");
         static final XContentBuilderString TIME_IN_MILLIS = new XContentBuilderString("time_in_millis");
+        static final XContentBuilderString LATENCY = new XContentBuilderString("latency");
         static final XContentBuilderString EXISTS_TOTAL = new XContentBuilderString("exists_total");
         static final XContentBuilderString EXISTS_TIME = new XContentBuilderString("exists_time");
         static final XContentBuilderString EXISTS_TIME_IN_MILLIS = new XContentBuilderString("exists_time_in_millis");
@@ -142,6 +172,9 @@ public class GetStats implements Streamable, ToXContent {
         missingCount = in.readVLong();
         missingTimeInMillis = in.readVLong();
         current = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+            latency = in.readOptionalStreamable(new LatencyStats());
+        }
     }
 
     @Override
@@ -151,5 +184,8 @@ public class GetStats implements Streamable, ToXContent {
         out.writeVLong(missingCount);
         out.writeVLong(missingTimeInMillis);
         out.writeVLong(current);
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            out.writeOptionalStreamable(latency);
+        }
     }
 }
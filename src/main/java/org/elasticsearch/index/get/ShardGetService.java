@@ -30,6 +30,7 @@ import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.LatencyMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentFactory;
@@ -76,6 +77,7 @@ public class ShardGetService extends AbstractIndexShardComponent {
     private final MeanMetric existsMetric = new MeanMetric();
     private final MeanMetric missingMetric = new MeanMetric();
     private final CounterMetric currentMetric = new CounterMetric();
+    private final LatencyMetric latencyMetric = new LatencyMetric();
 
     @Inject
     public ShardGetService(ShardId shardId, @IndexSettings Settings indexSettings, ScriptService scriptService,
@@ -87,7 +89,13 @@ public class ShardGetService extends AbstractIndexShardComponent {
     }
 
     public GetStats stats() {
-        return new GetStats(existsMetric.count(), TimeUnit.NANOSECONDS.toMillis(existsMetric.sum()), missingMetric.count(), TimeUnit.NANOSECONDS.toMillis(missingMetric.sum()), currentMetric.count());
+        return new GetStats(existsMetric.count(), TimeUnit.NANOSECONDS.toMillis(existsMetric.sum()), missingMetric.count(), TimeUnit.NANOSECONDS.toMillis(missingMetric.sum()), currentMetric.count(), latencyMetric.stats());
+    }
+
+    private void onGet(MeanMetric metric, long startNanos) {
+        final long took = System.nanoTime() - startNanos;
+        metric.inc(took);
+        latencyMetric.inc(took);
     }
 
     // sadly, to overcome cyclic dep, we need to do this and inject it ourselves...
@@ -104,9 +112,9 @@ public class ShardGetService extends AbstractIndexShardComponent {
             GetResult getResult = innerGet(type, id, gFields, realtime, version, versionType, fetchSourceContext, ignoreErrorsOnGeneratedFields);
 
             if (getResult.isExists()) {
-                existsMetric.inc(System.nanoTime() - now);
+                onGet(existsMetric, now);
             } else {
-                missingMetric.inc(System.nanoTime() - now);
+                onGet(missingMetric, now);
             }
             return getResult;
         } finally {
@@ -131,15 +139,15 @@ public class ShardGetService extends AbstractIndexShardComponent {
             long now = System.nanoTime();
             DocumentMapper docMapper = mapperService.documentMapper(type);
             if (docMapper == null) {
-                missingMetric.inc(System.nanoTime() - now);
+                onGet(missingMetric, now);
                 return new GetResult(shardId.index().name(), type, id, -1, false, null, null);
             }
             fetchSourceContext = normalizeFetchSourceContent(fetchSourceContext, fields);
             GetResult getResult = innerGetLoadFromStoredFields(type, id, fields, fetchSourceContext, engineGetResult, docMapper, ignoreErrorsOnGeneratedFields);
             if (getResult.isExists()) {
-                existsMetric.inc(System.nanoTime() - now);
+                onGet(existsMetric, now);
             } else {
-                missingMetric.inc(System.nanoTime() - now); // This shouldn't happen...
+                onGet(missingMetric, now); // This shouldn't happen...
             }
             return getResult;
         } finally {
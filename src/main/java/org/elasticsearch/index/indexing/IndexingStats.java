@@ -24,6 +24,7 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.metrics.LatencyStats;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -52,6 +53,11 @@ public class IndexingStats implements Streamable, ToXContent {
         private long throttleTimeInMillis;
         private boolean isThrottled;
 
+        @Nullable
+        private LatencyStats indexLatency;
+        @Nullable
+        private LatencyStats deleteLatency;
+
         Stats() {
 
         }
@@ -68,6 +74,13 @@ public class IndexingStats implements Streamable, ToXContent {
             this.throttleTimeInMillis = throttleTimeInMillis;
         }
 
+        public Stats(long indexCount, long indexTimeInMillis, long indexCurrent, long deleteCount, long deleteTimeInMillis, long deleteCurrent, long noopUpdateCount, boolean isThrottled, long throttleTimeInMillis,
+                     @Nullable LatencyStats indexLatency, @Nullable LatencyStats deleteLatency) {
+            this(indexCount, indexTimeInMillis, indexCurrent, deleteCount, deleteTimeInMillis, deleteCurrent, noopUpdateCount, isThrottled, throttleTimeInMillis);
+            this.indexLatency = indexLatency;
+            this.deleteLatency = deleteLatency;
+        }
+
         public void add(Stats stats) {
             indexCount += stats.indexCount;
             indexTimeInMillis += stats.indexTimeInMillis;
@@ -82,6 +95,19 @@ public class IndexingStats implements Streamable, ToXContent {
             if (isThrottled != stats.isThrottled) {
                 isThrottled = true; //When combining if one is throttled set result to throttled.
             }
+
+            if (stats.indexLatency != null) {
+                if (indexLatency == null) {
+                    indexLatency = new LatencyStats();
+                }
+                indexLatency.add(stats.indexLatency);
+            }
+            if (stats.deleteLatency != null) {
+                if (deleteLatency == null) {
+                    deleteLatency = new LatencyStats();
+                }
+                deleteLatency.add(stats.deleteLatency);
+            }
         }
 
         public long getIndexCount() {
@@ -144,6 +170,24 @@ public class IndexingStats implements Streamable, ToXContent {
             return noopUpdateCount;
         }
 
+        /**
+         * @return the distribution of the latencies of index operations, or <tt>null</tt> if they are not
+         *         tracked, which is the case for types
+         */
+        @Nullable
+        public LatencyStats getIndexLatency() {
+            return indexLatency;
+        }
+
+        /**
+         * @return the distribution of the latencies of delete operations, or <tt>null</tt> if they are not
+         *         tracked, which is the case for types
+         */
+        @Nullable
+        public LatencyStats getDeleteLatency() {
+            return deleteLatency;
+        }
+
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
             stats.readFrom(in);
@@ -168,6 +212,11 @@ public class IndexingStats implements Streamable, ToXContent {
                 isThrottled = in.readBoolean();
                 throttleTimeInMillis = in.readLong();
             }
+
+            if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+                indexLatency = in.readOptionalStreamable(new LatencyStats());
+                deleteLatency = in.readOptionalStreamable(new LatencyStats());
+            }
         }
 
         @Override
@@ -189,6 +238,10 @@ public class IndexingStats implements Streamable, ToXContent {
                 out.writeLong(throttleTimeInMillis);
             }
 
+            if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+                out.writeOptionalStreamable(indexLatency);
+                out.writeOptionalStreamable(deleteLatency);
+            }
         }
 
         @Override
@@ -196,10 +249,20 @@ public class IndexingStats implements Streamable, ToXContent {
             builder.field(Fields.INDEX_TOTAL, indexCount);
             builder.timeValueField(Fields.INDEX_TIME_IN_MILLIS, Fields.INDEX_TIME, indexTimeInMillis);
             builder.field(Fields.INDEX_CURRENT, indexCurrent);
+            if (indexLatency != null) {
+                builder.startObject(Fields.INDEX_LATENCY);
+                indexLatency.toXContent(builder, params);
+                builder.endObject();
+            }
 
             builder.field(Fields.DELETE_TOTAL, deleteCount);
             builder.timeValueField(Fields.DELETE_TIME_IN_MILLIS, Fields.DELETE_TIME, deleteTimeInMillis);
             builder.field(Fields.DELETE_CURRENT, deleteCurrent);
+            if (deleteLatency != null) {
+                builder.startObject(Fields.DELETE_LATENCY);
+                deleteLatency.toXContent(builder, params);
+                builder.endObject();
+            }
 
             builder.field(Fields.NOOP_UPDATE_TOTAL, noopUpdateCount);
 
@@ -280,10 +343,12 @@ public class IndexingStats implements Streamable, ToXContent {
         static final XContentBuilderString INDEX_TIME = new XContentBuilderString("index_time");
         static final XContentBuilderString INDEX_TIME_IN_MILLIS = new XContentBuilderString("index_time_in_millis");
         static final XContentBuilderString INDEX_CURRENT = new XContentBuilderString("index_current");
+        static final XContentBuilderString INDEX_LATENCY = new XContentBuilderString("index_latency");
         static final XContentBuilderString DELETE_TOTAL = new XContentBuilderString("delete_total");
         static final XContentBuilderString DELETE_TIME = new XContentBuilderString("delete_time");
         static final XContentBuilderString DELETE_TIME_IN_MILLIS = new XContentBuilderString("delete_time_in_millis");
         static final XContentBuilderString DELETE_CURRENT = new XContentBuilderString("delete_current");
+        static final XContentBuilderString DELETE_LATENCY = new XContentBuilderString("delete_latency");
         static final XContentBuilderString NOOP_UPDATE_TOTAL = new XContentBuilderString("noop_update_total");
         static final XContentBuilderString IS_THROTTLED = new XContentBuilderString("is_throttled");
         static final XContentBuilderString THROTTLED_TIME_IN_MILLIS = new XContentBuilderString("throttle_time_in_millis");
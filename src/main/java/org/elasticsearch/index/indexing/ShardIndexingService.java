@@ -20,9 +20,11 @@
 package org.elasticsearch.index.indexing;
 
 import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.LatencyMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Settings;
@@ -43,7 +45,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
 
     private final ShardSlowLogIndexingService slowLog;
 
-    private final StatsHolder totalStats = new StatsHolder();
+    private final StatsHolder totalStats = new StatsHolder(true);
 
     private final CopyOnWriteArrayList<IndexingOperationListener> listeners = new CopyOnWriteArrayList<>();
 
@@ -118,6 +120,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
     public void postCreate(Engine.Create create) {
         long took = create.endTime() - create.startTime();
         totalStats.indexMetric.inc(took);
+        totalStats.indexLatency.inc(took);
         totalStats.indexCurrent.dec();
         StatsHolder typeStats = typeStats(create.type());
         typeStats.indexMetric.inc(took);
@@ -154,6 +157,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
     public void postIndex(Engine.Index index) {
         long took = index.endTime() - index.startTime();
         totalStats.indexMetric.inc(took);
+        totalStats.indexLatency.inc(took);
         totalStats.indexCurrent.dec();
         StatsHolder typeStats = typeStats(index.type());
         typeStats.indexMetric.inc(took);
@@ -195,6 +199,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
     public void postDelete(Engine.Delete delete) {
         long took = delete.endTime() - delete.startTime();
         totalStats.deleteMetric.inc(took);
+        totalStats.deleteLatency.inc(took);
         totalStats.deleteCurrent.dec();
         StatsHolder typeStats = typeStats(delete.type());
         typeStats.deleteMetric.inc(took);
@@ -253,7 +258,7 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
             synchronized (this) {
                 stats = typesStats.get(type);
                 if (stats == null) {
-                    stats = new StatsHolder();
+                    stats = new StatsHolder(false);
                     typesStats = MapBuilder.newMapBuilder(typesStats).put(type, stats).immutableMap();
                 }
             }
@@ -270,6 +275,16 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
         public final CounterMetric throttleTimeMillisMetric = new CounterMetric();
         volatile boolean isThrottled = false;
         volatile long startOfThrottleMillis;
+        // latency distributions are only tracked for the totals, as they take up to about 10KB per operation, see LatencyMetric
+        @Nullable
+        public final LatencyMetric indexLatency;
+        @Nullable
+        public final LatencyMetric deleteLatency;
+
+        StatsHolder(boolean trackLatency) {
+            indexLatency = trackLatency ? new LatencyMetric() : null;
+            deleteLatency = trackLatency ? new LatencyMetric() : null;
+        }
 
         public IndexingStats.Stats stats() {
             long currentThrottleMillis = 0;
@@ -283,7 +298,8 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
             return new IndexingStats.Stats(
                     indexMetric.count(), TimeUnit.NANOSECONDS.toMillis(indexMetric.sum()), indexCurrent.count(),
                     deleteMetric.count(), TimeUnit.NANOSECONDS.toMillis(deleteMetric.sum()), deleteCurrent.count(),
-                    noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(throttleTimeMillisMetric.count() + currentThrottleMillis));
+                    noopUpdates.count(), isThrottled, TimeUnit.MILLISECONDS.toMillis(throttleTimeMillisMetric.count() + currentThrottleMillis),
+                    indexLatency == null ? null : indexLatency.stats(), deleteLatency == null ? null : deleteLatency.stats());
         }
 
 
@@ -308,6 +324,10 @@ public class ShardIndexingService extends AbstractIndexShardComponent {
         public void clear() {
             indexMetric.clear();
             deleteMetric.clear();
+            if (indexLatency != null) {
+                indexLatency.clear();
+                deleteLatency.clear();
+            }
         }
 
 
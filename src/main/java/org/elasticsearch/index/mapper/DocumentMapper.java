@@ -254,12 +254,21 @@ public class DocumentMapper implements ToXContent {
     private CloseableThreadLocal<ParseContext.InternalParseContext> cache = new CloseableThreadLocal<ParseContext.InternalParseContext>() {
         @Override
         protected ParseContext.InternalParseContext initialValue() {
-            return new ParseContext.InternalParseContext(index, indexSettings, docMapperParser, DocumentMapper.this, new ContentPath(0));
+            return new ParseContext.InternalParseContext(index, indexSettings, docMapperParser, DocumentMapper.this, new ContentPath(0),
+                    indexSettings.getAsBoolean(REUSE_FIELDS, false));
         }
     };
 
     public static final String ALLOW_TYPE_WRAPPER = "index.mapping.allow_type_wrapper";
 
+    /**
+     * Whether the Lucene documents and fields that a thread creates when parsing a document should be reused for
+     * the next document of the same type that it parses, instead of being allocated for every document. A parsed
+     * document is then only valid until its thread parses the next document of the same type, which is the case
+     * when indexing, since documents are handed to the index writer before the next one is parsed.
+     */
+    public static final String REUSE_FIELDS = "index.mapping.reuse_fields";
+
     private final String index;
 
     private final Settings indexSettings;
@@ -509,7 +518,7 @@ public class DocumentMapper implements ToXContent {
             if (sourceTransforms != null) {
                 parser = transform(parser);
             }
-            context.reset(parser, new ParseContext.Document(), source, listener);
+            context.reset(parser, source, listener);
 
             // will result in START_OBJECT
             int countDownTokens = 0;
@@ -20,6 +20,7 @@
 package org.elasticsearch.index.mapper;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
@@ -105,6 +106,7 @@ public class DocumentMapperParser extends AbstractIndexComponent {
 
     private volatile ImmutableMap<String, Mapper.TypeParser> typeParsers;
     private volatile ImmutableMap<String, Mapper.TypeParser> rootTypeParsers;
+    private volatile ImmutableSet<String> parentTypes = ImmutableSet.of();
 
     public DocumentMapperParser(Index index, @IndexSettings Settings indexSettings, AnalysisService analysisService,
                                 PostingsFormatService postingsFormatService, DocValuesFormatService docValuesFormatService,
@@ -177,6 +179,18 @@ public class DocumentMapperParser extends AbstractIndexComponent {
         }
     }
 
+    /**
+     * @return whether the given type is the parent type of another type, documents of parent types are
+     * joined with their children on their id
+     */
+    public boolean isParent(String type) {
+        return parentTypes.contains(type);
+    }
+
+    void parentTypes(ImmutableSet<String> parentTypes) {
+        this.parentTypes = parentTypes;
+    }
+
     public Mapper.TypeParser.ParserContext parserContext() {
         return new Mapper.TypeParser.ParserContext(postingsFormatService, docValuesFormatService, analysisService, similarityLookupService, typeParsers, indexVersionCreated);
     }
@@ -363,11 +363,23 @@ public class MapperService extends AbstractIndexComponent  {
                     typeListener.beforeCreate(mapper);
                 }
                 mappers = newMapBuilder(mappers).put(mapper.type(), mapper).map();
+                updateParentTypes();
                 return mapper;
             }
         }
     }
 
+    // must be called while holding the type mutex
+    private void updateParentTypes() {
+        ImmutableSet.Builder<String> parentTypes = ImmutableSet.builder();
+        for (DocumentMapper mapper : mappers.values()) {
+            if (mapper.parentFieldMapper().active()) {
+                parentTypes.add(mapper.parentFieldMapper().type());
+            }
+        }
+        documentParser.parentTypes(parentTypes.build());
+    }
+
     private void addObjectMappers(ObjectMapper[] objectMappers) {
         synchronized (mappersMutex) {
             ImmutableOpenMap.Builder<String, ObjectMappers> fullPathObjectMappers = ImmutableOpenMap.builder(this.fullPathObjectMappers);
@@ -402,6 +414,7 @@ public class MapperService extends AbstractIndexComponent  {
             }
             docMapper.close();
             mappers = newMapBuilder(mappers).remove(type).map();
+            updateParentTypes();
             removeObjectAndFieldMappers(docMapper);
             for (DocumentTypeListener typeListener : typeListeners) {
                 typeListener.afterRemove(docMapper);
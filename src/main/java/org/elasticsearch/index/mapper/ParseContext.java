@@ -24,6 +24,7 @@ import com.carrotsearch.hppc.ObjectObjectOpenHashMap;
 import com.google.common.collect.Lists;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.util.BytesRef;
@@ -65,6 +66,14 @@ public abstract class ParseContext {
             this("", null);
         }
 
+        /**
+         * Removes all fields from this document, so that it can be reused for another document.
+         */
+        void clear() {
+            fields.clear();
+            keyedFields = null;
+        }
+
         /**
          * Return the path associated with this document.
          */
@@ -389,6 +398,15 @@ public abstract class ParseContext {
             return in.stringBuilder();
         }
 
+        @Override
+        public Field reusableField(FieldMapper<?> mapper, FieldType fieldType) {
+            return in.reusableField(mapper, fieldType);
+        }
+
+        @Override
+        public void addReusableField(FieldMapper<?> mapper, Field field) {
+            in.addReusableField(mapper, field);
+        }
     }
 
     public static class InternalParseContext extends ParseContext {
@@ -432,19 +450,52 @@ public abstract class ParseContext {
 
         private float docBoost = 1.0f;
 
+        // only set if fields are reused across the documents that are parsed with this context
+        @Nullable
+        private final ReusableFields reusableFields;
+
         public InternalParseContext(String index, @Nullable Settings indexSettings, DocumentMapperParser docMapperParser, DocumentMapper docMapper, ContentPath path) {
+            this(index, indexSettings, docMapperParser, docMapper, path, false);
+        }
+
+        /**
+         * @param reuseFields whether the documents, and the fields that mappers register with
+         *                    {@link #addReusableField(FieldMapper, Field)}, should be reused for the next document that is
+         *                    parsed with this context, in which case a parsed document is only valid until then
+         */
+        public InternalParseContext(String index, @Nullable Settings indexSettings, DocumentMapperParser docMapperParser, DocumentMapper docMapper, ContentPath path, boolean reuseFields) {
             this.index = index;
             this.indexSettings = indexSettings;
             this.docMapper = docMapper;
             this.docMapperParser = docMapperParser;
             this.path = path;
+            this.reusableFields = reuseFields ? new ReusableFields() : null;
+        }
+
+        /**
+         * Resets this context to parse a new document, which is added to a new root document unless fields are
+         * reused, in which case the root document of the previous document is cleared and reused.
+         */
+        public void reset(XContentParser parser, SourceToParse source, DocumentMapper.ParseListener listener) {
+            if (reusableFields == null) {
+                reset(parser, new Document(), source, listener);
+            } else {
+                reusableFields.document.clear();
+                reusableFields.documents.clear();
+                reusableFields.generation++;
+                reset(parser, reusableFields.document, source, listener);
+            }
         }
 
         public void reset(XContentParser parser, Document document, SourceToParse source, DocumentMapper.ParseListener listener) {
             this.parser = parser;
             this.document = document;
             if (document != null) {
-                this.documents = Lists.newArrayList();
+                if (reusableFields != null && document == reusableFields.document) {
+                    this.documents = reusableFields.documents;
+                } else {
+                    this.documents = Lists.newArrayList();
+                }
                 this.documents.add(document);
             } else {
                 this.documents = null;
@@ -624,6 +675,66 @@ public abstract class ParseContext {
             stringBuilder.setLength(0);
             return this.stringBuilder;
         }
+
+        @Override
+        public Field reusableField(FieldMapper<?> mapper, FieldType fieldType) {
+            if (reusableFields == null) {
+                return null;
+            }
+            MapperFields mapperFields = reusableFields.fields.get(mapper);
+            if (mapperFields == null) {
+                return null;
+            }
+            if (mapperFields.generation != reusableFields.generation) {
+                mapperFields.generation = reusableFields.generation;
+                mapperFields.next = 0;
+            }
+            if (mapperFields.next == mapperFields.fields.size()) {
+                return null;
+            }
+            final Field field = mapperFields.fields.get(mapperFields.next);
+            if (field.fieldType() != fieldType) {
+                // the mapping was updated since the field was created
+                mapperFields.fields.clear();
+                mapperFields.next = 0;
+                return null;
+            }
+            mapperFields.next++;
+            return field;
+        }
+
+        @Override
+        public void addReusableField(FieldMapper<?> mapper, Field field) {
+            if (reusableFields == null) {
+                return;
+            }
+            MapperFields mapperFields = reusableFields.fields.get(mapper);
+            if (mapperFields == null) {
+                mapperFields = new MapperFields();
+                reusableFields.fields.put(mapper, mapperFields);
+            }
+            if (mapperFields.generation != reusableFields.generation) {
+                mapperFields.generation = reusableFields.generation;
+                mapperFields.next = 0;
+            }
+            assert mapperFields.next == mapperFields.fields.size();
+            mapperFields.fields.add(field);
+            mapperFields.next++;
+        }
+
+        private static final class ReusableFields {
+            final Document document = new Document();
+            final List<Document> documents = Lists.newArrayList();
+            final IdentityHashMap<FieldMapper<?>, MapperFields> fields = new IdentityHashMap<>();
+            // incremented for every document, so that the fields of all mappers don't need to be reset
+            long generation;
+        }
+
+        private static final class MapperFields {
+            final List<Field> fields = new ArrayList<>(1);
+            long generation;
+            int next;
+        }
     }
 
     public abstract boolean flyweight();
@@ -844,4 +955,18 @@ public abstract class ParseContext {
      */
     public abstract StringBuilder stringBuilder();
 
+    /**
+     * Returns a field that the given mapper created for a previous document and registered with
+     * {@link #addReusableField(FieldMapper, Field)}, and that isn't used by the current document yet, so that the
+     * mapper can set the value of the current document on it instead of creating a new field. Returns <tt>null</tt>
+     * if there is no such field, or if fields are not reused, which is the default.
+     */
+    @Nullable
+    public abstract Field reusableField(FieldMapper<?> mapper, FieldType fieldType);
+
+    /**
+     * Registers a field that the given mapper created for the current document, so that it can be reused for the
+     * next documents. This is a no-op if fields are not reused.
+     */
+    public abstract void addReusableField(FieldMapper<?> mapper, Field field);
 }
@@ -323,7 +323,13 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
             }
         }
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomByteNumericField field = new CustomByteNumericField(this, value, fieldType);
+            CustomByteNumericField field = (CustomByteNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomByteNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -368,7 +374,7 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
 
     public static class CustomByteNumericField extends CustomNumericField {
 
-        private final byte number;
+        private byte number;
 
         private final NumberFieldMapper mapper;
 
@@ -378,6 +384,14 @@ public class ByteFieldMapper extends NumberFieldMapper<Byte> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(byte number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
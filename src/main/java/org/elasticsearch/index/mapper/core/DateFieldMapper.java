@@ -545,7 +545,13 @@ public class DateFieldMapper extends NumberFieldMapper<Long> {
 
         if (value != null) {
             if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-                CustomLongNumericField field = new CustomLongNumericField(this, value, fieldType);
+                CustomLongNumericField field = (CustomLongNumericField) context.reusableField(this, fieldType);
+                if (field == null) {
+                    field = new CustomLongNumericField(this, value, fieldType);
+                    context.addReusableField(this, field);
+                } else {
+                    field.number(value);
+                }
                 field.setBoost(boost);
                 fields.add(field);
             }
@@ -320,7 +320,13 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
         }
 
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomDoubleNumericField field = new CustomDoubleNumericField(this, value, fieldType);
+            CustomDoubleNumericField field = (CustomDoubleNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomDoubleNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -376,7 +382,7 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
 
     public static class CustomDoubleNumericField extends CustomNumericField {
 
-        private final double number;
+        private double number;
 
         private final NumberFieldMapper mapper;
 
@@ -386,6 +392,14 @@ public class DoubleFieldMapper extends NumberFieldMapper<Double> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(double number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
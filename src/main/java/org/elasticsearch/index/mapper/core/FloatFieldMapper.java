@@ -324,7 +324,13 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
         }
 
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomFloatNumericField field = new CustomFloatNumericField(this, value, fieldType);
+            CustomFloatNumericField field = (CustomFloatNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomFloatNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -381,7 +387,7 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
 
     public static class CustomFloatNumericField extends CustomNumericField {
 
-        private final float number;
+        private float number;
 
         private final NumberFieldMapper mapper;
 
@@ -391,6 +397,14 @@ public class FloatFieldMapper extends NumberFieldMapper<Float> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(float number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
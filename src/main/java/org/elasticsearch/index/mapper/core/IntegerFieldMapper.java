@@ -322,7 +322,13 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
 
     protected void addIntegerFields(ParseContext context, List<Field> fields, int value, float boost) {
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomIntegerNumericField field = new CustomIntegerNumericField(this, value, fieldType);
+            CustomIntegerNumericField field = (CustomIntegerNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomIntegerNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -372,7 +378,7 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
 
     public static class CustomIntegerNumericField extends CustomNumericField {
 
-        private final int number;
+        private int number;
 
         private final NumberFieldMapper mapper;
 
@@ -382,6 +388,14 @@ public class IntegerFieldMapper extends NumberFieldMapper<Integer> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(int number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
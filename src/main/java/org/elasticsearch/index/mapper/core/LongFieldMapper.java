@@ -308,7 +308,13 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
             }
         }
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomLongNumericField field = new CustomLongNumericField(this, value, fieldType);
+            CustomLongNumericField field = (CustomLongNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomLongNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -353,7 +359,7 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
 
     public static class CustomLongNumericField extends CustomNumericField {
 
-        private final long number;
+        private long number;
 
         private final NumberFieldMapper mapper;
 
@@ -363,6 +369,14 @@ public class LongFieldMapper extends NumberFieldMapper<Long> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(long number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
@@ -324,7 +324,13 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
             }
         }
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomShortNumericField field = new CustomShortNumericField(this, value, fieldType);
+            CustomShortNumericField field = (CustomShortNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomShortNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -370,7 +376,7 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
 
     public static class CustomShortNumericField extends CustomNumericField {
 
-        private final short number;
+        private short number;
 
         private final NumberFieldMapper mapper;
 
@@ -380,6 +386,14 @@ public class ShortFieldMapper extends NumberFieldMapper<Short> {
             this.number = number;
         }
 
+        /**
+         * Sets the value of this field, so that it can be reused for another document.
+         */
+        public void number(short number) {
+            this.number = number;
+            this.fieldsData = number;
+        }
+
         @Override
         public TokenStream tokenStream(Analyzer analyzer, TokenStream previous) throws IOException {
             if (fieldType().indexOptions() != IndexOptions.NONE) {
@@ -29,6 +29,8 @@ import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.ElasticsearchIllegalArgumentException;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.lucene.all.AllEntries;
+import org.elasticsearch.common.lucene.all.AllEntryField;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
@@ -291,13 +293,22 @@ public class StringFieldMapper extends AbstractFieldMapper<String> implements Al
         if (ignoreAbove > 0 && valueAndBoost.value().length() > ignoreAbove) {
             return;
         }
+        AllEntries.Entry allEntry = null;
         if (context.includeInAll(includeInAll, this)) {
-            context.allEntries().addText(names.fullName(), valueAndBoost.value(), valueAndBoost.boost());
+            allEntry = context.allEntries().addText(names.fullName(), valueAndBoost.value(), valueAndBoost.boost());
         }
 
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            Field field = new Field(names.indexName(), valueAndBoost.value(), fieldType);
+            AllEntryField field = (AllEntryField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new AllEntryField(names.indexName(), valueAndBoost.value(), fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.setStringValue(valueAndBoost.value());
+            }
             field.setBoost(valueAndBoost.boost());
+            // the tokens of the field may be reused by the _all field
+            field.allEntry(context.allEntries(), allEntry);
             fields.add(field);
         }
         if (hasDocValues()) {
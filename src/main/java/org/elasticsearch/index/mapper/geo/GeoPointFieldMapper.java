@@ -467,7 +467,7 @@ public class GeoPointFieldMapper extends AbstractFieldMapper<GeoPoint> implement
         return this.geohashMapper;
     }
 
-    int geoHashPrecision() {
+    public int geoHashPrecision() {
         return geoHashPrecision;
     }
 
@@ -76,6 +76,7 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
         public static final String NAME = AllFieldMapper.NAME;
         public static final String INDEX_NAME = AllFieldMapper.NAME;
         public static final EnabledAttributeMapper ENABLED = EnabledAttributeMapper.UNSET_ENABLED;
+        public static final boolean REUSE_TOKENS = false;
 
         public static final FieldType FIELD_TYPE = new FieldType();
 
@@ -93,6 +94,8 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
         // an internal flag, automatically set if we encounter boosting
         boolean autoBoost = false;
 
+        private boolean reuseTokens = Defaults.REUSE_TOKENS;
+
         public Builder() {
             super(Defaults.NAME, new FieldType(Defaults.FIELD_TYPE));
             builder = this;
@@ -104,6 +107,11 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
             return this;
         }
 
+        public Builder reuseTokens(boolean reuseTokens) {
+            this.reuseTokens = reuseTokens;
+            return this;
+        }
+
         @Override
         public AllFieldMapper build(BuilderContext context) {
             // In case the mapping overrides these
@@ -113,7 +121,7 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
             }
             fieldType.setTokenized(true);
 
-            return new AllFieldMapper(name, fieldType, indexAnalyzer, searchAnalyzer, enabled, autoBoost, postingsProvider, docValuesProvider, similarity, normsLoading, fieldDataSettings, context.indexSettings());
+            return new AllFieldMapper(name, fieldType, indexAnalyzer, searchAnalyzer, enabled, autoBoost, reuseTokens, postingsProvider, docValuesProvider, similarity, normsLoading, fieldDataSettings, context.indexSettings());
         }
     }
 
@@ -132,6 +140,9 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
                 } else if (fieldName.equals("auto_boost")) {
                     builder.autoBoost = nodeBooleanValue(fieldNode);
                     iterator.remove();
+                } else if (fieldName.equals("reuse_tokens")) {
+                    builder.reuseTokens(nodeBooleanValue(fieldNode));
+                    iterator.remove();
                 }
             }
             return builder;
@@ -146,13 +157,16 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
     // where fields don't usually have boost associated with them, and we don't need to use the
     // special SpanTermQuery to look at payloads
     private volatile boolean autoBoost;
+    // whether the tokens that fields are indexed with are replayed instead of analyzing their values again, which
+    // analyzes values one by one instead of all at once
+    private volatile boolean reuseTokens;
 
     public AllFieldMapper() {
-        this(Defaults.NAME, new FieldType(Defaults.FIELD_TYPE), null, null, Defaults.ENABLED, false, null, null, null, null, null, ImmutableSettings.EMPTY);
+        this(Defaults.NAME, new FieldType(Defaults.FIELD_TYPE), null, null, Defaults.ENABLED, false, Defaults.REUSE_TOKENS, null, null, null, null, null, ImmutableSettings.EMPTY);
     }
 
     protected AllFieldMapper(String name, FieldType fieldType, NamedAnalyzer indexAnalyzer, NamedAnalyzer searchAnalyzer,
-                             EnabledAttributeMapper enabled, boolean autoBoost, PostingsFormatProvider postingsProvider,
+                             EnabledAttributeMapper enabled, boolean autoBoost, boolean reuseTokens, PostingsFormatProvider postingsProvider,
                              DocValuesFormatProvider docValuesProvider, SimilarityProvider similarity, Loading normsLoading,
                              @Nullable Settings fieldDataSettings, Settings indexSettings) {
         super(new Names(name, name, name, name), 1.0f, fieldType, null, indexAnalyzer, searchAnalyzer, postingsProvider, docValuesProvider,
@@ -162,6 +176,7 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
         }
         this.enabledState = enabled;
         this.autoBoost = autoBoost;
+        this.reuseTokens = reuseTokens;
 
     }
 
@@ -169,6 +184,10 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
         return this.enabledState.enabled;
     }
 
+    public boolean reuseTokens() {
+        return this.reuseTokens;
+    }
+
     @Override
     public FieldType defaultFieldType() {
         return Defaults.FIELD_TYPE;
@@ -197,6 +216,8 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
 
     @Override
     public void preParse(ParseContext context) throws IOException {
+        // capture the tokens of the fields that are parsed next
+        context.allEntries().captureTokens(enabledState.enabled && reuseTokens);
     }
 
     @Override
@@ -289,6 +310,9 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
         if (includeDefaults || autoBoost != false) {
             builder.field("auto_boost", autoBoost);
         }
+        if (includeDefaults || reuseTokens != Defaults.REUSE_TOKENS) {
+            builder.field("reuse_tokens", reuseTokens);
+        }
         if (includeDefaults || fieldType.stored() != Defaults.FIELD_TYPE.stored()) {
             builder.field("store", fieldType.stored());
         }
@@ -357,6 +381,9 @@ public class AllFieldMapper extends AbstractFieldMapper<String> implements Inter
             mergeContext.addConflict("mapper [" + names.fullName() + "] enabled is " + this.enabled() + " now encountering "+ ((AllFieldMapper)mergeWith).enabled());
         }
         super.merge(mergeWith, mergeContext);
+        if (!mergeContext.mergeFlags().simulate()) {
+            this.reuseTokens = ((AllFieldMapper) mergeWith).reuseTokens;
+        }
     }
 
     @Override
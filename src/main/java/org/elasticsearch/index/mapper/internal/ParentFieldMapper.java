@@ -21,6 +21,7 @@ package org.elasticsearch.index.mapper.internal;
 import com.google.common.base.Objects;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queries.TermFilter;
@@ -29,6 +30,7 @@ import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.lucene.BytesRefs;
@@ -63,6 +65,14 @@ public class ParentFieldMapper extends AbstractFieldMapper<Uid> implements Inter
 
     public static final String CONTENT_TYPE = "_parent";
 
+    /**
+     * Returns the name of the doc values field that holds the join key of documents of the given parent type
+     * and of their children: the id of the parent document.
+     */
+    public static String joinField(String parentType) {
+        return NAME + "#" + parentType;
+    }
+
 
     public static class Defaults extends AbstractFieldMapper.Defaults {
         public static final String NAME = ParentFieldMapper.NAME;
@@ -147,12 +157,15 @@ public class ParentFieldMapper extends AbstractFieldMapper<Uid> implements Inter
 
     private final String type;
     private final BytesRef typeAsBytes;
+    private final boolean joinDocValues;
 
     protected ParentFieldMapper(String name, String indexName, String type, PostingsFormatProvider postingsFormat, @Nullable Settings fieldDataSettings, Settings indexSettings) {
         super(new Names(name, indexName, indexName, name), Defaults.BOOST, new FieldType(Defaults.FIELD_TYPE), null,
                 Lucene.KEYWORD_ANALYZER, Lucene.KEYWORD_ANALYZER, postingsFormat, null, null, null, fieldDataSettings, indexSettings);
         this.type = type;
         this.typeAsBytes = type == null ? null : new BytesRef(type);
+        // indices created before 2.0 load the join keys from the _uid and _parent terms
+        this.joinDocValues = indexSettings != null && Version.indexCreated(indexSettings).onOrAfter(Version.V_2_0_0);
     }
 
     public ParentFieldMapper(Settings indexSettings) {
@@ -195,15 +208,24 @@ public class ParentFieldMapper extends AbstractFieldMapper<Uid> implements Inter
 
     @Override
     protected void parseCreateField(ParseContext context, List<Field> fields) throws IOException {
+        final boolean parsingParent = context.parser().currentName() != null && context.parser().currentName().equals(Defaults.NAME);
+        if (joinDocValues && parsingParent == false && context.docMapperParser().isParent(context.type())) {
+            // documents of parent types join with their children on their own id
+            String id = context.id() != null ? context.id() : context.sourceToParse().id();
+            if (id != null) {
+                fields.add(new SortedDocValuesField(joinField(context.type()), new BytesRef(id)));
+            }
+        }
         if (!active()) {
             return;
         }
 
-        if (context.parser().currentName() != null && context.parser().currentName().equals(Defaults.NAME)) {
+        if (parsingParent) {
             // we are in the parsing of _parent phase
             String parentId = context.parser().text();
             context.sourceToParse().parent(parentId);
             fields.add(new Field(names.indexName(), Uid.createUid(context.stringBuilder(), type, parentId), fieldType));
+            addChildJoinField(parentId, fields);
         } else {
             // otherwise, we are running it post processing of the xcontent
             String parsedParentId = context.doc().get(Defaults.NAME);
@@ -215,6 +237,7 @@ public class ParentFieldMapper extends AbstractFieldMapper<Uid> implements Inter
                     }
                     // we did not add it in the parsing phase, add it now
                     fields.add(new Field(names.indexName(), Uid.createUid(context.stringBuilder(), type, parentId), fieldType));
+                    addChildJoinField(parentId, fields);
                 } else if (parentId != null && !parsedParentId.equals(Uid.createUid(context.stringBuilder(), type, parentId))) {
                     throw new MapperParsingException("Parent id mismatch, document value is [" + Uid.createUid(parsedParentId).id() + "], while external value is [" + parentId + "]");
                 }
@@ -223,6 +246,12 @@ public class ParentFieldMapper extends AbstractFieldMapper<Uid> implements Inter
         // we have parent mapping, yet no value was set, ignore it...
     }
 
+    private void addChildJoinField(String parentId, List<Field> fields) {
+        if (joinDocValues) {
+            fields.add(new SortedDocValuesField(joinField(type), new BytesRef(parentId)));
+        }
+    }
+
     @Override
     public Uid value(Object value) {
         if (value == null) {
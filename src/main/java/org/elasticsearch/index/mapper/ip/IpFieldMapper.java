@@ -304,7 +304,13 @@ public class IpFieldMapper extends NumberFieldMapper<Long> {
 
         final long value = ipToLong(ipAsString);
         if (fieldType.indexOptions() != IndexOptions.NONE || fieldType.stored()) {
-            CustomLongNumericField field = new CustomLongNumericField(this, value, fieldType);
+            CustomLongNumericField field = (CustomLongNumericField) context.reusableField(this, fieldType);
+            if (field == null) {
+                field = new CustomLongNumericField(this, value, fieldType);
+                context.addReusableField(this, field);
+            } else {
+                field.number(value);
+            }
             field.setBoost(boost);
             fields.add(field);
         }
@@ -22,12 +22,15 @@ package org.elasticsearch.index.merge.policy;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import org.apache.lucene.index.*;
+import org.apache.lucene.index.sorter.SortingMergePolicy;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.packed.GrowableWriter;
 import org.apache.lucene.util.packed.PackedInts;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.Numbers;
 import org.elasticsearch.common.logging.ESLogger;
 import org.elasticsearch.common.logging.Loggers;
@@ -51,18 +54,32 @@ import java.util.Map;
  * <p>
  * For now, this {@link MergePolicy} takes care of moving versions that used to
  * be stored as payloads to numeric doc values.
+ * <p>
+ * If an index sort is given, merged segments are sorted with a
+ * {@link SortingMergePolicy} instead. Only indices created on or after 2.0
+ * can be sorted, so these never have versions to upgrade.
  */
 public final class ElasticsearchMergePolicy extends MergePolicy {
     
     private static ESLogger logger = Loggers.getLogger(ElasticsearchMergePolicy.class);
 
     private final MergePolicy delegate;
+    private final boolean sorted;
     private volatile boolean upgradeInProgress;
     private static final int MAX_CONCURRENT_UPGRADE_MERGES = 5;
 
     /** @param delegate the merge policy to wrap */
     public ElasticsearchMergePolicy(MergePolicy delegate) {
-        this.delegate = delegate;
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate  the merge policy to wrap
+     * @param indexSort the sort to sort merged segments with, or <code>null</code> to keep the order of their documents
+     */
+    public ElasticsearchMergePolicy(MergePolicy delegate, @Nullable Sort indexSort) {
+        this.sorted = indexSort != null;
+        this.delegate = sorted ? new SortingMergePolicy(delegate, indexSort) : delegate;
     }
 
     /** Return an "upgraded" view of the reader. */
@@ -187,9 +204,10 @@ public final class ElasticsearchMergePolicy extends MergePolicy {
 
     }
 
-    static MergeSpecification upgradedMergeSpecification(MergeSpecification spec) {
-        if (spec == null) {
-            return null;
+    MergeSpecification upgradedMergeSpecification(MergeSpecification spec) {
+        if (spec == null || sorted) {
+            // merges of the sorting merge policy must not be replaced
+            return spec;
         }
         MergeSpecification upgradedSpec = new IndexUpgraderMergeSpecification();
         for (OneMerge merge : spec.merges) {
@@ -210,6 +228,7 @@ public final class ElasticsearchMergePolicy extends MergePolicy {
         throws IOException {
 
         if (upgradeInProgress) {
+            // upgraded segments of sorted indices are in indexing order until they get merged again
             MergeSpecification spec = new IndexUpgraderMergeSpecification();
             for (SegmentCommitInfo info : segmentInfos) {
                 org.apache.lucene.util.Version old = info.info.getVersion();
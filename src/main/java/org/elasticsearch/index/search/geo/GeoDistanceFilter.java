@@ -38,6 +38,9 @@ import org.elasticsearch.index.fielddata.MultiGeoPointValues;
 import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
 
 /**
+ * Filters documents with a geo point within a distance of a given point. If the field indexes geohash prefixes,
+ * the circle is covered with geohash cells so that only the documents of the cells on its boundary need to
+ * be checked against their field data.
  */
 public class GeoDistanceFilter extends Filter {
 
@@ -54,6 +57,7 @@ public class GeoDistanceFilter extends Filter {
     private final GeoDistance.FixedSourceDistance fixedSourceDistance;
     private final GeoDistance.DistanceBoundingCheck distanceBoundingCheck;
     private final Filter boundingBoxFilter;
+    private final GeohashCellCovering covering;
 
     public GeoDistanceFilter(double lat, double lon, double distance, GeoDistance geoDistance, IndexGeoPointFieldData indexFieldData, GeoPointFieldMapper mapper,
                              String optimizeBbox) {
@@ -80,6 +84,13 @@ public class GeoDistanceFilter extends Filter {
             boundingBoxFilter = null;
         }
         this.distanceBoundingCheck = distanceBoundingCheck;
+        if (geoDistance == GeoDistance.FACTOR) {
+            // the distance is normalized to a factor, no bounds to cover
+            this.covering = null;
+        } else {
+            this.covering = GeohashCellCovering.build(mapper, new DistanceShape(fixedSourceDistance, distance,
+                    GeoDistance.distanceBoundingCheck(lat, lon, distance, DistanceUnit.DEFAULT)));
+        }
     }
 
     public double lat() {
@@ -104,6 +115,12 @@ public class GeoDistanceFilter extends Filter {
 
     @Override
     public DocIdSet getDocIdSet(LeafReaderContext context, Bits acceptedDocs) throws IOException {
+        if (covering != null) {
+            // the covering is more selective than the bounding box, only check the boundary cells exactly
+            final MultiGeoPointValues values = indexFieldData.load(context).getGeoPointValues();
+            GeoDistanceDocSet exact = new GeoDistanceDocSet(context.reader().maxDoc(), null, values, fixedSourceDistance, distanceBoundingCheck, distance);
+            return covering.getDocIdSet(context, acceptedDocs, exact.bits());
+        }
         DocIdSet boundingBoxDocSet = null;
         if (boundingBoxFilter != null) {
             boundingBoxDocSet = boundingBoxFilter.getDocIdSet(context, null);
@@ -157,6 +174,53 @@ public class GeoDistanceFilter extends Filter {
         return result;
     }
 
+    /**
+     * The circle around the origin, as seen by geohash cells.
+     */
+    static final class DistanceShape implements GeohashCellCovering.Shape {
+
+        // keep a margin for the approximations of the distance implementations
+        private static final double WITHIN_MARGIN = 0.99;
+
+        private final GeoDistance.FixedSourceDistance fixedSourceDistance;
+        private final double distance;
+        private final double minLat, maxLat, minLon, maxLon;
+        private final boolean crossesDateline;
+
+        DistanceShape(GeoDistance.FixedSourceDistance fixedSourceDistance, double distance, GeoDistance.DistanceBoundingCheck bounds) {
+            this.fixedSourceDistance = fixedSourceDistance;
+            this.distance = distance;
+            this.minLat = bounds.bottomRight().lat();
+            this.maxLat = bounds.topLeft().lat();
+            this.minLon = bounds.topLeft().lon();
+            this.maxLon = bounds.bottomRight().lon();
+            this.crossesDateline = minLon > maxLon;
+        }
+
+        @Override
+        public GeohashCellCovering.Relation relate(double cellMinLat, double cellMaxLat, double cellMinLon, double cellMaxLon) {
+            if (cellMaxLat < minLat || cellMinLat > maxLat) {
+                return GeohashCellCovering.Relation.DISJOINT;
+            }
+            if (crossesDateline) {
+                if (cellMaxLon < minLon && cellMinLon > maxLon) {
+                    return GeohashCellCovering.Relation.DISJOINT;
+                }
+            } else if (cellMaxLon < minLon || cellMinLon > maxLon) {
+                return GeohashCellCovering.Relation.DISJOINT;
+            }
+            // the point of a cell that is the farthest from the origin is one of its corners
+            final double within = distance * WITHIN_MARGIN;
+            if (fixedSourceDistance.calculate(cellMinLat, cellMinLon) < within
+                    && fixedSourceDistance.calculate(cellMinLat, cellMaxLon) < within
+                    && fixedSourceDistance.calculate(cellMaxLat, cellMinLon) < within
+                    && fixedSourceDistance.calculate(cellMaxLat, cellMaxLon) < within) {
+                return GeohashCellCovering.Relation.WITHIN;
+            }
+            return GeohashCellCovering.Relation.CROSSES;
+        }
+    }
+
     public static class GeoDistanceDocSet extends DocValuesDocIdSet {
         private final double distance; // in miles
         private final MultiGeoPointValues values;
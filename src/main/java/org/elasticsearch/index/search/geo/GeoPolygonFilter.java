@@ -31,9 +31,12 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.geo.GeoPoint;
 import org.elasticsearch.index.fielddata.IndexGeoPointFieldData;
 import org.elasticsearch.index.fielddata.MultiGeoPointValues;
+import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
 
 /**
- *
+ * Filters documents with a geo point within a polygon. If the field indexes geohash prefixes, the polygon
+ * is covered with geohash cells so that only the documents of the cells on its boundary need to be checked
+ * against their field data.
  */
 public class GeoPolygonFilter extends Filter {
 
@@ -41,9 +44,16 @@ public class GeoPolygonFilter extends Filter {
 
     private final IndexGeoPointFieldData indexFieldData;
 
+    private final GeohashCellCovering covering;
+
     public GeoPolygonFilter(IndexGeoPointFieldData indexFieldData, GeoPoint...points) {
+        this(indexFieldData, null, points);
+    }
+
+    public GeoPolygonFilter(IndexGeoPointFieldData indexFieldData, @Nullable GeoPointFieldMapper mapper, GeoPoint...points) {
         this.points = points;
         this.indexFieldData = indexFieldData;
+        this.covering = GeohashCellCovering.build(mapper, new PolygonShape(points));
     }
 
     public GeoPoint[] points() {
@@ -57,6 +67,10 @@ public class GeoPolygonFilter extends Filter {
     @Override
     public DocIdSet getDocIdSet(LeafReaderContext context, Bits acceptedDocs) throws IOException {
         final MultiGeoPointValues values = indexFieldData.load(context).getGeoPointValues();
+        if (covering != null) {
+            GeoPolygonDocIdSet exact = new GeoPolygonDocIdSet(context.reader().maxDoc(), null, values, points);
+            return covering.getDocIdSet(context, acceptedDocs, exact.bits());
+        }
         return new GeoPolygonDocIdSet(context.reader().maxDoc(), acceptedDocs, values, points);
     }
 
@@ -68,6 +82,75 @@ public class GeoPolygonFilter extends Filter {
         return sb.toString();
     }
 
+    /**
+     * The polygon, as seen by geohash cells. Like the exact check, it treats latitudes and longitudes as planar
+     * coordinates.
+     */
+    static final class PolygonShape implements GeohashCellCovering.Shape {
+
+        private final GeoPoint[] points;
+        private double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        private double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+
+        PolygonShape(GeoPoint[] points) {
+            this.points = points;
+            for (GeoPoint point : points) {
+                minLat = Math.min(minLat, point.lat());
+                maxLat = Math.max(maxLat, point.lat());
+                minLon = Math.min(minLon, point.lon());
+                maxLon = Math.max(maxLon, point.lon());
+            }
+        }
+
+        @Override
+        public GeohashCellCovering.Relation relate(double cellMinLat, double cellMaxLat, double cellMinLon, double cellMaxLon) {
+            if (cellMaxLat < minLat || cellMinLat > maxLat || cellMaxLon < minLon || cellMinLon > maxLon) {
+                return GeohashCellCovering.Relation.DISJOINT;
+            }
+            for (int i = 1; i < points.length; i++) {
+                if (segmentIntersectsCell(points[i - 1], points[i], cellMinLat, cellMaxLat, cellMinLon, cellMaxLon)) {
+                    return GeohashCellCovering.Relation.CROSSES;
+                }
+            }
+            // no edge of the polygon touches the cell, so the cell is either entirely inside or outside of it
+            if (GeoPolygonDocIdSet.pointInPolygon(points, cellMinLat, cellMinLon)) {
+                return GeohashCellCovering.Relation.WITHIN;
+            }
+            return GeohashCellCovering.Relation.DISJOINT;
+        }
+
+        private static boolean segmentIntersectsCell(GeoPoint a, GeoPoint b, double minLat, double maxLat, double minLon, double maxLon) {
+            if (Math.max(a.lat(), b.lat()) < minLat || Math.min(a.lat(), b.lat()) > maxLat
+                    || Math.max(a.lon(), b.lon()) < minLon || Math.min(a.lon(), b.lon()) > maxLon) {
+                return false;
+            }
+            if (contains(a, minLat, maxLat, minLon, maxLon) || contains(b, minLat, maxLat, minLon, maxLon)) {
+                return true;
+            }
+            return segmentsIntersect(a.lon(), a.lat(), b.lon(), b.lat(), minLon, minLat, maxLon, minLat)
+                    || segmentsIntersect(a.lon(), a.lat(), b.lon(), b.lat(), maxLon, minLat, maxLon, maxLat)
+                    || segmentsIntersect(a.lon(), a.lat(), b.lon(), b.lat(), maxLon, maxLat, minLon, maxLat)
+                    || segmentsIntersect(a.lon(), a.lat(), b.lon(), b.lat(), minLon, maxLat, minLon, minLat);
+        }
+
+        private static boolean contains(GeoPoint point, double minLat, double maxLat, double minLon, double maxLon) {
+            return point.lat() >= minLat && point.lat() <= maxLat && point.lon() >= minLon && point.lon() <= maxLon;
+        }
+
+        private static boolean segmentsIntersect(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy) {
+            final double d1 = orientation(cx, cy, dx, dy, ax, ay);
+            final double d2 = orientation(cx, cy, dx, dy, bx, by);
+            final double d3 = orientation(ax, ay, bx, by, cx, cy);
+            final double d4 = orientation(ax, ay, bx, by, dx, dy);
+            // touching counts as intersecting, the cell is then checked exactly
+            return (d1 * d2 <= 0) && (d3 * d4 <= 0);
+        }
+
+        private static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+            return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+        }
+    }
+
     public static class GeoPolygonDocIdSet extends DocValuesDocIdSet {
         private final MultiGeoPointValues values;
         private final GeoPoint[] points;
@@ -91,7 +174,7 @@ public class GeoPolygonFilter extends Filter {
             return false;
         }
 
-        private static boolean pointInPolygon(GeoPoint[] points, double lat, double lon) {
+        static boolean pointInPolygon(GeoPoint[] points, double lat, double lon) {
             boolean inPoly = false;
 
             for (int i = 1; i < points.length; i++) {
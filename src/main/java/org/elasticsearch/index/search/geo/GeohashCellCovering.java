@@ -0,0 +1,181 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.search.geo;
+
+import org.apache.lucene.index.DocsEnum;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BitDocIdSet;
+import org.apache.lucene.search.DocIdSet;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.index.mapper.geo.GeoPointFieldMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A covering of a shape with geohash cells, computed against the geohash prefixes that a {@link GeoPointFieldMapper}
+ * indexes when <code>geohash_prefix</code> is enabled. Cells that are within the shape match all of their documents
+ * through their postings, the documents of cells on the boundary of the shape are checked exactly.
+ */
+final class GeohashCellCovering {
+
+    /**
+     * Upper bound on the number of boundary cells, the covering isn't refined to the next level if that would
+     * exceed it.
+     */
+    static final int MAX_BOUNDARY_CELLS = 1024;
+
+    private static final char[] BASE_32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    /**
+     * The relation of a geohash cell to the shape that is covered.
+     */
+    enum Relation {
+        DISJOINT, WITHIN, CROSSES
+    }
+
+    /**
+     * A shape to cover with geohash cells.
+     */
+    interface Shape {
+
+        /**
+         * Returns how the cell with the given bounds relates to this shape. Implementations may return
+         * {@link Relation#CROSSES} when in doubt, but must never return {@link Relation#WITHIN} for a cell that
+         * holds points outside of the shape or {@link Relation#DISJOINT} for a cell that holds points inside of it.
+         */
+        Relation relate(double minLat, double maxLat, double minLon, double maxLon);
+    }
+
+    private final String field;
+    private final BytesRef[] within;
+    private final BytesRef[] boundary;
+
+    private GeohashCellCovering(String field, BytesRef[] within, BytesRef[] boundary) {
+        this.field = field;
+        this.within = within;
+        this.boundary = boundary;
+    }
+
+    /**
+     * Covers the given shape with the geohash prefixes of the given geo point field.
+     *
+     * @return the covering, or <code>null</code> if the field doesn't index geohash prefixes
+     */
+    @Nullable
+    static GeohashCellCovering build(GeoPointFieldMapper mapper, Shape shape) {
+        if (mapper == null || mapper.isEnableGeohashPrefix() == false) {
+            return null;
+        }
+        return build(mapper.geoHashStringMapper().names().indexName(), mapper.geoHashPrecision(), shape);
+    }
+
+    /**
+     * Covers the given shape with geohash cells of at most the given length, indexed as terms of the given field.
+     */
+    static GeohashCellCovering build(String field, int maxLevels, Shape shape) {
+        List<String> within = new ArrayList<>();
+        List<String> frontier = new ArrayList<>();
+        frontier.add("");
+        for (int level = 1; level <= maxLevels; level++) {
+            List<String> next = new ArrayList<>();
+            for (String parent : frontier) {
+                for (char c : BASE_32) {
+                    final String cell = parent + c;
+                    final double[] bounds = GeoHashUtils.decodeCell(cell);
+                    switch (shape.relate(bounds[0], bounds[1], bounds[2], bounds[3])) {
+                        case DISJOINT:
+                            break;
+                        case WITHIN:
+                            within.add(cell);
+                            break;
+                        default:
+                            next.add(cell);
+                    }
+                }
+            }
+            frontier = next;
+            if (frontier.isEmpty() || (long) frontier.size() * BASE_32.length > MAX_BOUNDARY_CELLS) {
+                break;
+            }
+        }
+        return new GeohashCellCovering(field, toBytesRefs(within), toBytesRefs(frontier));
+    }
+
+    private static BytesRef[] toBytesRefs(List<String> cells) {
+        BytesRef[] refs = new BytesRef[cells.size()];
+        for (int i = 0; i < refs.length; i++) {
+            refs[i] = new BytesRef(cells.get(i));
+        }
+        return refs;
+    }
+
+    /**
+     * Returns the documents of the given segment that match the covered shape: all documents of the cells within
+     * the shape and the documents of the boundary cells that the given exact check accepts.
+     */
+    DocIdSet getDocIdSet(LeafReaderContext context, @Nullable Bits acceptDocs, Bits exactMatches) throws IOException {
+        final Terms terms = context.reader().terms(field);
+        if (terms == null) {
+            return null;
+        }
+        final TermsEnum termsEnum = terms.iterator(null);
+        final FixedBitSet matches = new FixedBitSet(context.reader().maxDoc());
+        DocsEnum docsEnum = null;
+        for (BytesRef cell : within) {
+            if (termsEnum.seekExact(cell)) {
+                docsEnum = termsEnum.docs(acceptDocs, docsEnum, DocsEnum.FLAG_NONE);
+                matches.or(docsEnum);
+            }
+        }
+        for (BytesRef cell : boundary) {
+            if (termsEnum.seekExact(cell)) {
+                docsEnum = termsEnum.docs(acceptDocs, docsEnum, DocsEnum.FLAG_NONE);
+                for (int docId = docsEnum.nextDoc(); docId != DocsEnum.NO_MORE_DOCS; docId = docsEnum.nextDoc()) {
+                    if (matches.get(docId) == false && exactMatches.get(docId)) {
+                        matches.set(docId);
+                    }
+                }
+            }
+        }
+        return new BitDocIdSet(matches);
+    }
+
+    /**
+     * @return the cells that are entirely within the shape
+     */
+    BytesRef[] within() {
+        return within;
+    }
+
+    /**
+     * @return the cells on the boundary of the shape
+     */
+    BytesRef[] boundary() {
+        return boundary;
+    }
+}
@@ -19,10 +19,12 @@
 
 package org.elasticsearch.index.search.stats;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.metrics.LatencyStats;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
@@ -47,6 +49,11 @@ public class SearchStats implements Streamable, ToXContent {
         private long fetchTimeInMillis;
         private long fetchCurrent;
 
+        @Nullable
+        private LatencyStats queryLatency;
+        @Nullable
+        private LatencyStats fetchLatency;
+
         Stats() {
 
         }
@@ -60,6 +67,13 @@ public class SearchStats implements Streamable, ToXContent {
             this.fetchCurrent = fetchCurrent;
         }
 
+        public Stats(long queryCount, long queryTimeInMillis, long queryCurrent, long fetchCount, long fetchTimeInMillis, long fetchCurrent,
+                     @Nullable LatencyStats queryLatency, @Nullable LatencyStats fetchLatency) {
+            this(queryCount, queryTimeInMillis, queryCurrent, fetchCount, fetchTimeInMillis, fetchCurrent);
+            this.queryLatency = queryLatency;
+            this.fetchLatency = fetchLatency;
+        }
+
         public void add(Stats stats) {
             queryCount += stats.queryCount;
             queryTimeInMillis += stats.queryTimeInMillis;
@@ -68,6 +82,19 @@ public class SearchStats implements Streamable, ToXContent {
             fetchCount += stats.fetchCount;
             fetchTimeInMillis += stats.fetchTimeInMillis;
             fetchCurrent += stats.fetchCurrent;
+
+            if (stats.queryLatency != null) {
+                if (queryLatency == null) {
+                    queryLatency = new LatencyStats();
+                }
+                queryLatency.add(stats.queryLatency);
+            }
+            if (stats.fetchLatency != null) {
+                if (fetchLatency == null) {
+                    fetchLatency = new LatencyStats();
+                }
+                fetchLatency.add(stats.fetchLatency);
+            }
         }
 
         public long getQueryCount() {
@@ -102,6 +129,24 @@ public class SearchStats implements Streamable, ToXContent {
             return fetchCurrent;
         }
 
+        /**
+         * @return the distribution of the latencies of the query phase, or <tt>null</tt> if they are not
+         *         tracked, which is the case for groups
+         */
+        @Nullable
+        public LatencyStats getQueryLatency() {
+            return queryLatency;
+        }
+
+        /**
+         * @return the distribution of the latencies of the fetch phase, or <tt>null</tt> if they are not
+         *         tracked, which is the case for groups
+         */
+        @Nullable
+        public LatencyStats getFetchLatency() {
+            return fetchLatency;
+        }
+
 
         public static Stats readStats(StreamInput in) throws IOException {
             Stats stats = new Stats();
@@ -118,6 +163,11 @@ public class SearchStats implements Streamable, ToXContent {
             fetchCount = in.readVLong();
             fetchTimeInMillis = in.readVLong();
             fetchCurrent = in.readVLong();
+
+            if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+                queryLatency = in.readOptionalStreamable(new LatencyStats());
+                fetchLatency = in.readOptionalStreamable(new LatencyStats());
+            }
         }
 
         @Override
@@ -129,6 +179,11 @@ public class SearchStats implements Streamable, ToXContent {
             out.writeVLong(fetchCount);
             out.writeVLong(fetchTimeInMillis);
             out.writeVLong(fetchCurrent);
+
+            if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+                out.writeOptionalStreamable(queryLatency);
+                out.writeOptionalStreamable(fetchLatency);
+            }
         }
 
         @Override
@@ -136,10 +191,20 @@ public class SearchStats implements Streamable, ToXContent {
             builder.field(Fields.QUERY_TOTAL, queryCount);
             builder.timeValueField(Fields.QUERY_TIME_IN_MILLIS, Fields.QUERY_TIME, queryTimeInMillis);
             builder.field(Fields.QUERY_CURRENT, queryCurrent);
+            if (queryLatency != null) {
+                builder.startObject(Fields.QUERY_LATENCY);
+                queryLatency.toXContent(builder, params);
+                builder.endObject();
+            }
 
             builder.field(Fields.FETCH_TOTAL, fetchCount);
             builder.timeValueField(Fields.FETCH_TIME_IN_MILLIS, Fields.FETCH_TIME, fetchTimeInMillis);
             builder.field(Fields.FETCH_CURRENT, fetchCurrent);
+            if (fetchLatency != null) {
+                builder.startObject(Fields.FETCH_LATENCY);
+                fetchLatency.toXContent(builder, params);
+                builder.endObject();
+            }
 
             return builder;
         }
@@ -225,10 +290,12 @@ public class SearchStats implements Streamable, ToXContent {
         static final XContentBuilderString QUERY_TIME = new XContentBuilderString("query_time");
         static final XContentBuilderString QUERY_TIME_IN_MILLIS = new XContentBuilderString("query_time_in_millis");
         static final XContentBuilderString QUERY_CURRENT = new XContentBuilderString("query_current");
+        static final XContentBuilderString QUERY_LATENCY = new XContentBuilderString("query_latency");
         static final XContentBuilderString FETCH_TOTAL = new XContentBuilderString("fetch_total");
         static final XContentBuilderString FETCH_TIME = new XContentBuilderString("fetch_time");
         static final XContentBuilderString FETCH_TIME_IN_MILLIS = new XContentBuilderString("fetch_time_in_millis");
         static final XContentBuilderString FETCH_CURRENT = new XContentBuilderString("fetch_current");
+        static final XContentBuilderString FETCH_LATENCY = new XContentBuilderString("fetch_latency");
     }
 
     public static SearchStats readSearchStats(StreamInput in) throws IOException {
@@ -20,9 +20,11 @@
 package org.elasticsearch.index.search.stats;
 
 import com.google.common.collect.ImmutableMap;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.collect.MapBuilder;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.metrics.LatencyMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.regex.Regex;
 import org.elasticsearch.common.settings.Settings;
@@ -42,7 +44,7 @@ public class ShardSearchService extends AbstractIndexShardComponent {
 
     private final ShardSlowLogSearchService slowLogSearchService;
 
-    private final StatsHolder totalStats = new StatsHolder();
+    private final StatsHolder totalStats = new StatsHolder(true);
     private final CounterMetric openContexts = new CounterMetric();
 
     private volatile Map<String, StatsHolder> groupsStats = ImmutableMap.of();
@@ -98,6 +100,7 @@ public class ShardSearchService extends AbstractIndexShardComponent {
 
     public void onQueryPhase(SearchContext searchContext, long tookInNanos) {
         totalStats.queryMetric.inc(tookInNanos);
+        totalStats.queryLatency.inc(tookInNanos);
         totalStats.queryCurrent.dec();
         if (searchContext.groupStats() != null) {
             for (int i = 0; i < searchContext.groupStats().size(); i++) {
@@ -129,6 +132,7 @@ public class ShardSearchService extends AbstractIndexShardComponent {
 
     public void onFetchPhase(SearchContext searchContext, long tookInNanos) {
         totalStats.fetchMetric.inc(tookInNanos);
+        totalStats.fetchLatency.inc(tookInNanos);
         totalStats.fetchCurrent.dec();
         if (searchContext.groupStats() != null) {
             for (int i = 0; i < searchContext.groupStats().size(); i++) {
@@ -162,7 +166,7 @@ public class ShardSearchService extends AbstractIndexShardComponent {
             synchronized (this) {
                 stats = groupsStats.get(group);
                 if (stats == null) {
-                    stats = new StatsHolder();
+                    stats = new StatsHolder(false);
                     groupsStats = MapBuilder.newMapBuilder(groupsStats).put(group, stats).immutableMap();
                 }
             }
@@ -183,10 +187,21 @@ public class ShardSearchService extends AbstractIndexShardComponent {
         public final MeanMetric fetchMetric = new MeanMetric();
         public final CounterMetric queryCurrent = new CounterMetric();
         public final CounterMetric fetchCurrent = new CounterMetric();
+        // latency distributions are only tracked for the totals, as they take up to about 10KB per phase, see LatencyMetric
+        @Nullable
+        public final LatencyMetric queryLatency;
+        @Nullable
+        public final LatencyMetric fetchLatency;
+
+        StatsHolder(boolean trackLatency) {
+            queryLatency = trackLatency ? new LatencyMetric() : null;
+            fetchLatency = trackLatency ? new LatencyMetric() : null;
+        }
 
         public SearchStats.Stats stats() {
             return new SearchStats.Stats(queryMetric.count(), TimeUnit.NANOSECONDS.toMillis(queryMetric.sum()), queryCurrent.count(),
-                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count());
+                    fetchMetric.count(), TimeUnit.NANOSECONDS.toMillis(fetchMetric.sum()), fetchCurrent.count(),
+                    queryLatency == null ? null : queryLatency.stats(), fetchLatency == null ? null : fetchLatency.stats());
         }
 
         public long totalCurrent() {
@@ -196,6 +211,10 @@ public class ShardSearchService extends AbstractIndexShardComponent {
         public void clear() {
             queryMetric.clear();
             fetchMetric.clear();
+            if (queryLatency != null) {
+                queryLatency.clear();
+                fetchLatency.clear();
+            }
         }
     }
 }
@@ -29,6 +29,7 @@ import org.elasticsearch.index.cache.filter.FilterCacheStats;
 import org.elasticsearch.index.cache.filter.ShardFilterCache;
 import org.elasticsearch.index.cache.id.IdCacheStats;
 import org.elasticsearch.index.cache.query.ShardQueryCache;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCacheStats;
 import org.elasticsearch.index.deletionpolicy.SnapshotIndexCommit;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.EngineException;
@@ -52,6 +53,7 @@ import org.elasticsearch.index.search.stats.SearchStats;
 import org.elasticsearch.index.search.stats.ShardSearchService;
 import org.elasticsearch.index.service.IndexService;
 import org.elasticsearch.index.shard.*;
+import org.elasticsearch.index.sort.IndexSort;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.suggest.stats.ShardSuggestService;
 import org.elasticsearch.index.suggest.stats.SuggestStats;
@@ -87,6 +89,12 @@ public interface IndexShard extends IndexShardComponent {
     @Nullable
     ShardRouting routingEntry();
 
+    /**
+     * Returns the order that merged segments of this shard are sorted in, or <tt>null</tt> if they are not sorted.
+     */
+    @Nullable
+    IndexSort indexSort();
+
     DocsStats docStats();
 
     StoreStats storeStats();
@@ -109,6 +117,8 @@ public interface IndexShard extends IndexShardComponent {
 
     FilterCacheStats filterCacheStats();
 
+    TermFrequencyCacheStats termFrequencyCacheStats();
+
     IdCacheStats idCacheStats();
 
     FieldDataStats fieldDataStats(String... fields);
@@ -53,6 +53,7 @@ import org.elasticsearch.index.cache.filter.FilterCacheStats;
 import org.elasticsearch.index.cache.filter.ShardFilterCache;
 import org.elasticsearch.index.cache.id.IdCacheStats;
 import org.elasticsearch.index.cache.query.ShardQueryCache;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCacheStats;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.deletionpolicy.SnapshotIndexCommit;
 import org.elasticsearch.index.engine.Engine;
@@ -100,6 +101,7 @@ import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardStartedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.sort.IndexSort;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.suggest.stats.ShardSuggestService;
@@ -155,6 +157,8 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
     private final IndexService indexService;
     private final ShardSuggestService shardSuggestService;
     private final ShardBitsetFilterCache shardBitsetFilterCache;
+    @Nullable
+    private final IndexSort indexSort;
 
     private final Object mutex = new Object();
     private final String checkIndexOnStartup;
@@ -207,6 +211,7 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         this.codecService = codecService;
         this.shardSuggestService = shardSuggestService;
         this.shardBitsetFilterCache = shardBitsetFilterCache;
+        this.indexSort = IndexSort.parse(indexSettings);
         state = IndexShardState.CREATED;
 
         this.refreshInterval = indexSettings.getAsTime(INDEX_REFRESH_INTERVAL, engine.defaultRefreshInterval());
@@ -253,6 +258,11 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         return shardSuggestService;
     }
 
+    @Override
+    public IndexSort indexSort() {
+        return indexSort;
+    }
+
     @Override
     public ShardBitsetFilterCache shardBitsetFilterCache() {
         return shardBitsetFilterCache;
@@ -588,6 +598,11 @@ public class InternalIndexShard extends AbstractIndexShardComponent implements I
         return shardFilterCache.stats();
     }
 
+    @Override
+    public TermFrequencyCacheStats termFrequencyCacheStats() {
+        return indexCache.termFrequencyCache().stats(shardId);
+    }
+
     @Override
     public FieldDataStats fieldDataStats(String... fields) {
         return shardFieldData.stats(fields);
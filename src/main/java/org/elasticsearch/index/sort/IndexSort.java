@@ -0,0 +1,171 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.sort;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.SegmentReader;
+import org.apache.lucene.index.sorter.SortingMergePolicy;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.lucene.SegmentReaderUtils;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fielddata.fieldcomparator.LongValuesComparatorSource;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.FieldMappers;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.core.NumberFieldMapper;
+
+/**
+ * The order that the documents of merged segments are sorted in, as configured with the {@link #INDEX_SORT_FIELD}
+ * and {@link #INDEX_SORT_ORDER} index settings.
+ * <p/>
+ * Segments are sorted on the numeric doc values of a single field, picking the minimum value of multi-valued
+ * documents in ascending order and the maximum value in descending order, with documents that don't have a value
+ * last. This is the default order of a sort on the field, which allows searches that sort the same way to stop
+ * collecting a segment once they collected enough documents of it.
+ */
+public final class IndexSort {
+
+    /**
+     * The name of the field to sort segments on, which must be a long based numeric or date field with doc values.
+     */
+    public static final String INDEX_SORT_FIELD = "index.sort.field";
+
+    /**
+     * The order to sort segments in, either <code>asc</code>, the default, or <code>desc</code>.
+     */
+    public static final String INDEX_SORT_ORDER = "index.sort.order";
+
+    private static final ImmutableSet<String> LONG_FIELD_DATA_TYPES = ImmutableSet.of("long", "int", "short", "byte");
+
+    private final String field;
+    private final boolean reverse;
+    private final Sort sort;
+
+    IndexSort(String field, boolean reverse) {
+        this.field = field;
+        this.reverse = reverse;
+        final SortedNumericSortField sortField = new SortedNumericSortField(field, SortField.Type.LONG, reverse,
+                reverse ? SortedNumericSelector.Type.MAX : SortedNumericSelector.Type.MIN);
+        sortField.setMissingValue(reverse ? Long.MIN_VALUE : Long.MAX_VALUE);
+        this.sort = new Sort(sortField);
+    }
+
+    /**
+     * Returns the index sort that is configured in the given index settings, or <code>null</code> if segments
+     * are not sorted.
+     */
+    @Nullable
+    public static IndexSort parse(Settings indexSettings) {
+        final String field = indexSettings.get(INDEX_SORT_FIELD);
+        if (field == null) {
+            return null;
+        }
+        // older indices may have versions that need to be upgraded on merge, which doesn't sort segments
+        if (Version.indexCreated(indexSettings).before(Version.V_2_0_0)) {
+            throw new ElasticsearchIllegalArgumentException("[" + INDEX_SORT_FIELD + "] is only supported on indices created on or after version ["
+                    + Version.V_2_0_0 + "]");
+        }
+        final String order = indexSettings.get(INDEX_SORT_ORDER, "asc");
+        if ("asc".equals(order)) {
+            return new IndexSort(field, false);
+        } else if ("desc".equals(order)) {
+            return new IndexSort(field, true);
+        }
+        throw new ElasticsearchIllegalArgumentException("[" + INDEX_SORT_ORDER + "] must be one of [asc, desc], got [" + order + "]");
+    }
+
+    /**
+     * Validates the index sort configured in the settings of a new index against its mappings. Segments are sorted
+     * on sorted numeric doc values, which only long based numeric fields with doc values have, so the field must be
+     * mapped like that when the index is created.
+     */
+    public static void validate(Settings indexSettings, MapperService mapperService) {
+        final IndexSort indexSort = parse(indexSettings);
+        if (indexSort == null) {
+            return;
+        }
+        final FieldMappers mappers = mapperService.indexName(indexSort.field());
+        if (mappers == null || mappers.isEmpty()) {
+            throw new ElasticsearchIllegalArgumentException("[" + INDEX_SORT_FIELD + "] field [" + indexSort.field()
+                    + "] must be mapped when the index is created");
+        }
+        for (FieldMapper<?> mapper : mappers) {
+            if (mapper instanceof NumberFieldMapper == false || LONG_FIELD_DATA_TYPES.contains(mapper.fieldDataType().getType()) == false) {
+                throw new ElasticsearchIllegalArgumentException("[" + INDEX_SORT_FIELD + "] field [" + indexSort.field()
+                        + "] must be a long, integer, short, byte or date field");
+            }
+            if (mapper.hasDocValues() == false) {
+                throw new ElasticsearchIllegalArgumentException("[" + INDEX_SORT_FIELD + "] field [" + indexSort.field()
+                        + "] must have doc values");
+            }
+        }
+    }
+
+    public String field() {
+        return field;
+    }
+
+    public boolean reverse() {
+        return reverse;
+    }
+
+    /**
+     * @return the sort that merged segments are sorted with
+     */
+    public Sort sort() {
+        return sort;
+    }
+
+    /**
+     * Returns whether the documents of the given segment are in the order of this sort. Only merged segments are
+     * sorted, freshly flushed ones are in indexing order.
+     */
+    public boolean isSorted(LeafReader reader) {
+        final SegmentReader segmentReader = SegmentReaderUtils.segmentReaderOrNull(reader);
+        return segmentReader != null && SortingMergePolicy.isSorted(segmentReader, sort);
+    }
+
+    /**
+     * Returns whether the given search sort orders the documents of sorted segments in the same way as this sort,
+     * in which case the top documents of a segment are its first documents.
+     */
+    public boolean matches(@Nullable Sort searchSort) {
+        if (searchSort == null || searchSort.getSort().length != 1) {
+            return false;
+        }
+        final SortField sortField = searchSort.getSort()[0];
+        return field.equals(sortField.getField()) && sortField.getReverse() == reverse
+                && sortField.getComparatorSource() instanceof LongValuesComparatorSource
+                && ((LongValuesComparatorSource) sortField.getComparatorSource()).hasDefaultOrder(reverse);
+    }
+
+    @Override
+    public String toString() {
+        return sort.toString();
+    }
+}
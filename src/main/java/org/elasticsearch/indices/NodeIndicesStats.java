@@ -35,6 +35,7 @@ import org.elasticsearch.index.Index;
 import org.elasticsearch.index.cache.filter.FilterCacheStats;
 import org.elasticsearch.index.cache.id.IdCacheStats;
 import org.elasticsearch.index.cache.query.QueryCacheStats;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCacheStats;
 import org.elasticsearch.index.engine.SegmentsStats;
 import org.elasticsearch.index.fielddata.FieldDataStats;
 import org.elasticsearch.index.flush.FlushStats;
@@ -142,6 +143,11 @@ public class NodeIndicesStats implements Streamable, Serializable, ToXContent {
         return stats.getQueryCache();
     }
 
+    @Nullable
+    public TermFrequencyCacheStats getTermFrequencyCache() {
+        return stats.getTermFrequencyCache();
+    }
+
     @Nullable
     public IdCacheStats getIdCache() {
         return stats.getIdCache();
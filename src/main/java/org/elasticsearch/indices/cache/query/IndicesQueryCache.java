@@ -183,6 +183,10 @@ public class IndicesQueryCache extends AbstractComponent implements RemovalListe
         if (context.searchType() != SearchType.COUNT) {
             return false;
         }
+        // a cached result would not tell how long the query took
+        if (context.profiler() != null) {
+            return false;
+        }
         IndexMetaData index = clusterService.state().getMetaData().index(request.index());
         if (index == null) { // in case we didn't yet have the cluster state, or it just got deleted
             return false;
@@ -31,6 +31,7 @@ import org.elasticsearch.monitor.fs.JmxFsProbe;
 import org.elasticsearch.monitor.fs.SigarFsProbe;
 import org.elasticsearch.monitor.jvm.JvmMonitorService;
 import org.elasticsearch.monitor.jvm.JvmService;
+import org.elasticsearch.monitor.jvm.ThreadSampler;
 import org.elasticsearch.monitor.network.JmxNetworkProbe;
 import org.elasticsearch.monitor.network.NetworkProbe;
 import org.elasticsearch.monitor.network.NetworkService;
@@ -95,5 +96,6 @@ public class MonitorModule extends AbstractModule {
         bind(FsService.class).asEagerSingleton();
 
         bind(JvmMonitorService.class).asEagerSingleton();
+        bind(ThreadSampler.class).asEagerSingleton();
     }
 }
@@ -26,6 +26,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.monitor.fs.FsService;
 import org.elasticsearch.monitor.jvm.JvmMonitorService;
 import org.elasticsearch.monitor.jvm.JvmService;
+import org.elasticsearch.monitor.jvm.ThreadSampler;
 import org.elasticsearch.monitor.network.NetworkService;
 import org.elasticsearch.monitor.os.OsService;
 import org.elasticsearch.monitor.process.ProcessService;
@@ -37,6 +38,8 @@ public class MonitorService extends AbstractLifecycleComponent<MonitorService> {
 
     private final JvmMonitorService jvmMonitorService;
 
+    private final ThreadSampler threadSampler;
+
     private final OsService osService;
 
     private final ProcessService processService;
@@ -48,11 +51,12 @@ public class MonitorService extends AbstractLifecycleComponent<MonitorService> {
     private final FsService fsService;
 
     @Inject
-    public MonitorService(Settings settings, JvmMonitorService jvmMonitorService,
+    public MonitorService(Settings settings, JvmMonitorService jvmMonitorService, ThreadSampler threadSampler,
                           OsService osService, ProcessService processService, JvmService jvmService, NetworkService networkService,
                           FsService fsService) {
         super(settings);
         this.jvmMonitorService = jvmMonitorService;
+        this.threadSampler = threadSampler;
         this.osService = osService;
         this.processService = processService;
         this.jvmService = jvmService;
@@ -83,15 +87,18 @@ public class MonitorService extends AbstractLifecycleComponent<MonitorService> {
     @Override
     protected void doStart() throws ElasticsearchException {
         jvmMonitorService.start();
+        threadSampler.start();
     }
 
     @Override
     protected void doStop() throws ElasticsearchException {
         jvmMonitorService.stop();
+        threadSampler.stop();
     }
 
     @Override
     protected void doClose() throws ElasticsearchException {
         jvmMonitorService.close();
+        threadSampler.close();
     }
 }
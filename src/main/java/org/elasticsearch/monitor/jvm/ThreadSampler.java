@@ -0,0 +1,336 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.monitor.jvm;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.component.AbstractLifecycleComponent;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.FutureUtils;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Periodically samples the stack traces of the threads of some thread pools, and aggregates them into call trees,
+ * one per time slice, so that the hot code paths of a window of time can be returned as collapsed stacks, the
+ * input format of flame graphs.
+ * <p/>
+ * Only runnable and blocked threads are sampled, as idle pool threads wait for tasks. The call tree of a slice
+ * has a bounded number of nodes, further frames are counted under a <tt>[truncated]</tt> frame, and only a bounded
+ * number of slices is kept. The sampler is disabled by default, and enabled with
+ * <tt>monitor.jvm.sampler.enabled</tt>.
+ */
+public class ThreadSampler extends AbstractLifecycleComponent<ThreadSampler> {
+
+    /**
+     * The type of the hot threads request that returns the collapsed stacks of the sampler.
+     */
+    public static final String TYPE = "sampled";
+
+    static final String TRUNCATED = "[truncated]";
+
+    private final ThreadPool threadPool;
+    private final boolean enabled;
+    private final TimeValue interval;
+    private final String[] threadPools;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final TimeValue slice;
+    private final int maxSlices;
+
+    private final ArrayDeque<Slice> slices = new ArrayDeque<>();
+
+    private volatile ScheduledFuture scheduledFuture;
+
+    @Inject
+    public ThreadSampler(Settings settings, ThreadPool threadPool) {
+        super(settings);
+        this.threadPool = threadPool;
+        this.enabled = componentSettings.getAsBoolean("sampler.enabled", false);
+        this.interval = componentSettings.getAsTime("sampler.interval", TimeValue.timeValueMillis(50));
+        this.threadPools = componentSettings.getAsArray("sampler.thread_pools",
+                new String[]{ThreadPool.Names.SEARCH, ThreadPool.Names.BULK, ThreadPool.Names.INDEX, ThreadPool.Names.MANAGEMENT});
+        this.maxDepth = componentSettings.getAsInt("sampler.max_depth", 128);
+        this.maxNodes = componentSettings.getAsInt("sampler.max_nodes", 50000);
+        this.slice = componentSettings.getAsTime("sampler.slice", TimeValue.timeValueMinutes(1));
+        TimeValue history = componentSettings.getAsTime("sampler.history", TimeValue.timeValueMinutes(15));
+        this.maxSlices = (int) Math.max(1, history.millis() / slice.millis());
+
+        logger.debug("enabled [{}], interval [{}], thread_pools [{}], slice [{}], history [{}]", enabled, interval, Arrays.toString(threadPools), slice, history);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    protected void doStart() throws ElasticsearchException {
+        if (!enabled) {
+            return;
+        }
+        scheduledFuture = threadPool.scheduleWithFixedDelay(new Sampler(), interval);
+    }
+
+    @Override
+    protected void doStop() throws ElasticsearchException {
+        if (!enabled) {
+            return;
+        }
+        FutureUtils.cancel(scheduledFuture);
+    }
+
+    @Override
+    protected void doClose() throws ElasticsearchException {
+        synchronized (slices) {
+            slices.clear();
+        }
+    }
+
+    /**
+     * Returns the samples of the given window of time, rounded up to whole slices, as collapsed stacks: one line
+     * per distinct stack, made of the name of the thread pool and of the frames from the root to the leaf
+     * separated by <tt>;</tt>, followed by a space and the number of samples.
+     */
+    public String collapsedStacks(TimeValue window) {
+        if (!enabled) {
+            return "thread sampling is disabled, enable it with [monitor.jvm.sampler.enabled]\n";
+        }
+        final long from = threadPool.estimatedTimeInMillis() - window.millis();
+        final Map<String, Long> stacks = new TreeMap<>();
+        synchronized (slices) {
+            for (Slice slice : slices) {
+                if (slice.start + this.slice.millis() > from) {
+                    slice.tree.collapse(stacks);
+                }
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+            sb.append(stack.getKey()).append(' ').append(stack.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    void sample(long now, String threadPool, StackTraceElement[] stackTrace) {
+        synchronized (slices) {
+            Slice current = slices.peekLast();
+            if (current == null || now - current.start >= slice.millis()) {
+                current = new Slice(now, new CallTree(maxNodes));
+                slices.addLast(current);
+                while (slices.size() > maxSlices) {
+                    slices.removeFirst();
+                }
+            }
+            current.tree.add(threadPool, stackTrace);
+        }
+    }
+
+    private class Sampler implements Runnable {
+
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        private long[] threadIds = new long[0];
+        private String[] threadPoolNames = new String[0];
+        private long lastRefresh;
+
+        @Override
+        public void run() {
+            final long now = threadPool.estimatedTimeInMillis();
+            // thread pools grow and shrink, so the threads to sample are looked up again every second
+            if (now - lastRefresh >= 1000) {
+                refreshThreads();
+                lastRefresh = now;
+            }
+            if (threadIds.length == 0) {
+                return;
+            }
+            ThreadInfo[] threadInfos = threadMXBean.getThreadInfo(threadIds, maxDepth);
+            for (int i = 0; i < threadInfos.length; i++) {
+                ThreadInfo threadInfo = threadInfos[i];
+                if (threadInfo == null) {
+                    continue; // the thread died
+                }
+                if (threadInfo.getThreadState() == Thread.State.RUNNABLE || threadInfo.getThreadState() == Thread.State.BLOCKED) {
+                    sample(now, threadPoolNames[i], threadInfo.getStackTrace());
+                }
+            }
+        }
+
+        private void refreshThreads() {
+            List<Long> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            for (ThreadInfo threadInfo : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), 0)) {
+                if (threadInfo == null) {
+                    continue;
+                }
+                String threadPoolName = threadPoolName(threadInfo.getThreadName());
+                if (threadPoolName != null) {
+                    ids.add(threadInfo.getThreadId());
+                    names.add(threadPoolName);
+                }
+            }
+            threadIds = new long[ids.size()];
+            for (int i = 0; i < threadIds.length; i++) {
+                threadIds[i] = ids.get(i);
+            }
+            threadPoolNames = names.toArray(new String[names.size()]);
+        }
+
+        // pool threads are named like elasticsearch[node][search][T#1]
+        private String threadPoolName(String threadName) {
+            for (String threadPoolName : threadPools) {
+                if (threadName.contains("[" + threadPoolName + "][T#")) {
+                    return threadPoolName;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static class Slice {
+        final long start;
+        final CallTree tree;
+
+        Slice(long start, CallTree tree) {
+            this.start = start;
+            this.tree = tree;
+        }
+    }
+
+    /**
+     * A tree of the frames of the sampled stacks, which counts the number of samples that ended in each frame.
+     */
+    static final class CallTree {
+
+        private final int maxNodes;
+        private final Node root = new Node(null);
+        private int numNodes;
+
+        CallTree(int maxNodes) {
+            this.maxNodes = maxNodes;
+        }
+
+        int numNodes() {
+            return numNodes;
+        }
+
+        /**
+         * Adds a sample of the given stack trace, whose first element is the leaf as returned by the JVM.
+         */
+        void add(String threadPool, StackTraceElement[] stackTrace) {
+            Node node = child(root, threadPool);
+            if (node == null) {
+                node = root.truncated();
+            }
+            for (int i = stackTrace.length - 1; i >= 0; i--) {
+                StackTraceElement element = stackTrace[i];
+                Node child = child(node, element.getClassName() + "." + element.getMethodName());
+                if (child == null) {
+                    node = node.truncated();
+                    break;
+                }
+                node = child;
+            }
+            node.samples++;
+        }
+
+        private Node child(Node node, String frame) {
+            Node child = node.children == null ? null : node.children.get(frame);
+            if (child == null) {
+                if (numNodes >= maxNodes) {
+                    return null;
+                }
+                if (node.children == null) {
+                    node.children = new HashMap<>();
+                }
+                child = new Node(frame);
+                node.children.put(frame, child);
+                numNodes++;
+            }
+            return child;
+        }
+
+        /**
+         * Adds the number of samples of every stack of this tree to the given map, keyed by collapsed stack.
+         */
+        void collapse(Map<String, Long> stacks) {
+            if (root.children != null) {
+                StringBuilder path = new StringBuilder();
+                for (Node child : root.children.values()) {
+                    collapse(child, path, stacks);
+                }
+            }
+        }
+
+        private void collapse(Node node, StringBuilder path, Map<String, Long> stacks) {
+            final int length = path.length();
+            if (length > 0) {
+                path.append(';');
+            }
+            path.append(node.frame);
+            if (node.samples > 0) {
+                String stack = path.toString();
+                Long samples = stacks.get(stack);
+                stacks.put(stack, samples == null ? node.samples : samples + node.samples);
+            }
+            if (node.children != null) {
+                for (Node child : node.children.values()) {
+                    collapse(child, path, stacks);
+                }
+            }
+            path.setLength(length);
+        }
+    }
+
+    private static final class Node {
+        final String frame;
+        long samples;
+        Map<String, Node> children;
+
+        Node(String frame) {
+            this.frame = frame;
+        }
+
+        // the truncated child doesn't count against the maximum number of nodes, there is at most one per node
+        Node truncated() {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            Node truncated = children.get(TRUNCATED);
+            if (truncated == null) {
+                truncated = new Node(TRUNCATED);
+                children.put(TRUNCATED, truncated);
+            }
+            return truncated;
+        }
+    }
+}
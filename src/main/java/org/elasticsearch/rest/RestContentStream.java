@@ -0,0 +1,61 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+/**
+ * The body of a {@link RestRequest} that is handed to the handler while it is still being received.
+ *
+ * @see RestRequest#contentStream()
+ */
+public interface RestContentStream {
+
+    /**
+     * Sets the listener that is notified with the chunks of the body. Chunks that were received before the
+     * listener was set are replayed to it. Chunks are notified in order, one at a time.
+     */
+    void listener(Listener listener);
+
+    /**
+     * Stops reading the body until {@link #resume()} is called.
+     */
+    void pause();
+
+    /**
+     * Resumes reading the body after a call to {@link #pause()}.
+     */
+    void resume();
+
+    interface Listener {
+
+        /**
+         * Called with the next chunk of the body.
+         *
+         * @param last whether this is the last chunk of the body, the last chunk may be empty
+         */
+        void onChunk(BytesReference chunk, boolean last);
+
+        /**
+         * Called when the body could not be fully received, no further chunks are notified.
+         */
+        void onFailure(Throwable t);
+    }
+}
@@ -73,6 +73,15 @@ public abstract class RestRequest extends ContextHolder implements ToXContent.Pa
 
     public abstract BytesReference content();
 
+    /**
+     * The body of the request if it is streamed to the handler while it is being received, in which case
+     * {@link #content()} is empty. Only requests to handlers that support streaming are streamed.
+     */
+    @Nullable
+    public RestContentStream contentStream() {
+        return null;
+    }
+
     public abstract String header(String name);
 
     public abstract Iterable<Map.Entry<String, String>> headers();
@@ -27,6 +27,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.monitor.jvm.ThreadSampler;
 import org.elasticsearch.rest.*;
 import org.elasticsearch.rest.action.support.RestResponseListener;
 
@@ -52,7 +53,7 @@ public class RestNodesHotThreadsAction extends BaseRestHandler {
     @Override
     public void handleRequest(final RestRequest request, final RestChannel channel, final Client client) {
         String[] nodesIds = Strings.splitStringByCommaToArray(request.param("nodeId"));
-        NodesHotThreadsRequest nodesHotThreadsRequest = new NodesHotThreadsRequest(nodesIds);
+        final NodesHotThreadsRequest nodesHotThreadsRequest = new NodesHotThreadsRequest(nodesIds);
         nodesHotThreadsRequest.threads(request.paramAsInt("threads", nodesHotThreadsRequest.threads()));
         nodesHotThreadsRequest.type(request.param("type", nodesHotThreadsRequest.type()));
         nodesHotThreadsRequest.interval(TimeValue.parseTimeValue(request.param("interval"), nodesHotThreadsRequest.interval()));
@@ -61,6 +62,16 @@ public class RestNodesHotThreadsAction extends BaseRestHandler {
             @Override
             public RestResponse buildResponse(NodesHotThreadsResponse response) throws Exception {
                 StringBuilder sb = new StringBuilder();
+                if (ThreadSampler.TYPE.equals(nodesHotThreadsRequest.type())) {
+                    // collapsed stacks, rooted at the name of their node so that the output of several nodes can be
+                    // rendered as a single flame graph
+                    for (NodeHotThreads node : response) {
+                        for (String line : Strings.splitStringToArray(node.getHotThreads(), '\n')) {
+                            sb.append(node.getNode().name()).append(';').append(line).append('\n');
+                        }
+                    }
+                    return new BytesRestResponse(RestStatus.OK, sb.toString());
+                }
                 for (NodeHotThreads node : response) {
                     sb.append("::: ").append(node.getNode().toString()).append("\n");
                     Strings.spaceify(3, node.getHotThreads(), sb);
@@ -81,6 +81,7 @@ public class RestIndicesStatsAction extends BaseRestHandler {
             indicesStatsRequest.completion(metrics.contains("completion"));
             indicesStatsRequest.suggest(metrics.contains("suggest"));
             indicesStatsRequest.queryCache(metrics.contains("query_cache"));
+            indicesStatsRequest.termFrequencyCache(metrics.contains("term_frequency_cache"));
         }
 
         if (request.hasParam("groups")) {
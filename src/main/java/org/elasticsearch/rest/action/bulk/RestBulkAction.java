@@ -32,6 +32,8 @@ import org.elasticsearch.client.Client;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentBuilderString;
 import org.elasticsearch.rest.*;
@@ -53,6 +55,8 @@ import static org.elasticsearch.rest.RestStatus.OK;
 public class RestBulkAction extends BaseRestHandler {
 
     private final boolean allowExplicitIndex;
+    private final ByteSizeValue streamingBatchSize;
+    private final int streamingMaxInFlight;
 
     @Inject
     public RestBulkAction(Settings settings, RestController controller, Client client) {
@@ -66,15 +70,35 @@ public class RestBulkAction extends BaseRestHandler {
         controller.registerHandler(PUT, "/{index}/{type}/_bulk", this);
 
         this.allowExplicitIndex = settings.getAsBoolean("rest.action.multi.allow_explicit_index", true);
+        this.streamingBatchSize = settings.getAsBytesSize("rest.action.bulk.streaming.batch_size", new ByteSizeValue(5, ByteSizeUnit.MB));
+        this.streamingMaxInFlight = settings.getAsInt("rest.action.bulk.streaming.max_in_flight", 1);
     }
 
     @Override
     public void handleRequest(final RestRequest request, final RestChannel channel, final Client client) throws Exception {
-        BulkRequest bulkRequest = Requests.bulkRequest();
-        bulkRequest.listenerThreaded(false);
         String defaultIndex = request.param("index");
         String defaultType = request.param("type");
         String defaultRouting = request.param("routing");
+        RestContentStream contentStream = request.contentStream();
+        if (contentStream != null) {
+            StreamingBulkHandler handler = new StreamingBulkHandler(request, channel, client, contentStream, defaultIndex, defaultType, defaultRouting,
+                    allowExplicitIndex, streamingBatchSize.bytes(), streamingMaxInFlight);
+            contentStream.listener(handler);
+            return;
+        }
+
+        BulkRequest bulkRequest = newBulkRequest(request);
+        bulkRequest.add(request.content(), request.contentUnsafe(), defaultIndex, defaultType, defaultRouting, null, allowExplicitIndex);
+
+        client.bulk(bulkRequest, responseListener(channel));
+    }
+
+    /**
+     * Creates a bulk request, without any action, configured with the parameters of the given rest request.
+     */
+    static BulkRequest newBulkRequest(RestRequest request) {
+        BulkRequest bulkRequest = Requests.bulkRequest();
+        bulkRequest.listenerThreaded(false);
 
         String replicationType = request.param("replication");
         if (replicationType != null) {
@@ -86,9 +110,11 @@ public class RestBulkAction extends BaseRestHandler {
         }
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.refresh(request.paramAsBoolean("refresh", bulkRequest.refresh()));
-        bulkRequest.add(request.content(), request.contentUnsafe(), defaultIndex, defaultType, defaultRouting, null, allowExplicitIndex);
+        return bulkRequest;
+    }
 
-        client.bulk(bulkRequest, new RestBuilderListener<BulkResponse>(channel) {
+    static RestBuilderListener<BulkResponse> responseListener(RestChannel channel) {
+        return new RestBuilderListener<BulkResponse>(channel) {
             @Override
             public RestResponse buildResponse(BulkResponse response, XContentBuilder builder) throws Exception {
                 builder.startObject();
@@ -141,7 +167,7 @@ public class RestBulkAction extends BaseRestHandler {
                 builder.endObject();
                 return new BytesRestResponse(OK, builder);
             }
-        });
+        };
     }
 
     static final class Fields {
@@ -0,0 +1,278 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestContentStream;
+import org.elasticsearch.rest.RestRequest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Executes a bulk request whose body is streamed, see {@link RestRequest#contentStream()}. The body is cut into
+ * batches of complete actions of about <code>batchSize</code> bytes which are sent as soon as they are complete,
+ * while the rest of the body is still being received. At most <code>maxInFlight</code> batches are executed at the
+ * same time, reading the body is paused while a complete batch waits for its turn. With a single batch in flight,
+ * actions are executed in the order of the body.
+ * <p/>
+ * Once the whole body is received and all batches are executed, the responses of the batches are merged into a single
+ * response that is the same as the response of a regular bulk request. A batch that fails as a whole reports a
+ * failure for each of its actions. If the body can't be parsed or received, no further batch is sent and, unless
+ * nothing was executed yet, the response holds the items of the executed batches followed by a failure for each
+ * batch that was not sent and a last failure for the rest of the body.
+ */
+class StreamingBulkHandler implements RestContentStream.Listener {
+
+    private final RestRequest request;
+    private final RestChannel channel;
+    private final Client client;
+    private final RestContentStream contentStream;
+    private final String defaultIndex;
+    private final String defaultType;
+    private final String defaultRouting;
+    private final boolean allowExplicitIndex;
+    private final long batchSize;
+    private final int maxInFlight;
+    private final long startTime = System.currentTimeMillis();
+
+    private BytesStreamOutput buffer = new BytesStreamOutput();
+    // the buffer size at which the next batch is cut
+    private long cutAt;
+    // complete batches that wait to be sent
+    private final Deque<BulkRequest> pending = new ArrayDeque<>();
+    // the items of the batches, in the order of the body
+    private final List<BulkItemResponse[]> results = new ArrayList<>();
+    private int sent;
+    private int inFlight;
+    private boolean lastReceived;
+    // the failure that stopped receiving the body
+    private Throwable failure;
+    private boolean done;
+
+    StreamingBulkHandler(RestRequest request, RestChannel channel, Client client, RestContentStream contentStream,
+                         String defaultIndex, String defaultType, String defaultRouting, boolean allowExplicitIndex,
+                         long batchSize, int maxInFlight) {
+        this.request = request;
+        this.channel = channel;
+        this.client = client;
+        this.contentStream = contentStream;
+        this.defaultIndex = defaultIndex;
+        this.defaultType = defaultType;
+        this.defaultRouting = defaultRouting;
+        this.allowExplicitIndex = allowExplicitIndex;
+        this.batchSize = batchSize;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.cutAt = batchSize;
+    }
+
+    @Override
+    public void onChunk(BytesReference chunk, boolean last) {
+        synchronized (this) {
+            if (failure != null) {
+                // we already failed, just drain the body
+                return;
+            }
+            try {
+                chunk.writeTo(buffer);
+                lastReceived = last;
+                if (last || buffer.size() >= cutAt) {
+                    cutBatch();
+                }
+            } catch (Throwable t) {
+                stopReceiving(t);
+            }
+        }
+        sendPending();
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+        synchronized (this) {
+            if (failure != null) {
+                return;
+            }
+            stopReceiving(t);
+        }
+        maybeFinish();
+    }
+
+    /**
+     * Moves the complete actions that are buffered to a new batch, the beginning of an action which is not complete
+     * yet stays in the buffer. Once the body is fully received, what remains in the buffer is ignored, as it is for
+     * regular bulk requests.
+     */
+    private void cutBatch() throws Exception {
+        // the buffer is not recycled, so the batch can keep on referencing its pages once it is replaced
+        BytesReference data = buffer.bytes();
+        BulkRequest bulkRequest = RestBulkAction.newBulkRequest(request);
+        int consumed = bulkRequest.addComplete(data, false, defaultIndex, defaultType, defaultRouting, null, allowExplicitIndex);
+        buffer = new BytesStreamOutput();
+        if (lastReceived == false && consumed < data.length()) {
+            data.slice(consumed, data.length() - consumed).writeTo(buffer);
+        }
+        // don't cut again before another batch worth of bytes is received, actions can be larger than a batch
+        cutAt = buffer.size() + batchSize;
+        if (bulkRequest.numberOfActions() > 0) {
+            pending.add(bulkRequest);
+        }
+    }
+
+    /**
+     * Stops receiving the body after a failure, the batches that were not sent yet are reported as failed.
+     */
+    private void stopReceiving(Throwable t) {
+        assert Thread.holdsLock(this);
+        failure = t;
+        for (BulkRequest bulkRequest : pending) {
+            results.add(failedItems(bulkRequest, t));
+        }
+        pending.clear();
+        buffer = new BytesStreamOutput();
+        // drain the rest of the body
+        contentStream.resume();
+    }
+
+    private void sendPending() {
+        while (true) {
+            final BulkRequest bulkRequest;
+            final int slot;
+            synchronized (this) {
+                if (failure != null || inFlight >= maxInFlight || pending.isEmpty()) {
+                    if (failure == null && pending.isEmpty() == false) {
+                        // a complete batch has to wait, stop reading until it can be sent
+                        contentStream.pause();
+                    }
+                    break;
+                }
+                bulkRequest = pending.poll();
+                slot = results.size();
+                results.add(null);
+                sent++;
+                inFlight++;
+                if (pending.isEmpty()) {
+                    contentStream.resume();
+                }
+            }
+            client.bulk(bulkRequest, new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    onBatchDone(slot, response.getItems());
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                    onBatchDone(slot, failedItems(bulkRequest, e));
+                }
+            });
+        }
+        maybeFinish();
+    }
+
+    private void onBatchDone(int slot, BulkItemResponse[] items) {
+        synchronized (this) {
+            results.set(slot, items);
+            inFlight--;
+        }
+        sendPending();
+    }
+
+    private void maybeFinish() {
+        final BulkResponse response;
+        final Throwable requestFailure;
+        synchronized (this) {
+            if (done || (lastReceived == false && failure == null) || inFlight > 0 || pending.isEmpty() == false) {
+                return;
+            }
+            done = true;
+            if (sent == 0) {
+                // nothing was executed, fail the same way as a regular bulk request
+                requestFailure = failure != null ? failure : RestBulkAction.newBulkRequest(request).validate();
+                response = null;
+            } else {
+                requestFailure = null;
+                response = mergeResults();
+            }
+        }
+        // the channel is written to outside of the lock, sending the response may block
+        if (response != null) {
+            RestBulkAction.responseListener(channel).onResponse(response);
+        } else {
+            RestBulkAction.responseListener(channel).onFailure(requestFailure);
+        }
+    }
+
+    private BulkResponse mergeResults() {
+        assert Thread.holdsLock(this);
+        int count = failure == null ? 0 : 1;
+        for (BulkItemResponse[] items : results) {
+            count += items.length;
+        }
+        BulkItemResponse[] items = new BulkItemResponse[count];
+        int offset = 0;
+        for (BulkItemResponse[] batchItems : results) {
+            System.arraycopy(batchItems, 0, items, offset, batchItems.length);
+            offset += batchItems.length;
+        }
+        if (failure != null) {
+            // the rest of the body couldn't be read, report it as a failed action so that the response has errors
+            items[offset] = new BulkItemResponse(offset, "index", new BulkItemResponse.Failure(defaultIndex, defaultType, null, failure));
+        }
+        return new BulkResponse(items, System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Builds a failure for each action of a batch that was not executed.
+     */
+    static BulkItemResponse[] failedItems(BulkRequest bulkRequest, Throwable t) {
+        List<ActionRequest> requests = bulkRequest.requests();
+        BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+        for (int i = 0; i < items.length; i++) {
+            ActionRequest actionRequest = requests.get(i);
+            if (actionRequest instanceof IndexRequest) {
+                IndexRequest indexRequest = (IndexRequest) actionRequest;
+                items[i] = new BulkItemResponse(i, indexRequest.opType().lowercase(),
+                        new BulkItemResponse.Failure(indexRequest.index(), indexRequest.type(), indexRequest.id(), t));
+            } else if (actionRequest instanceof DeleteRequest) {
+                DeleteRequest deleteRequest = (DeleteRequest) actionRequest;
+                items[i] = new BulkItemResponse(i, "delete",
+                        new BulkItemResponse.Failure(deleteRequest.index(), deleteRequest.type(), deleteRequest.id(), t));
+            } else {
+                UpdateRequest updateRequest = (UpdateRequest) actionRequest;
+                items[i] = new BulkItemResponse(i, "update",
+                        new BulkItemResponse.Failure(updateRequest.index(), updateRequest.type(), updateRequest.id(), t));
+            }
+        }
+        return items;
+    }
+}
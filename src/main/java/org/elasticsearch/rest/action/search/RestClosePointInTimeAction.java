@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.rest.action.search;
+
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.ClosePointInTimeResponse;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.rest.*;
+import org.elasticsearch.rest.action.support.RestBuilderListener;
+
+import static org.elasticsearch.rest.RestRequest.Method.DELETE;
+import static org.elasticsearch.rest.RestStatus.NOT_FOUND;
+import static org.elasticsearch.rest.RestStatus.OK;
+import static org.elasticsearch.rest.action.support.RestActions.buildBroadcastShardsHeader;
+
+/**
+ */
+public class RestClosePointInTimeAction extends BaseRestHandler {
+
+    @Inject
+    public RestClosePointInTimeAction(Settings settings, RestController controller, Client client) {
+        super(settings, controller, client);
+        controller.registerHandler(DELETE, "/{index}/_pit/{id}", this);
+    }
+
+    @Override
+    public void handleRequest(final RestRequest request, final RestChannel channel, final Client client) {
+        ClosePointInTimeRequest closeRequest = new ClosePointInTimeRequest(Strings.splitStringByCommaToArray(request.param("index")));
+        closeRequest.listenerThreaded(false);
+        closeRequest.id(request.param("id"));
+        closeRequest.indicesOptions(IndicesOptions.fromRequest(request, closeRequest.indicesOptions()));
+        client.closePointInTime(closeRequest, new RestBuilderListener<ClosePointInTimeResponse>(channel) {
+            @Override
+            public RestResponse buildResponse(ClosePointInTimeResponse response, XContentBuilder builder) throws Exception {
+                builder.startObject();
+                builder.field("num_freed", response.getNumFreed());
+                buildBroadcastShardsHeader(builder, response);
+                builder.endObject();
+                return new BytesRestResponse(response.getNumFreed() > 0 ? OK : NOT_FOUND, builder);
+            }
+        });
+    }
+}
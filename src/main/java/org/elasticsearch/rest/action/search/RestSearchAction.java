@@ -32,6 +32,7 @@ import org.elasticsearch.index.query.QueryStringQueryBuilder;
 import org.elasticsearch.rest.*;
 import org.elasticsearch.rest.action.exists.RestExistsAction;
 import org.elasticsearch.rest.action.support.RestStatusToXContentListener;
+import org.elasticsearch.search.PointInTime;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.fetch.source.FetchSourceContext;
@@ -113,6 +114,12 @@ public class RestSearchAction extends BaseRestHandler {
             searchRequest.scroll(new Scroll(parseTimeValue(scroll, null)));
         }
 
+        String pointInTime = request.param("pit");
+        if (pointInTime != null) {
+            String keepAlive = request.param("pit_keep_alive");
+            searchRequest.pointInTime(new PointInTime(pointInTime, keepAlive == null ? null : parseTimeValue(keepAlive, null)));
+        }
+
         searchRequest.types(Strings.splitStringByCommaToArray(request.param("type")));
         searchRequest.routing(request.param("routing"));
         searchRequest.preference(request.param("preference"));
@@ -192,6 +199,12 @@ public class RestSearchAction extends BaseRestHandler {
                 searchSourceBuilder.terminateAfter(terminateAfter);
             }
         }
+        if (request.hasParam("profile")) {
+            if (searchSourceBuilder == null) {
+                searchSourceBuilder = new SearchSourceBuilder();
+            }
+            searchSourceBuilder.profile(request.paramAsBoolean("profile", false));
+        }
 
         String sField = request.param("fields");
         if (sField != null) {
@@ -224,6 +237,13 @@ public class RestSearchAction extends BaseRestHandler {
             searchSourceBuilder.trackScores(request.paramAsBoolean("track_scores", false));
         }
 
+        if (request.hasParam("track_total_hits")) {
+            if (searchSourceBuilder == null) {
+                searchSourceBuilder = new SearchSourceBuilder();
+            }
+            searchSourceBuilder.trackTotalHits(request.paramAsBoolean("track_total_hits", true));
+        }
+
         String sSorts = request.param("sort");
         if (sSorts != null) {
             if (searchSourceBuilder == null) {
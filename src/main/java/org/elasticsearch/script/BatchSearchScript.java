@@ -0,0 +1,41 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.script;
+
+/**
+ * A search script that can be evaluated for a block of documents at once, which saves the per document
+ * dispatch of {@link #setNextDocId(int)} and {@link #runAsDouble()} for script engines that can loop over
+ * the documents themselves.
+ */
+public interface BatchSearchScript extends SearchScript {
+
+    /**
+     * Evaluates the script for the first <code>count</code> documents of <code>docs</code>, which belong to the
+     * current reader and are in increasing order. This is equivalent to calling {@link #setNextDocId(int)} and
+     * {@link #runAsDouble()} for each document while the scorer of the script is positioned on it with the
+     * corresponding score of <code>scores</code>.
+     *
+     * @param docs    the documents to evaluate the script for
+     * @param scores  the score of each document, as seen by the script
+     * @param count   the number of documents to evaluate
+     * @param results the array to write the result for each document to
+     */
+    void runAsDoubles(int[] docs, float[] scores, int count, double[] results);
+}
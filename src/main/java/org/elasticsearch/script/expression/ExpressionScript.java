@@ -26,6 +26,7 @@ import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.queries.function.FunctionValues;
 import org.apache.lucene.queries.function.ValueSource;
 import org.apache.lucene.search.Scorer;
+import org.elasticsearch.script.BatchSearchScript;
 import org.elasticsearch.script.SearchScript;
 
 import java.io.IOException;
@@ -34,16 +35,17 @@ import java.util.Map;
 
 /**
  * A bridge to evaluate an {@link Expression} against {@link Bindings} in the context
- * of a {@link SearchScript}.
+ * of a {@link SearchScript}. Blocks of documents are evaluated in a single loop over
+ * the compiled expression, see {@link BatchSearchScript}.
  */
-class ExpressionScript implements SearchScript {
+class ExpressionScript implements BatchSearchScript {
 
     final Expression expression;
     final SimpleBindings bindings;
     final ValueSource source;
     final ReplaceableConstValueSource specialValue; // _value
     Map<String, Scorer> context;
-    Scorer scorer;
+    BatchScorer scorer;
     FunctionValues values;
     int docid;
 
@@ -74,6 +76,27 @@ class ExpressionScript implements SearchScript {
     @Override
     public Object unwrap(Object value) { return value; }
 
+    @Override
+    public void runAsDoubles(int[] docs, float[] scores, int count, double[] results) {
+        final BatchScorer scorer = this.scorer;
+        if (scorer == null) {
+            for (int i = 0; i < count; i++) {
+                results[i] = values.doubleVal(docs[i]);
+            }
+        } else {
+            scorer.batch = true;
+            try {
+                for (int i = 0; i < count; i++) {
+                    scorer.docid = docs[i];
+                    scorer.score = scores[i];
+                    results[i] = values.doubleVal(docs[i]);
+                }
+            } finally {
+                scorer.batch = false;
+            }
+        }
+    }
+
     @Override
     public void setNextDocId(int d) {
         docid = d;
@@ -90,8 +113,12 @@ class ExpressionScript implements SearchScript {
 
     @Override
     public void setScorer(Scorer s) {
-        scorer = s;
-        context = Collections.singletonMap("scorer", scorer);
+        if (scorer == null) {
+            scorer = new BatchScorer(s);
+            context = Collections.<String, Scorer>singletonMap("scorer", scorer);
+        } else {
+            scorer.in = s;
+        }
     }
 
     @Override
@@ -112,5 +139,52 @@ class ExpressionScript implements SearchScript {
         }
     }
 
+    /**
+     * The scorer that the expression sees as <tt>_score</tt>: the scorer of the script, or the
+     * document and score of a batch while it is evaluated.
+     */
+    static final class BatchScorer extends Scorer {
+
+        Scorer in;
+        boolean batch;
+        int docid;
+        float score;
+
+        BatchScorer(Scorer in) {
+            super(in.getWeight());
+            this.in = in;
+        }
+
+        @Override
+        public int docID() {
+            return batch ? docid : in.docID();
+        }
+
+        @Override
+        public float score() throws IOException {
+            return batch ? score : in.score();
+        }
+
+        @Override
+        public int freq() throws IOException {
+            return in.freq();
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long cost() {
+            return in.cost();
+        }
+    }
+
 
 }
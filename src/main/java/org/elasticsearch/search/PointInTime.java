@@ -0,0 +1,107 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+
+/**
+ * A reference to a point in time view of an index that was opened with the open point in time API. Searches
+ * that reference it search the readers that were acquired when it was opened, so that paginating through the
+ * results gives consistent pages. It holds an optional {@link #keepAlive()} that extends how long the point in
+ * time is kept open.
+ */
+public class PointInTime implements Streamable {
+
+    private String id;
+
+    @Nullable
+    private TimeValue keepAlive;
+
+    private PointInTime() {
+
+    }
+
+    /**
+     * Constructs a reference to the point in time of the given id, extending its keep alive to the provided one
+     * if it isn't <code>null</code>.
+     */
+    public PointInTime(String id, @Nullable TimeValue keepAlive) {
+        this.id = id;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * The id of the point in time, as returned when it was opened.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * How long the point in time will be kept open after this request, <code>null</code> to keep the keep alive
+     * it has.
+     */
+    @Nullable
+    public TimeValue keepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * The search preference that both opening the point in time of the given id and the searches that reference it
+     * use, so that they go to the same copy of every shard. Searches still fall back to the other copies if that one
+     * doesn't hold the point in time, e.g. because the shard relocated or another copy became active since.
+     */
+    public static String preference(String id) {
+        // ids are base64 encoded and may start with an underscore, which would be taken for a special preference
+        return "pit:" + id;
+    }
+
+    public static PointInTime readPointInTime(StreamInput in) throws IOException {
+        PointInTime pointInTime = new PointInTime();
+        pointInTime.readFrom(in);
+        return pointInTime;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        id = in.readString();
+        if (in.readBoolean()) {
+            keepAlive = TimeValue.readTimeValue(in);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(id);
+        if (keepAlive == null) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            keepAlive.writeTo(out);
+        }
+    }
+}
@@ -39,6 +39,7 @@ import org.elasticsearch.cluster.ClusterService;
 import org.elasticsearch.cluster.metadata.IndexMetaData;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lease.Releasables;
@@ -63,6 +64,7 @@ import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.query.TemplateQueryParser;
 import org.elasticsearch.index.search.stats.StatsGroupsParseElement;
 import org.elasticsearch.index.service.IndexService;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.service.IndexShard;
 import org.elasticsearch.indices.IndicesLifecycle;
 import org.elasticsearch.indices.IndicesService;
@@ -85,6 +87,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -136,6 +139,9 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
 
     private final ConcurrentMapLong<SearchContext> activeContexts = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
 
+    // the open points in time, by id and shard
+    private final ConcurrentMap<Tuple<String, ShardId>, ShardPointInTime> pointsInTime = ConcurrentCollections.newConcurrentMap();
+
     private final ImmutableMap<String, SearchParseElement> elementParsers;
 
     @Inject
@@ -154,6 +160,12 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                 // to release memory and let references to the filesystem go etc.
                 freeAllContextForIndex(index);
             }
+
+            @Override
+            public void beforeIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard) {
+                // the points in time of a shard can't be used anymore once it is closed or relocated
+                freeAllPointsInTimeForShard(shardId);
+            }
         });
         this.indicesWarmer = indicesWarmer;
         this.scriptService = scriptService;
@@ -192,6 +204,9 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
             freeContext(context.id());
         }
         activeContexts.clear();
+        for (ShardPointInTime pointInTime : pointsInTime.values()) {
+            freePointInTime(pointInTime.shardId(), pointInTime.id());
+        }
     }
 
     @Override
@@ -535,7 +550,14 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
 
         SearchShardTarget shardTarget = new SearchShardTarget(clusterService.localNode().id(), request.index(), request.shardId());
 
-        Engine.Searcher engineSearcher = searcher == null ? indexShard.acquireSearcher("search") : searcher;
+        Engine.Searcher engineSearcher;
+        if (searcher != null) {
+            engineSearcher = searcher;
+        } else if (request.pointInTime() != null) {
+            engineSearcher = acquirePointInTimeSearcher(request.pointInTime(), indexShard.shardId());
+        } else {
+            engineSearcher = indexShard.acquireSearcher("search");
+        }
         SearchContext context = new DefaultSearchContext(idGenerator.incrementAndGet(), request, shardTarget, engineSearcher, indexService, indexShard, scriptService, pageCacheRecycler, bigArrays, threadPool.estimatedTimeInMillisCounter());
         SearchContext.setCurrent(context);
         try {
@@ -573,6 +595,53 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
         return context;
     }
 
+    /**
+     * Opens a point in time of the given id on the given shard, acquiring a searcher that is kept open until the
+     * point in time expires or is freed.
+     */
+    public void openPointInTime(ShardId shardId, String id, TimeValue keepAlive) throws ElasticsearchException {
+        IndexShard indexShard = indicesService.indexServiceSafe(shardId.getIndex()).shardSafe(shardId.id());
+        ShardPointInTime pointInTime = new ShardPointInTime(id, shardId, indexShard.acquireSearcher("point_in_time"),
+                keepAlive.millis(), threadPool.estimatedTimeInMillis());
+        if (pointsInTime.putIfAbsent(new Tuple<>(id, shardId), pointInTime) != null) {
+            pointInTime.decRef();
+            throw new ElasticsearchIllegalArgumentException("point in time [" + id + "] is already open on shard " + shardId);
+        }
+    }
+
+    /**
+     * Frees the point in time of the given id on the given shard, its searcher is released once the searches
+     * that use it are done.
+     *
+     * @return whether the point in time was open on the shard
+     */
+    public boolean freePointInTime(ShardId shardId, String id) {
+        final ShardPointInTime pointInTime = pointsInTime.remove(new Tuple<>(id, shardId));
+        if (pointInTime != null) {
+            pointInTime.decRef();
+            return true;
+        }
+        return false;
+    }
+
+    private void freeAllPointsInTimeForShard(ShardId shardId) {
+        for (ShardPointInTime pointInTime : pointsInTime.values()) {
+            if (shardId.equals(pointInTime.shardId())) {
+                freePointInTime(shardId, pointInTime.id());
+            }
+        }
+    }
+
+    private Engine.Searcher acquirePointInTimeSearcher(PointInTime pointInTime, ShardId shardId) {
+        final ShardPointInTime shardPointInTime = pointsInTime.get(new Tuple<>(pointInTime.id(), shardId));
+        final Engine.Searcher searcher = shardPointInTime == null ? null : shardPointInTime.acquireSearcher();
+        if (searcher == null) {
+            throw new PointInTimeMissingException(pointInTime.id(), shardId);
+        }
+        shardPointInTime.accessed(threadPool.estimatedTimeInMillis(), pointInTime.keepAlive());
+        return searcher;
+    }
+
     private void freeAllContextForIndex(Index index) {
         assert index != null;
         for (SearchContext ctx : activeContexts.values()) {
@@ -1030,6 +1099,12 @@ public class SearchService extends AbstractLifecycleComponent<SearchService> {
                     freeContext(context.id());
                 }
             }
+            for (ShardPointInTime pointInTime : pointsInTime.values()) {
+                if (time - pointInTime.lastAccessTime() > pointInTime.keepAlive()) {
+                    logger.debug("freeing point in time [{}] of shard {}, time [{}], lastAccessTime [{}], keepAlive [{}]", pointInTime.id(), pointInTime.shardId(), time, pointInTime.lastAccessTime(), pointInTime.keepAlive());
+                    freePointInTime(pointInTime.shardId(), pointInTime.id());
+                }
+            }
         }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The searcher of a shard that is kept open for a point in time, until it expires or is freed. Every search
+ * context that uses it holds a reference, so that the searcher is only released once the last of them is closed.
+ */
+final class ShardPointInTime extends AbstractRefCounted {
+
+    private final String id;
+    private final ShardId shardId;
+    private final Engine.Searcher searcher;
+    private volatile long keepAlive;
+    private volatile long lastAccessTime;
+
+    ShardPointInTime(String id, ShardId shardId, Engine.Searcher searcher, long keepAlive, long time) {
+        super("point_in_time");
+        this.id = id;
+        this.shardId = shardId;
+        this.searcher = searcher;
+        this.keepAlive = keepAlive;
+        this.lastAccessTime = time;
+    }
+
+    String id() {
+        return id;
+    }
+
+    ShardId shardId() {
+        return shardId;
+    }
+
+    long keepAlive() {
+        return keepAlive;
+    }
+
+    long lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    void accessed(long time, @Nullable TimeValue keepAlive) {
+        if (keepAlive != null) {
+            this.keepAlive = keepAlive.millis();
+        }
+        this.lastAccessTime = time;
+    }
+
+    /**
+     * Returns a searcher that holds a reference to this point in time until it is closed, or <code>null</code> if
+     * this point in time has been released already.
+     */
+    @Nullable
+    Engine.Searcher acquireSearcher() {
+        if (tryIncRef() == false) {
+            return null;
+        }
+        return new Engine.Searcher() {
+
+            private final AtomicBoolean closed = new AtomicBoolean();
+
+            @Override
+            public String source() {
+                return "point_in_time";
+            }
+
+            @Override
+            public IndexReader reader() {
+                return searcher.reader();
+            }
+
+            @Override
+            public IndexSearcher searcher() {
+                return searcher.searcher();
+            }
+
+            @Override
+            public void close() throws ElasticsearchException {
+                if (closed.compareAndSet(false, true)) {
+                    decRef();
+                }
+            }
+        };
+    }
+
+    @Override
+    protected void closeInternal() {
+        searcher.close();
+    }
+}
@@ -33,6 +33,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
 import org.elasticsearch.search.fetch.*;
@@ -548,9 +549,10 @@ public class SearchServiceTransportAction extends AbstractComponent {
 
     private <T> void execute(final Callable<? extends T> callable, final SearchServiceListener<T> listener) {
         try {
-            threadPool.executor(ThreadPool.Names.SEARCH).execute(new Runnable() {
+            // an abstract runnable, so that the search pool can shed it once queued like shard requests of remote nodes
+            threadPool.executor(ThreadPool.Names.SEARCH).execute(new AbstractRunnable() {
                 @Override
-                public void run() {
+                protected void doRun() {
                     // Listeners typically do counting on errors and successes, and the decision to move to second phase, etc. is based on
                     // these counts so we need to be careful here to never propagate exceptions thrown by onResult to onFailure
                     T result = null;
@@ -569,6 +571,17 @@ public class SearchServiceTransportAction extends AbstractComponent {
                         }
                     }
                 }
+
+                @Override
+                public void onRejection(Throwable t) {
+                    listener.onFailure(t);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    // failures of the callable were passed to the listener already, this is the listener itself failing
+                    logger.warn("failed to notify search listener", t);
+                }
             });
         } catch (Throwable t) {
             listener.onFailure(t);
@@ -35,6 +35,8 @@ import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.aggregations.bucket.global.GlobalAggregator;
 import org.elasticsearch.search.aggregations.support.AggregationContext;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.profile.CollectorProfile;
+import org.elasticsearch.search.profile.ProfiledCollector;
 import org.elasticsearch.search.query.QueryPhaseExecutionException;
 
 import java.io.IOException;
@@ -141,10 +143,12 @@ public class AggregationPhase implements SearchPhase {
     }
 
 
-    public static class AggregationsCollector extends SimpleCollector implements XCollector {
+    public static class AggregationsCollector extends SimpleCollector implements XCollector, ProfiledCollector {
 
         private final AggregationContext aggregationContext;
         private final Aggregator[] collectors;
+        // the profile of each aggregator, if profiled
+        private CollectorProfile[] profiles;
 
         public AggregationsCollector(Collection<Aggregator> collectors, AggregationContext aggregationContext) {
             this.collectors = collectors.toArray(new Aggregator[collectors.size()]);
@@ -158,11 +162,27 @@ public class AggregationPhase implements SearchPhase {
 
         @Override
         public void collect(int doc) throws IOException {
+            if (profiles != null) {
+                for (int i = 0; i < collectors.length; i++) {
+                    final long start = System.nanoTime();
+                    collectors[i].collect(doc, 0);
+                    profiles[i].addTime(System.nanoTime() - start);
+                }
+                return;
+            }
             for (Aggregator collector : collectors) {
                 collector.collect(doc, 0);
             }
         }
 
+        @Override
+        public void profile(CollectorProfile profile) {
+            profiles = new CollectorProfile[collectors.length];
+            for (int i = 0; i < collectors.length; i++) {
+                profiles[i] = profile.child(collectors[i].name(), CollectorProfile.REASON_AGGREGATION);
+            }
+        }
+
         @Override
         public void doSetNextReader(LeafReaderContext context) throws IOException {
             aggregationContext.setNextReader(context);
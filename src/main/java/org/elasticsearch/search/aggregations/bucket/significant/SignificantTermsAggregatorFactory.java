@@ -18,7 +18,6 @@
  */
 package org.elasticsearch.search.aggregations.bucket.significant;
 
-import org.apache.lucene.index.DocsEnum;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.IndexSearcher;
@@ -27,8 +26,7 @@ import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ElasticsearchIllegalArgumentException;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.lease.Releasable;
-import org.elasticsearch.common.lucene.index.FilterableTermsEnum;
-import org.elasticsearch.common.lucene.index.FreqTermsEnum;
+import org.elasticsearch.index.cache.termfreq.TermFrequencyCache;
 import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.search.aggregations.*;
 import org.elasticsearch.search.aggregations.bucket.significant.heuristics.SignificanceHeuristic;
@@ -133,8 +131,7 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
     private final String executionHint;
     private String indexedFieldName;
     private FieldMapper mapper;
-    private FilterableTermsEnum termsEnum;
-    private int numberOfAggregatorsCreated = 0;
+    private TermFrequencyCache.Frequencies backgroundFrequencies;
     private Filter filter;
     private final TermsAggregator.BucketCountThresholds bucketCountThresholds;
     private final SignificanceHeuristic significanceHeuristic;
@@ -171,8 +168,6 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
 
     @Override
     protected Aggregator create(ValuesSource valuesSource, long expectedBucketsCount, AggregationContext aggregationContext, Aggregator parent, Map<String, Object> metaData) {
-        numberOfAggregatorsCreated++;
-
         long estimatedBucketCount = TermsAggregatorFactory.estimatedBucketCount(valuesSource, parent);
 
         if (valuesSource instanceof ValuesSource.Bytes) {
@@ -218,43 +213,35 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
     }
 
     /**
-     * Creates the TermsEnum (if not already created) and must be called before any calls to getBackgroundFrequency
+     * Loads the background frequencies (if not already loaded) and must be called before any calls to getBackgroundFrequency
      * @param context The aggregation context 
      * @return The number of documents in the index (after an optional filter might have been applied)
      */
     public long prepareBackground(AggregationContext context) {
-        if (termsEnum != null) {
+        if (backgroundFrequencies != null) {
             // already prepared - return 
-            return termsEnum.getNumDocs();
+            return backgroundFrequencies.numDocs();
         }
         SearchContext searchContext = context.searchContext();
         IndexReader reader = searchContext.searcher().getIndexReader();
+        // Background frequencies are cached per segment and reused across requests until the segments are closed,
+        // which also saves repeated term lookups when there is more than one aggregator
+        TermFrequencyCache cache = searchContext.indexShard().indexService().cache().termFrequencyCache();
         try {
-            if (numberOfAggregatorsCreated == 1) {
-                // Setup a termsEnum for sole use by one aggregator
-                termsEnum = new FilterableTermsEnum(reader, indexedFieldName, DocsEnum.FLAG_NONE, filter);
-            } else {
-                // When we have > 1 agg we have possibility of duplicate term frequency lookups 
-                // and so use a TermsEnum that caches results of all term lookups
-                termsEnum = new FreqTermsEnum(reader, indexedFieldName, true, false, filter, searchContext.bigArrays());
-            }
+            backgroundFrequencies = cache.frequencies(reader, indexedFieldName, filter);
         } catch (IOException e) {
-            throw new ElasticsearchException("failed to build terms enumeration", e);
+            throw new ElasticsearchException("failed to load background frequencies", e);
         }
-        return termsEnum.getNumDocs();
+        return backgroundFrequencies.numDocs();
     }
 
     public long getBackgroundFrequency(BytesRef termBytes) {
-        assert termsEnum != null; // having failed to find a field in the index we don't expect any calls for frequencies
-        long result = 0;
+        assert backgroundFrequencies != null; // having failed to find a field in the index we don't expect any calls for frequencies
         try {
-            if (termsEnum.seekExact(termBytes)) {
-                result = termsEnum.docFreq();
-            }
+            return backgroundFrequencies.docFreq(termBytes);
         } catch (IOException e) {
             throw new ElasticsearchException("IOException loading background document frequency info", e);
         }
-        return result;
     }
 
 
@@ -265,12 +252,6 @@ public class SignificantTermsAggregatorFactory extends ValuesSourceAggregatorFac
 
     @Override
     public void close() throws ElasticsearchException {
-        try {
-            if (termsEnum instanceof Releasable) {
-                ((Releasable) termsEnum).close();
-            }
-        } finally {
-            termsEnum = null;
-        }
+        backgroundFrequencies = null;
     }
 }
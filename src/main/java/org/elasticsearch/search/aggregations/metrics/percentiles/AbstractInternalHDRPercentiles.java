@@ -0,0 +1,68 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics.percentiles;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.metrics.percentiles.hdr.HdrHistogramState;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+abstract class AbstractInternalHDRPercentiles extends AbstractInternalPercentiles {
+
+    protected HdrHistogramState state;
+
+    AbstractInternalHDRPercentiles() {} // for serialization
+
+    public AbstractInternalHDRPercentiles(String name, double[] keys, HdrHistogramState state, boolean keyed, Map<String, Object> metaData) {
+        super(name, keys, keyed, metaData);
+        this.state = state;
+    }
+
+    @Override
+    public AbstractInternalHDRPercentiles reduce(ReduceContext reduceContext) {
+        List<InternalAggregation> aggregations = reduceContext.aggregations();
+        HdrHistogramState merged = null;
+        for (InternalAggregation aggregation : aggregations) {
+            final AbstractInternalHDRPercentiles percentiles = (AbstractInternalHDRPercentiles) aggregation;
+            if (merged == null) {
+                merged = new HdrHistogramState(percentiles.state.numberOfSignificantValueDigits(), BigArrays.NON_RECYCLING_INSTANCE);
+            }
+            merged.add(percentiles.state);
+        }
+        return createReduced(getName(), keys, merged, keyed, getMetaData());
+    }
+
+    protected abstract AbstractInternalHDRPercentiles createReduced(String name, double[] keys, HdrHistogramState merged, boolean keyed, Map<String, Object> metaData);
+
+    @Override
+    protected void readState(StreamInput in) throws IOException {
+        state = HdrHistogramState.read(in, BigArrays.NON_RECYCLING_INSTANCE);
+    }
+
+    @Override
+    protected void writeState(StreamOutput out) throws IOException {
+        HdrHistogramState.write(state, out);
+    }
+}
@@ -24,27 +24,22 @@ import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.XContentBuilder;
-import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.metrics.InternalNumericMetricsAggregation;
-import org.elasticsearch.search.aggregations.metrics.percentiles.tdigest.TDigestState;
 import org.elasticsearch.search.aggregations.support.format.ValueFormatterStreams;
 
 import java.io.IOException;
-import java.util.List;
 import java.util.Map;
 
 abstract class AbstractInternalPercentiles extends InternalNumericMetricsAggregation.MultiValue {
 
     protected double[] keys;
-    protected TDigestState state;
-    private boolean keyed;
+    protected boolean keyed;
 
     AbstractInternalPercentiles() {} // for serialization
 
-    public AbstractInternalPercentiles(String name, double[] keys, TDigestState state, boolean keyed, Map<String, Object> metaData) {
+    public AbstractInternalPercentiles(String name, double[] keys, boolean keyed, Map<String, Object> metaData) {
         super(name, metaData);
         this.keys = keys;
-        this.state = state;
         this.keyed = keyed;
     }
 
@@ -55,21 +50,9 @@ abstract class AbstractInternalPercentiles extends InternalNumericMetricsAggrega
     
     public abstract double value(double key);
 
-    @Override
-    public AbstractInternalPercentiles reduce(ReduceContext reduceContext) {
-        List<InternalAggregation> aggregations = reduceContext.aggregations();
-        TDigestState merged = null;
-        for (InternalAggregation aggregation : aggregations) {
-            final AbstractInternalPercentiles percentiles = (AbstractInternalPercentiles) aggregation;
-            if (merged == null) {
-                merged = new TDigestState(percentiles.state.compression());
-            }
-            merged.add(percentiles.state);
-        }
-        return createReduced(getName(), keys, merged, keyed, getMetaData());
-    }
+    protected abstract void readState(StreamInput in) throws IOException;
 
-    protected abstract AbstractInternalPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData);
+    protected abstract void writeState(StreamOutput out) throws IOException;
 
     @Override
     protected void doReadFrom(StreamInput in) throws IOException {
@@ -84,7 +67,7 @@ abstract class AbstractInternalPercentiles extends InternalNumericMetricsAggrega
         for (int i = 0; i < keys.length; ++i) {
             keys[i] = in.readDouble();
         }
-        state = TDigestState.read(in);
+        readState(in);
         keyed = in.readBoolean();
     }
 
@@ -98,7 +81,7 @@ abstract class AbstractInternalPercentiles extends InternalNumericMetricsAggrega
         for (int i = 0 ; i < keys.length; ++i) {
             out.writeDouble(keys[i]);
         }
-        TDigestState.write(state, out);
+        writeState(out);
         out.writeBoolean(keyed);
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics.percentiles;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.search.aggregations.InternalAggregation;
+import org.elasticsearch.search.aggregations.metrics.percentiles.tdigest.TDigestState;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+abstract class AbstractInternalTDigestPercentiles extends AbstractInternalPercentiles {
+
+    protected TDigestState state;
+
+    AbstractInternalTDigestPercentiles() {} // for serialization
+
+    public AbstractInternalTDigestPercentiles(String name, double[] keys, TDigestState state, boolean keyed, Map<String, Object> metaData) {
+        super(name, keys, keyed, metaData);
+        this.state = state;
+    }
+
+    @Override
+    public AbstractInternalTDigestPercentiles reduce(ReduceContext reduceContext) {
+        List<InternalAggregation> aggregations = reduceContext.aggregations();
+        TDigestState merged = null;
+        for (InternalAggregation aggregation : aggregations) {
+            final AbstractInternalTDigestPercentiles percentiles = (AbstractInternalTDigestPercentiles) aggregation;
+            if (merged == null) {
+                merged = new TDigestState(percentiles.state.compression());
+            }
+            merged.add(percentiles.state);
+        }
+        return createReduced(getName(), keys, merged, keyed, getMetaData());
+    }
+
+    protected abstract AbstractInternalTDigestPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData);
+
+    @Override
+    protected void readState(StreamInput in) throws IOException {
+        state = TDigestState.read(in);
+    }
+
+    @Override
+    protected void writeState(StreamOutput out) throws IOException {
+        TDigestState.write(state, out);
+    }
+}
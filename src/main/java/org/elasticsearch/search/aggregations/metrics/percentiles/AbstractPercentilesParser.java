@@ -20,10 +20,12 @@
 package org.elasticsearch.search.aggregations.metrics.percentiles;
 
 import com.carrotsearch.hppc.DoubleArrayList;
+import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.search.SearchParseException;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactory;
+import org.elasticsearch.search.aggregations.metrics.percentiles.hdr.HdrHistogramState;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSource.Numeric;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
@@ -35,6 +37,9 @@ import java.util.Arrays;
 
 public abstract class AbstractPercentilesParser implements Aggregator.Parser {
 
+    public static final ParseField COMPRESSION_FIELD = new ParseField("compression");
+    public static final ParseField NUMBER_SIGNIFICANT_DIGITS_FIELD = new ParseField("number_of_significant_value_digits");
+
     public AbstractPercentilesParser() {
         super();
     }
@@ -47,6 +52,8 @@ public abstract class AbstractPercentilesParser implements Aggregator.Parser {
         double[] keys = null;
         boolean keyed = true;
         double compression = 100;
+        int numberOfSignificantValueDigits = HdrHistogramState.DEFAULT_SIGNIFICANT_VALUE_DIGITS;
+        PercentilesMethod method = null;
     
         XContentParser.Token token;
         String currentFieldName = null;
@@ -74,20 +81,54 @@ public abstract class AbstractPercentilesParser implements Aggregator.Parser {
                     throw new SearchParseException(context, "Unknown key for a " + token + " in [" + aggregationName + "]: [" + currentFieldName + "].");
                 }
             } else if (token == XContentParser.Token.VALUE_NUMBER) {
-                if ("compression".equals(currentFieldName)) {
+                if (COMPRESSION_FIELD.match(currentFieldName)) {
                     compression = parser.doubleValue();
                 } else {
                     throw new SearchParseException(context, "Unknown key for a " + token + " in [" + aggregationName + "]: [" + currentFieldName + "].");
                 }
+            } else if (token == XContentParser.Token.START_OBJECT) {
+                PercentilesMethod methodFromName = PercentilesMethod.resolveFromName(currentFieldName);
+                if (methodFromName == null) {
+                    throw new SearchParseException(context, "Unknown key for a " + token + " in [" + aggregationName + "]: [" + currentFieldName + "].");
+                }
+                if (method != null) {
+                    throw new SearchParseException(context, "Only one percentiles method may be defined in [" + aggregationName + "], got ["
+                            + method + "] and [" + methodFromName + "].");
+                }
+                method = methodFromName;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    if (token == XContentParser.Token.FIELD_NAME) {
+                        currentFieldName = parser.currentName();
+                    } else if (token == XContentParser.Token.VALUE_NUMBER) {
+                        if (method == PercentilesMethod.TDIGEST && COMPRESSION_FIELD.match(currentFieldName)) {
+                            compression = parser.doubleValue();
+                        } else if (method == PercentilesMethod.HDR && NUMBER_SIGNIFICANT_DIGITS_FIELD.match(currentFieldName)) {
+                            numberOfSignificantValueDigits = parser.intValue();
+                        } else {
+                            throw new SearchParseException(context, "Unknown key for a " + token + " in [" + aggregationName + "]: [" + currentFieldName + "].");
+                        }
+                    } else {
+                        throw new SearchParseException(context, "Unexpected token " + token + " in [" + aggregationName + "].");
+                    }
+                }
             } else {
                 throw new SearchParseException(context, "Unexpected token " + token + " in [" + aggregationName + "].");
             }
         }
-        return buildFactory(context, aggregationName, vsParser.config(), keys, compression, keyed);
+        if (method == null) {
+            method = PercentilesMethod.TDIGEST;
+        }
+        if (method == PercentilesMethod.HDR && (numberOfSignificantValueDigits < HdrHistogramState.MIN_SIGNIFICANT_VALUE_DIGITS
+                || numberOfSignificantValueDigits > HdrHistogramState.MAX_SIGNIFICANT_VALUE_DIGITS)) {
+            throw new SearchParseException(context, "[" + NUMBER_SIGNIFICANT_DIGITS_FIELD.getPreferredName() + "] must be in ["
+                    + HdrHistogramState.MIN_SIGNIFICANT_VALUE_DIGITS + ", " + HdrHistogramState.MAX_SIGNIFICANT_VALUE_DIGITS + "] in ["
+                    + aggregationName + "], got [" + numberOfSignificantValueDigits + "].");
+        }
+        return buildFactory(context, aggregationName, vsParser.config(), keys, method, compression, numberOfSignificantValueDigits, keyed);
     }
 
     protected abstract AggregatorFactory buildFactory(SearchContext context, String aggregationName, ValuesSourceConfig<Numeric> config, double[] cdfValues,
-            double compression, boolean keyed);
+            PercentilesMethod method, double compression, int numberOfSignificantValueDigits, boolean keyed);
 
     protected abstract String keysFieldName();
 
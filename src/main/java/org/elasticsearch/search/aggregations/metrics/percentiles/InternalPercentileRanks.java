@@ -30,7 +30,7 @@ import java.util.Map;
 /**
 *
 */
-public class InternalPercentileRanks extends AbstractInternalPercentiles implements PercentileRanks {
+public class InternalPercentileRanks extends AbstractInternalTDigestPercentiles implements PercentileRanks {
 
     public final static Type TYPE = new Type("percentile_ranks");
 
@@ -68,7 +68,7 @@ public class InternalPercentileRanks extends AbstractInternalPercentiles impleme
         return percent(key);
     }
 
-    protected AbstractInternalPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData) {
+    protected AbstractInternalTDigestPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData) {
         return new InternalPercentileRanks(name, keys, merged, keyed, metaData);
     }
 
@@ -30,7 +30,7 @@ import java.util.Map;
 /**
 *
 */
-public class InternalPercentiles extends AbstractInternalPercentiles implements Percentiles {
+public class InternalPercentiles extends AbstractInternalTDigestPercentiles implements Percentiles {
 
     public final static Type TYPE = new Type("percentiles");
 
@@ -68,7 +68,7 @@ public class InternalPercentiles extends AbstractInternalPercentiles implements
         return percentile(key);
     }
 
-    protected AbstractInternalPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData) {
+    protected AbstractInternalTDigestPercentiles createReduced(String name, double[] keys, TDigestState merged, boolean keyed, Map<String, Object> metaData) {
         return new InternalPercentiles(name, keys, merged, keyed, metaData);
     }
 
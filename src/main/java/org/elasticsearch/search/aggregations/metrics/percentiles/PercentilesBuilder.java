@@ -30,6 +30,8 @@ public class PercentilesBuilder extends ValuesSourceMetricsAggregationBuilder<Pe
 
     private double[] percentiles;
     private Double compression;
+    private PercentilesMethod method;
+    private Integer numberOfSignificantValueDigits;
 
     /**
      * Sole constructor.
@@ -60,6 +62,23 @@ public class PercentilesBuilder extends ValuesSourceMetricsAggregationBuilder<Pe
         return this;
     }
 
+    /**
+     * Set the method that is used to compute percentiles, defaults to {@link PercentilesMethod#TDIGEST}.
+     */
+    public PercentilesBuilder method(PercentilesMethod method) {
+        this.method = method;
+        return this;
+    }
+
+    /**
+     * Expert: set the number of significant digits of the values when using the {@link PercentilesMethod#HDR}
+     * method. Higher values improve accuracy but also memory usage.
+     */
+    public PercentilesBuilder numberOfSignificantValueDigits(int numberOfSignificantValueDigits) {
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        return this;
+    }
+
     @Override
     protected void internalXContent(XContentBuilder builder, Params params) throws IOException {
         super.internalXContent(builder, params);
@@ -69,7 +88,15 @@ public class PercentilesBuilder extends ValuesSourceMetricsAggregationBuilder<Pe
         }
 
         if (compression != null) {
-            builder.field("compression", compression);
+            builder.field(AbstractPercentilesParser.COMPRESSION_FIELD.getPreferredName(), compression);
+        }
+
+        if (method == PercentilesMethod.HDR) {
+            builder.startObject(method.getParseField().getPreferredName());
+            if (numberOfSignificantValueDigits != null) {
+                builder.field(AbstractPercentilesParser.NUMBER_SIGNIFICANT_DIGITS_FIELD.getPreferredName(), numberOfSignificantValueDigits);
+            }
+            builder.endObject();
         }
     }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics.percentiles;
+
+import org.elasticsearch.common.ParseField;
+
+/**
+ * The algorithm that is used to compute the {@link Percentiles} and {@link PercentileRanks} aggregations.
+ */
+public enum PercentilesMethod {
+
+    /**
+     * A t-digest, whose accuracy is configured through its compression.
+     */
+    TDIGEST(new ParseField("tdigest")),
+
+    /**
+     * A high dynamic range histogram, whose accuracy is configured through its number of significant value digits.
+     * Only non-negative values are supported.
+     */
+    HDR(new ParseField("hdr"));
+
+    private final ParseField parseField;
+
+    private PercentilesMethod(ParseField parseField) {
+        this.parseField = parseField;
+    }
+
+    public ParseField getParseField() {
+        return parseField;
+    }
+
+    /**
+     * @return the method with the given name, or <code>null</code> if there is none
+     */
+    public static PercentilesMethod resolveFromName(String name) {
+        for (PercentilesMethod method : values()) {
+            if (method.parseField.match(name)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return parseField.getPreferredName();
+    }
+}
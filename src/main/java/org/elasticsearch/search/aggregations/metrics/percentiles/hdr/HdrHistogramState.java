@@ -0,0 +1,328 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics.percentiles.hdr;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
+
+import java.io.IOException;
+
+/**
+ * A high dynamic range (HDR) histogram of non-negative values that is accurate to a configurable number of
+ * significant decimal digits.
+ * <p/>
+ * Values are counted in log-linear cells: every power of two is split into <code>2^p</code> cells of equal width,
+ * where <code>p</code> is the smallest number of bits such that the relative width of a cell is at most
+ * <code>10^-digits</code>. The cell of a positive double is given by the top bits of its IEEE 754 representation,
+ * so that cells are computed without any floating point math. Counts are kept for the window of cells between the
+ * lowest and the highest value, which is bounded to {@link #MAX_OCTAVES} powers of two: values that are smaller
+ * than the highest value by more than that are counted in the lowest cell of the window. The memory usage is hence
+ * bounded by the precision and the range of the values, but independent of the number of values, and merging two
+ * histograms is linear in the number of cells.
+ */
+public final class HdrHistogramState implements Releasable {
+
+    public static final int MIN_SIGNIFICANT_VALUE_DIGITS = 0;
+    public static final int MAX_SIGNIFICANT_VALUE_DIGITS = 5;
+    public static final int DEFAULT_SIGNIFICANT_VALUE_DIGITS = 3;
+
+    /**
+     * The maximum number of powers of two between the lowest and the highest cell of the histogram.
+     */
+    public static final int MAX_OCTAVES = 40;
+
+    // number of bits of the mantissa that select the cell in a power of two, indexed by the number of digits
+    private static final int[] PRECISION_BITS = new int[] { 0, 4, 7, 10, 14, 17 };
+    private static final int MANTISSA_BITS = 52;
+
+    private final int numberOfSignificantValueDigits;
+    private final int precisionBits;
+    private final int maxCells;
+    private final BigArrays bigArrays;
+
+    private LongArray counts;
+    // index of the cell that is stored at position 0 of counts
+    private int offset;
+    private long zeroCount;
+    private long totalCount;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public HdrHistogramState(int numberOfSignificantValueDigits, BigArrays bigArrays) {
+        if (numberOfSignificantValueDigits < MIN_SIGNIFICANT_VALUE_DIGITS || numberOfSignificantValueDigits > MAX_SIGNIFICANT_VALUE_DIGITS) {
+            throw new ElasticsearchIllegalArgumentException("number_of_significant_value_digits must be in [" + MIN_SIGNIFICANT_VALUE_DIGITS
+                    + ", " + MAX_SIGNIFICANT_VALUE_DIGITS + "], got [" + numberOfSignificantValueDigits + "]");
+        }
+        this.numberOfSignificantValueDigits = numberOfSignificantValueDigits;
+        this.precisionBits = PRECISION_BITS[numberOfSignificantValueDigits];
+        this.maxCells = MAX_OCTAVES << precisionBits;
+        this.bigArrays = bigArrays;
+        this.counts = bigArrays.newLongArray(0);
+    }
+
+    public int numberOfSignificantValueDigits() {
+        return numberOfSignificantValueDigits;
+    }
+
+    /**
+     * @return the number of values in this histogram
+     */
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * Adds a value to this histogram.
+     *
+     * @throws ElasticsearchIllegalArgumentException if the value is negative
+     */
+    public void add(double value) {
+        if ((value >= 0) == false) {
+            throw new ElasticsearchIllegalArgumentException("HDR histograms only support non-negative values, got [" + value + "]");
+        }
+        updateMinMax(value, value);
+        totalCount++;
+        if (value == 0) {
+            zeroCount++;
+        } else {
+            increment(cellIndex(value), 1);
+        }
+    }
+
+    /**
+     * Adds all values of the given histogram to this histogram.
+     */
+    public void add(HdrHistogramState other) {
+        if (other.numberOfSignificantValueDigits != numberOfSignificantValueDigits) {
+            throw new ElasticsearchIllegalArgumentException("Can't merge HDR histograms with different number of significant value digits ["
+                    + numberOfSignificantValueDigits + "] and [" + other.numberOfSignificantValueDigits + "]");
+        }
+        if (other.totalCount == 0) {
+            return;
+        }
+        updateMinMax(other.min, other.max);
+        totalCount += other.totalCount;
+        zeroCount += other.zeroCount;
+        for (long i = 0; i < other.counts.size(); ++i) {
+            final long count = other.counts.get(i);
+            if (count != 0) {
+                increment(other.offset + (int) i, count);
+            }
+        }
+    }
+
+    /**
+     * Returns an estimate of the value at the given quantile, in <code>[0, 1]</code>, or {@link Double#NaN} if this
+     * histogram is empty.
+     */
+    public double quantile(double q) {
+        if (totalCount == 0) {
+            return Double.NaN;
+        }
+        final long rank = Math.min(totalCount, Math.max(1, (long) Math.ceil(q * totalCount)));
+        // the lowest and the highest values are tracked exactly
+        if (rank == 1) {
+            return min;
+        } else if (rank == totalCount) {
+            return max;
+        }
+        long cumulative = zeroCount;
+        if (cumulative >= rank) {
+            return 0;
+        }
+        for (long i = 0; i < counts.size(); ++i) {
+            cumulative += counts.get(i);
+            if (cumulative >= rank) {
+                final int index = offset + (int) i;
+                final double value = (lowerBound(index) + lowerBound(index + 1)) / 2;
+                return Math.min(max, Math.max(min, value));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns an estimate of the fraction of the values that are less than or equal to the given value, or
+     * {@link Double#NaN} if this histogram is empty.
+     */
+    public double cdf(double value) {
+        if (totalCount == 0) {
+            return Double.NaN;
+        }
+        if (value < min) {
+            return 0;
+        }
+        if (value >= max) {
+            return 1;
+        }
+        long count = zeroCount;
+        if (value > 0) {
+            final long last = Math.min(counts.size() - 1, (long) cellIndex(value) - offset);
+            for (long i = 0; i <= last; ++i) {
+                count += counts.get(i);
+            }
+        }
+        return (double) count / totalCount;
+    }
+
+    private void updateMinMax(double min, double max) {
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    private int cellIndex(double value) {
+        return (int) (Double.doubleToRawLongBits(value) >>> (MANTISSA_BITS - precisionBits));
+    }
+
+    private double lowerBound(int index) {
+        return Double.longBitsToDouble(((long) index) << (MANTISSA_BITS - precisionBits));
+    }
+
+    private void increment(int index, long count) {
+        if (counts.size() == 0 || index >= offset + counts.size()
+                || (index < offset && offset > cellIndex(max) - maxCells + 1)) {
+            resize(index);
+        }
+        // values that are too small compared to the highest value are counted in the lowest cell
+        counts.increment(Math.max(index, offset) - offset, count);
+    }
+
+    /**
+     * Resizes the window of cells so that it includes the given index, or as much as it can if the highest value
+     * is too large for it to be included.
+     */
+    private void resize(int index) {
+        final int highest = cellIndex(max);
+        final int lowestAllowed = Math.max(0, highest - maxCells + 1);
+        int from, to; // inclusive
+        if (counts.size() == 0) {
+            from = to = index;
+        } else {
+            from = Math.min(offset, index);
+            to = Math.max(offset + (int) counts.size() - 1, index);
+        }
+        to = Math.min(to, Math.max(highest, index));
+        from = Math.max(from, lowestAllowed);
+        to = Math.max(to, from);
+        // leave some room to grow in the same direction, to amortize the cost of resizing
+        final int length = to - from + 1;
+        final int slack = (int) Math.max(0, Math.min(BigArrays.overSize(length) - length, maxCells - length));
+        if (counts.size() > 0 && index < offset) {
+            from = Math.max(lowestAllowed, from - slack);
+        } else {
+            to += slack;
+        }
+
+        final LongArray newCounts = bigArrays.newLongArray(to - from + 1);
+        boolean success = false;
+        try {
+            for (long i = 0; i < counts.size(); ++i) {
+                final long count = counts.get(i);
+                if (count != 0) {
+                    final int cell = offset + (int) i;
+                    assert cell <= to;
+                    newCounts.increment(Math.max(cell, from) - from, count);
+                }
+            }
+            success = true;
+        } finally {
+            if (success) {
+                Releasables.close(counts);
+                counts = newCounts;
+                offset = from;
+            } else {
+                Releasables.close(newCounts);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws ElasticsearchException {
+        Releasables.close(counts);
+        counts = null;
+    }
+
+    public static void write(HdrHistogramState state, StreamOutput out) throws IOException {
+        out.writeVInt(state.numberOfSignificantValueDigits);
+        out.writeVLong(state.totalCount);
+        if (state.totalCount == 0) {
+            return;
+        }
+        out.writeDouble(state.min);
+        out.writeDouble(state.max);
+        out.writeVLong(state.zeroCount);
+        // only write the cells between the first and the last non empty ones
+        long first = 0, last = state.counts.size() - 1;
+        while (first <= last && state.counts.get(first) == 0) {
+            first++;
+        }
+        while (last >= first && state.counts.get(last) == 0) {
+            last--;
+        }
+        out.writeVInt(state.offset + (int) first);
+        out.writeVInt((int) (last - first + 1));
+        // runs of empty cells are written as a 0 followed by the length of the run
+        for (long i = first; i <= last; ) {
+            final long count = state.counts.get(i);
+            out.writeVLong(count);
+            if (count == 0) {
+                long end = i + 1;
+                while (state.counts.get(end) == 0) {
+                    end++;
+                }
+                out.writeVInt((int) (end - i));
+                i = end;
+            } else {
+                i++;
+            }
+        }
+    }
+
+    public static HdrHistogramState read(StreamInput in, BigArrays bigArrays) throws IOException {
+        final HdrHistogramState state = new HdrHistogramState(in.readVInt(), bigArrays);
+        state.totalCount = in.readVLong();
+        if (state.totalCount == 0) {
+            return state;
+        }
+        state.min = in.readDouble();
+        state.max = in.readDouble();
+        state.zeroCount = in.readVLong();
+        state.offset = in.readVInt();
+        final int length = in.readVInt();
+        Releasables.close(state.counts);
+        state.counts = bigArrays.newLongArray(length);
+        for (int i = 0; i < length; ) {
+            final long count = in.readVLong();
+            if (count == 0) {
+                i += in.readVInt();
+            } else {
+                state.counts.set(i++, count);
+            }
+        }
+        return state;
+    }
+
+}
@@ -96,11 +96,15 @@ public class SearchSourceBuilder implements ToXContent {
 
     private boolean trackScores = false;
 
+    private boolean trackTotalHits = true;
+
     private Float minScore;
 
     private long timeoutInMillis = -1;
     private int terminateAfter = SearchContext.DEFAULT_TERMINATE_AFTER;
 
+    private boolean profile = false;
+
     private List<String> fieldNames;
     private List<String> fieldDataFields;
     private List<ScriptField> scriptFields;
@@ -320,6 +324,15 @@ public class SearchSourceBuilder implements ToXContent {
         this.terminateAfter = terminateAfter;
         return this;
     }
+
+    /**
+     * Should the query phase be profiled, reporting the time spent in each node of the query tree and in
+     * each collector per shard. Defaults to <tt>false</tt>.
+     */
+    public SearchSourceBuilder profile(boolean profile) {
+        this.profile = profile;
+        return this;
+    }
     /**
      * Adds a sort against the given field name and the sort ordering.
      *
@@ -359,6 +372,16 @@ public class SearchSourceBuilder implements ToXContent {
         return this;
     }
 
+    /**
+     * Should the total number of hits be exact. When set to <tt>false</tt>, searches that sort like the index
+     * sort may stop collecting sorted segments early, and the total hits are then only a lower bound. Defaults
+     * to <tt>true</tt>.
+     */
+    public SearchSourceBuilder trackTotalHits(boolean trackTotalHits) {
+        this.trackTotalHits = trackTotalHits;
+        return this;
+    }
+
     /**
      * Add an get to perform as part of the search.
      */
@@ -673,6 +696,10 @@ public class SearchSourceBuilder implements ToXContent {
             builder.field("terminate_after", terminateAfter);
         }
 
+        if (profile) {
+            builder.field("profile", true);
+        }
+
         if (queryBuilder != null) {
             builder.field("query");
             queryBuilder.toXContent(builder, params);
@@ -773,6 +800,10 @@ public class SearchSourceBuilder implements ToXContent {
             builder.field("track_scores", trackScores);
         }
 
+        if (trackTotalHits == false) {
+            builder.field("track_total_hits", trackTotalHits);
+        }
+
         if (indexBoost != null) {
             builder.startObject("indices_boost");
             final boolean[] states = indexBoost.allocated;
@@ -41,6 +41,7 @@ import org.elasticsearch.search.fetch.FetchSearchResultProvider;
 import org.elasticsearch.search.internal.InternalSearchHit;
 import org.elasticsearch.search.internal.InternalSearchHits;
 import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.QuerySearchResultProvider;
 import org.elasticsearch.search.suggest.Suggest;
@@ -375,9 +376,22 @@ public class SearchPhaseController extends AbstractComponent {
             }
         }
 
+        // collect the profiles of the shards
+        Map<String, ProfileShardResult> profileResults = null;
+        for (AtomicArray.Entry<? extends QuerySearchResultProvider> entry : queryResults) {
+            QuerySearchResult result = entry.value.queryResult();
+            if (result.profileResult() != null) {
+                if (profileResults == null) {
+                    profileResults = new TreeMap<>();
+                }
+                String key = result.shardTarget() == null ? Integer.toString(entry.index) : result.shardTarget().toString();
+                profileResults.put(key, result.profileResult());
+            }
+        }
+
         InternalSearchHits searchHits = new InternalSearchHits(hits.toArray(new InternalSearchHit[hits.size()]), totalHits, maxScore);
 
-        return new InternalSearchResponse(searchHits, aggregations, suggest, timedOut, terminatedEarly);
+        return new InternalSearchResponse(searchHits, aggregations, suggest, timedOut, terminatedEarly, profileResults);
     }
 
 }
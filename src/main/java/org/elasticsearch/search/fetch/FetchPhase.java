@@ -198,6 +198,10 @@ public class FetchPhase implements SearchPhase {
                 fetchSubPhase.hitsExecute(context, hits);
             }
         }
+        for (InternalSearchHit hit : hits) {
+            // only needed by the fetch sub phases, don't keep it around with the results
+            hit.loadedSource(null);
+        }
 
         context.fetchResult().hits(new InternalSearchHits(hits, context.queryResult().topDocs().totalHits, context.queryResult().topDocs().getMaxScore()));
     }
@@ -233,6 +237,7 @@ public class FetchPhase implements SearchPhase {
             typeText = documentMapper.typeText();
         }
         InternalSearchHit searchHit = new InternalSearchHit(docId, fieldsVisitor.uid().id(), typeText, searchFields);
+        searchHit.loadedSource(fieldsVisitor.source());
 
         // go over and extract fields that are not mapped / stored
         context.lookup().setNextReader(subReaderContext);
@@ -286,6 +291,7 @@ public class FetchPhase implements SearchPhase {
         InternalSearchHit.InternalNestedIdentity nestedIdentity = getInternalNestedIdentity(context, nestedSubDocId, subReaderContext, documentMapper, nestedObjectMapper);
 
         BytesReference source = rootFieldsVisitor.source();
+        BytesReference nestedSource = null;
         if (source != null) {
             Tuple<XContentType, Map<String, Object>> tuple = XContentHelper.convertToMap(source, true);
             Map<String, Object> sourceAsMap = tuple.v2();
@@ -300,12 +306,13 @@ public class FetchPhase implements SearchPhase {
 
             context.lookup().source().setNextSource(sourceAsMap);
             XContentType contentType = tuple.v1();
-            BytesReference nestedSource = contentBuilder(contentType).map(sourceAsMap).bytes();
+            nestedSource = contentBuilder(contentType).map(sourceAsMap).bytes();
             context.lookup().source().setNextSource(nestedSource);
             context.lookup().source().setNextSourceContentType(contentType);
         }
 
         InternalSearchHit searchHit = new InternalSearchHit(nestedTopDocId, rootFieldsVisitor.uid().id(), documentMapper.typeText(), nestedIdentity, searchFields);
+        searchHit.loadedSource(nestedSource);
         if (extractFieldNames != null) {
             for (String extractFieldName : extractFieldNames) {
                 List<Object> values = context.lookup().source().extractRawValues(extractFieldName);
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.elasticsearch.search.internal.InternalSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The hits of a fetch that belong to the same segment, in increasing doc id order. This allows fetch sub phases
+ * that read per segment data structures such as field data or scripts to set up a segment once for all of its
+ * hits, rather than once per hit.
+ */
+public final class LeafHits {
+
+    private static final Comparator<InternalSearchHit> DOC_ID_ORDER = new Comparator<InternalSearchHit>() {
+        @Override
+        public int compare(InternalSearchHit o1, InternalSearchHit o2) {
+            return o1.docId() < o2.docId() ? -1 : (o1.docId() == o2.docId() ? 0 : 1);
+        }
+    };
+
+    private final LeafReaderContext context;
+    private final InternalSearchHit[] hits;
+    private final int from;
+    private final int to;
+
+    private LeafHits(LeafReaderContext context, InternalSearchHit[] hits, int from, int to) {
+        this.context = context;
+        this.hits = hits;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Groups the given hits, whose doc ids are relative to the given top level reader, by segment.
+     */
+    public static List<LeafHits> group(IndexReader topLevelReader, InternalSearchHit[] hits) {
+        if (hits.length == 0) {
+            return Collections.emptyList();
+        }
+        final InternalSearchHit[] sorted = hits.clone();
+        Arrays.sort(sorted, DOC_ID_ORDER);
+        final List<LeafReaderContext> leaves = topLevelReader.leaves();
+        final List<LeafHits> groups = new ArrayList<>();
+        int from = 0;
+        while (from < sorted.length) {
+            final LeafReaderContext context = leaves.get(ReaderUtil.subIndex(sorted[from].docId(), leaves));
+            final int end = context.docBase + context.reader().maxDoc();
+            int to = from + 1;
+            while (to < sorted.length && sorted[to].docId() < end) {
+                to++;
+            }
+            groups.add(new LeafHits(context, sorted, from, to));
+            from = to;
+        }
+        return groups;
+    }
+
+    /**
+     * @return the segment the hits belong to
+     */
+    public LeafReaderContext readerContext() {
+        return context;
+    }
+
+    /**
+     * @return the number of hits in the segment
+     */
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * @return the hit at the given position, hits are in increasing doc id order
+     */
+    public InternalSearchHit hit(int index) {
+        assert index >= 0 && index < size();
+        return hits[from + index];
+    }
+
+    /**
+     * @return the doc id of the hit at the given position, relative to the segment
+     */
+    public int docId(int index) {
+        return hit(index).docId() - context.docBase;
+    }
+}
@@ -22,17 +22,20 @@ import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.index.fielddata.AtomicFieldData;
+import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.mapper.FieldMapper;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.LeafHits;
 import org.elasticsearch.search.internal.InternalSearchHit;
 import org.elasticsearch.search.internal.InternalSearchHitField;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -57,36 +60,46 @@ public class FieldDataFieldsFetchSubPhase implements FetchSubPhase {
 
     @Override
     public boolean hitsExecutionNeeded(SearchContext context) {
-        return false;
+        return context.hasFieldDataFields();
     }
 
     @Override
     public void hitsExecute(SearchContext context, InternalSearchHit[] hits) throws ElasticsearchException {
+        final List<LeafHits> leaves = LeafHits.group(context.searcher().getIndexReader(), hits);
+        for (FieldDataFieldsContext.FieldDataField field : context.fieldDataFields().fields()) {
+            for (int i = 0; i < hits.length; i++) {
+                if (hits[i].fieldsOrNull() == null) {
+                    hits[i].fields(new HashMap<String, SearchHitField>(2));
+                }
+                SearchHitField hitField = hits[i].fields().get(field.name());
+                if (hitField == null) {
+                    hitField = new InternalSearchHitField(field.name(), new ArrayList<>(2));
+                    hits[i].fields().put(field.name(), hitField);
+                }
+            }
+            FieldMapper mapper = context.mapperService().smartNameFieldMapper(field.name());
+            if (mapper == null) {
+                continue;
+            }
+            final IndexFieldData<?> indexFieldData = context.fieldData().getForField(mapper);
+            // field data is loaded once per segment, and then read for all hits of the segment in doc id order
+            for (LeafHits leafHits : leaves) {
+                AtomicFieldData data = indexFieldData.load(leafHits.readerContext());
+                ScriptDocValues values = data.getScriptValues();
+                for (int i = 0; i < leafHits.size(); i++) {
+                    values.setNextDocId(leafHits.docId(i));
+                    leafHits.hit(i).fields().get(field.name()).values().addAll(values.getValues());
+                }
+            }
+        }
     }
 
     @Override
     public boolean hitExecutionNeeded(SearchContext context) {
-        return context.hasFieldDataFields();
+        return false;
     }
 
     @Override
     public void hitExecute(SearchContext context, HitContext hitContext) throws ElasticsearchException {
-        for (FieldDataFieldsContext.FieldDataField field : context.fieldDataFields().fields()) {
-            if (hitContext.hit().fieldsOrNull() == null) {
-                hitContext.hit().fields(new HashMap<String, SearchHitField>(2));
-            }
-            SearchHitField hitField = hitContext.hit().fields().get(field.name());
-            if (hitField == null) {
-                hitField = new InternalSearchHitField(field.name(), new ArrayList<>(2));
-                hitContext.hit().fields().put(field.name(), hitField);
-            }
-            FieldMapper mapper = context.mapperService().smartNameFieldMapper(field.name());
-            if (mapper != null) {
-                AtomicFieldData data = context.fieldData().getForField(mapper).load(hitContext.readerContext());
-                ScriptDocValues values = data.getScriptValues();
-                values.setNextDocId(hitContext.docId());
-                hitField.values().addAll(values.getValues());
-            }
-        }
     }
 }
@@ -25,6 +25,7 @@ import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.fetch.FetchSubPhase;
+import org.elasticsearch.search.fetch.LeafHits;
 import org.elasticsearch.search.internal.InternalSearchHit;
 import org.elasticsearch.search.internal.InternalSearchHitField;
 import org.elasticsearch.search.internal.SearchContext;
@@ -55,52 +56,66 @@ public class ScriptFieldsFetchSubPhase implements FetchSubPhase {
 
     @Override
     public boolean hitsExecutionNeeded(SearchContext context) {
-        return false;
+        return context.hasScriptFields();
     }
 
     @Override
     public void hitsExecute(SearchContext context, InternalSearchHit[] hits) throws ElasticsearchException {
+        // scripts are evaluated segment by segment, in doc id order, so that they are only set up once per segment
+        for (LeafHits leafHits : LeafHits.group(context.searcher().getIndexReader(), hits)) {
+            for (ScriptFieldsContext.ScriptField scriptField : context.scriptFields().fields()) {
+                scriptField.script().setNextReader(leafHits.readerContext());
+                for (int i = 0; i < leafHits.size(); i++) {
+                    execute(context, scriptField, leafHits.hit(i), leafHits.docId(i));
+                }
+            }
+        }
     }
 
     @Override
     public boolean hitExecutionNeeded(SearchContext context) {
-        return context.hasScriptFields();
+        return false;
     }
 
     @Override
     public void hitExecute(SearchContext context, HitContext hitContext) throws ElasticsearchException {
-        for (ScriptFieldsContext.ScriptField scriptField : context.scriptFields().fields()) {
-            scriptField.script().setNextReader(hitContext.readerContext());
-            scriptField.script().setNextDocId(hitContext.docId());
+    }
 
-            Object value;
-            try {
-                value = scriptField.script().run();
-                value = scriptField.script().unwrap(value);
-            } catch (RuntimeException e) {
-                if (scriptField.ignoreException()) {
-                    continue;
-                }
-                throw e;
-            }
+    private void execute(SearchContext context, ScriptFieldsContext.ScriptField scriptField, InternalSearchHit hit, int docId) {
+        scriptField.script().setNextDocId(docId);
+        if (hit.loadedSource() != null) {
+            // moving to the doc resets the source of the lookup, reuse the one the fetch phase loaded rather than
+            // reading it again, which is also the only way to get the source of a nested hit
+            context.lookup().source().setNextSource(hit.loadedSource());
+        }
 
-            if (hitContext.hit().fieldsOrNull() == null) {
-                hitContext.hit().fields(new HashMap<String, SearchHitField>(2));
+        Object value;
+        try {
+            value = scriptField.script().run();
+            value = scriptField.script().unwrap(value);
+        } catch (RuntimeException e) {
+            if (scriptField.ignoreException()) {
+                return;
             }
+            throw e;
+        }
 
-            SearchHitField hitField = hitContext.hit().fields().get(scriptField.name());
-            if (hitField == null) {
-                final List<Object> values;
-                if (value == null) {
-                    values = Collections.emptyList();
-                } else if (value instanceof Collection) {
-                    values = new ArrayList<>((Collection<?>) value);
-                } else {
-                    values = Collections.singletonList(value);
-                }
-                hitField = new InternalSearchHitField(scriptField.name(), values);
-                hitContext.hit().fields().put(scriptField.name(), hitField);
+        if (hit.fieldsOrNull() == null) {
+            hit.fields(new HashMap<String, SearchHitField>(2));
+        }
+
+        SearchHitField hitField = hit.fields().get(scriptField.name());
+        if (hitField == null) {
+            final List<Object> values;
+            if (value == null) {
+                values = Collections.emptyList();
+            } else if (value instanceof Collection) {
+                values = new ArrayList<>((Collection<?>) value);
+            } else {
+                values = Collections.singletonList(value);
             }
+            hitField = new InternalSearchHitField(scriptField.name(), values);
+            hit.fields().put(scriptField.name(), hitField);
         }
     }
 }
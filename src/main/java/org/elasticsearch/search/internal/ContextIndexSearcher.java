@@ -27,6 +27,7 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TimeLimitingCollector;
 import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.MinimumScoreCollector;
@@ -36,6 +37,9 @@ import org.elasticsearch.common.lucene.search.XCollector;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.CachedDfSource;
 import org.elasticsearch.search.internal.SearchContext.Lifetime;
+import org.elasticsearch.search.profile.CollectorProfile;
+import org.elasticsearch.search.profile.ProfileCollector;
+import org.elasticsearch.search.profile.Profiler;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -91,6 +95,13 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         queryCollectors.add(collector);
     }
 
+    /**
+     * @return whether collectors were added that need to see all documents that match the main query
+     */
+    public boolean hasMainQueryCollectors() {
+        return queryCollectors != null && queryCollectors.isEmpty() == false;
+    }
+
     public void inStage(Stage stage) {
         this.currentState = stage;
     }
@@ -118,8 +129,12 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
     @Override
     public Weight createNormalizedWeight(Query query) throws IOException {
         try {
+            final boolean mainQuery = query == searchContext.query() || query == searchContext.parsedQuery().query();
+            if (mainQuery && currentState == Stage.MAIN_QUERY && searchContext.profiler() != null) {
+                query = searchContext.profiler().wrapQuery(query);
+            }
             // if its the main query, use we have dfs data, only then do it
-            if (dfSource != null && (query == searchContext.query() || query == searchContext.parsedQuery().query())) {
+            if (dfSource != null && mainQuery) {
                 return dfSource.createNormalizedWeight(query);
             }
             return in.createNormalizedWeight(query);
@@ -144,19 +159,34 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
             collector = Lucene.wrapCountBasedEarlyTerminatingCollector(collector, searchContext.terminateAfter());
         }
         if (currentState == Stage.MAIN_QUERY) {
+            final Profiler profiler = searchContext.profiler();
+            if (profiler != null) {
+                collector = profiler.wrapCollector(collector, CollectorProfile.REASON_SEARCH_TOP_HITS);
+            }
             if (searchContext.parsedPostFilter() != null) {
                 // this will only get applied to the actual search collector and not
                 // to any scoped collectors, also, it will only be applied to the main collector
                 // since that is where the filter should only work
-                collector = new FilteredCollector(collector, searchContext.parsedPostFilter().filter());
+                Collector filtered = new FilteredCollector(collector, searchContext.parsedPostFilter().filter());
+                collector = profile(profiler, filtered, CollectorProfile.REASON_SEARCH_POST_FILTER, collector);
             }
             if (queryCollectors != null && !queryCollectors.isEmpty()) {
-                collector = new MultiCollector(collector, queryCollectors.toArray(new Collector[queryCollectors.size()]));
+                Collector[] collectors = queryCollectors.toArray(new Collector[queryCollectors.size()]);
+                if (profiler != null) {
+                    for (int i = 0; i < collectors.length; i++) {
+                        collectors[i] = profiler.wrapCollector(collectors[i], CollectorProfile.REASON_SEARCH_QUERY_COLLECTOR);
+                    }
+                }
+                Collector[] children = new Collector[collectors.length + 1];
+                children[0] = collector;
+                System.arraycopy(collectors, 0, children, 1, collectors.length);
+                collector = profile(profiler, new MultiCollector(collector, collectors), CollectorProfile.REASON_SEARCH_MULTI, children);
             }
 
             // apply the minimum score after multi collector so we filter aggs as well
             if (searchContext.minimumScore() != null) {
-                collector = new MinimumScoreCollector(collector, searchContext.minimumScore());
+                Collector minimumScore = new MinimumScoreCollector(collector, searchContext.minimumScore());
+                collector = profile(profiler, minimumScore, CollectorProfile.REASON_SEARCH_MIN_SCORE, collector);
             }
         }
 
@@ -193,6 +223,17 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         }
     }
 
+    private static Collector profile(@Nullable Profiler profiler, Collector collector, String reason, Collector... children) {
+        if (profiler == null) {
+            return collector;
+        }
+        ProfileCollector[] profiledChildren = new ProfileCollector[children.length];
+        for (int i = 0; i < children.length; i++) {
+            profiledChildren[i] = (ProfileCollector) children[i];
+        }
+        return profiler.wrapCollector(collector, reason, profiledChildren);
+    }
+
     @Override
     public Explanation explain(Query query, int doc) throws IOException {
         try {
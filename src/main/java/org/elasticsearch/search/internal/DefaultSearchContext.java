@@ -65,6 +65,7 @@ import org.elasticsearch.search.fetch.source.FetchSourceContext;
 import org.elasticsearch.search.highlight.SearchContextHighlight;
 import org.elasticsearch.search.lookup.SearchLookup;
 import org.elasticsearch.search.query.QueryPhaseExecutionException;
+import org.elasticsearch.search.profile.Profiler;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
@@ -119,6 +120,8 @@ public class DefaultSearchContext extends SearchContext {
     // terminate after count
     private int terminateAfter = DEFAULT_TERMINATE_AFTER;
 
+    private Profiler profiler;
+
 
     private List<String> groupStats;
 
@@ -143,6 +146,8 @@ public class DefaultSearchContext extends SearchContext {
 
     private boolean trackScores = false; // when sorting, track scores as well...
 
+    private boolean trackTotalHits = true;
+
     private ParsedQuery originalQuery;
 
     private Query query;
@@ -469,6 +474,16 @@ public class DefaultSearchContext extends SearchContext {
         this.terminateAfter = terminateAfter;
     }
 
+    @Override
+    public Profiler profiler() {
+        return profiler;
+    }
+
+    @Override
+    public void profiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
     public SearchContext minimumScore(float minimumScore) {
         this.minimumScore = minimumScore;
         return this;
@@ -496,6 +511,15 @@ public class DefaultSearchContext extends SearchContext {
         return this.trackScores;
     }
 
+    public SearchContext trackTotalHits(boolean trackTotalHits) {
+        this.trackTotalHits = trackTotalHits;
+        return this;
+    }
+
+    public boolean trackTotalHits() {
+        return this.trackTotalHits;
+    }
+
     public SearchContext parsedPostFilter(ParsedFilter postFilter) {
         this.postFilter = postFilter;
         return this;
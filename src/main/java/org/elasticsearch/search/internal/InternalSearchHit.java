@@ -66,6 +66,9 @@ public class InternalSearchHit implements SearchHit {
 
     private transient int docId;
 
+    // the _source the fetch phase loaded for this hit, only kept while the fetch sub phases run
+    private transient BytesReference loadedSource;
+
     private float score = Float.NEGATIVE_INFINITY;
 
     private Text id;
@@ -212,6 +215,20 @@ public class InternalSearchHit implements SearchHit {
         return this;
     }
 
+    /**
+     * The _source the fetch phase loaded for this hit, or <code>null</code> if it didn't load it. For nested hits,
+     * this is the source of the nested object. Fetch sub phases that run over all hits at once use it instead of
+     * loading the source again.
+     */
+    @Nullable
+    public BytesReference loadedSource() {
+        return loadedSource;
+    }
+
+    public void loadedSource(@Nullable BytesReference loadedSource) {
+        this.loadedSource = loadedSource;
+    }
+
     @Override
     public BytesReference getSourceRef() {
         return sourceRef();
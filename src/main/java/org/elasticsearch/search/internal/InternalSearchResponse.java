@@ -20,17 +20,22 @@
 package org.elasticsearch.search.internal;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.search.suggest.Suggest;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.elasticsearch.search.internal.InternalSearchHits.readSearchHits;
 
@@ -53,15 +58,23 @@ public class InternalSearchResponse implements Streamable, ToXContent {
 
     private Boolean terminatedEarly = null;
 
+    private Map<String, ProfileShardResult> profileResults;
+
     private InternalSearchResponse() {
     }
 
     public InternalSearchResponse(InternalSearchHits hits, InternalAggregations aggregations, Suggest suggest, boolean timedOut, Boolean terminatedEarly) {
+        this(hits, aggregations, suggest, timedOut, terminatedEarly, null);
+    }
+
+    public InternalSearchResponse(InternalSearchHits hits, InternalAggregations aggregations, Suggest suggest, boolean timedOut, Boolean terminatedEarly,
+                                  @Nullable Map<String, ProfileShardResult> profileResults) {
         this.hits = hits;
         this.aggregations = aggregations;
         this.suggest = suggest;
         this.timedOut = timedOut;
         this.terminatedEarly = terminatedEarly;
+        this.profileResults = profileResults;
     }
 
     public boolean timedOut() {
@@ -84,6 +97,15 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         return suggest;
     }
 
+    /**
+     * @return the profile of the query phase of each shard, keyed by shard, or <tt>null</tt> if the request
+     *         was not profiled
+     */
+    @Nullable
+    public Map<String, ProfileShardResult> profileResults() {
+        return profileResults;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         hits.toXContent(builder, params);
@@ -93,6 +115,18 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         if (suggest != null) {
             suggest.toXContent(builder, params);
         }
+        if (profileResults != null) {
+            builder.startObject(Fields.PROFILE);
+            builder.startArray(Fields.SHARDS);
+            for (Map.Entry<String, ProfileShardResult> entry : profileResults.entrySet()) {
+                builder.startObject();
+                builder.field(Fields.ID, entry.getKey());
+                entry.getValue().toXContent(builder, params);
+                builder.endObject();
+            }
+            builder.endArray();
+            builder.endObject();
+        }
         return builder;
     }
 
@@ -116,6 +150,13 @@ public class InternalSearchResponse implements Streamable, ToXContent {
         if (in.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             terminatedEarly = in.readOptionalBoolean();
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0) && in.readBoolean()) {
+            int size = in.readVInt();
+            profileResults = new TreeMap<>();
+            for (int i = 0; i < size; i++) {
+                profileResults.put(in.readString(), ProfileShardResult.readProfileShardResult(in));
+            }
+        }
     }
 
     @Override
@@ -139,5 +180,23 @@ public class InternalSearchResponse implements Streamable, ToXContent {
             out.writeOptionalBoolean(terminatedEarly);
 
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            if (profileResults == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                out.writeVInt(profileResults.size());
+                for (Map.Entry<String, ProfileShardResult> entry : profileResults.entrySet()) {
+                    out.writeString(entry.getKey());
+                    entry.getValue().writeTo(out);
+                }
+            }
+        }
+    }
+
+    static final class Fields {
+        static final XContentBuilderString PROFILE = new XContentBuilderString("profile");
+        static final XContentBuilderString SHARDS = new XContentBuilderString("shards");
+        static final XContentBuilderString ID = new XContentBuilderString("id");
     }
 }
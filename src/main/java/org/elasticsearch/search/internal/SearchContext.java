@@ -57,6 +57,7 @@ import org.elasticsearch.search.fetch.script.ScriptFieldsContext;
 import org.elasticsearch.search.fetch.source.FetchSourceContext;
 import org.elasticsearch.search.highlight.SearchContextHighlight;
 import org.elasticsearch.search.lookup.SearchLookup;
+import org.elasticsearch.search.profile.Profiler;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.scan.ScanContext;
@@ -225,6 +226,14 @@ public abstract class SearchContext implements Releasable {
 
     public abstract void terminateAfter(int terminateAfter);
 
+    /**
+     * @return the profiler of the query phase, or <tt>null</tt> if the request is not profiled
+     */
+    @Nullable
+    public abstract Profiler profiler();
+
+    public abstract void profiler(Profiler profiler);
+
     public abstract SearchContext minimumScore(float minimumScore);
 
     public abstract Float minimumScore();
@@ -237,6 +246,14 @@ public abstract class SearchContext implements Releasable {
 
     public abstract boolean trackScores();
 
+    /**
+     * Whether the total number of hits must be exact. If not, the query phase may stop collecting segments that
+     * are sorted like the request once it collected enough of their documents. Defaults to <tt>true</tt>.
+     */
+    public abstract SearchContext trackTotalHits(boolean trackTotalHits);
+
+    public abstract boolean trackTotalHits();
+
     public abstract SearchContext parsedPostFilter(ParsedFilter postFilter);
 
     public abstract ParsedFilter parsedPostFilter();
@@ -31,11 +31,13 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.PointInTime;
 import org.elasticsearch.search.Scroll;
 
 import java.io.IOException;
 import java.util.Map;
 
+import static org.elasticsearch.search.PointInTime.readPointInTime;
 import static org.elasticsearch.search.Scroll.readScroll;
 
 /**
@@ -71,6 +73,8 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
 
     private Scroll scroll;
 
+    private PointInTime pointInTime;
+
     private String[] types = Strings.EMPTY_ARRAY;
 
     private String[] filteringAliases;
@@ -101,6 +105,7 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         this.templateType = searchRequest.templateType();
         this.templateParams = searchRequest.templateParams();
         this.scroll = searchRequest.scroll();
+        this.pointInTime = searchRequest.pointInTime();
         this.useSlowScroll = useSlowScroll;
         this.filteringAliases = filteringAliases;
         this.nowInMillis = nowInMillis;
@@ -207,6 +212,11 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         return scroll;
     }
 
+    @Override
+    public PointInTime pointInTime() {
+        return pointInTime;
+    }
+
     @Override
     public boolean useSlowScroll() {
         return useSlowScroll;
@@ -249,6 +259,9 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         if (in.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             queryCache = in.readOptionalBoolean();
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0) && in.readBoolean()) {
+            pointInTime = readPointInTime(in);
+        }
     }
 
     protected void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
@@ -291,6 +304,14 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         if (out.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             out.writeOptionalBoolean(queryCache);
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            if (pointInTime == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                pointInTime.writeTo(out);
+            }
+        }
     }
 
     @Override
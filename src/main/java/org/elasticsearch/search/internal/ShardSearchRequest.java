@@ -21,7 +21,9 @@ package org.elasticsearch.search.internal;
 
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.PointInTime;
 import org.elasticsearch.search.Scroll;
 
 import java.io.IOException;
@@ -66,6 +68,12 @@ public interface ShardSearchRequest {
 
     Scroll scroll();
 
+    /**
+     * @return the point in time to search instead of the current reader of the shard, if any
+     */
+    @Nullable
+    PointInTime pointInTime();
+
     /**
      * This setting is internal and will be enabled when at least one node is on versions 1.0.x and 1.1.x to enable
      * scrolling that those versions support.
@@ -30,6 +30,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.script.ScriptService;
+import org.elasticsearch.search.PointInTime;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.transport.TransportRequest;
 
@@ -154,6 +155,11 @@ public class ShardSearchTransportRequest extends TransportRequest implements Sha
         return shardSearchLocalRequest.scroll();
     }
 
+    @Override
+    public PointInTime pointInTime() {
+        return shardSearchLocalRequest.pointInTime();
+    }
+
     @Override
     public boolean useSlowScroll() {
         return shardSearchLocalRequest.useSlowScroll();
@@ -0,0 +1,77 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The time spent in a collector, including the collectors it delegates to, which are its children.
+ */
+public final class CollectorProfile {
+
+    public static final String REASON_SEARCH_TOP_HITS = "search_top_hits";
+    public static final String REASON_SEARCH_POST_FILTER = "search_post_filter";
+    public static final String REASON_SEARCH_MULTI = "search_multi";
+    public static final String REASON_SEARCH_MIN_SCORE = "search_min_score";
+    public static final String REASON_SEARCH_QUERY_COLLECTOR = "search_query_collector";
+    public static final String REASON_AGGREGATION = "aggregation";
+
+    private final String name;
+    private final String reason;
+    private final List<CollectorProfile> children = new ArrayList<>();
+    private long time;
+
+    public CollectorProfile(String name, String reason) {
+        this.name = name;
+        this.reason = reason;
+    }
+
+    /**
+     * Adds a child to this profile, for a collector that is delegated to.
+     */
+    public CollectorProfile child(String name, String reason) {
+        CollectorProfile child = new CollectorProfile(name, reason);
+        children.add(child);
+        return child;
+    }
+
+    void addChild(CollectorProfile child) {
+        children.add(child);
+    }
+
+    public void addTime(long nanos) {
+        time += nanos;
+    }
+
+    public long time() {
+        return time;
+    }
+
+    public ProfileResult toResult() {
+        List<ProfileResult> childResults = new ArrayList<>(children.size());
+        for (CollectorProfile child : children) {
+            childResults.add(child.toResult());
+        }
+        return new ProfileResult(name, reason, time, ImmutableMap.<String, Long>of(), childResults);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import com.google.common.collect.Maps;
+import org.apache.lucene.search.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The time spent in the weight and the scorers of one node of the query tree. Times are inclusive, the time of a
+ * compound query includes the time of its children.
+ */
+public final class ProfileBreakdown {
+
+    public static enum TimingType {
+        CREATE_WEIGHT,
+        BUILD_SCORER,
+        NEXT_DOC,
+        ADVANCE,
+        SCORE,
+        BULK_SCORE;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String type;
+    private final String description;
+    private final long[] timings = new long[TimingType.values().length];
+    private final long[] counts = new long[TimingType.values().length];
+    private final List<ProfileBreakdown> children = new ArrayList<>();
+
+    ProfileBreakdown(Query query) {
+        this.type = query.getClass().getSimpleName();
+        this.description = query.toString();
+    }
+
+    void addChild(ProfileBreakdown child) {
+        children.add(child);
+    }
+
+    void add(TimingType type, long nanos) {
+        timings[type.ordinal()] += nanos;
+        counts[type.ordinal()]++;
+    }
+
+    public long time(TimingType type) {
+        return timings[type.ordinal()];
+    }
+
+    public long count(TimingType type) {
+        return counts[type.ordinal()];
+    }
+
+    /**
+     * @return the total time spent in this node, including its children
+     */
+    public long totalTime() {
+        long total = 0;
+        for (long timing : timings) {
+            total += timing;
+        }
+        return total;
+    }
+
+    public ProfileResult toResult() {
+        Map<String, Long> breakdown = Maps.newLinkedHashMap();
+        for (TimingType timingType : TimingType.values()) {
+            breakdown.put(timingType.toString(), time(timingType));
+            breakdown.put(timingType + "_count", count(timingType));
+        }
+        List<ProfileResult> childResults = new ArrayList<>(children.size());
+        for (ProfileBreakdown child : children) {
+            childResults.add(child.toResult());
+        }
+        return new ProfileResult(type, description, totalTime(), breakdown, childResults);
+    }
+}
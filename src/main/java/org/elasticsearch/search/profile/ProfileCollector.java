@@ -0,0 +1,99 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SimpleCollector;
+import org.elasticsearch.common.lucene.search.XCollector;
+
+import java.io.IOException;
+
+/**
+ * A collector that records the time spent in the collector it wraps into a {@link CollectorProfile}.
+ */
+public final class ProfileCollector extends SimpleCollector implements XCollector {
+
+    private final Collector collector;
+    private final CollectorProfile profile;
+
+    private LeafCollector leafCollector;
+
+    ProfileCollector(Collector collector, CollectorProfile profile) {
+        this.collector = collector;
+        this.profile = profile;
+        if (collector instanceof ProfiledCollector) {
+            ((ProfiledCollector) collector).profile(profile);
+        }
+    }
+
+    public CollectorProfile profile() {
+        return profile;
+    }
+
+    @Override
+    public void setScorer(Scorer scorer) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            leafCollector.setScorer(scorer);
+        } finally {
+            profile.addTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void collect(int doc) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            leafCollector.collect(doc);
+        } finally {
+            profile.addTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void doSetNextReader(LeafReaderContext context) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            leafCollector = collector.getLeafCollector(context);
+        } finally {
+            profile.addTime(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+        return leafCollector.acceptsDocsOutOfOrder();
+    }
+
+    @Override
+    public void postCollection() throws IOException {
+        if (collector instanceof XCollector) {
+            final long start = System.nanoTime();
+            try {
+                ((XCollector) collector).postCollection();
+            } finally {
+                profile.addTime(System.nanoTime() - start);
+            }
+        }
+    }
+}
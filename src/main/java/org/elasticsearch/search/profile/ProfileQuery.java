@@ -0,0 +1,253 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BulkScorer;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A query that records the time spent in the weight and the scorers of the query it wraps into a
+ * {@link ProfileBreakdown}. The profile is kept when the query gets rewritten.
+ */
+public final class ProfileQuery extends Query {
+
+    private final Query query;
+    private final ProfileBreakdown profile;
+
+    ProfileQuery(Query query, ProfileBreakdown profile) {
+        this.query = query;
+        this.profile = profile;
+    }
+
+    public Query getQuery() {
+        return query;
+    }
+
+    public ProfileBreakdown profile() {
+        return profile;
+    }
+
+    @Override
+    public Query rewrite(IndexReader reader) throws IOException {
+        Query rewritten = query.rewrite(reader);
+        if (getBoost() != 1f) {
+            if (rewritten == query) {
+                rewritten = rewritten.clone();
+            }
+            rewritten.setBoost(rewritten.getBoost() * getBoost());
+        } else if (rewritten == query) {
+            return this;
+        }
+        return new ProfileQuery(rewritten, profile);
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new ProfileWeight(query.createWeight(searcher));
+        } finally {
+            profile.add(ProfileBreakdown.TimingType.CREATE_WEIGHT, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void extractTerms(Set<Term> terms) {
+        query.extractTerms(terms);
+    }
+
+    @Override
+    public String toString(String field) {
+        return query.toString(field);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ProfileQuery that = (ProfileQuery) o;
+        return getBoost() == that.getBoost() && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * query.hashCode() + Float.floatToIntBits(getBoost());
+    }
+
+    final class ProfileWeight extends Weight {
+
+        private final Weight weight;
+
+        ProfileWeight(Weight weight) {
+            this.weight = weight;
+        }
+
+        @Override
+        public Query getQuery() {
+            return ProfileQuery.this;
+        }
+
+        @Override
+        public float getValueForNormalization() throws IOException {
+            return weight.getValueForNormalization();
+        }
+
+        @Override
+        public void normalize(float norm, float topLevelBoost) {
+            weight.normalize(norm, topLevelBoost);
+        }
+
+        @Override
+        public Scorer scorer(LeafReaderContext context, Bits acceptDocs) throws IOException {
+            final long start = System.nanoTime();
+            final Scorer scorer;
+            try {
+                scorer = weight.scorer(context, acceptDocs);
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.BUILD_SCORER, System.nanoTime() - start);
+            }
+            if (scorer == null) {
+                return null;
+            }
+            return new ProfileScorer(this, scorer);
+        }
+
+        @Override
+        public BulkScorer bulkScorer(LeafReaderContext context, boolean scoreDocsInOrder, Bits acceptDocs) throws IOException {
+            // delegate so that queries with a bulk scorer of their own are executed the same way when profiled
+            final long start = System.nanoTime();
+            final BulkScorer bulkScorer;
+            try {
+                bulkScorer = weight.bulkScorer(context, scoreDocsInOrder, acceptDocs);
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.BUILD_SCORER, System.nanoTime() - start);
+            }
+            if (bulkScorer == null) {
+                return null;
+            }
+            return new ProfileBulkScorer(bulkScorer);
+        }
+
+        @Override
+        public boolean scoresDocsOutOfOrder() {
+            return weight.scoresDocsOutOfOrder();
+        }
+
+        @Override
+        public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+            return weight.explain(context, doc);
+        }
+    }
+
+    /**
+     * Times the bulk scoring of a segment, which includes the time spent collecting the matches.
+     */
+    final class ProfileBulkScorer extends BulkScorer {
+
+        private final BulkScorer bulkScorer;
+
+        ProfileBulkScorer(BulkScorer bulkScorer) {
+            this.bulkScorer = bulkScorer;
+        }
+
+        @Override
+        public boolean score(LeafCollector collector, int max) throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return bulkScorer.score(collector, max);
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.BULK_SCORE, System.nanoTime() - start);
+            }
+        }
+    }
+
+    final class ProfileScorer extends Scorer {
+
+        private final Scorer scorer;
+
+        ProfileScorer(ProfileWeight weight, Scorer scorer) {
+            super(weight);
+            this.scorer = scorer;
+        }
+
+        @Override
+        public int docID() {
+            return scorer.docID();
+        }
+
+        @Override
+        public int nextDoc() throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return scorer.nextDoc();
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.NEXT_DOC, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public int advance(int target) throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return scorer.advance(target);
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.ADVANCE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public float score() throws IOException {
+            final long start = System.nanoTime();
+            try {
+                return scorer.score();
+            } finally {
+                profile.add(ProfileBreakdown.TimingType.SCORE, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public int freq() throws IOException {
+            return scorer.freq();
+        }
+
+        @Override
+        public long cost() {
+            return scorer.cost();
+        }
+
+        @Override
+        public Collection<ChildScorer> getChildren() {
+            return scorer.getChildren();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Streamable;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentBuilderString;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The profile of the query phase on a shard: the time spent in the nodes of the query tree, and in the collectors.
+ */
+public class ProfileShardResult implements Streamable, ToXContent {
+
+    private List<ProfileResult> queryResults;
+    private List<ProfileResult> collectorResults;
+
+    ProfileShardResult() {
+    }
+
+    public ProfileShardResult(List<ProfileResult> queryResults, List<ProfileResult> collectorResults) {
+        this.queryResults = queryResults;
+        this.collectorResults = collectorResults;
+    }
+
+    public List<ProfileResult> queryResults() {
+        return queryResults;
+    }
+
+    public List<ProfileResult> collectorResults() {
+        return collectorResults;
+    }
+
+    public static ProfileShardResult readProfileShardResult(StreamInput in) throws IOException {
+        ProfileShardResult result = new ProfileShardResult();
+        result.readFrom(in);
+        return result;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        queryResults = readResults(in);
+        collectorResults = readResults(in);
+    }
+
+    private static List<ProfileResult> readResults(StreamInput in) throws IOException {
+        int size = in.readVInt();
+        List<ProfileResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(ProfileResult.readProfileResult(in));
+        }
+        return results;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        writeResults(queryResults, out);
+        writeResults(collectorResults, out);
+    }
+
+    private static void writeResults(List<ProfileResult> results, StreamOutput out) throws IOException {
+        out.writeVInt(results.size());
+        for (ProfileResult result : results) {
+            result.writeTo(out);
+        }
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startArray(Fields.QUERY);
+        for (ProfileResult result : queryResults) {
+            result.toXContent(builder, params);
+        }
+        builder.endArray();
+        builder.startArray(Fields.COLLECTOR);
+        for (ProfileResult result : collectorResults) {
+            result.toXContent(builder, params);
+        }
+        builder.endArray();
+        return builder;
+    }
+
+    static final class Fields {
+        static final XContentBuilderString QUERY = new XContentBuilderString("query");
+        static final XContentBuilderString COLLECTOR = new XContentBuilderString("collector");
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FilteredQuery;
+import org.apache.lucene.search.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Profiles the query phase of a search request on a shard: the main query is wrapped in {@link ProfileQuery}s
+ * which time the weights and the scorers of every node of the query tree, and the main collectors are wrapped in
+ * {@link ProfileCollector}s which time collection.
+ * <p/>
+ * The query tree is walked through boolean, filtered, dis_max and constant_score queries, any other query is
+ * profiled as a whole. Profiling adds a call to {@link System#nanoTime()} around every method of the scorers, so
+ * that the times are only meaningful relative to each other.
+ */
+public final class Profiler {
+
+    private final List<ProfileBreakdown> queryProfiles = new ArrayList<>();
+    private final List<CollectorProfile> collectorProfiles = new ArrayList<>();
+
+    /**
+     * Wraps the given query, and the queries of its compound clauses, so that the time spent in them is profiled.
+     */
+    public Query wrapQuery(Query query) {
+        ProfileQuery profileQuery = wrap(query);
+        queryProfiles.add(profileQuery.profile());
+        return profileQuery;
+    }
+
+    private ProfileQuery wrap(Query query) {
+        if (query instanceof ProfileQuery) {
+            return (ProfileQuery) query;
+        }
+        final ProfileBreakdown profile = new ProfileBreakdown(query);
+        final Query wrapped;
+        if (query.getClass() == BooleanQuery.class) {
+            BooleanQuery booleanQuery = (BooleanQuery) query;
+            BooleanQuery copy = new BooleanQuery(booleanQuery.isCoordDisabled());
+            copy.setMinimumNumberShouldMatch(booleanQuery.getMinimumNumberShouldMatch());
+            for (BooleanClause clause : booleanQuery.clauses()) {
+                copy.add(wrapChild(clause.getQuery(), profile), clause.getOccur());
+            }
+            wrapped = copy;
+        } else if (query.getClass() == FilteredQuery.class) {
+            FilteredQuery filteredQuery = (FilteredQuery) query;
+            wrapped = new FilteredQuery(wrapChild(filteredQuery.getQuery(), profile), filteredQuery.getFilter(), filteredQuery.getFilterStrategy());
+        } else if (query.getClass() == DisjunctionMaxQuery.class) {
+            DisjunctionMaxQuery disMaxQuery = (DisjunctionMaxQuery) query;
+            DisjunctionMaxQuery copy = new DisjunctionMaxQuery(disMaxQuery.getTieBreakerMultiplier());
+            for (Query disjunct : disMaxQuery.getDisjuncts()) {
+                copy.add(wrapChild(disjunct, profile));
+            }
+            wrapped = copy;
+        } else if (query.getClass() == ConstantScoreQuery.class && ((ConstantScoreQuery) query).getQuery() != null) {
+            wrapped = new ConstantScoreQuery(wrapChild(((ConstantScoreQuery) query).getQuery(), profile));
+        } else {
+            return new ProfileQuery(query, profile);
+        }
+        wrapped.setBoost(query.getBoost());
+        return new ProfileQuery(wrapped, profile);
+    }
+
+    private ProfileQuery wrapChild(Query query, ProfileBreakdown parent) {
+        ProfileQuery child = wrap(query);
+        parent.addChild(child.profile());
+        return child;
+    }
+
+    /**
+     * Wraps the given collector so that the time spent in it is profiled. The profiles of the given collectors,
+     * which should be those that the collector delegates to, become the children of its profile.
+     */
+    public ProfileCollector wrapCollector(Collector collector, String reason, ProfileCollector... children) {
+        CollectorProfile profile = new CollectorProfile(collector.getClass().getSimpleName(), reason);
+        for (ProfileCollector child : children) {
+            profile.addChild(child.profile());
+            collectorProfiles.remove(child.profile());
+        }
+        collectorProfiles.add(profile);
+        return new ProfileCollector(collector, profile);
+    }
+
+    /**
+     * @return the results of the queries and of the top level collectors that have been profiled since the
+     *         last call, so that every page of a scroll reports its own profile
+     */
+    public ProfileShardResult result() {
+        List<ProfileResult> queryResults = new ArrayList<>(queryProfiles.size());
+        for (ProfileBreakdown profile : queryProfiles) {
+            queryResults.add(profile.toResult());
+        }
+        List<ProfileResult> collectorResults = new ArrayList<>(collectorProfiles.size());
+        for (CollectorProfile profile : collectorProfiles) {
+            collectorResults.add(profile.toResult());
+        }
+        queryProfiles.clear();
+        collectorProfiles.clear();
+        return new ProfileShardResult(queryResults, collectorResults);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.LeafCollector;
+import org.elasticsearch.index.sort.IndexSort;
+
+import java.io.IOException;
+
+/**
+ * A collector that stops collecting a segment that is sorted by the index sort once it collected a given number of
+ * documents of it. This is only correct if the wrapped collector keeps the top documents of a sort that
+ * {@link IndexSort#matches(org.apache.lucene.search.Sort) matches} the index sort, as these are then the first
+ * documents of the segment. Segments that are not sorted are collected entirely.
+ */
+final class IndexSortTerminatingCollector implements Collector {
+
+    private final Collector delegate;
+    private final IndexSort indexSort;
+    private final int numDocsToCollect;
+    private boolean terminatedEarly;
+
+    IndexSortTerminatingCollector(Collector delegate, IndexSort indexSort, int numDocsToCollect) {
+        this.delegate = delegate;
+        this.indexSort = indexSort;
+        this.numDocsToCollect = numDocsToCollect;
+    }
+
+    /**
+     * @return whether the collection of a segment was stopped before all its matching documents were collected
+     */
+    boolean terminatedEarly() {
+        return terminatedEarly;
+    }
+
+    @Override
+    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+        final LeafCollector leafCollector = delegate.getLeafCollector(context);
+        if (indexSort.isSorted(context.reader()) == false) {
+            return leafCollector;
+        }
+        return new FilterLeafCollector(leafCollector) {
+
+            private int numCollected;
+
+            @Override
+            public void collect(int doc) throws IOException {
+                in.collect(doc);
+                if (++numCollected >= numDocsToCollect) {
+                    terminatedEarly = true;
+                    throw new CollectionTerminatedException();
+                }
+            }
+
+            @Override
+            public boolean acceptsDocsOutOfOrder() {
+                // the first documents of the segment need to be collected first
+                return false;
+            }
+        };
+    }
+}
@@ -23,15 +23,20 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldCollector;
 import org.apache.lucene.search.TotalHitCountCollector;
 import org.elasticsearch.action.search.SearchType;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.Lucene;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.sort.IndexSort;
 import org.elasticsearch.search.SearchParseElement;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.aggregations.AggregationPhase;
 import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.profile.ProfileParseElement;
 import org.elasticsearch.search.rescore.RescorePhase;
 import org.elasticsearch.search.rescore.RescoreSearchContext;
 import org.elasticsearch.search.sort.SortParseElement;
@@ -73,10 +78,13 @@ public class QueryPhase implements SearchPhase {
                 .put("sort", new SortParseElement())
                 .put("trackScores", new TrackScoresParseElement())
                 .put("track_scores", new TrackScoresParseElement())
+                .put("trackTotalHits", new TrackTotalHitsParseElement())
+                .put("track_total_hits", new TrackTotalHitsParseElement())
                 .put("min_score", new MinScoreParseElement())
                 .put("minScore", new MinScoreParseElement())
                 .put("timeout", new TimeoutParseElement())
                 .put("terminate_after", new TerminateAfterParseElement())
+                .put("profile", new ProfileParseElement())
                 .putAll(aggregationPhase.parseElements())
                 .putAll(suggestPhase.parseElements())
                 .putAll(rescorePhase.parseElements());
@@ -141,7 +149,19 @@ public class QueryPhase implements SearchPhase {
                         }
                     }
                 } else {
-                    if (searchContext.sort() != null) {
+                    final IndexSort indexSort = earlyTerminationSort(searchContext);
+                    if (indexSort != null) {
+                        // the top documents of sorted segments are their first documents
+                        TopFieldCollector topFieldCollector = TopFieldCollector.create(searchContext.sort(), numDocs, true,
+                                searchContext.trackScores(), searchContext.trackScores(), false);
+                        IndexSortTerminatingCollector collector = new IndexSortTerminatingCollector(topFieldCollector, indexSort, numDocs);
+                        searchContext.searcher().search(query, collector);
+                        topDocs = topFieldCollector.topDocs();
+                        if (collector.terminatedEarly()) {
+                            // the total hit count is only a lower bound
+                            searchContext.queryResult().terminatedEarly(true);
+                        }
+                    } else if (searchContext.sort() != null) {
                         topDocs = searchContext.searcher().search(query, null, numDocs, searchContext.sort(),
                                 searchContext.trackScores(), searchContext.trackScores());
                     } else {
@@ -164,5 +184,30 @@ public class QueryPhase implements SearchPhase {
         }
         suggestPhase.execute(searchContext);
         aggregationPhase.execute(searchContext);
+
+        if (searchContext.profiler() != null) {
+            searchContext.queryResult().profileResult(searchContext.profiler().result());
+        }
+    }
+
+    /**
+     * Returns the index sort if the request sorts documents the same way and opted out of exact total hits, so that
+     * sorted segments can stop being collected once enough documents were collected from them.
+     */
+    @Nullable
+    private static IndexSort earlyTerminationSort(SearchContext searchContext) {
+        if (searchContext.trackTotalHits() || searchContext.sort() == null || searchContext.searcher().hasMainQueryCollectors()) {
+            return null;
+        }
+        final IndexSort indexSort = searchContext.indexShard().indexSort();
+        if (indexSort == null || indexSort.matches(searchContext.sort()) == false) {
+            return null;
+        }
+        // segments are sorted on doc values, searches must see the same values
+        final FieldMapper<?> mapper = searchContext.smartNameFieldMapper(indexSort.field());
+        if (mapper == null || mapper.hasDocValues() == false) {
+            return null;
+        }
+        return indexSort;
     }
 }
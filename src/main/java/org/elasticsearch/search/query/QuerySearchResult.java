@@ -21,11 +21,13 @@ package org.elasticsearch.search.query;
 
 import org.apache.lucene.search.TopDocs;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.aggregations.Aggregations;
 import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.profile.ProfileShardResult;
 import org.elasticsearch.search.suggest.Suggest;
 
 import java.io.IOException;
@@ -47,6 +49,7 @@ public class QuerySearchResult extends QuerySearchResultProvider {
     private Suggest suggest;
     private boolean searchTimedOut;
     private Boolean terminatedEarly = null;
+    private ProfileShardResult profileResult;
 
     public QuerySearchResult() {
 
@@ -96,6 +99,18 @@ public class QuerySearchResult extends QuerySearchResultProvider {
         return this.terminatedEarly;
     }
 
+    /**
+     * @return the profile of the query phase, or <tt>null</tt> if the request was not profiled
+     */
+    @Nullable
+    public ProfileShardResult profileResult() {
+        return profileResult;
+    }
+
+    public void profileResult(ProfileShardResult profileResult) {
+        this.profileResult = profileResult;
+    }
+
     public TopDocs topDocs() {
         return topDocs;
     }
@@ -167,6 +182,9 @@ public class QuerySearchResult extends QuerySearchResultProvider {
         if (in.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             terminatedEarly = in.readOptionalBoolean();
         }
+        if (in.getVersion().onOrAfter(Version.V_2_0_0) && in.readBoolean()) {
+            profileResult = ProfileShardResult.readProfileShardResult(in);
+        }
     }
 
     @Override
@@ -197,5 +215,13 @@ public class QuerySearchResult extends QuerySearchResultProvider {
         if (out.getVersion().onOrAfter(Version.V_1_4_0_Beta1)) {
             out.writeOptionalBoolean(terminatedEarly);
         }
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            if (profileResult == null) {
+                out.writeBoolean(false);
+            } else {
+                out.writeBoolean(true);
+                profileResult.writeTo(out);
+            }
+        }
     }
 }
@@ -37,7 +37,10 @@ import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.automaton.Automaton;
 import org.apache.lucene.util.fst.*;
 import org.apache.lucene.util.fst.PairOutputs.Pair;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.mapper.core.CompletionFieldMapper;
 import org.elasticsearch.search.suggest.completion.Completion090PostingsFormat.CompletionLookupProvider;
 import org.elasticsearch.search.suggest.completion.Completion090PostingsFormat.LookupFactory;
@@ -45,6 +48,7 @@ import org.elasticsearch.search.suggest.context.ContextMapping.ContextQuery;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 public class AnalyzingCompletionLookupProvider extends CompletionLookupProvider {
 
@@ -181,66 +185,36 @@ public class AnalyzingCompletionLookupProvider extends CompletionLookupProvider
     }
 
 
+    /**
+     * Reads the per-field offsets of the suggest FSTs, the FSTs themselves are only read from the given input once
+     * the field is first used for suggestions. The input must be kept open for as long as the returned factory is used.
+     */
     @Override
-    public LookupFactory load(IndexInput input) throws IOException {
-        long sizeInBytes = 0;
-        int version = CodecUtil.checkHeader(input, CODEC_NAME, CODEC_VERSION_START, CODEC_VERSION_LATEST);
+    public LookupFactory load(final IndexInput input) throws IOException {
+        final int version = CodecUtil.checkHeader(input, CODEC_NAME, CODEC_VERSION_START, CODEC_VERSION_LATEST);
         if (version >= CODEC_VERSION_CHECKSUMS) {
             CodecUtil.checksumEntireFile(input);
         }
         final long metaPointerPosition = input.length() - (version >= CODEC_VERSION_CHECKSUMS? 8 + CodecUtil.footerLength() : 8);
-        final Map<String, AnalyzingSuggestHolder> lookupMap = new HashMap<>();
         input.seek(metaPointerPosition);
         long metaPointer = input.readLong();
         input.seek(metaPointer);
         int numFields = input.readVInt();
 
-        Map<Long, String> meta = new TreeMap<>();
+        final Map<String, Long> fieldOffsets = new HashMap<>();
         for (int i = 0; i < numFields; i++) {
             String name = input.readString();
             long offset = input.readVLong();
-            meta.put(offset, name);
+            fieldOffsets.put(name, offset);
         }
 
-        for (Map.Entry<Long, String> entry : meta.entrySet()) {
-            input.seek(entry.getKey());
-            FST<Pair<Long, BytesRef>> fst = new FST<>(input, new PairOutputs<>(
-                    PositiveIntOutputs.getSingleton(), ByteSequenceOutputs.getSingleton()));
-            int maxAnalyzedPathsForOneInput = input.readVInt();
-            int maxSurfaceFormsPerAnalyzedForm = input.readVInt();
-            int maxGraphExpansions = input.readInt();
-            int options = input.readVInt();
-            boolean preserveSep = (options & SERIALIZE_PRESERVE_SEPARATORS) != 0;
-            boolean hasPayloads = (options & SERIALIZE_HAS_PAYLOADS) != 0;
-            boolean preservePositionIncrements = (options & SERIALIZE_PRESERVE_POSITION_INCREMENTS) != 0;
-
-            // first version did not include these three fields, so fall back to old default (before the analyzingsuggester
-            // was updated in Lucene, so we cannot use the suggester defaults)
-            int sepLabel, payloadSep, endByte, holeCharacter;
-            switch (version) {
-                case CODEC_VERSION_START:
-                    sepLabel = 0xFF;
-                    payloadSep = '\u001f';
-                    endByte = 0x0;
-                    holeCharacter = '\u001E';
-                    break;
-                default:
-                    sepLabel = input.readVInt();
-                    endByte = input.readVInt();
-                    payloadSep = input.readVInt();
-                    holeCharacter = input.readVInt();
-            }
-
-            AnalyzingSuggestHolder holder = new AnalyzingSuggestHolder(preserveSep, preservePositionIncrements, maxSurfaceFormsPerAnalyzedForm, maxGraphExpansions,
-                    hasPayloads, maxAnalyzedPathsForOneInput, fst, sepLabel, payloadSep, endByte, holeCharacter);
-            sizeInBytes += fst.ramBytesUsed();
-            lookupMap.put(entry.getValue(), holder);
-        }
-        final long ramBytesUsed = sizeInBytes;
         return new LookupFactory() {
+            private final Map<String, AnalyzingSuggestHolder> lookupMap = ConcurrentCollections.newConcurrentMap();
+            private final CounterMetric loadTimeInNanos = new CounterMetric();
+
             @Override
             public Lookup getLookup(CompletionFieldMapper mapper, CompletionSuggestionContext suggestionContext) {
-                AnalyzingSuggestHolder analyzingSuggestHolder = lookupMap.get(mapper.names().indexName());
+                AnalyzingSuggestHolder analyzingSuggestHolder = getAnalyzingSuggestHolder(mapper);
                 if (analyzingSuggestHolder == null) {
                     return null;
                 }
@@ -286,17 +260,45 @@ public class AnalyzingCompletionLookupProvider extends CompletionLookupProvider
                     }
                 }
 
-                return new CompletionStats(sizeInBytes, completionFields);
+                return new CompletionStats(sizeInBytes, TimeUnit.NANOSECONDS.toMillis(loadTimeInNanos.count()), completionFields);
             }
 
             @Override
             AnalyzingSuggestHolder getAnalyzingSuggestHolder(CompletionFieldMapper mapper) {
-                return lookupMap.get(mapper.names().indexName());
+                final String field = mapper.names().indexName();
+                AnalyzingSuggestHolder holder = lookupMap.get(field);
+                if (holder != null) {
+                    return holder;
+                }
+                final Long offset = fieldOffsets.get(field);
+                if (offset == null) {
+                    return null;
+                }
+                synchronized (this) {
+                    holder = lookupMap.get(field);
+                    if (holder == null) {
+                        final long start = System.nanoTime();
+                        try {
+                            IndexInput fstInput = input.clone();
+                            fstInput.seek(offset);
+                            holder = readAnalyzingSuggestHolder(fstInput, version);
+                        } catch (IOException e) {
+                            throw new ElasticsearchException("failed to load suggest FST for field [" + field + "]", e);
+                        }
+                        loadTimeInNanos.inc(System.nanoTime() - start);
+                        lookupMap.put(field, holder);
+                    }
+                    return holder;
+                }
             }
 
             @Override
             public long ramBytesUsed() {
-                return ramBytesUsed;
+                long sizeInBytes = 0;
+                for (AnalyzingSuggestHolder holder : lookupMap.values()) {
+                    sizeInBytes += holder.ramBytesUsed();
+                }
+                return sizeInBytes;
             }
 
             @Override
@@ -306,6 +308,38 @@ public class AnalyzingCompletionLookupProvider extends CompletionLookupProvider
         };
     }
 
+    private static AnalyzingSuggestHolder readAnalyzingSuggestHolder(IndexInput input, int version) throws IOException {
+        FST<Pair<Long, BytesRef>> fst = new FST<>(input, new PairOutputs<>(
+                PositiveIntOutputs.getSingleton(), ByteSequenceOutputs.getSingleton()));
+        int maxAnalyzedPathsForOneInput = input.readVInt();
+        int maxSurfaceFormsPerAnalyzedForm = input.readVInt();
+        int maxGraphExpansions = input.readInt();
+        int options = input.readVInt();
+        boolean preserveSep = (options & SERIALIZE_PRESERVE_SEPARATORS) != 0;
+        boolean hasPayloads = (options & SERIALIZE_HAS_PAYLOADS) != 0;
+        boolean preservePositionIncrements = (options & SERIALIZE_PRESERVE_POSITION_INCREMENTS) != 0;
+
+        // first version did not include these three fields, so fall back to old default (before the analyzingsuggester
+        // was updated in Lucene, so we cannot use the suggester defaults)
+        int sepLabel, payloadSep, endByte, holeCharacter;
+        switch (version) {
+            case CODEC_VERSION_START:
+                sepLabel = 0xFF;
+                payloadSep = '\u001f';
+                endByte = 0x0;
+                holeCharacter = '\u001E';
+                break;
+            default:
+                sepLabel = input.readVInt();
+                endByte = input.readVInt();
+                payloadSep = input.readVInt();
+                holeCharacter = input.readVInt();
+        }
+
+        return new AnalyzingSuggestHolder(preserveSep, preservePositionIncrements, maxSurfaceFormsPerAnalyzedForm, maxGraphExpansions,
+                hasPayloads, maxAnalyzedPathsForOneInput, fst, sepLabel, payloadSep, endByte, holeCharacter);
+    }
+
     static class AnalyzingSuggestHolder implements Accountable {
         final boolean preserveSep;
         final boolean preservePositionIncrements;
@@ -52,7 +52,8 @@ import java.util.Map;
  * postings format. It uses the delegate postings format for simplicity to
  * handle all the merge operations. The auxiliary suggest FST data structure is
  * only loaded if a FieldsProducer is requested for reading, for merging it uses
- * the low memory delegate postings format.
+ * the low memory delegate postings format. When reading, the FST of a field is
+ * loaded the first time the field is used for suggestions.
  */
 public class Completion090PostingsFormat extends PostingsFormat {
 
@@ -144,10 +145,9 @@ public class Completion090PostingsFormat extends PostingsFormat {
     }
 
     private static class CompletionFieldsProducer extends FieldsProducer {
-        // TODO make this class lazyload all the things in order to take advantage of the new merge instance API
-        // today we just load everything up-front
         private final FieldsProducer delegateProducer;
         private final LookupFactory lookupFactory;
+        private final IndexInput input;
         private final int version;
 
         public CompletionFieldsProducer(SegmentReadState state) throws IOException {
@@ -156,6 +156,7 @@ public class Completion090PostingsFormat extends PostingsFormat {
             version = CodecUtil.checkHeader(input, CODEC_NAME, SUGGEST_CODEC_VERSION, SUGGEST_VERSION_CURRENT);
             FieldsProducer delegateProducer = null;
             boolean success = false;
+            boolean keepInputOpen = false;
             try {
                 PostingsFormat delegatePostingsFormat = PostingsFormat.forName(input.readString());
                 String providerName = input.readString();
@@ -170,19 +171,23 @@ public class Completion090PostingsFormat extends PostingsFormat {
                  * don't consume so much memory during merge
                  */
                 if (state.context.context != Context.MERGE) {
-                    // TODO: maybe we can do this in a fully lazy fashion based on some configuration
+                    // the lookup factory only reads the FSTs of the fields that are used for suggestions, on first use,
+                    // so we keep the input open until this producer is closed
                     // eventually we should have some kind of curciut breaker that prevents us from going OOM here
                     // with some configuration
                     this.lookupFactory = completionLookupProvider.load(input);
+                    this.input = input;
+                    keepInputOpen = true;
                 } else {
                     this.lookupFactory = null;
+                    this.input = null;
                 }
                 this.delegateProducer = delegateProducer;
                 success = true;
             } finally {
                 if (!success) {
                     IOUtils.closeWhileHandlingException(delegateProducer, input);
-                } else {
+                } else if (keepInputOpen == false) {
                     IOUtils.close(input);
                 }
             }
@@ -190,7 +195,7 @@ public class Completion090PostingsFormat extends PostingsFormat {
 
         @Override
         public void close() throws IOException {
-            IOUtils.close(delegateProducer);
+            IOUtils.close(delegateProducer, input);
         }
 
         @Override
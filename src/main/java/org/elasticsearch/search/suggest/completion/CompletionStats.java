@@ -19,11 +19,13 @@
 package org.elasticsearch.search.suggest.completion;
 
 import com.carrotsearch.hppc.ObjectLongOpenHashMap;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Streamable;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentBuilderString;
@@ -37,6 +39,8 @@ public class CompletionStats implements Streamable, ToXContent {
 
     private long sizeInBytes;
 
+    private long loadTimeInMillis;
+
     @Nullable
     private ObjectLongOpenHashMap<String> fields;
 
@@ -44,7 +48,12 @@ public class CompletionStats implements Streamable, ToXContent {
     }
 
     public CompletionStats(long size, @Nullable ObjectLongOpenHashMap<String> fields) {
+        this(size, 0, fields);
+    }
+
+    public CompletionStats(long size, long loadTimeInMillis, @Nullable ObjectLongOpenHashMap<String> fields) {
         this.sizeInBytes = size;
+        this.loadTimeInMillis = loadTimeInMillis;
         this.fields = fields;
     }
 
@@ -56,6 +65,17 @@ public class CompletionStats implements Streamable, ToXContent {
         return new ByteSizeValue(sizeInBytes);
     }
 
+    /**
+     * The total time spent loading the suggest FSTs into memory, FSTs are loaded the first time a field is used.
+     */
+    public long getLoadTimeInMillis() {
+        return loadTimeInMillis;
+    }
+
+    public TimeValue getLoadTime() {
+        return new TimeValue(loadTimeInMillis);
+    }
+
     public ObjectLongOpenHashMap<String> getFields() {
         return fields;
     }
@@ -63,6 +83,9 @@ public class CompletionStats implements Streamable, ToXContent {
     @Override
     public void readFrom(StreamInput in) throws IOException {
         sizeInBytes = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_2_0_0)) {
+            loadTimeInMillis = in.readVLong();
+        }
         if (in.readBoolean()) {
             int size = in.readVInt();
             fields = new ObjectLongOpenHashMap<>(size);
@@ -75,6 +98,9 @@ public class CompletionStats implements Streamable, ToXContent {
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(sizeInBytes);
+        if (out.getVersion().onOrAfter(Version.V_2_0_0)) {
+            out.writeVLong(loadTimeInMillis);
+        }
         if (fields == null) {
             out.writeBoolean(false);
         } else {
@@ -96,6 +122,7 @@ public class CompletionStats implements Streamable, ToXContent {
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject(Fields.COMPLETION);
         builder.byteSizeField(Fields.SIZE_IN_BYTES, Fields.SIZE, sizeInBytes);
+        builder.timeValueField(Fields.LOAD_TIME_IN_MILLIS, Fields.LOAD_TIME, loadTimeInMillis);
         if (fields != null) {
             builder.startObject(Fields.FIELDS);
             final boolean[] states = fields.allocated;
@@ -124,6 +151,8 @@ public class CompletionStats implements Streamable, ToXContent {
         static final XContentBuilderString COMPLETION = new XContentBuilderString("completion");
         static final XContentBuilderString SIZE_IN_BYTES = new XContentBuilderString("size_in_bytes");
         static final XContentBuilderString SIZE = new XContentBuilderString("size");
+        static final XContentBuilderString LOAD_TIME_IN_MILLIS = new XContentBuilderString("load_time_in_millis");
+        static final XContentBuilderString LOAD_TIME = new XContentBuilderString("load_time");
         static final XContentBuilderString FIELDS = new XContentBuilderString("fields");
     }
 
@@ -133,6 +162,7 @@ public class CompletionStats implements Streamable, ToXContent {
         }
 
         sizeInBytes += completion.getSizeInBytes();
+        loadTimeInMillis += completion.getLoadTimeInMillis();
 
         if (completion.fields != null) {
             if (fields == null) fields = new ObjectLongOpenHashMap<>();
@@ -36,6 +36,7 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsException;
 import org.elasticsearch.common.unit.SizeValue;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AdaptiveEsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.EsAbortPolicy;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
@@ -55,7 +56,9 @@ import java.util.concurrent.*;
 import static org.elasticsearch.common.collect.MapBuilder.newMapBuilder;
 import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
 import static org.elasticsearch.common.unit.SizeValue.parseSizeValue;
+import static org.elasticsearch.common.unit.TimeValue.timeValueMillis;
 import static org.elasticsearch.common.unit.TimeValue.timeValueMinutes;
+import static org.elasticsearch.common.unit.TimeValue.timeValueSeconds;
 
 /**
  *
@@ -361,6 +364,52 @@ public class ThreadPool extends AbstractComponent {
             logger.debug("creating thread_pool [{}], type [{}], size [{}], queue_size [{}]", name, type, size, queueSize);
             Executor executor = EsExecutors.newFixed(size, queueSize == null ? -1 : (int) queueSize.singles(), threadFactory);
             return new ExecutorHolder(executor, new Info(name, type, size, size, null, queueSize));
+        } else if ("adaptive".equals(type)) {
+            int defaultSize = defaultSettings.getAsInt("size", EsExecutors.boundedNumberOfProcessors(settings));
+            int defaultMaxQueueSize = defaultSettings.getAsInt("queue_size", 1000);
+            int defaultMinQueueSize = defaultSettings.getAsInt("min_queue_size", 10);
+            TimeValue defaultTarget = defaultSettings.getAsTime("target", timeValueMillis(100));
+            TimeValue defaultInterval = defaultSettings.getAsTime("interval", timeValueSeconds(1));
+            if (previousExecutorHolder != null) {
+                if (previousExecutorHolder.executor() instanceof AdaptiveEsThreadPoolExecutor) {
+                    AdaptiveEsThreadPoolExecutor previousExecutor = (AdaptiveEsThreadPoolExecutor) previousExecutorHolder.executor();
+                    defaultMaxQueueSize = previousExecutor.getMaxQueueSize();
+                    defaultMinQueueSize = previousExecutor.getMinQueueSize();
+                    defaultTarget = previousExecutor.getTarget();
+                    defaultInterval = previousExecutor.getInterval();
+                    if (settings.getAsInt("queue_size", defaultMaxQueueSize) == defaultMaxQueueSize
+                            && settings.getAsInt("min_queue_size", defaultMinQueueSize) == defaultMinQueueSize
+                            && settings.getAsTime("target", defaultTarget).equals(defaultTarget)
+                            && settings.getAsTime("interval", defaultInterval).equals(defaultInterval)) {
+                        int updatedSize = settings.getAsInt("size", previousInfo.getMax());
+                        if (previousInfo.getMax() != updatedSize) {
+                            logger.debug("updating thread_pool [{}], type [{}], size [{}]", name, type, updatedSize);
+                            previousExecutor.setCorePoolSize(updatedSize);
+                            previousExecutor.setMaximumPoolSize(updatedSize);
+                            return new ExecutorHolder(previousExecutor, new Info(name, type, updatedSize, updatedSize, null, previousInfo.getQueueSize()));
+                        }
+                        return previousExecutorHolder;
+                    }
+                } else if (previousInfo.getQueueSize() != null) {
+                    defaultMaxQueueSize = (int) previousInfo.getQueueSize().singles();
+                }
+                if (previousInfo.getMax() >= 0) {
+                    defaultSize = previousInfo.getMax();
+                }
+            }
+            int size = settings.getAsInt("size", defaultSize);
+            int maxQueueSize = settings.getAsInt("queue_size", defaultMaxQueueSize);
+            int minQueueSize = settings.getAsInt("min_queue_size", defaultMinQueueSize);
+            TimeValue target = settings.getAsTime("target", defaultTarget);
+            TimeValue interval = settings.getAsTime("interval", defaultInterval);
+            if (maxQueueSize < 0 || minQueueSize < 0 || minQueueSize > maxQueueSize) {
+                throw new ElasticsearchIllegalArgumentException("thread_pool [" + name + "] of type [" + type + "] needs 0 <= min_queue_size <= queue_size, got ["
+                        + minQueueSize + "] and [" + maxQueueSize + "]");
+            }
+            logger.debug("creating thread_pool [{}], type [{}], size [{}], queue_size [{}], min_queue_size [{}], target [{}], interval [{}]",
+                    name, type, size, maxQueueSize, minQueueSize, target, interval);
+            Executor executor = EsExecutors.newAdaptive(size, minQueueSize, maxQueueSize, target, interval, threadFactory);
+            return new ExecutorHolder(executor, new Info(name, type, size, size, null, new SizeValue(maxQueueSize)));
         } else if ("scaling".equals(type)) {
             TimeValue defaultKeepAlive = defaultSettings.getAsTime("keep_alive", timeValueMinutes(5));
             int defaultMin = defaultSettings.getAsInt("min", 1);
@@ -655,7 +655,8 @@ public class NettyTransport extends AbstractLifecycleComponent<Transport> implem
             // the header part is compressed, and the "body" can't be extracted as compressed
             if (options.compress() && (!(request instanceof BytesTransportRequest))) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.defaultCompressor().streamOutput(stream);
+                String useSite = options.type() == TransportRequestOptions.Type.RECOVERY ? CompressorFactory.RECOVERY : CompressorFactory.TRANSPORT;
+                stream = CompressorFactory.defaultCompressor(useSite, node.version()).streamOutput(stream);
             }
             stream = new HandlesStreamOutput(stream);
 
@@ -84,7 +84,7 @@ public class NettyTransportChannel implements TransportChannel {
             StreamOutput stream = bStream;
             if (options.compress()) {
                 status = TransportStatus.setCompress(status);
-                stream = CompressorFactory.defaultCompressor().streamOutput(stream);
+                stream = CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT, version).streamOutput(stream);
             }
             stream = new HandlesStreamOutput(stream);
             stream.setVersion(version);
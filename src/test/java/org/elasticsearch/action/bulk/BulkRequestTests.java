@@ -28,6 +28,10 @@ import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.index.VersionType;
 import org.elasticsearch.test.ElasticsearchTestCase;
 import org.junit.Test;
 
@@ -104,6 +108,93 @@ public class BulkRequestTests extends ElasticsearchTestCase {
         new BulkRequest().add(new BytesArray(bulkAction.getBytes(Charsets.UTF_8)), true, "test", null, false);
     }
 
+    @Test
+    public void testActionMetaData() throws Exception {
+        String bulkAction = "{ \"index\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"1\", \"_routing\" : \"r1\", \"_version\" : 5, \"_version_type\" : \"external\", \"_ttl\" : \"1m\" } }\n" +
+                "{ \"field1\" : \"value1\" }\n" +
+                "{\"create\":{\"_id\":\"2\",\"_ttl\":1000,\"unknown\":-12}}\n" +
+                "{ \"field1\" : \"value2\" }\n" +
+                // escaped strings and floating point numbers go through the xcontent parser
+                "{ \"update\" : { \"_id\" : \"3\\\"\", \"_retry_on_conflict\" : 3, \"_version\" : 2.0 } }\n" +
+                "{ \"doc\" : { \"field1\" : \"value3\" } }\n" +
+                "\n" +
+                "{ \"delete\" : { \"_index\" : \"test2\", \"_id\" : \"4\", \"parent\" : \"p1\" } }\n";
+        BulkRequest bulkRequest = new BulkRequest();
+        bulkRequest.add(new BytesArray(bulkAction.getBytes(Charsets.UTF_8)), true, "default", "default_type");
+        assertThat(bulkRequest.numberOfActions(), equalTo(4));
+
+        IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(0);
+        assertThat(indexRequest.index(), equalTo("test"));
+        assertThat(indexRequest.type(), equalTo("type1"));
+        assertThat(indexRequest.id(), equalTo("1"));
+        assertThat(indexRequest.routing(), equalTo("r1"));
+        assertThat(indexRequest.version(), equalTo(5l));
+        assertThat(indexRequest.versionType(), equalTo(VersionType.EXTERNAL));
+        assertThat(indexRequest.ttl(), equalTo(60000l));
+        assertThat(indexRequest.source().toUtf8(), equalTo("{ \"field1\" : \"value1\" }"));
+
+        IndexRequest createRequest = (IndexRequest) bulkRequest.requests().get(1);
+        assertThat(createRequest.opType(), equalTo(IndexRequest.OpType.CREATE));
+        assertThat(createRequest.index(), equalTo("default"));
+        assertThat(createRequest.type(), equalTo("default_type"));
+        assertThat(createRequest.id(), equalTo("2"));
+        assertThat(createRequest.ttl(), equalTo(1000l));
+
+        UpdateRequest updateRequest = (UpdateRequest) bulkRequest.requests().get(2);
+        assertThat(updateRequest.id(), equalTo("3\""));
+        assertThat(updateRequest.retryOnConflict(), equalTo(3));
+        assertThat(updateRequest.version(), equalTo(2l));
+
+        DeleteRequest deleteRequest = (DeleteRequest) bulkRequest.requests().get(3);
+        assertThat(deleteRequest.index(), equalTo("test2"));
+        assertThat(deleteRequest.id(), equalTo("4"));
+        assertThat(deleteRequest.routing(), equalTo("p1"));
+    }
+
+    @Test
+    public void testAddComplete() throws Exception {
+        String complete = "{ \"index\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"1\" } }\n" +
+                "{ \"field1\" : \"value1\" }\n" +
+                "{ \"delete\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"2\" } }\n";
+        String incomplete = "{ \"index\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"3\" } }\n" +
+                "{ \"field1\" : ";
+        BulkRequest bulkRequest = new BulkRequest();
+        int consumed = bulkRequest.addComplete(new BytesArray(complete + incomplete), false, null, null, null, null, true);
+        assertThat(consumed, equalTo(complete.getBytes(Charsets.UTF_8).length));
+        assertThat(bulkRequest.numberOfActions(), equalTo(2));
+
+        String rest = incomplete + "\"value3\" }\n";
+        consumed = bulkRequest.addComplete(new BytesArray(rest), false, null, null, null, null, true);
+        assertThat(consumed, equalTo(rest.getBytes(Charsets.UTF_8).length));
+        assertThat(bulkRequest.numberOfActions(), equalTo(3));
+        assertThat(((IndexRequest) bulkRequest.requests().get(2)).id(), equalTo("3"));
+    }
+
+    @Test
+    public void testAddCompletePagedData() throws Exception {
+        // more than a page, so that action lines span pages, like the buffer of a streamed body
+        BytesStreamOutput out = new BytesStreamOutput();
+        int numActions = 0;
+        while (out.size() < 3 * BigArrays.PAGE_SIZE_IN_BYTES) {
+            String action = "{ \"index\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"" + numActions + "\" } }\n" +
+                    "{ \"field1\" : \"value" + numActions + "\" }\n";
+            out.write(action.getBytes(Charsets.UTF_8));
+            numActions++;
+        }
+        BytesReference data = out.bytes();
+        assertFalse(data.hasArray());
+        BulkRequest bulkRequest = new BulkRequest();
+        int consumed = bulkRequest.addComplete(data, false, null, null, null, null, true);
+        assertThat(consumed, equalTo(data.length()));
+        assertThat(bulkRequest.numberOfActions(), equalTo(numActions));
+        for (int i = 0; i < numActions; i++) {
+            IndexRequest indexRequest = (IndexRequest) bulkRequest.requests().get(i);
+            assertThat(indexRequest.index(), equalTo("test"));
+            assertThat(indexRequest.type(), equalTo("type1"));
+            assertThat(indexRequest.id(), equalTo(Integer.toString(i)));
+        }
+    }
+
     @Test
     public void testBulkAddIterable() {
         BulkRequest bulkRequest = Requests.bulkRequest();
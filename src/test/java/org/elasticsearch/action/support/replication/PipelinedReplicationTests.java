@@ -0,0 +1,191 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.action.support.replication;
+
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class PipelinedReplicationTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testConcurrentWritesToSameDocumentsConverge() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        final int numReplicas = between(1, cluster().numDataNodes() - 1);
+        assertAcked(prepareCreate("test").setSettings(settingsBuilder()
+                .put(SETTING_NUMBER_OF_SHARDS, 1)
+                .put(SETTING_NUMBER_OF_REPLICAS, numReplicas)));
+        ensureGreen("test");
+
+        final int numDocs = between(1, 3);
+        final int numOps = scaledRandomIntBetween(20, 200);
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final int numThreads = between(2, 8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            final Client client = client();
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < numOps; i++) {
+                            client.prepareIndex("test", "type1", Integer.toString(i % numDocs))
+                                    .setSource("thread", threadId, "op", i)
+                                    .setReplicationType(ReplicationType.PIPELINED)
+                                    .get();
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(failures, empty());
+
+        // the writes were acknowledged before the replicas applied them, wait for the replicas to catch up
+        assertBusy(new Runnable() {
+            @Override
+            public void run() {
+                ClusterState state = client().admin().cluster().prepareState().get().getState();
+                List<ShardRouting> copies = state.routingTable().index("test").shard(0).activeShards();
+                assertThat(copies.size(), equalTo(numReplicas + 1));
+                String primaryNodeId = state.routingTable().index("test").shard(0).primaryShard().currentNodeId();
+                for (int id = 0; id < numDocs; id++) {
+                    GetResponse primary = client().prepareGet("test", "type1", Integer.toString(id))
+                            .setPreference("_only_node:" + primaryNodeId).get();
+                    assertTrue(primary.isExists());
+                    for (ShardRouting copy : copies) {
+                        GetResponse replica = client().prepareGet("test", "type1", Integer.toString(id))
+                                .setPreference("_only_node:" + copy.currentNodeId()).get();
+                        assertThat(replica.getVersion(), equalTo(primary.getVersion()));
+                        assertThat(replica.getSourceAsMap(), equalTo(primary.getSourceAsMap()));
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testConcurrentWritersAreNotSlowerThanSync() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        for (String index : new String[] {"sync", "pipelined"}) {
+            assertAcked(prepareCreate(index).setSettings(settingsBuilder()
+                    .put(SETTING_NUMBER_OF_SHARDS, 1)
+                    .put(SETTING_NUMBER_OF_REPLICAS, 1)));
+        }
+        ensureGreen("sync", "pipelined");
+
+        final int numThreads = between(4, 8);
+        final int numOps = scaledRandomIntBetween(50, 200);
+        // warm up both paths before measuring, then keep the best of a few rounds to smooth out noise
+        long syncNanos = Long.MAX_VALUE;
+        long pipelinedNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long sync = indexConcurrently("sync", ReplicationType.SYNC, round, numThreads, numOps);
+            long pipelined = indexConcurrently("pipelined", ReplicationType.PIPELINED, round, numThreads, numOps);
+            if (round > 0) {
+                syncNanos = Math.min(syncNanos, sync);
+                pipelinedNanos = Math.min(pipelinedNanos, pipelined);
+            }
+        }
+        logger.info("--> {} threads indexing {} docs each took [{}ms] with sync and [{}ms] with pipelined replication",
+                numThreads, numOps, TimeUnit.NANOSECONDS.toMillis(syncNanos), TimeUnit.NANOSECONDS.toMillis(pipelinedNanos));
+        // the writers index different documents, holding one lock per shard would serialize them on the primary
+        assertThat(pipelinedNanos, lessThanOrEqualTo(syncNanos * 2));
+
+        assertBusy(new Runnable() {
+            @Override
+            public void run() {
+                // the replicas may still apply writes that were acknowledged already
+                refresh();
+                assertHitCount(client().prepareCount("pipelined").setPreference("_replica").get(), numThreads * numOps);
+            }
+        });
+        assertHitCount(client().prepareCount("sync").get(), numThreads * numOps);
+    }
+
+    private long indexConcurrently(final String index, final ReplicationType replicationType, final int round,
+                                   int numThreads, final int numOps) throws Exception {
+        final List<Throwable> failures = new CopyOnWriteArrayList<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int threadId = t;
+            final Client client = client();
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < numOps; i++) {
+                            // every round overwrites the documents of the previous one
+                            client.prepareIndex(index, "type1", threadId + "_" + i)
+                                    .setSource("thread", threadId, "op", i, "round", round)
+                                    .setReplicationType(replicationType)
+                                    .get();
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        final long startTime = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final long took = System.nanoTime() - startTime;
+        assertThat(failures, empty());
+        return took;
+    }
+}
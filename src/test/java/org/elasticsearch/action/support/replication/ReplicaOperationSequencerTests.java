@@ -0,0 +1,224 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.support.replication;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.routing.operation.hash.djb.DjbHashFunction;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.math.MathUtils;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class ReplicaOperationSequencerTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testOperationsRunInOrder() throws Exception {
+        ThreadPool threadPool = new ThreadPool("test");
+        try {
+            ReplicaOperationSequencer sequencer = new ReplicaOperationSequencer(threadPool, TimeValue.timeValueMinutes(1));
+            final List<Long> applied = new CopyOnWriteArrayList<>();
+            int numOperations = randomIntBetween(1, 100);
+            List<Long> seqNos = new ArrayList<>();
+            for (long i = 0; i < numOperations; i++) {
+                seqNos.add(i);
+            }
+            Collections.shuffle(seqNos, getRandom());
+            for (final Long seqNo : seqNos) {
+                sequencer.submit(seqNo, 0, new Runnable() {
+                    @Override
+                    public void run() {
+                        applied.add(seqNo);
+                    }
+                });
+            }
+            assertThat(applied.size(), equalTo(numOperations));
+            for (int i = 0; i < numOperations; i++) {
+                assertThat(applied.get(i), equalTo((long) i));
+            }
+            assertThat(sequencer.pending(), equalTo(0));
+            assertThat(sequencer.nextSeqNo(), equalTo((long) numOperations));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    @Test
+    public void testGapIsSkipped() throws Exception {
+        ThreadPool threadPool = new ThreadPool("test");
+        try {
+            ReplicaOperationSequencer sequencer = new ReplicaOperationSequencer(threadPool, TimeValue.timeValueMillis(randomIntBetween(100, 300)));
+            final List<Long> applied = new CopyOnWriteArrayList<>();
+            final CountDownLatch latch = new CountDownLatch(2);
+            // operation 0 never arrives
+            for (final long seqNo : new long[] { 2, 1 }) {
+                sequencer.submit(seqNo, 0, new Runnable() {
+                    @Override
+                    public void run() {
+                        applied.add(seqNo);
+                        latch.countDown();
+                    }
+                });
+            }
+            assertThat(applied.size(), equalTo(0));
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertThat(applied.get(0), equalTo(1L));
+            assertThat(applied.get(1), equalTo(2L));
+            assertThat(sequencer.nextSeqNo(), equalTo(3L));
+
+            // the lost operation shows up after all, it is applied right away
+            sequencer.submit(0, 0, new Runnable() {
+                @Override
+                public void run() {
+                    applied.add(0L);
+                }
+            });
+            assertThat(applied.size(), equalTo(3));
+            assertThat(applied.get(2), equalTo(0L));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    @Test
+    public void testPrimaryPipelineBoundsOutstandingOperations() {
+        int max = randomIntBetween(1, 10);
+        PrimaryReplicationPipeline pipeline = new PrimaryReplicationPipeline(randomLong(), max, randomIntBetween(1, 10));
+        for (int i = 0; i < max; i++) {
+            assertTrue(pipeline.tryAcquire());
+        }
+        assertFalse(pipeline.tryAcquire());
+        pipeline.release();
+        assertTrue(pipeline.tryAcquire());
+        assertThat(pipeline.outstanding(), equalTo(max));
+
+    }
+
+    @Test
+    public void testPrimaryPipelineSequenceNumbers() {
+        PrimaryReplicationPipeline pipeline = new PrimaryReplicationPipeline(randomLong(), 1, randomIntBetween(1, 10));
+        Map<String, Long> first;
+        Map<String, Long> second;
+        Map<String, Long> third;
+        try (Releasable lock = pipeline.lock(null)) {
+            first = pipeline.assign(Arrays.asList("node1", "node2"));
+            second = pipeline.assign(Arrays.asList("node1"));
+            third = pipeline.assign(Arrays.asList("node1", "node2"));
+        }
+        assertThat(first.get("node1"), equalTo(0L));
+        assertThat(first.get("node2"), equalTo(0L));
+        assertThat(second.get("node1"), equalTo(1L));
+        assertThat(third.get("node1"), equalTo(2L));
+        // numbers are per node, node2 didn't get the second operation
+        assertThat(third.get("node2"), equalTo(1L));
+
+        assertThat(pipeline.minUnresolved("node1"), equalTo(0L));
+        // the second operation couldn't be sent, the first one is still in flight
+        pipeline.resolve("node1", 1);
+        assertThat(pipeline.minUnresolved("node1"), equalTo(0L));
+        pipeline.resolve("node1", 0);
+        assertThat(pipeline.minUnresolved("node1"), equalTo(2L));
+        pipeline.resolve("node1", 2);
+        assertThat(pipeline.minUnresolved("node1"), equalTo(3L));
+        assertThat(pipeline.minUnresolved("node2"), equalTo(0L));
+        assertThat(pipeline.minUnresolved("node3"), equalTo(0L));
+    }
+
+    @Test
+    public void testKnownGapIsSkippedRightAway() throws Exception {
+        ThreadPool threadPool = new ThreadPool("test");
+        try {
+            ReplicaOperationSequencer sequencer = new ReplicaOperationSequencer(threadPool, TimeValue.timeValueMinutes(1));
+            final List<Long> applied = new CopyOnWriteArrayList<>();
+            // operation 1 could not be sent, operation 2 tells so while 0 is still on its way
+            for (final long[] op : new long[][] { { 2, 0 }, { 0, 0 }, { 3, 2 } }) {
+                sequencer.submit(op[0], op[1], new Runnable() {
+                    @Override
+                    public void run() {
+                        applied.add(op[0]);
+                    }
+                });
+            }
+            assertThat(applied, equalTo(Arrays.asList(0L, 2L, 3L)));
+            assertThat(sequencer.pending(), equalTo(0));
+            assertThat(sequencer.nextSeqNo(), equalTo(4L));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+
+    @Test
+    public void testPrimaryPipelineOnlyLocksSameDocuments() throws Exception {
+        // a single lock per shard would make the operations on "1" and "2" wait for each other
+        final PrimaryReplicationPipeline pipeline = new PrimaryReplicationPipeline(randomLong(), 1, 64);
+        assertThat(MathUtils.mod(DjbHashFunction.DJB_HASH("1"), 64), not(equalTo(MathUtils.mod(DjbHashFunction.DJB_HASH("2"), 64))));
+        final CountDownLatch otherDocumentLocked = new CountDownLatch(1);
+        final CountDownLatch sameDocumentLocked = new CountDownLatch(1);
+        final CountDownLatch shardLocked = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        try (Releasable lock = pipeline.lock(Arrays.asList("1"))) {
+            threads.add(lockInThread(pipeline, Arrays.asList("2", "3"), otherDocumentLocked));
+            assertTrue(otherDocumentLocked.await(10, TimeUnit.SECONDS));
+            threads.add(lockInThread(pipeline, Arrays.asList("3", "1"), sameDocumentLocked));
+            threads.add(lockInThread(pipeline, null, shardLocked));
+            assertFalse(sameDocumentLocked.await(100, TimeUnit.MILLISECONDS));
+            assertFalse(shardLocked.await(10, TimeUnit.MILLISECONDS));
+        }
+        assertTrue(sameDocumentLocked.await(10, TimeUnit.SECONDS));
+        assertTrue(shardLocked.await(10, TimeUnit.SECONDS));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private Thread lockInThread(final PrimaryReplicationPipeline pipeline, final List<String> documents, final CountDownLatch locked) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try (Releasable lock = pipeline.lock(documents)) {
+                    locked.countDown();
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testPipelinedIsAsyncForOlderNodes() {
+        assertThat(ReplicationType.PIPELINED.id(Version.V_1_4_0), equalTo(ReplicationType.ASYNC.id()));
+        assertThat(ReplicationType.PIPELINED.id(Version.V_2_0_0), equalTo(ReplicationType.PIPELINED.id()));
+        assertThat(ReplicationType.fromId(ReplicationType.PIPELINED.id()), equalTo(ReplicationType.PIPELINED));
+        assertThat(ReplicationType.fromString("pipelined"), equalTo(ReplicationType.PIPELINED));
+    }
+}
@@ -21,6 +21,7 @@ package org.elasticsearch.benchmark.common.recycler;
 
 import com.google.common.collect.ImmutableMap;
 import org.elasticsearch.common.recycler.AbstractRecyclerC;
+import org.elasticsearch.common.recycler.MagazineRecycler;
 import org.elasticsearch.common.recycler.Recycler;
 
 import java.util.Map;
@@ -35,6 +36,7 @@ import static org.elasticsearch.common.recycler.Recyclers.*;
 public class RecyclerBenchmark {
 
     private static final long NUM_RECYCLES = 5000000L;
+    private static final int PAGES_PER_ITERATION = 4;
     private static final Random RANDOM = new Random(0);
 
     private static long bench(final Recycler<?> recycler, long numRecycles, int numThreads) throws InterruptedException {
@@ -56,9 +58,15 @@ public class RecyclerBenchmark {
                     } catch (InterruptedException e) {
                         return;
                     }
-                    while (recycles.getAndDecrement() > 0) {
-                        final Recycler.V<?> v = recycler.obtain();
-                        v.close();
+                    // like big arrays, obtain a few pages before releasing them
+                    final Recycler.V<?>[] vs = new Recycler.V<?>[PAGES_PER_ITERATION];
+                    while (recycles.getAndAdd(-PAGES_PER_ITERATION) > 0) {
+                        for (int i = 0; i < vs.length; ++i) {
+                            vs[i] = recycler.obtain();
+                        }
+                        for (Recycler.V<?> v : vs) {
+                            v.close();
+                        }
                     }
                 }
             };
@@ -94,7 +102,8 @@ public class RecyclerBenchmark {
                 .put("concurrent-queue", concurrentDeque(c, limit))
                 .put("locked", locked(deque(c, limit)))
                 .put("concurrent", concurrent(dequeFactory(c, limit), Runtime.getRuntime().availableProcessors()))
-                .put("soft-concurrent", concurrent(softFactory(dequeFactory(c, limit)), Runtime.getRuntime().availableProcessors())).build();
+                .put("soft-concurrent", concurrent(softFactory(dequeFactory(c, limit)), Runtime.getRuntime().availableProcessors()))
+                .put("magazine", magazine(c, limit, 16, Runtime.getRuntime().availableProcessors())).build();
 
         // warmup
         final long start = System.nanoTime();
@@ -118,6 +127,7 @@ public class RecyclerBenchmark {
                 }
                 System.out.println();
             }
+            System.out.println("magazine contention: " + ((MagazineRecycler<?>) recyclers.get("magazine")).contended() + "\n");
         }
     }
 
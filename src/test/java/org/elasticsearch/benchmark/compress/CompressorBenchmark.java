@@ -0,0 +1,150 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.compress;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the compression ratio and the throughput of the compressors on json documents, both on whole
+ * documents, as for <code>_source</code>, and on a stream, as for transport messages and recoveries.
+ */
+public class CompressorBenchmark {
+
+    static final int NUM_DOCS = 10000;
+    static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws Exception {
+        byte[][] docs = new byte[NUM_DOCS][];
+        long totalSize = 0;
+        Random random = new Random(0);
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = doc(random, i);
+            totalSize += docs[i].length;
+        }
+        Compressor[] compressors = new Compressor[] {
+                CompressorFactory.compressor(LZFCompressor.TYPE),
+                CompressorFactory.compressor(LZ4Compressor.TYPE)
+        };
+
+        System.out.println("Warming up");
+        for (Compressor compressor : compressors) {
+            run(compressor, docs, totalSize, 5, false);
+        }
+        System.out.println("Running " + NUM_DOCS + " docs of total size " + new ByteSizeValue(totalSize));
+        for (Compressor compressor : compressors) {
+            run(compressor, docs, totalSize, ITERATIONS, true);
+        }
+    }
+
+    private static void run(Compressor compressor, byte[][] docs, long totalSize, int iterations, boolean print) throws Exception {
+        byte[][] compressed = new byte[docs.length][];
+        long compressedSize = 0;
+        StopWatch stopWatch = new StopWatch().start();
+        for (int iter = 0; iter < iterations; iter++) {
+            compressedSize = 0;
+            for (int i = 0; i < docs.length; i++) {
+                compressed[i] = compressor.compress(docs[i], 0, docs[i].length);
+                compressedSize += compressed[i].length;
+            }
+        }
+        long compressNanos = stopWatch.stop().lastTaskTime().nanos();
+
+        stopWatch = new StopWatch().start();
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int i = 0; i < docs.length; i++) {
+                compressor.uncompress(compressed[i], 0, compressed[i].length);
+            }
+        }
+        long uncompressNanos = stopWatch.stop().lastTaskTime().nanos();
+
+        // all docs in one stream
+        BytesStreamOutput bStream = new BytesStreamOutput();
+        stopWatch = new StopWatch().start();
+        for (int iter = 0; iter < iterations; iter++) {
+            bStream.reset();
+            StreamOutput out = compressor.streamOutput(bStream);
+            for (byte[] doc : docs) {
+                out.writeBytes(doc);
+            }
+            out.close();
+        }
+        long streamCompressNanos = stopWatch.stop().lastTaskTime().nanos();
+        BytesReference streamed = bStream.bytes();
+
+        byte[] buffer = new byte[8192];
+        stopWatch = new StopWatch().start();
+        for (int iter = 0; iter < iterations; iter++) {
+            StreamInput in = compressor.streamInput(streamed.streamInput());
+            while (in.read(buffer, 0, buffer.length) != -1) {
+            }
+            in.close();
+        }
+        long streamUncompressNanos = stopWatch.stop().lastTaskTime().nanos();
+
+        if (print) {
+            System.out.println("--> " + compressor.type());
+            System.out.println("    docs:   ratio " + ratio(compressedSize, totalSize) + ", compress " + throughput(totalSize, iterations, compressNanos)
+                    + ", uncompress " + throughput(totalSize, iterations, uncompressNanos));
+            System.out.println("    stream: ratio " + ratio(streamed.length(), totalSize) + ", compress " + throughput(totalSize, iterations, streamCompressNanos)
+                    + ", uncompress " + throughput(totalSize, iterations, streamUncompressNanos));
+        }
+    }
+
+    private static String ratio(long compressedSize, long totalSize) {
+        return String.format(Locale.ROOT, "%.3f", (double) compressedSize / totalSize);
+    }
+
+    private static String throughput(long size, int iterations, long nanos) {
+        return new ByteSizeValue((long) ((double) size * iterations / nanos * 1000000000)) + "/s";
+    }
+
+    private static byte[] doc(Random random, int id) throws Exception {
+        XContentBuilder builder = XContentFactory.jsonBuilder().startObject()
+                .field("id", id)
+                .field("user", "user" + random.nextInt(1000))
+                .field("timestamp", 1400000000000L + random.nextInt(1000000))
+                .field("level", random.nextBoolean() ? "INFO" : "WARN")
+                .field("value", random.nextDouble());
+        StringBuilder message = new StringBuilder();
+        final int numWords = 10 + random.nextInt(100);
+        for (int i = 0; i < numWords; i++) {
+            message.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        builder.field("message", message.toString());
+        return builder.endObject().bytes().toBytes();
+    }
+
+    private static final String[] WORDS = {"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "elasticsearch",
+            "search", "index", "shard", "node", "cluster", "request", "failed", "started", "recovery", "merge", "refresh"};
+}
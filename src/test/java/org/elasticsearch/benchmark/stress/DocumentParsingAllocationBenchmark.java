@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.benchmark.stress;
+
+import org.elasticsearch.common.StopWatch;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.SourceToParse;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.Node;
+import org.elasticsearch.node.internal.InternalNode;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_REPLICAS;
+import static org.elasticsearch.cluster.metadata.IndexMetaData.SETTING_NUMBER_OF_SHARDS;
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.node.NodeBuilder.nodeBuilder;
+
+/**
+ * Measures the bytes allocated and the time spent per parsed document, the way {@link SingleThreadIndexingStress}
+ * indexes them, with and without reusing fields across documents.
+ */
+public class DocumentParsingAllocationBenchmark {
+
+    private static final int WARMUP = 100000;
+    private static final int COUNT = 500000;
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = settingsBuilder()
+                .put(SETTING_NUMBER_OF_SHARDS, 1)
+                .put(SETTING_NUMBER_OF_REPLICAS, 0)
+                .put("gateway.type", "none")
+                .build();
+
+        Node node = nodeBuilder().settings(settingsBuilder().put(settings).put("name", "node")).local(true).node();
+
+        node.client().admin().indices().prepareCreate("test").get();
+        node.client().admin().indices().prepareCreate("test_reuse").setSettings(settingsBuilder().put(DocumentMapper.REUSE_FIELDS, true)).get();
+        for (String index : new String[] {"test", "test_reuse"}) {
+            node.client().prepareIndex(index, "type1", "0").setSource(source(0)).setRefresh(true).get();
+        }
+
+        IndicesService indicesService = ((InternalNode) node).injector().getInstance(IndicesService.class);
+        for (String index : new String[] {"test", "test_reuse"}) {
+            DocumentMapper mapper = indicesService.indexServiceSafe(index).mapperService().documentMapper("type1");
+            parse(mapper, WARMUP);
+            long allocatedBefore = allocatedBytes();
+            StopWatch stopWatch = new StopWatch().start();
+            parse(mapper, COUNT);
+            stopWatch.stop();
+            long allocated = allocatedBytes() - allocatedBefore;
+            System.out.println("[" + index + "] parsed [" + COUNT + "] docs in " + stopWatch.totalTime() + ", TPS "
+                    + (((double) COUNT) / stopWatch.totalTime().secondsFrac())
+                    + (allocated < 0 ? "" : ", allocated " + new ByteSizeValue(allocated) + " (" + (allocated / COUNT) + " bytes per doc)"));
+        }
+
+        node.close();
+    }
+
+    private static void parse(DocumentMapper mapper, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            mapper.parse(SourceToParse.source(source(i)).type("type1").id(Integer.toString(i)));
+        }
+    }
+
+    private static BytesReference source(int i) throws IOException {
+        long time = System.currentTimeMillis();
+        return jsonBuilder().startObject()
+                .field("id", Integer.toString(i))
+                .field("name", "test" + i)
+                .field("numeric1", time)
+                .field("numeric2", i)
+                .field("numeric3", (double) time / i)
+                .array("tags", "a", "b", "c")
+                .endObject().bytes();
+    }
+
+    // the allocated bytes of the current thread, or -1 if the JVM can't tell
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        try {
+            Method method = threadMXBean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+            method.setAccessible(true);
+            return (Long) method.invoke(threadMXBean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.cache.recycler;
+
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.recycler.Recycler;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DirectByteBuffers;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class PageCacheRecyclerTests extends ElasticsearchTestCase {
+
+    /**
+     * @return the pool that accounts for the direct byte buffers of the JVM
+     */
+    public static BufferPoolMXBean directBufferPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool;
+            }
+        }
+        throw new AssertionError("no direct buffer pool");
+    }
+
+    @Test
+    public void testDirectPagesOverTheLimitAreFreed() throws Exception {
+        assumeTrue("direct buffers can't be freed explicitly on this JVM", DirectByteBuffers.freeSupported());
+        final int limitInPages = randomIntBetween(0, 4);
+        final PageCacheRecycler.Type type = randomFrom(PageCacheRecycler.Type.values());
+        final Settings settings = ImmutableSettings.builder()
+                .put("cache.recycler." + PageCacheRecycler.TYPE, type.name().toLowerCase(Locale.ROOT))
+                .put("cache.recycler." + PageCacheRecycler.LIMIT_OFF_HEAP, (limitInPages * BigArrays.PAGE_SIZE_IN_BYTES) + "b")
+                .build();
+        final ThreadPool threadPool = new ThreadPool(getClass().getName());
+        try {
+            final PageCacheRecycler recycler = new PageCacheRecycler(settings, threadPool);
+            final BufferPoolMXBean directPool = directBufferPool();
+            final long countBefore = directPool.getCount();
+
+            final int numPages = limitInPages + randomIntBetween(1, 10);
+            final List<Recycler.V<ByteBuffer>> pages = new ArrayList<>(numPages);
+            for (int i = 0; i < numPages; i++) {
+                pages.add(recycler.directPage(randomBoolean()));
+            }
+            assertThat(directPool.getCount(), equalTo(countBefore + numPages));
+
+            // the pages that the recycler doesn't keep, at least those over the limit, are freed right away
+            Releasables.close(pages);
+            assertThat(directPool.getCount(), lessThanOrEqualTo(countBefore + limitInPages));
+
+            // and the pages that it kept are freed when it is closed
+            recycler.close();
+            assertThat(directPool.getCount(), equalTo(countBefore));
+        } finally {
+            terminate(threadPool);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
 import org.elasticsearch.action.admin.cluster.tasks.PendingClusterTasksResponse;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.service.PendingClusterTask;
 import org.elasticsearch.common.Nullable;
@@ -44,6 +45,8 @@ import java.util.*;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
 import static org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
@@ -715,6 +718,161 @@ public class ClusterServiceTests extends ElasticsearchIntegrationTest {
         }
     }
 
+    @Test
+    public void testBatchedTasks() throws Exception {
+        Settings settings = settingsBuilder()
+                .put("discovery.type", "local")
+                .build();
+        internalCluster().startNode(settings);
+        ClusterService clusterService = internalCluster().getInstance(ClusterService.class);
+        BlockingTask block = new BlockingTask();
+        clusterService.submitStateUpdateTask("test", Priority.IMMEDIATE, block);
+
+        final AtomicInteger batches = new AtomicInteger();
+        final ClusterStateBatchExecutor<BatchedTask> executor = new ClusterStateBatchExecutor<BatchedTask>() {
+            @Override
+            public ClusterState execute(ClusterState currentState, List<BatchedTask> tasks, Map<BatchedTask, Throwable> failures) throws Exception {
+                batches.incrementAndGet();
+                return super.execute(currentState, tasks, failures);
+            }
+        };
+        int taskCount = randomIntBetween(2, 20);
+        int failingTask = randomIntBetween(0, taskCount - 1);
+        CountDownLatch latch = new CountDownLatch(taskCount);
+        List<BatchedTask> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            BatchedTask task = new BatchedTask(executor, "key" + i, i == failingTask, latch);
+            tasks.add(task);
+            clusterService.submitStateUpdateTask("test" + i, task);
+        }
+
+        block.release();
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+
+        assertThat(batches.get(), equalTo(1));
+        ClusterState state = clusterService.state();
+        long version = -1;
+        for (int i = 0; i < taskCount; i++) {
+            BatchedTask task = tasks.get(i);
+            if (i == failingTask) {
+                assertThat(task.failure.get(), notNullValue());
+                assertThat(state.metaData().transientSettings().get("key" + i), nullValue());
+            } else {
+                assertThat(task.failure.get(), nullValue());
+                assertThat(state.metaData().transientSettings().get("key" + i), equalTo("value"));
+                // all tasks were published with the same cluster state
+                if (version == -1) {
+                    version = task.processedVersion;
+                } else {
+                    assertThat(task.processedVersion, equalTo(version));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCoalescedUpdatesInPendingTasks() throws Exception {
+        Settings settings = settingsBuilder()
+                .put("discovery.type", "local")
+                .build();
+        internalCluster().startNode(settings);
+        ClusterService clusterService = internalCluster().getInstance(ClusterService.class);
+        BlockingTask block = new BlockingTask();
+        clusterService.submitStateUpdateTask("test", Priority.IMMEDIATE, block);
+
+        final AtomicInteger updates = new AtomicInteger(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        clusterService.submitStateUpdateTask("coalesced", new CoalescedTask(updates, latch));
+        updates.set(3);
+
+        boolean found = false;
+        for (PendingClusterTask task : clusterService.pendingTasks()) {
+            if (task.getSource().string().startsWith("coalesced")) {
+                assertThat(task.getSource().string(), equalTo("coalesced (3 coalesced updates)"));
+                found = true;
+            }
+        }
+        assertThat(found, equalTo(true));
+
+        block.release();
+        assertThat(latch.await(10, TimeUnit.SECONDS), equalTo(true));
+    }
+
+    private static class CoalescedTask extends ProcessedClusterStateUpdateTask implements CoalescingClusterStateUpdateTask {
+
+        private final AtomicInteger updates;
+        private final CountDownLatch latch;
+
+        private CoalescedTask(AtomicInteger updates, CountDownLatch latch) {
+            this.updates = updates;
+            this.latch = latch;
+        }
+
+        @Override
+        public int coalescedUpdates() {
+            return updates.get();
+        }
+
+        @Override
+        public ClusterState execute(ClusterState currentState) throws Exception {
+            return currentState;
+        }
+
+        @Override
+        public void onFailure(String source, Throwable t) {
+            fail();
+        }
+
+        @Override
+        public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+            latch.countDown();
+        }
+    }
+
+    private static class BatchedTask extends ProcessedClusterStateUpdateTask implements BatchedClusterStateUpdateTask {
+
+        private final ClusterStateBatchExecutor<BatchedTask> executor;
+        private final String key;
+        private final boolean fail;
+        private final CountDownLatch latch;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private volatile long processedVersion = -1;
+
+        private BatchedTask(ClusterStateBatchExecutor<BatchedTask> executor, String key, boolean fail, CountDownLatch latch) {
+            this.executor = executor;
+            this.key = key;
+            this.fail = fail;
+            this.latch = latch;
+        }
+
+        @Override
+        public ClusterStateBatchExecutor batchExecutor() {
+            return executor;
+        }
+
+        @Override
+        public ClusterState execute(ClusterState currentState) throws Exception {
+            if (fail) {
+                throw new ElasticsearchException("failing [" + key + "]");
+            }
+            MetaData.Builder metaData = MetaData.builder(currentState.metaData())
+                    .transientSettings(settingsBuilder().put(currentState.metaData().transientSettings()).put(key, "value").build());
+            return ClusterState.builder(currentState).metaData(metaData).build();
+        }
+
+        @Override
+        public void clusterStateProcessed(String source, ClusterState oldState, ClusterState newState) {
+            processedVersion = newState.version();
+            latch.countDown();
+        }
+
+        @Override
+        public void onFailure(String source, Throwable t) {
+            failure.set(t);
+            latch.countDown();
+        }
+    }
+
     private static class BlockingTask extends ClusterStateUpdateTask {
         private final CountDownLatch latch = new CountDownLatch(1);
 
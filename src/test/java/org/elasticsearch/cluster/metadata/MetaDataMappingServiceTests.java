@@ -0,0 +1,150 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.cluster.metadata;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateUpdateTask;
+import org.elasticsearch.cluster.ack.ClusterStateUpdateResponse;
+import org.elasticsearch.cluster.service.PendingClusterTask;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.compress.CompressedString;
+import org.elasticsearch.test.ElasticsearchSingleNodeTest;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.*;
+
+public class MetaDataMappingServiceTests extends ElasticsearchSingleNodeTest {
+
+    @Test
+    public void testConcurrentUpdatesAreCoalescedPerType() throws Exception {
+        createIndex("test");
+        final String indexUUID = getInstanceFromNode(ClusterService.class).state().metaData().index("test").getUUID();
+        final MetaDataMappingService mappingService = getInstanceFromNode(MetaDataMappingService.class);
+        ClusterService clusterService = getInstanceFromNode(ClusterService.class);
+
+        // hold the cluster state update thread so that all the updates are pending at the same time
+        final CountDownLatch blockLatch = new CountDownLatch(1);
+        final AtomicLong versionBefore = new AtomicLong();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        clusterService.submitStateUpdateTask("block", Priority.IMMEDIATE, new ClusterStateUpdateTask() {
+            @Override
+            public ClusterState execute(ClusterState currentState) throws Exception {
+                versionBefore.set(currentState.version());
+                blocked.countDown();
+                blockLatch.await();
+                return currentState;
+            }
+
+            @Override
+            public void onFailure(String source, Throwable t) {
+                fail();
+            }
+        });
+        assertThat(blocked.await(10, TimeUnit.SECONDS), equalTo(true));
+
+        final String[] types = new String[]{"type1", "type2"};
+        final int updatesPerType = between(2, 10);
+        final CountDownLatch notified = new CountDownLatch(types.length * updatesPerType);
+        final CopyOnWriteArrayList<Long> notifiedVersions = new CopyOnWriteArrayList<>();
+        final CopyOnWriteArrayList<Throwable> failures = new CopyOnWriteArrayList<>();
+        final ActionListener<ClusterStateUpdateResponse> listener = new ActionListener<ClusterStateUpdateResponse>() {
+            @Override
+            public void onResponse(ClusterStateUpdateResponse response) {
+                // called on the cluster state update thread, right after the state of the batch got applied
+                notifiedVersions.add(getInstanceFromNode(ClusterService.class).state().version());
+                notified.countDown();
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+                failures.add(e);
+                notified.countDown();
+            }
+        };
+
+        final CyclicBarrier barrier = new CyclicBarrier(types.length * updatesPerType);
+        Thread[] threads = new Thread[types.length * updatesPerType];
+        for (int i = 0; i < threads.length; i++) {
+            final String type = types[i % types.length];
+            final String field = "field_" + i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        barrier.await();
+                        CompressedString source = new CompressedString("{\"" + type + "\":{\"properties\":{\"" + field + "\":{\"type\":\"long\"}}}}");
+                        mappingService.updateMapping("test", indexUUID, type, source, -1, null, listener);
+                    } catch (Throwable t) {
+                        failures.add(t);
+                        notified.countDown();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // a single pending update task per index and type, standing for all the updates of that type
+        Map<String, String> pendingUpdates = new HashMap<>();
+        for (PendingClusterTask task : clusterService.pendingTasks()) {
+            String source = task.getSource().string();
+            for (String type : types) {
+                if (source.startsWith("update-mapping [test][" + type + "]")) {
+                    assertThat("more than one pending task for [" + type + "]", pendingUpdates.put(type, source), nullValue());
+                }
+            }
+        }
+        assertThat(pendingUpdates.size(), equalTo(types.length));
+        for (String source : pendingUpdates.values()) {
+            assertThat(source, endsWith("(" + updatesPerType + " coalesced updates)"));
+        }
+
+        blockLatch.countDown();
+        assertThat(notified.await(10, TimeUnit.SECONDS), equalTo(true));
+        assertThat(failures, empty());
+
+        // every listener got notified with the same, single cluster state that holds all the updates
+        assertThat(notifiedVersions.size(), equalTo(types.length * updatesPerType));
+        for (Long version : notifiedVersions) {
+            assertThat(version, equalTo(versionBefore.get() + 1));
+        }
+        IndexMetaData indexMetaData = clusterService.state().metaData().index("test");
+        for (int i = 0; i < threads.length; i++) {
+            String type = types[i % types.length];
+            MappingMetaData mapping = indexMetaData.mapping(type);
+            assertThat(mapping, notNullValue());
+            Map<String, Object> properties = (Map<String, Object>) mapping.sourceAsMap().get("properties");
+            assertThat("field_" + i + " is missing in [" + type + "]", properties, hasKey("field_" + i));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.compress.lz4;
+
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.CompressedIndexInput;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ */
+public class LZ4CompressorTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testCompressUncompress() throws IOException {
+        Compressor compressor = CompressorFactory.compressor(LZ4Compressor.TYPE);
+        for (int i = 0; i < 10; i++) {
+            byte[] data = randomData();
+            byte[] compressed = compressor.compress(data, 0, data.length);
+            assertTrue(compressor.isCompressed(compressed, 0, compressed.length));
+            assertTrue(compressor.isCompressed(new BytesArray(compressed)));
+            assertThat(compressor.uncompress(compressed, 0, compressed.length), equalTo(data));
+        }
+    }
+
+    @Test
+    public void testDetection() throws IOException {
+        byte[] data = randomData();
+        Compressor lz4 = CompressorFactory.compressor(LZ4Compressor.TYPE);
+        Compressor lzf = CompressorFactory.compressor(LZFCompressor.TYPE);
+
+        byte[] lz4Compressed = lz4.compress(data, 0, data.length);
+        byte[] lzfCompressed = lzf.compress(data, 0, data.length);
+        assertThat(CompressorFactory.compressor(lz4Compressed), sameInstance(lz4));
+        assertThat(CompressorFactory.compressor(lzfCompressed), sameInstance(lzf));
+        assertThat(CompressorFactory.compressor(data), nullValue());
+
+        // data compressed with any compressor can be read, whatever the compressor in use
+        for (byte[] compressed : new byte[][] {lz4Compressed, lzfCompressed}) {
+            BytesReference uncompressed = CompressorFactory.uncompressIfNeeded(new BytesArray(compressed));
+            assertThat(uncompressed.toBytes(), equalTo(data));
+        }
+    }
+
+    @Test
+    public void testUseSites() throws IOException {
+        try {
+            CompressorFactory.configure(ImmutableSettings.settingsBuilder()
+                    .put("compress.default.type", "lzf")
+                    .put("compress.transport.type", "lz4")
+                    .build());
+            assertThat(CompressorFactory.defaultCompressor(), instanceOf(LZFCompressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT), instanceOf(LZ4Compressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.RECOVERY), instanceOf(LZFCompressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.SOURCE), instanceOf(LZFCompressor.class));
+            // nodes before 2.0 can only read lzf
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT, Version.CURRENT), instanceOf(LZ4Compressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT, Version.V_2_0_0), instanceOf(LZ4Compressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT, Version.V_1_4_0), instanceOf(LZFCompressor.class));
+            assertThat(CompressorFactory.defaultCompressor(CompressorFactory.RECOVERY, Version.CURRENT), instanceOf(LZFCompressor.class));
+        } finally {
+            CompressorFactory.configure(ImmutableSettings.EMPTY);
+        }
+        assertThat(CompressorFactory.defaultCompressor(CompressorFactory.TRANSPORT), instanceOf(LZFCompressor.class));
+    }
+
+    @Test
+    public void testIndexInput() throws IOException {
+        byte[] data = randomData();
+        // chunks of the legacy compressed file format, followed by the offset of each chunk
+        BytesStreamOutput chunks = new BytesStreamOutput();
+        LZ4CompressedStreamOutput out = new LZ4CompressedStreamOutput(chunks);
+        out.writeBytes(data);
+        out.close();
+        byte[] streamed = chunks.bytes().toBytes();
+        final int headerLength = LZ4Compressor.HEADER.length + 4 + 8;
+        long[] offsets = new long[(data.length + LZ4Compressor.CHUNK_SIZE - 1) / LZ4Compressor.CHUNK_SIZE];
+        BytesArray streamedChunks = new BytesArray(streamed, LZ4Compressor.HEADER.length, streamed.length - LZ4Compressor.HEADER.length);
+        BytesStreamInput chunksIn = new BytesStreamInput(streamed, false);
+        chunksIn.skip(LZ4Compressor.HEADER.length);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = headerLength + chunksIn.position() - LZ4Compressor.HEADER.length;
+            chunksIn.readVInt();
+            chunksIn.skip(chunksIn.readVInt());
+        }
+
+        RAMDirectory dir = new RAMDirectory();
+        IndexOutput output = dir.createOutput("test", IOContext.DEFAULT);
+        output.writeBytes(LZ4Compressor.HEADER, LZ4Compressor.HEADER.length);
+        output.writeInt(0);
+        output.writeLong(headerLength + streamedChunks.length());
+        output.writeBytes(streamedChunks.array(), streamedChunks.arrayOffset(), streamedChunks.length());
+        output.writeVLong(data.length);
+        output.writeVInt(offsets.length);
+        for (long offset : offsets) {
+            output.writeVLong(offset);
+        }
+        output.close();
+
+        IndexInput input = dir.openInput("test", IOContext.DEFAULT);
+        Compressor compressor = CompressorFactory.compressor(input);
+        assertThat(compressor, instanceOf(LZ4Compressor.class));
+        CompressedIndexInput compressedInput = compressor.indexInput(input);
+        assertThat(compressedInput.length(), equalTo((long) data.length));
+        byte[] read = new byte[data.length];
+        compressedInput.readBytes(read, 0, read.length);
+        assertThat(read, equalTo(data));
+        if (data.length > 0) {
+            int pos = randomInt(data.length - 1);
+            compressedInput.seek(pos);
+            assertThat(compressedInput.readByte(), equalTo(data[pos]));
+        }
+        compressedInput.close();
+        dir.close();
+    }
+
+    private byte[] randomData() {
+        if (randomBoolean()) {
+            byte[] data = new byte[randomIntBetween(0, 300000)];
+            getRandom().nextBytes(data);
+            return data;
+        }
+        StringBuilder builder = new StringBuilder();
+        final int numWords = randomIntBetween(0, 50000);
+        for (int i = 0; i < numWords; i++) {
+            builder.append(randomFrom("quick", "brown", "fox", "jumps", "over", "the", "lazy", "dog")).append(' ');
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
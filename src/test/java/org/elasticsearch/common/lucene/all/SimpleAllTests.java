@@ -23,7 +23,9 @@ import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
 import org.apache.lucene.analysis.payloads.PayloadHelper;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
 import org.apache.lucene.analysis.tokenattributes.PayloadAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.StoredField;
@@ -40,6 +42,7 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 /**
  *
@@ -339,4 +342,62 @@ public class SimpleAllTests extends ElasticsearchTestCase {
         assertThat(docs.totalHits, equalTo(1));
         assertThat(docs.scoreDocs[0].doc, equalTo(0));
     }
+
+    @Test
+    public void testCapturedTokens() throws Exception {
+        final String[] values = new String[] {"the quick brown fox", "jumps over the", "lazy dog", "an"};
+        final float[] boosts = new float[] {1.0f, 2.0f, 1.0f, 0.5f};
+        final boolean boost = randomBoolean();
+        AllEntries expectedEntries = new AllEntries();
+        AllEntries capturedEntries = new AllEntries();
+        capturedEntries.captureTokens(true);
+        for (int i = 0; i < values.length; i++) {
+            expectedEntries.addText("field" + i, values[i], boost ? boosts[i] : 1.0f);
+            AllEntries.Entry entry = capturedEntries.addText("field" + i, values[i], boost ? boosts[i] : 1.0f);
+            if (randomBoolean()) {
+                // index the field, the other entries get analyzed by the all field
+                AllEntryField field = new AllEntryField("field" + i, values[i], TextField.TYPE_NOT_STORED);
+                field.allEntry(capturedEntries, entry);
+                try (TokenStream ts = field.tokenStream(Lucene.STANDARD_ANALYZER, null)) {
+                    ts.reset();
+                    while (ts.incrementToken()) {
+                    }
+                    ts.end();
+                }
+            }
+        }
+
+        // get the captured tokens first, as the analysis of the expected tokens reuses the same token stream
+        final TokenStream captured = new AllField("_all", capturedEntries, Lucene.STANDARD_ANALYZER, TextField.TYPE_NOT_STORED).tokenStream(Lucene.STANDARD_ANALYZER, null);
+        assertThat(captured, instanceOf(CapturedAllTokenStream.class));
+        final TokenStream expected = new AllField("_all", expectedEntries, Lucene.STANDARD_ANALYZER, TextField.TYPE_NOT_STORED).tokenStream(Lucene.STANDARD_ANALYZER, null);
+        assertSameTokens(expected, captured);
+    }
+
+    private static void assertSameTokens(TokenStream expected, TokenStream actual) throws IOException {
+        final CharTermAttribute expectedTerm = expected.addAttribute(CharTermAttribute.class);
+        final PositionIncrementAttribute expectedPosInc = expected.addAttribute(PositionIncrementAttribute.class);
+        final OffsetAttribute expectedOffset = expected.addAttribute(OffsetAttribute.class);
+        final PayloadAttribute expectedPayload = expected.addAttribute(PayloadAttribute.class);
+        final CharTermAttribute actualTerm = actual.addAttribute(CharTermAttribute.class);
+        final PositionIncrementAttribute actualPosInc = actual.addAttribute(PositionIncrementAttribute.class);
+        final OffsetAttribute actualOffset = actual.addAttribute(OffsetAttribute.class);
+        final PayloadAttribute actualPayload = actual.addAttribute(PayloadAttribute.class);
+        expected.reset();
+        actual.reset();
+        while (expected.incrementToken()) {
+            assertTrue(actual.incrementToken());
+            assertThat(actualTerm.toString(), equalTo(expectedTerm.toString()));
+            assertThat(actualPosInc.getPositionIncrement(), equalTo(expectedPosInc.getPositionIncrement()));
+            assertThat(actualOffset.startOffset(), equalTo(expectedOffset.startOffset()));
+            assertThat(actualOffset.endOffset(), equalTo(expectedOffset.endOffset()));
+            assertThat(actualPayload.getPayload(), equalTo(expectedPayload.getPayload()));
+        }
+        assertFalse(actual.incrementToken());
+        expected.end();
+        actual.end();
+        assertThat(actualPosInc.getPositionIncrement(), equalTo(expectedPosInc.getPositionIncrement()));
+        expected.close();
+        actual.close();
+    }
 }
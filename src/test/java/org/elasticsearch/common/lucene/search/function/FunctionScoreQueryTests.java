@@ -0,0 +1,133 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.lucene.search.function;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ */
+public class FunctionScoreQueryTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testBatchScoring() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(new KeywordAnalyzer()));
+        final int numDocs = scaledRandomIntBetween(100, 2000);
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("all", "xxx", Field.Store.NO));
+            if (randomInt(9) == 0) {
+                doc.add(new StringField("sparse", "yyy", Field.Store.NO));
+            }
+            w.addDocument(doc);
+            if (rarely()) {
+                w.commit();
+            }
+        }
+        IndexReader reader = DirectoryReader.open(w, true);
+        w.close();
+        IndexSearcher searcher = new IndexSearcher(reader);
+
+        Query all = new TermQuery(new Term("all", "xxx"));
+        assertSameHits(searcher, new FunctionScoreQuery(all, new DocIdScoreFunction(false)),
+                new FunctionScoreQuery(all, new DocIdScoreFunction(true)));
+
+        final float minScore = randomInt(numDocs);
+        assertSameHits(searcher, new FunctionScoreQuery(all, new DocIdScoreFunction(false), minScore),
+                new FunctionScoreQuery(all, new DocIdScoreFunction(true), minScore));
+
+        // leap-frogging with a sparse clause advances the batched scorer
+        assertSameHits(searcher, conjunction(new FunctionScoreQuery(all, new DocIdScoreFunction(false))),
+                conjunction(new FunctionScoreQuery(all, new DocIdScoreFunction(true))));
+
+        reader.close();
+        dir.close();
+    }
+
+    private static Query conjunction(Query query) {
+        BooleanQuery bq = new BooleanQuery();
+        bq.add(query, BooleanClause.Occur.MUST);
+        bq.add(new TermQuery(new Term("sparse", "yyy")), BooleanClause.Occur.MUST);
+        return bq;
+    }
+
+    private static void assertSameHits(IndexSearcher searcher, Query expected, Query actual) throws Exception {
+        TopDocs expectedDocs = searcher.search(expected, searcher.getIndexReader().maxDoc());
+        TopDocs actualDocs = searcher.search(actual, searcher.getIndexReader().maxDoc());
+        assertThat(actualDocs.totalHits, equalTo(expectedDocs.totalHits));
+        for (int i = 0; i < expectedDocs.scoreDocs.length; i++) {
+            assertThat(actualDocs.scoreDocs[i].doc, equalTo(expectedDocs.scoreDocs[i].doc));
+            assertThat(actualDocs.scoreDocs[i].score, equalTo(expectedDocs.scoreDocs[i].score));
+        }
+    }
+
+    private static class DocIdScoreFunction extends ScoreFunction {
+
+        private final boolean batch;
+        private int docBase;
+
+        DocIdScoreFunction(boolean batch) {
+            super(CombineFunction.REPLACE);
+            this.batch = batch;
+        }
+
+        @Override
+        public void setNextReader(LeafReaderContext context) {
+            docBase = context.docBase;
+        }
+
+        @Override
+        public double score(int docId, float subQueryScore) {
+            return docBase + docId;
+        }
+
+        @Override
+        public void score(int[] docIds, float[] subQueryScores, int count, double[] scores) {
+            assertTrue(batch);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    assertTrue(docIds[i] > docIds[i - 1]);
+                }
+                scores[i] = docBase + docIds[i];
+            }
+        }
+
+        @Override
+        public boolean supportsBatchScoring() {
+            return batch;
+        }
+
+        @Override
+        public Explanation explainScore(int docId, float subQueryScore) {
+            return new Explanation(docBase + docId, "doc id");
+        }
+    }
+}
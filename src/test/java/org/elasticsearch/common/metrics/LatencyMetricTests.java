@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.metrics;
+
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ */
+public class LatencyMetricTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testBuckets() {
+        for (int i = 0; i < LatencyStats.NUM_BUCKETS; i++) {
+            assertThat(LatencyStats.bucket(LatencyStats.lowerBound(i)), equalTo(i));
+            if (i > 0) {
+                assertThat(LatencyStats.bucket(LatencyStats.lowerBound(i) - 1), equalTo(i - 1));
+            }
+        }
+        assertThat(LatencyStats.bucket(Long.MAX_VALUE), equalTo(LatencyStats.NUM_BUCKETS - 1));
+        assertThat(LatencyStats.bucket(-1), equalTo(0));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyMetric metric = new LatencyMetric();
+        final int numValues = scaledRandomIntBetween(100, 10000);
+        final long[] values = new long[numValues];
+        for (int i = 0; i < numValues; i++) {
+            values[i] = randomIntBetween(0, 10000000);
+            metric.inc(TimeUnit.MICROSECONDS.toNanos(values[i]));
+        }
+        Arrays.sort(values);
+        LatencyStats stats = metric.stats();
+        assertThat(stats.getCount(), equalTo((long) numValues));
+        for (double percent : new double[] { 0, 50, 90, 99, 99.9, 100 }) {
+            final long expected = values[(int) Math.max(0, Math.ceil(percent / 100 * numValues) - 1)];
+            final long actual = stats.getPercentileInMicros(percent);
+            assertThat(actual, greaterThanOrEqualTo(expected));
+            assertThat((double) actual, lessThanOrEqualTo(Math.max(expected * 1.125, expected + 1)));
+        }
+
+        metric.clear();
+        assertThat(metric.stats().getCount(), equalTo(0L));
+        assertThat(metric.stats().getPercentileInMicros(99), equalTo(0L));
+    }
+
+    @Test
+    public void testMergeAndSerialization() throws Exception {
+        LatencyMetric fast = new LatencyMetric();
+        LatencyMetric slow = new LatencyMetric();
+        for (int i = 0; i < 900; i++) {
+            fast.inc(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        for (int i = 0; i < 100; i++) {
+            slow.inc(TimeUnit.SECONDS.toNanos(1));
+        }
+        LatencyStats merged = new LatencyStats();
+        merged.add(fast.stats());
+        merged.add(slow.stats());
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        merged.writeTo(out);
+        LatencyStats read = LatencyStats.readLatencyStats(new BytesStreamInput(out.bytes()));
+        assertThat(read.getCount(), equalTo(1000L));
+        assertThat(read.getPercentile(90).millis(), equalTo(1L));
+        assertThat(read.getPercentile(99).seconds(), equalTo(1L));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        final LatencyMetric metric = new LatencyMetric();
+        final int numThreads = randomIntBetween(2, 8);
+        final int numValues = scaledRandomIntBetween(1000, 10000);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int j = 0; j < numValues; j++) {
+                        metric.inc(j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(metric.stats().getCount(), equalTo((long) numThreads * numValues));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.recycler;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MagazineRecyclerTests extends AbstractRecyclerTests {
+
+    @Override
+    protected Recycler<byte[]> newRecycler(int limit) {
+        return Recyclers.magazine(RECYCLER_C, limit, randomIntBetween(1, limit), randomIntBetween(1, 5));
+    }
+
+    public void testConcurrentAccess() throws Exception {
+        final Recycler<byte[]> r = newRecycler(limit);
+        // objects that are currently obtained, an object must never be handed out twice
+        final Set<byte[]> obtained = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<byte[], Boolean>()));
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Thread[] threads = new Thread[randomIntBetween(2, 8)];
+        final int iterations = scaledRandomIntBetween(100, 10000);
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                        for (int j = 0; j < iterations; ++j) {
+                            final Recycler.V<byte[]> v1 = r.obtain();
+                            final Recycler.V<byte[]> v2 = r.obtain();
+                            assertTrue(obtained.add(v1.v()));
+                            assertTrue(obtained.add(v2.v()));
+                            if (v1.isRecycled()) {
+                                assertRecycled(v1.v());
+                            }
+                            obtained.remove(v1.v());
+                            v1.close();
+                            obtained.remove(v2.v());
+                            v2.close();
+                        }
+                    } catch (Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException(failure.get());
+        }
+        r.close();
+    }
+}
@@ -30,8 +30,15 @@ public class NoneRecyclerTests extends AbstractRecyclerTests {
         // will never match
     }
 
-    protected void assertDead(byte[] data) {
-        // will never match
+    public void testDestroyOnRelease() {
+        Recycler<byte[]> r = newRecycler(limit);
+        Recycler.V<byte[]> o = r.obtain();
+        byte[] data = o.v();
+        assertFresh(data);
+        o.close();
+        // nothing is kept for reuse, so released objects get destroyed right away
+        assertDead(data);
+        r.close();
     }
 
 }
@@ -21,6 +21,7 @@ package org.elasticsearch.common.rounding;
 
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.test.ElasticsearchTestCase;
+import org.joda.time.DateTimeConstants;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.ISODateTimeFormat;
 import org.junit.Test;
@@ -123,6 +124,53 @@ public class TimeZoneRoundingTests extends ElasticsearchTestCase {
         assertThat(tzRounding.round(time("2014-11-02T06:01:01", DateTimeZone.forID("America/Chicago"))), equalTo(time("2014-11-02T06:00:00", DateTimeZone.forID("America/Chicago"))));
     }
 
+    @Test
+    public void testTransitionsMatchZone() {
+        for (String id : new String[] { "CET", "America/Chicago", "Australia/Lord_Howe", "Asia/Kolkata", "UTC" }) {
+            DateTimeZone tz = DateTimeZone.forID(id);
+            long anchor = utc("2014-06-01T00:00:00");
+            TimeZoneTransitions transitions = TimeZoneTransitions.around(tz, anchor);
+            for (int i = 0; i < 1000; i++) {
+                // covers instants inside and outside of the table
+                long instant = anchor + randomLongBetween(-2 * TimeZoneTransitions.WINDOW, 2 * TimeZoneTransitions.WINDOW);
+                assertThat(transitions.getOffset(instant), equalTo(tz.getOffset(instant)));
+            }
+            // right before, at and right after a transition
+            long transition = tz.nextTransition(anchor);
+            for (long instant = transition - 1; instant <= transition + 1; instant++) {
+                assertThat(transitions.getOffset(instant), equalTo(tz.getOffset(instant)));
+            }
+        }
+    }
+
+    @Test
+    public void testRoundFloorMatchesField() {
+        for (DateTimeUnit unit : DateTimeUnit.values()) {
+            for (int i = 0; i < 1000; i++) {
+                long local = randomLongBetween(utc("1900-01-01T00:00:00"), utc("2100-01-01T00:00:00"));
+                assertThat(TimeZoneRounding.roundFloor(unit, unit.field(), local), equalTo(unit.field().roundFloor(local)));
+            }
+        }
+    }
+
+    @Test
+    public void testTimeZoneRoundingMatchesJoda() {
+        DateTimeZone tz = DateTimeZone.forID(randomFrom("CET", "America/Chicago", "Australia/Lord_Howe", "Asia/Kolkata"));
+        DateTimeUnit unit = randomFrom(DateTimeUnit.values());
+        Rounding tzRounding = TimeZoneRounding.builder(unit).preZone(tz).postZone(tz).build();
+        boolean dayOrAbove = unit.field().getDurationField().getUnitMillis() >= DateTimeConstants.MILLIS_PER_HOUR * 12;
+        for (int i = 0; i < 1000; i++) {
+            long utcMillis = randomLongBetween(utc("1990-01-01T00:00:00"), utc("2030-01-01T00:00:00"));
+            long offset = tz.getOffset(utcMillis);
+            long expectedKey = unit.field().roundFloor(utcMillis + offset);
+            if (dayOrAbove == false) {
+                expectedKey -= offset;
+            }
+            assertThat(tzRounding.roundKey(utcMillis), equalTo(expectedKey));
+            assertThat(tzRounding.valueForKey(expectedKey), equalTo(expectedKey + tz.getOffset(expectedKey)));
+        }
+    }
+
     private long utc(String time) {
         return time(time, DateTimeZone.UTC);
     }
@@ -21,9 +21,11 @@ package org.elasticsearch.common.util;
 
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.cache.recycler.PageCacheRecycler;
+import org.elasticsearch.cache.recycler.PageCacheRecyclerTests;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.breaker.CircuitBreakingException;
 import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
 import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.elasticsearch.node.settings.NodeSettingsService;
@@ -31,6 +33,7 @@ import org.elasticsearch.test.ElasticsearchSingleNodeTest;
 import org.elasticsearch.test.cache.recycler.MockBigArrays;
 import org.junit.Before;
 
+import java.lang.management.BufferPoolMXBean;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -39,7 +42,8 @@ public class BigArraysTests extends ElasticsearchSingleNodeTest {
 
     public static BigArrays randombigArrays() {
         final PageCacheRecycler recycler = randomBoolean() ? null : ElasticsearchSingleNodeTest.getInstanceFromNode(PageCacheRecycler.class);
-        return new MockBigArrays(ImmutableSettings.EMPTY, recycler, new NoneCircuitBreakerService());
+        final Settings settings = ImmutableSettings.builder().put(BigArrays.OFF_HEAP, randomBoolean()).build();
+        return new MockBigArrays(settings, recycler, new NoneCircuitBreakerService());
     }
 
     private BigArrays bigArrays;
@@ -379,4 +383,47 @@ public class BigArraysTests extends ElasticsearchSingleNodeTest {
         }
     }
 
+    public void testOffHeapArraysAreAccounted() throws Exception {
+        HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(ImmutableSettings.EMPTY, new NodeSettingsService(ImmutableSettings.EMPTY));
+        final PageCacheRecycler recycler = randomBoolean() ? null : ElasticsearchSingleNodeTest.getInstanceFromNode(PageCacheRecycler.class);
+        BigArrays bigArrays = new BigArrays(ImmutableSettings.builder().put(BigArrays.OFF_HEAP, true).build(), recycler, hcbs).withCircuitBreaking();
+        final CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.Name.REQUEST);
+        final long size = randomIntBetween(BigArrays.LONG_PAGE_SIZE / 2, 1 << 16);
+        LongArray longs = bigArrays.newLongArray(size);
+        assertTrue(longs instanceof DirectLongArray);
+        DoubleArray doubles = bigArrays.newDoubleArray(size);
+        assertTrue(doubles instanceof DirectDoubleArray);
+        assertEquals(longs.ramBytesUsed() + doubles.ramBytesUsed(), breaker.getUsed());
+        for (long i = 0; i < size; ++i) {
+            assertEquals(0L, longs.get(i));
+            longs.increment(i, i);
+            doubles.set(i, i / 2d);
+        }
+        longs = bigArrays.grow(longs, size * 2);
+        doubles = bigArrays.grow(doubles, size * 2);
+        assertEquals(longs.ramBytesUsed() + doubles.ramBytesUsed(), breaker.getUsed());
+        for (long i = 0; i < size; ++i) {
+            assertEquals(i, longs.get(i));
+            assertEquals(i / 2d, doubles.get(i), 0d);
+        }
+        longs.close();
+        doubles.close();
+        assertEquals(0, breaker.getUsed());
+    }
+
+    public void testUnrecycledOffHeapPagesAreFreed() throws Exception {
+        assumeTrue("direct buffers can't be freed explicitly on this JVM", DirectByteBuffers.freeSupported());
+        BigArrays bigArrays = new BigArrays(ImmutableSettings.builder().put(BigArrays.OFF_HEAP, true).build(), null, new NoneCircuitBreakerService());
+        final BufferPoolMXBean directPool = PageCacheRecyclerTests.directBufferPool();
+        final long countBefore = directPool.getCount();
+        final int numPages = randomIntBetween(2, 10);
+        LongArray longs = bigArrays.newLongArray(numPages * BigArrays.LONG_PAGE_SIZE);
+        assertTrue(longs instanceof DirectLongArray);
+        assertEquals(countBefore + numPages, directPool.getCount());
+        longs = bigArrays.resize(longs, BigArrays.LONG_PAGE_SIZE);
+        assertEquals(countBefore + 1, directPool.getCount());
+        longs.close();
+        assertEquals(countBefore, directPool.getCount());
+    }
+
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ */
+public class AdaptiveEsThreadPoolExecutorTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testOverloadDetection() throws Exception {
+        final TimeValue target = TimeValue.timeValueMillis(10);
+        final TimeValue interval = TimeValue.timeValueMillis(100);
+        AdaptiveEsThreadPoolExecutor executor = EsExecutors.newAdaptive(1, 2, 100, target, interval, EsExecutors.daemonThreadFactory("test"));
+        try {
+            long now = System.nanoTime() + interval.nanos();
+            // the minimum queue time of the interval is above the target
+            assertTrue(executor.onStart(TimeValue.timeValueMillis(20).nanos(), now));
+            assertTrue(executor.isOverloaded());
+            // tasks that did not wait longer than the target are still executed
+            assertFalse(executor.onStart(TimeValue.timeValueMillis(5).nanos(), now + 1));
+            assertTrue(executor.onStart(TimeValue.timeValueMillis(20).nanos(), now + 2));
+            // but a single short wait is enough to clear the overload at the end of the interval
+            now += interval.nanos();
+            assertFalse(executor.onStart(TimeValue.timeValueMillis(20).nanos(), now));
+            assertFalse(executor.isOverloaded());
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    @Test
+    public void testQueueResizing() throws Exception {
+        final TimeValue interval = TimeValue.timeValueMillis(100);
+        AdaptiveEsThreadPoolExecutor executor = EsExecutors.newAdaptive(2, 5, 100, TimeValue.timeValueMillis(10), interval, EsExecutors.daemonThreadFactory("test"));
+        try {
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+            long now = System.nanoTime() + interval.nanos();
+            // 2 threads that take 10ms per task execute 20 tasks per interval
+            executor.onCompleted(TimeValue.timeValueMillis(10).nanos());
+            executor.onCompleted(TimeValue.timeValueMillis(10).nanos());
+            executor.onStart(0, now);
+            assertThat(executor.getQueueCapacity(), equalTo(20));
+
+            // bounded by the minimum queue size
+            now += interval.nanos();
+            executor.onCompleted(TimeValue.timeValueMillis(100).nanos());
+            executor.onStart(0, now);
+            assertThat(executor.getQueueCapacity(), equalTo(5));
+
+            // and by the maximum queue size
+            now += interval.nanos();
+            executor.onCompleted(TimeValue.timeValueMillis(1).nanos());
+            executor.onStart(0, now);
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+
+            // the capacity is kept if no task completed in the interval
+            now += interval.nanos();
+            executor.onStart(0, now);
+            assertThat(executor.getQueueCapacity(), equalTo(100));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    @Test
+    public void testRejectionOfQueuedTasks() throws Exception {
+        final TimeValue interval = TimeValue.timeValueHours(1);
+        AdaptiveEsThreadPoolExecutor executor = EsExecutors.newAdaptive(1, 1, 10, TimeValue.timeValueMillis(1), interval, EsExecutors.daemonThreadFactory("test"));
+        try {
+            // start an interval that is overloaded and doesn't end during the test
+            executor.onStart(TimeValue.timeValueMillis(2).nanos(), System.nanoTime() + interval.nanos());
+            assertTrue(executor.isOverloaded());
+
+            final CountDownLatch block = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(2);
+            final AtomicBoolean executed = new AtomicBoolean();
+            final AtomicBoolean forceExecuted = new AtomicBoolean();
+            final Throwable[] rejection = new Throwable[1];
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        block.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            executor.execute(new AbstractRunnable() {
+                @Override
+                public void onFailure(Throwable t) {
+                    fail();
+                }
+
+                @Override
+                public void onRejection(Throwable t) {
+                    rejection[0] = t;
+                }
+
+                @Override
+                public void onAfter() {
+                    done.countDown();
+                }
+
+                @Override
+                protected void doRun() throws Exception {
+                    executed.set(true);
+                }
+            });
+            executor.execute(new AbstractRunnable() {
+                @Override
+                public boolean isForceExecution() {
+                    return true;
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    fail();
+                }
+
+                @Override
+                public void onAfter() {
+                    done.countDown();
+                }
+
+                @Override
+                protected void doRun() throws Exception {
+                    forceExecuted.set(true);
+                }
+            });
+            Thread.sleep(10);
+            block.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            assertFalse(executed.get());
+            assertThat(rejection[0], notNullValue());
+            assertThat(rejection[0], instanceOf(EsRejectedExecutionException.class));
+            assertThat(((XRejectedExecutionHandler) executor.getRejectedExecutionHandler()).rejected(), equalTo(1L));
+            // tasks that force their execution are never rejected
+            assertTrue(forceExecuted.get());
+        } finally {
+            terminate(executor);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.discovery;
+
+import org.apache.lucene.util.LuceneTestCase;
+import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterService;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.Priority;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.discovery.zen.elect.ElectMasterService;
+import org.elasticsearch.discovery.zen.fd.FaultDetection;
+import org.elasticsearch.discovery.zen.fd.GossipFaultDetection;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.elasticsearch.test.discovery.ClusterDiscoveryConfiguration;
+import org.elasticsearch.test.transport.MockTransportService;
+import org.elasticsearch.transport.TransportModule;
+import org.elasticsearch.transport.TransportService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
+import static org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the zen discovery of multiple local nodes with <code>discovery.zen.fd.type</code> set to <code>gossip</code>.
+ */
+@LuceneTestCase.Slow
+@ClusterScope(scope = Scope.TEST, numDataNodes = 0, transportClientRatio = 0)
+public class GossipFaultDetectionTests extends ElasticsearchIntegrationTest {
+
+    private ClusterDiscoveryConfiguration discoveryConfig;
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return discoveryConfig.node(nodeOrdinal);
+    }
+
+    @Before
+    public void clearConfig() {
+        discoveryConfig = null;
+    }
+
+    private void configureCluster(int numberOfNodes, int minimumMasterNodes) {
+        Settings settings = ImmutableSettings.builder()
+                .put("node.mode", "local")
+                .put(FaultDetection.SETTING_TYPE, GossipFaultDetection.TYPE)
+                .put(FaultDetection.SETTING_PING_INTERVAL, "100ms")
+                .put(FaultDetection.SETTING_PING_TIMEOUT, "1s") // for hitting simulated network failures quickly
+                .put(FaultDetection.SETTING_PING_RETRIES, "1") // for hitting simulated network failures quickly
+                .put(ElectMasterService.DISCOVERY_ZEN_MINIMUM_MASTER_NODES, minimumMasterNodes)
+                .put("discovery.zen.join_timeout", "10s")
+                .put(DiscoverySettings.PUBLISH_TIMEOUT, "1s")
+                .put("http.enabled", false) // just to make test quicker
+                .put(TransportModule.TRANSPORT_SERVICE_TYPE_KEY, MockTransportService.class.getName())
+                .build();
+        discoveryConfig = new ClusterDiscoveryConfiguration.UnicastZen(numberOfNodes, settings, Scope.TEST);
+    }
+
+    @Test
+    public void testSuspectedNodeIsRemoved() throws Exception {
+        configureCluster(3, 2);
+        internalCluster().startNodesAsync(3).get();
+        ensureStableCluster(3);
+
+        final String masterNode = internalCluster().getMasterName();
+        final DiscoveryNode suspectedNode = randomNonMasterNode(masterNode);
+        final AtomicReference<String> removalSource = new AtomicReference<>();
+        final CountDownLatch removed = new CountDownLatch(1);
+        ClusterService masterClusterService = internalCluster().getInstance(ClusterService.class, masterNode);
+        ClusterStateListener listener = new ClusterStateListener() {
+            @Override
+            public void clusterChanged(ClusterChangedEvent event) {
+                if (event.nodesRemoved() && event.nodesDelta().removedNodes().contains(suspectedNode)) {
+                    removalSource.compareAndSet(null, event.source());
+                    removed.countDown();
+                }
+            }
+        };
+        masterClusterService.add(listener);
+
+        // only the probes fail, the node still pings the master and answers everything else
+        logger.info("failing all probes of [{}]", suspectedNode);
+        for (String node : internalCluster().getNodeNames()) {
+            if (node.equals(suspectedNode.name()) == false) {
+                mockTransportService(node).addFailToSendNoConnectRule(suspectedNode, GossipFaultDetection.PROBE_ACTION_NAME);
+            }
+        }
+        try {
+            assertThat("master didn't remove the suspected node", removed.await(30, TimeUnit.SECONDS), equalTo(true));
+            assertThat(removalSource.get(), containsString("zen-disco-node_failed"));
+            assertThat(removalSource.get(), containsString("suspected"));
+        } finally {
+            masterClusterService.remove(listener);
+            for (String node : internalCluster().getNodeNames()) {
+                mockTransportService(node).clearAllRules();
+            }
+        }
+
+        // the node finds out through its master fault detection and joins again
+        ensureStableCluster(3);
+    }
+
+    @Test
+    public void testProbeFromAnotherMasterResolvesTwoMasters() throws Exception {
+        configureCluster(2, 1);
+        internalCluster().startNodesAsync(2).get();
+        ensureStableCluster(2);
+
+        final String masterNode = internalCluster().getMasterName();
+        final DiscoveryNode otherNode = randomNonMasterNode(masterNode);
+        final DiscoveryNode masterDiscoveryNode = internalCluster().getInstance(ClusterService.class, masterNode).localNode();
+
+        // the other node can't reach the master anymore and elects itself, while the master still reaches it
+        logger.info("failing all requests from [{}] to the master [{}]", otherNode, masterNode);
+        MockTransportService otherTransportService = mockTransportService(otherNode.name());
+        otherTransportService.addFailToSendNoConnectRule(masterDiscoveryNode);
+        final ClusterService otherClusterService = internalCluster().getInstance(ClusterService.class, otherNode.name());
+        try {
+            assertBusy(new Runnable() {
+                @Override
+                public void run() {
+                    assertThat(otherClusterService.state().nodes().localNodeMaster(), equalTo(true));
+                }
+            });
+        } finally {
+            otherTransportService.clearAllRules();
+        }
+
+        // with gossip fault detection nothing but the probes of the master tell the other node about it
+        logger.info("waiting for the probes of [{}] to resolve the two masters", masterNode);
+        ensureStableCluster(2);
+        assertBusy(new Runnable() {
+            @Override
+            public void run() {
+                String master = null;
+                for (String node : internalCluster().getNodeNames()) {
+                    ClusterState state = internalCluster().getInstance(ClusterService.class, node).state();
+                    assertThat(state.nodes().size(), equalTo(2));
+                    assertThat(state.nodes().masterNodeId(), notNullValue());
+                    if (master == null) {
+                        master = state.nodes().masterNodeId();
+                    }
+                    assertThat(state.nodes().masterNodeId(), equalTo(master));
+                }
+            }
+        }, 30, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testNodesWithPingFaultDetectionAnswerProbes() throws Exception {
+        configureCluster(3, 2);
+        internalCluster().startNodesAsync(2).get();
+        internalCluster().startNode(ImmutableSettings.builder().put(FaultDetection.SETTING_TYPE, "ping"));
+        ensureStableCluster(3);
+
+        final CountDownLatch removed = new CountDownLatch(1);
+        ClusterService masterClusterService = internalCluster().getInstance(ClusterService.class, internalCluster().getMasterName());
+        ClusterStateListener listener = new ClusterStateListener() {
+            @Override
+            public void clusterChanged(ClusterChangedEvent event) {
+                if (event.nodesRemoved()) {
+                    removed.countDown();
+                }
+            }
+        };
+        masterClusterService.add(listener);
+        try {
+            // every node is probed several times per second, so a few seconds are plenty to wrongly fail a node
+            assertThat(removed.await(3, TimeUnit.SECONDS), equalTo(false));
+        } finally {
+            masterClusterService.remove(listener);
+        }
+    }
+
+    private DiscoveryNode randomNonMasterNode(String masterNode) {
+        String nonMasterNode = null;
+        while (nonMasterNode == null) {
+            nonMasterNode = randomFrom(internalCluster().getNodeNames());
+            if (nonMasterNode.equals(masterNode)) {
+                nonMasterNode = null;
+            }
+        }
+        return internalCluster().getInstance(ClusterService.class, nonMasterNode).localNode();
+    }
+
+    private MockTransportService mockTransportService(String node) {
+        return (MockTransportService) internalCluster().getInstance(TransportService.class, node);
+    }
+
+    private void ensureStableCluster(int nodeCount) {
+        ClusterHealthResponse clusterHealthResponse = client().admin().cluster().prepareHealth()
+                .setWaitForEvents(Priority.LANGUID)
+                .setWaitForNodes(Integer.toString(nodeCount))
+                .setTimeout("30s")
+                .get();
+        assertThat(clusterHealthResponse.isTimedOut(), is(false));
+    }
+}
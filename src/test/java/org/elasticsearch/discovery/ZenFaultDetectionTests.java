@@ -28,6 +28,7 @@ import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.discovery.zen.fd.FaultDetection;
+import org.elasticsearch.discovery.zen.fd.GossipFaultDetection;
 import org.elasticsearch.discovery.zen.fd.MasterFaultDetection;
 import org.elasticsearch.discovery.zen.fd.NodesFaultDetection;
 import org.elasticsearch.test.ElasticsearchTestCase;
@@ -200,4 +201,143 @@ public class ZenFaultDetectionTests extends ElasticsearchTestCase {
 
         assertThat(failureReason[0], matcher);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGossipFaultDetectionFailsSuspectedNode() throws Exception {
+        // C can't probe B directly and there is no other node to probe it through, so it reports B to the master A
+        // which fails it as it can't reach B either
+        final String[] failureReason = new String[1];
+        final DiscoveryNode[] failureNode = new DiscoveryNode[1];
+        final CountDownLatch notified = new CountDownLatch(1);
+        assertGossipFaultDetection(true, new GossipFaultDetection.Listener() {
+            @Override
+            public void onNodeFailure(DiscoveryNode node, String reason) {
+                failureNode[0] = node;
+                failureReason[0] = reason;
+                notified.countDown();
+            }
+        }, notified);
+
+        assertEquals(nodeB, failureNode[0]);
+        assertThat(failureReason[0], Matchers.containsString("suspected"));
+    }
+
+    @Test
+    public void testGossipFaultDetectionIgnoresRefutedSuspicion() throws Exception {
+        // C can't probe B and reports it to the master A, which can still reach B and keeps it
+        final CountDownLatch notified = new CountDownLatch(1);
+        assertGossipFaultDetection(false, new GossipFaultDetection.Listener() {
+            @Override
+            public void onNodeFailure(DiscoveryNode node, String reason) {
+                notified.countDown();
+            }
+        }, notified);
+    }
+
+    @Test
+    public void testGossipFaultDetectionTreatsUnknownProbeActionAsAnswer() throws Exception {
+        // B doesn't register the probe handlers, like a node of an older version, which still shows it is alive
+        Settings settings = ImmutableSettings.builder()
+                .put(FaultDetection.SETTING_TYPE, GossipFaultDetection.TYPE)
+                .put(FaultDetection.SETTING_PING_INTERVAL, "10ms")
+                .put(FaultDetection.SETTING_PING_TIMEOUT, "1s")
+                .put(FaultDetection.SETTING_PING_RETRIES, 1)
+                .build();
+        ClusterName clusterName = new ClusterName("test");
+        GossipFaultDetection gossipA = new GossipFaultDetection(settings, threadPool, serviceA, clusterName);
+        try {
+            final CountDownLatch notified = new CountDownLatch(1);
+            gossipA.addListener(new GossipFaultDetection.Listener() {
+                @Override
+                public void onNodeFailure(DiscoveryNode node, String reason) {
+                    notified.countDown();
+                }
+            });
+            gossipA.setLocalNode(nodeA);
+            gossipA.updateNodesAndProbe(ClusterState.builder(clusterName).nodes(buildNodesForA(true)).build());
+
+            // A probes B every few milliseconds, so a second is plenty for it to wrongly fail it
+            assertThat(notified.await(1, TimeUnit.SECONDS), equalTo(false));
+        } finally {
+            gossipA.close();
+        }
+    }
+
+    @Test
+    public void testGossipFaultDetectionNotifiesProbeFromMaster() throws Exception {
+        Settings settings = ImmutableSettings.builder()
+                .put(FaultDetection.SETTING_TYPE, GossipFaultDetection.TYPE)
+                .put(FaultDetection.SETTING_PING_INTERVAL, "10ms")
+                .build();
+        ClusterName clusterName = new ClusterName("test");
+        GossipFaultDetection gossipA = new GossipFaultDetection(settings, threadPool, serviceA, clusterName);
+        GossipFaultDetection gossipB = new GossipFaultDetection(settings, threadPool, serviceB, clusterName);
+        try {
+            final DiscoveryNode[] probingMaster = new DiscoveryNode[1];
+            final CountDownLatch notified = new CountDownLatch(1);
+            gossipB.addListener(new GossipFaultDetection.Listener() {
+                @Override
+                public void onProbeFromMaster(DiscoveryNode masterNode, long clusterStateVersion) {
+                    probingMaster[0] = masterNode;
+                    notified.countDown();
+                }
+            });
+            gossipB.setLocalNode(nodeB);
+            gossipA.setLocalNode(nodeA);
+            gossipA.updateNodesAndProbe(ClusterState.builder(clusterName).nodes(buildNodesForA(true)).build());
+
+            assertThat(notified.await(30, TimeUnit.SECONDS), equalTo(true));
+            assertEquals(nodeA, probingMaster[0]);
+        } finally {
+            gossipA.close();
+            gossipB.close();
+        }
+    }
+
+    private void assertGossipFaultDetection(boolean masterFailsToProbe, GossipFaultDetection.Listener masterListener, CountDownLatch notified) throws Exception {
+        MockTransportService serviceC = build(ImmutableSettings.builder().put("name", "TS_C").build(), version1);
+        DiscoveryNode nodeC = new DiscoveryNode("TS_C", "TS_C", serviceC.boundAddress().publishAddress(), ImmutableMap.<String, String>of(), version1);
+        serviceA.connectToNode(nodeC);
+        serviceB.connectToNode(nodeC);
+        serviceC.connectToNode(nodeA);
+        serviceC.connectToNode(nodeB);
+        serviceC.connectToNode(nodeC);
+
+        Settings settings = ImmutableSettings.builder()
+                .put(FaultDetection.SETTING_TYPE, GossipFaultDetection.TYPE)
+                .put(FaultDetection.SETTING_PING_INTERVAL, "10ms")
+                .put(FaultDetection.SETTING_PING_TIMEOUT, "1s")
+                .put(FaultDetection.SETTING_PING_RETRIES, 1)
+                .build();
+        ClusterName clusterName = new ClusterName("test");
+        GossipFaultDetection gossipA = new GossipFaultDetection(settings, threadPool, serviceA, clusterName);
+        GossipFaultDetection gossipB = new GossipFaultDetection(settings, threadPool, serviceB, clusterName);
+        GossipFaultDetection gossipC = new GossipFaultDetection(settings, threadPool, serviceC, clusterName);
+        try {
+            gossipA.addListener(masterListener);
+            serviceC.addFailToSendNoConnectRule(nodeB, GossipFaultDetection.PROBE_ACTION_NAME);
+            if (masterFailsToProbe) {
+                serviceA.addFailToSendNoConnectRule(nodeB, GossipFaultDetection.PROBE_ACTION_NAME);
+            }
+            startGossip(gossipA, clusterName, nodeA, nodeC);
+            startGossip(gossipB, clusterName, nodeB, nodeC);
+            startGossip(gossipC, clusterName, nodeC, nodeC);
+
+            // C reports B every few milliseconds, so a second is plenty for the master to wrongly fail it
+            assertThat(notified.await(masterFailsToProbe ? 30 : 1, TimeUnit.SECONDS), equalTo(masterFailsToProbe));
+        } finally {
+            gossipA.close();
+            gossipB.close();
+            gossipC.close();
+            serviceA.clearAllRules();
+            serviceC.close();
+        }
+    }
+
+    private void startGossip(GossipFaultDetection gossipFD, ClusterName clusterName, DiscoveryNode localNode, DiscoveryNode nodeC) {
+        DiscoveryNodes nodes = DiscoveryNodes.builder().put(nodeA).put(nodeB).put(nodeC)
+                .localNodeId(localNode.id()).masterNodeId(nodeA.id()).build();
+        gossipFD.setLocalNode(localNode);
+        gossipFD.updateNodesAndProbe(ClusterState.builder(clusterName).nodes(nodes).build());
+    }
+}
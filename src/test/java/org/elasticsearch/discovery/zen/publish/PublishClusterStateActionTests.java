@@ -0,0 +1,79 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.discovery.zen.publish;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.lz4.LZ4Compressor;
+import org.elasticsearch.common.compress.lzf.LZFCompressor;
+import org.elasticsearch.common.io.stream.CachedStreamInput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class PublishClusterStateActionTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testOlderNodesGetLZFCompressedClusterStates() throws IOException {
+        ClusterState clusterState = ClusterState.builder(new ClusterName("test"))
+                .metaData(MetaData.builder().put(IndexMetaData.builder("test").settings(ImmutableSettings.settingsBuilder()
+                        .put(IndexMetaData.SETTING_VERSION_CREATED, Version.V_1_4_0))
+                        .numberOfShards(1).numberOfReplicas(0)))
+                .version(randomIntBetween(1, 100))
+                .build();
+        try {
+            CompressorFactory.configure(ImmutableSettings.settingsBuilder()
+                    .put(randomFrom("compress.default.type", "compress.cluster_state.type"), "lz4")
+                    .build());
+            BytesReference current = PublishClusterStateAction.serializeClusterState(clusterState, Version.CURRENT);
+            assertThat(CompressorFactory.compressor(current), instanceOf(LZ4Compressor.class));
+            assertThat(deserialize(current, Version.CURRENT).version(), equalTo(clusterState.version()));
+
+            // nodes that were released before lz4 was added can't read it
+            Version olderVersion = randomFrom(Version.V_1_0_0, Version.V_1_4_0);
+            BytesReference older = PublishClusterStateAction.serializeClusterState(clusterState, olderVersion);
+            assertThat(CompressorFactory.compressor(older), instanceOf(LZFCompressor.class));
+            ClusterState olderState = deserialize(older, olderVersion);
+            assertThat(olderState.version(), equalTo(clusterState.version()));
+            assertTrue(olderState.metaData().hasIndex("test"));
+        } finally {
+            CompressorFactory.configure(ImmutableSettings.EMPTY);
+        }
+    }
+
+    private static ClusterState deserialize(BytesReference bytes, Version version) throws IOException {
+        Compressor compressor = CompressorFactory.compressor(bytes);
+        StreamInput in = CachedStreamInput.cachedHandlesCompressed(compressor, bytes.streamInput());
+        in.setVersion(version);
+        return ClusterState.Builder.readFrom(in, null, new ClusterName("test"));
+    }
+}
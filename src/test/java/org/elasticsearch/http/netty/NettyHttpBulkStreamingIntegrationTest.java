@@ -0,0 +1,240 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.http.netty;
+
+import com.google.common.base.Charsets;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.InetSocketTransportAddress;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.http.HttpServerTransport;
+import org.elasticsearch.node.internal.InternalNode;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.test.ElasticsearchIntegrationTest.ClusterScope;
+import static org.elasticsearch.test.ElasticsearchIntegrationTest.Scope;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Sends chunked bulk requests over a plain socket, so that the framing of the body and the interim responses
+ * can be controlled and checked.
+ */
+@ClusterScope(scope = Scope.TEST, numDataNodes = 1)
+public class NettyHttpBulkStreamingIntegrationTest extends ElasticsearchIntegrationTest {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return settingsBuilder().put(super.nodeSettings(nodeOrdinal))
+                .put(InternalNode.HTTP_ENABLED, true)
+                .put(NettyHttpServerTransport.SETTING_HTTP_BULK_STREAMING, true)
+                // small batches, so that the body is executed in several batches
+                .put("rest.action.bulk.streaming.batch_size", "256b")
+                .build();
+    }
+
+    @Test
+    public void testChunkedBulk() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        final int numDocs = randomIntBetween(20, 100);
+        String body = indexActions(0, numDocs);
+
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            writeHeaders(out, false);
+            // chunk boundaries don't have to match action boundaries
+            int from = 0;
+            while (from < body.length()) {
+                int to = Math.min(body.length(), from + randomIntBetween(1, 200));
+                writeChunk(out, body.substring(from, to));
+                from = to;
+            }
+            writeChunk(out, "");
+
+            Response response = readResponse(socket.getInputStream());
+            assertThat(response.status, equalTo(200));
+            Map<String, Object> result = response.content();
+            assertThat(result.get("errors"), equalTo((Object) false));
+            assertThat((List<?>) result.get("items"), hasSize(numDocs));
+        }
+        refresh();
+        assertHitCount(client().prepareCount("test").get(), numDocs);
+    }
+
+    @Test
+    public void testExpectContinue() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            writeHeaders(out, true);
+            Response interim = readResponse(socket.getInputStream());
+            assertThat(interim.status, equalTo(100));
+
+            writeChunk(out, indexActions(0, 5));
+            writeChunk(out, "");
+            // the 100 Continue must be sent only once, the next response is the one of the request
+            Response response = readResponse(socket.getInputStream());
+            assertThat(response.status, equalTo(200));
+            assertThat((List<?>) response.content().get("items"), hasSize(5));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFailureMidStream() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            writeHeaders(out, false);
+            // larger than a batch, so it is executed before the rest of the body is parsed
+            writeChunk(out, indexActions(0, 5));
+            writeChunk(out, "{ \"index\" : { \"_index\" : \"test\", , \"_type\" : \"type1\" } }\n");
+            writeChunk(out, indexActions(5, 5));
+            writeChunk(out, "");
+
+            Response response = readResponse(socket.getInputStream());
+            assertThat(response.status, equalTo(200));
+            Map<String, Object> result = response.content();
+            assertThat(result.get("errors"), equalTo((Object) true));
+            List<Map<String, Object>> items = (List<Map<String, Object>>) result.get("items");
+            assertThat(items, hasSize(6));
+            for (int i = 0; i < 5; i++) {
+                Map<String, Object> item = (Map<String, Object>) items.get(i).get("index");
+                assertThat(item.get("_id"), equalTo((Object) Integer.toString(i)));
+                assertThat(item.get("error"), nullValue());
+            }
+            Map<String, Object> failure = (Map<String, Object>) items.get(5).get("index");
+            assertThat(failure.get("error"), notNullValue());
+        }
+        refresh();
+        assertHitCount(client().prepareCount("test").get(), 5);
+    }
+
+    private static String indexActions(int from, int count) {
+        StringBuilder actions = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            actions.append("{ \"index\" : { \"_index\" : \"test\", \"_type\" : \"type1\", \"_id\" : \"").append(i).append("\" } }\n");
+            actions.append("{ \"field\" : \"value").append(i).append("\" }\n");
+        }
+        return actions.toString();
+    }
+
+    private Socket connect() throws IOException {
+        HttpServerTransport httpServerTransport = internalCluster().getInstance(HttpServerTransport.class);
+        InetSocketAddress address = ((InetSocketTransportAddress) httpServerTransport.boundAddress().boundAddress()).address();
+        Socket socket = new Socket(address.getAddress(), address.getPort());
+        socket.setSoTimeout(30000);
+        return socket;
+    }
+
+    private static void writeHeaders(OutputStream out, boolean expectContinue) throws IOException {
+        StringBuilder headers = new StringBuilder("POST /_bulk HTTP/1.1\r\nHost: localhost\r\nTransfer-Encoding: chunked\r\n");
+        if (expectContinue) {
+            headers.append("Expect: 100-continue\r\n");
+        }
+        headers.append("\r\n");
+        out.write(headers.toString().getBytes(Charsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void writeChunk(OutputStream out, String content) throws IOException {
+        byte[] bytes = content.getBytes(Charsets.UTF_8);
+        out.write((Integer.toHexString(bytes.length) + "\r\n").getBytes(Charsets.US_ASCII));
+        out.write(bytes);
+        out.write("\r\n".getBytes(Charsets.US_ASCII));
+        out.flush();
+    }
+
+    private static Response readResponse(InputStream in) throws IOException {
+        String statusLine = readLine(in);
+        String[] parts = statusLine.split(" ");
+        Response response = new Response(Integer.parseInt(parts[1]));
+        for (String line = readLine(in); line.isEmpty() == false; line = readLine(in)) {
+            int colon = line.indexOf(':');
+            response.headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+        String contentLength = response.headers.get("content-length");
+        if (contentLength != null) {
+            byte[] body = new byte[Integer.parseInt(contentLength)];
+            int read = 0;
+            while (read < body.length) {
+                int n = in.read(body, read, body.length - read);
+                if (n < 0) {
+                    throw new IOException("connection closed after [" + read + "] bytes of the body");
+                }
+                read += n;
+            }
+            response.body = body;
+        }
+        return response;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("connection closed");
+            }
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return new String(line.toByteArray(), Charsets.US_ASCII);
+    }
+
+    private static class Response {
+        final int status;
+        final Map<String, String> headers = new HashMap<>();
+        byte[] body;
+
+        Response(int status) {
+            this.status = status;
+        }
+
+        Map<String, Object> content() {
+            assertThat(body, notNullValue());
+            return XContentHelper.convertToMap(new BytesArray(body), false).v2();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.cache.termfreq;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LogByteSizeMergePolicy;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.TermFilter;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ */
+public class TermFrequencyCacheTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testFrequencies() throws Exception {
+        IndexWriter writer = new IndexWriter(
+                new RAMDirectory(),
+                new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(new LogByteSizeMergePolicy())
+        );
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j <= i; j++) {
+                Document document = new Document();
+                document.add(new StringField("id", i + "_" + j, Field.Store.NO));
+                document.add(new StringField("field", "value" + j, Field.Store.NO));
+                document.add(new StringField("filter", j % 2 == 0 ? "even" : "odd", Field.Store.NO));
+                writer.addDocument(document);
+            }
+            writer.commit();
+        }
+
+        IndexReader reader = DirectoryReader.open(writer, false);
+        TermFrequencyCache cache = new TermFrequencyCache(new Index("test"), ImmutableSettings.EMPTY);
+        TermFilter filter = new TermFilter(new Term("filter", "even"));
+
+        TermFrequencyCache.Frequencies frequencies = cache.frequencies(reader, "field", null);
+        assertThat(frequencies.numDocs(), equalTo(6l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(3l));
+        assertThat(frequencies.docFreq(new BytesRef("value1")), equalTo(2l));
+        assertThat(frequencies.docFreq(new BytesRef("missing")), equalTo(0l));
+
+        frequencies = cache.frequencies(reader, "field", filter);
+        assertThat(frequencies.numDocs(), equalTo(4l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(3l));
+        assertThat(frequencies.docFreq(new BytesRef("value1")), equalTo(0l));
+        assertThat(frequencies.docFreq(new BytesRef("value2")), equalTo(1l));
+        // There are 3 segments
+        assertThat(cache.getLoadedFrequencies().size(), equalTo(3l));
+
+        // now cached, a new filter instance hits the same entries
+        frequencies = cache.frequencies(reader, "field", new TermFilter(new Term("filter", "even")));
+        assertThat(frequencies.numDocs(), equalTo(4l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(3l));
+        assertThat(frequencies.docFreq(new BytesRef("value2")), equalTo(1l));
+
+        // deletes are only taken into account with a filter
+        writer.deleteDocuments(new Term("id", "2_0"));
+        reader.close();
+        reader = DirectoryReader.open(writer, true);
+        frequencies = cache.frequencies(reader, "field", filter);
+        assertThat(frequencies.numDocs(), equalTo(3l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(2l));
+        frequencies = cache.frequencies(reader, "field", null);
+        assertThat(frequencies.numDocs(), equalTo(6l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(3l));
+
+        writer.forceMerge(1);
+        reader.close();
+        reader = DirectoryReader.open(writer, true);
+        frequencies = cache.frequencies(reader, "field", filter);
+        assertThat(frequencies.numDocs(), equalTo(3l));
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(2l));
+        // Only one segment now, so the size must be 1
+        assertThat(cache.getLoadedFrequencies().size(), equalTo(1l));
+
+        reader.close();
+        writer.close();
+        // There is no reference from readers and writer to any segment in the test index, so the size must be 0
+        assertThat(cache.getLoadedFrequencies().size(), equalTo(0l));
+        assertThat(cache.stats().getMemorySizeInBytes(), equalTo(0l));
+    }
+
+    @Test
+    public void testSegmentSize() throws Exception {
+        IndexWriter writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        int numTerms = 1000;
+        for (int i = 0; i < numTerms; i++) {
+            Document document = new Document();
+            document.add(new StringField("field", "value" + i, Field.Store.NO));
+            writer.addDocument(document);
+        }
+        writer.commit();
+
+        IndexReader reader = DirectoryReader.open(writer, false);
+        long segmentSize = 16 * 1024;
+        TermFrequencyCache cache = new TermFrequencyCache(new Index("test"),
+                ImmutableSettings.builder().put(TermFrequencyCache.SEGMENT_SIZE, segmentSize + "b").build());
+        TermFrequencyCache.Frequencies frequencies = cache.frequencies(reader, "field", null);
+        for (int i = 0; i < numTerms; i++) {
+            assertThat(frequencies.docFreq(new BytesRef("value" + i)), equalTo(1l));
+        }
+        // the terms don't fit, the least recently used ones were evicted
+        TermFrequencyCacheStats stats = cache.stats();
+        assertThat(stats.getMemorySizeInBytes(), greaterThan(0l));
+        assertThat(stats.getMemorySizeInBytes(), lessThanOrEqualTo(segmentSize));
+        assertThat(stats.getEvictions(), greaterThan(0l));
+        // and are counted again
+        frequencies = cache.frequencies(reader, "field", null);
+        assertThat(frequencies.docFreq(new BytesRef("value0")), equalTo(1l));
+
+        cache.clear("test");
+        assertThat(cache.getLoadedFrequencies().size(), equalTo(0l));
+        assertThat(cache.stats().getMemorySizeInBytes(), equalTo(0l));
+
+        reader.close();
+        writer.close();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        IndexWriter writer = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        Document document = new Document();
+        document.add(new StringField("field", "value", Field.Store.NO));
+        writer.addDocument(document);
+        writer.commit();
+
+        IndexReader reader = DirectoryReader.open(writer, false);
+        TermFrequencyCache cache = new TermFrequencyCache(new Index("test"),
+                ImmutableSettings.builder().put(TermFrequencyCache.SEGMENT_SIZE, 0).build());
+        TermFrequencyCache.Frequencies frequencies = cache.frequencies(reader, "field", null);
+        assertThat(frequencies.docFreq(new BytesRef("value")), equalTo(1l));
+        assertThat(cache.getLoadedFrequencies().size(), equalTo(0l));
+        assertThat(cache.stats().getMemorySizeInBytes(), equalTo(0l));
+
+        reader.close();
+        writer.close();
+    }
+}
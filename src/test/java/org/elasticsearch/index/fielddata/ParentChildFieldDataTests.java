@@ -21,8 +21,10 @@ package org.elasticsearch.index.fielddata;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.SortedDocValues;
 import org.apache.lucene.search.*;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.action.admin.indices.mapping.put.PutMappingRequest;
@@ -30,6 +32,7 @@ import org.elasticsearch.common.compress.CompressedString;
 import org.elasticsearch.index.fielddata.IndexFieldData.XFieldComparatorSource;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.mapper.internal.ParentFieldMapper;
+import org.elasticsearch.index.mapper.internal.TypeFieldMapper;
 import org.elasticsearch.index.mapper.internal.UidFieldMapper;
 import org.elasticsearch.search.MultiValueMode;
 import org.junit.Before;
@@ -184,6 +187,50 @@ public class ParentChildFieldDataTests extends AbstractFieldDataTests {
         assertThat(((FieldDoc) topDocs.scoreDocs[7]).fields[0], nullValue());
     }
 
+    @Test
+    public void testJoinDocValues() throws Exception {
+        writer.deleteAll();
+        writer.addDocument(joinDoc(parentType, "1", null, true));
+        writer.addDocument(joinDoc(childType, "2", "1", true));
+        writer.commit();
+
+        IndexFieldData<AtomicParentChildFieldData> indexFieldData = getForField(childType);
+        AtomicParentChildFieldData fieldData = indexFieldData.load(refreshReader());
+        // the join keys are read from the doc values
+        assertThat(fieldData.ramBytesUsed(), equalTo(0l));
+        SortedDocValues values = fieldData.getOrdinalsValues(parentType);
+        assertThat(values.getValueCount(), equalTo(1));
+        assertThat(values.get(0).utf8ToString(), equalTo("1"));
+        assertThat(values.get(1).utf8ToString(), equalTo("1"));
+
+        // a parent that was indexed without the join doc values, they can't be used anymore
+        writer.addDocument(joinDoc(parentType, "3", null, false));
+        writer.addDocument(joinDoc(childType, "4", "3", false));
+        writer.commit();
+
+        fieldData = indexFieldData.load(refreshReader());
+        assertThat(fieldData.ramBytesUsed(), greaterThan(0l));
+        values = fieldData.getOrdinalsValues(parentType);
+        assertThat(values.getValueCount(), equalTo(2));
+        assertThat(values.get(0).utf8ToString(), equalTo("1"));
+        assertThat(values.get(1).utf8ToString(), equalTo("1"));
+        assertThat(values.get(2).utf8ToString(), equalTo("3"));
+        assertThat(values.get(3).utf8ToString(), equalTo("3"));
+    }
+
+    private Document joinDoc(String type, String id, String parentId, boolean joinDocValues) {
+        Document d = new Document();
+        d.add(new StringField(UidFieldMapper.NAME, Uid.createUid(type, id), Field.Store.NO));
+        d.add(new StringField(TypeFieldMapper.NAME, type, Field.Store.NO));
+        if (parentId != null) {
+            d.add(new StringField(ParentFieldMapper.NAME, Uid.createUid(parentType, parentId), Field.Store.NO));
+        }
+        if (joinDocValues) {
+            d.add(new SortedDocValuesField(ParentFieldMapper.joinField(parentType), new BytesRef(parentId == null ? id : parentId)));
+        }
+        return d;
+    }
+
     @Override
     protected FieldDataType getFieldDataType() {
         return new FieldDataType("_parent");
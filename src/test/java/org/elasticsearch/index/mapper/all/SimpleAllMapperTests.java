@@ -220,6 +220,7 @@ public class SimpleAllMapperTests extends ElasticsearchSingleNodeTest {
         boolean stored = false;
         boolean enabled = true;
         boolean autoBoost = false;
+        boolean reuseTokens = false;
         boolean tv_stored = false;
         boolean tv_payloads = false;
         boolean tv_offsets = false;
@@ -248,6 +249,9 @@ public class SimpleAllMapperTests extends ElasticsearchSingleNodeTest {
             if (randomBoolean()) {
                 booleanOptionList.add(new Tuple<>("auto_boost", autoBoost = randomBoolean()));
             }
+            if (randomBoolean()) {
+                booleanOptionList.add(new Tuple<>("reuse_tokens", reuseTokens = randomBoolean()));
+            }
             if (randomBoolean()) {
                 booleanOptionList.add(new Tuple<>("store_term_vector_offsets", tv_offsets = randomBoolean()));
             }
@@ -316,6 +320,7 @@ public class SimpleAllMapperTests extends ElasticsearchSingleNodeTest {
         } else {
             assertThat(query, equalTo((Query)new TermQuery(term)));
         }
+        assertThat(builtDocMapper.allFieldMapper().reuseTokens(), equalTo(reuseTokens));
         if (similarity == null || similarity.equals("TF/IDF")) {
             assertThat(builtDocMapper.allFieldMapper().similarity(), nullValue());
         }   else {
@@ -0,0 +1,92 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper.reuse;
+
+import org.apache.lucene.index.IndexableField;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.index.mapper.DocumentMapper;
+import org.elasticsearch.index.mapper.ParsedDocument;
+import org.elasticsearch.test.ElasticsearchSingleNodeTest;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ */
+public class ReuseFieldsTests extends ElasticsearchSingleNodeTest {
+
+    private static final String MAPPING = "{\"type\":{\"properties\":{" +
+            "\"l\":{\"type\":\"long\",\"store\":true}," +
+            "\"d\":{\"type\":\"double\",\"store\":true}," +
+            "\"s\":{\"type\":\"string\",\"index\":\"not_analyzed\",\"store\":true}}}}";
+
+    @Test
+    public void testFieldsAreReused() throws Exception {
+        DocumentMapper mapper = createIndex("test", settingsBuilder().put(DocumentMapper.REUSE_FIELDS, true).build())
+                .mapperService().documentMapperParser().parse(MAPPING);
+
+        ParsedDocument doc = parse(mapper, 1, 1.5, "a", "b");
+        IndexableField l = doc.rootDoc().getField("l");
+        IndexableField d = doc.rootDoc().getField("d");
+        IndexableField[] s = doc.rootDoc().getFields("s");
+        assertThat(l.numericValue().longValue(), equalTo(1L));
+        assertThat(s.length, equalTo(2));
+
+        doc = parse(mapper, 2, 2.5, "c", "d", "e");
+        assertThat(doc.rootDoc().getField("l"), sameInstance(l));
+        assertThat(doc.rootDoc().getField("l").numericValue().longValue(), equalTo(2L));
+        assertThat(doc.rootDoc().getField("d"), sameInstance(d));
+        assertThat(doc.rootDoc().getField("d").numericValue().doubleValue(), equalTo(2.5));
+        IndexableField[] newS = doc.rootDoc().getFields("s");
+        assertThat(newS.length, equalTo(3));
+        assertThat(newS[0], sameInstance(s[0]));
+        assertThat(newS[1], sameInstance(s[1]));
+        assertThat(doc.rootDoc().getValues("s"), equalTo(new String[] {"c", "d", "e"}));
+
+        // the fields of the new document must be distinct
+        doc = parse(mapper, 3, 3.5, "f");
+        assertThat(doc.rootDoc().getValues("s"), equalTo(new String[] {"f"}));
+        assertThat(doc.rootDoc().getFields("l").length, equalTo(1));
+    }
+
+    @Test
+    public void testFieldsAreNotReusedByDefault() throws Exception {
+        DocumentMapper mapper = createIndex("test").mapperService().documentMapperParser().parse(MAPPING);
+
+        ParsedDocument doc1 = parse(mapper, 1, 1.5, "a");
+        ParsedDocument doc2 = parse(mapper, 2, 2.5, "b");
+        assertThat(doc2.rootDoc().getField("l"), not(sameInstance(doc1.rootDoc().getField("l"))));
+        assertThat(doc1.rootDoc().getField("l").numericValue().longValue(), equalTo(1L));
+        assertThat(doc1.rootDoc().get("s"), equalTo("a"));
+    }
+
+    private static ParsedDocument parse(DocumentMapper mapper, long l, double d, String... s) throws IOException {
+        return mapper.parse("type", "1", XContentFactory.jsonBuilder().startObject()
+                .field("l", l)
+                .field("d", d)
+                .array("s", s)
+                .endObject().bytes());
+    }
+}
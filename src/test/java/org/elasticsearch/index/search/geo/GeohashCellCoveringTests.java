@@ -0,0 +1,135 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.search.geo;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.geo.GeoDistance;
+import org.elasticsearch.common.geo.GeoHashUtils;
+import org.elasticsearch.common.geo.GeoPoint;
+import org.elasticsearch.common.unit.DistanceUnit;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class GeohashCellCoveringTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testDistanceCovering() {
+        final double lat = randomDoubleBetween(-60, 60, true);
+        final double lon = randomDoubleBetween(-170, 170, true);
+        final double distance = DistanceUnit.DEFAULT.convert(randomIntBetween(1, 500), DistanceUnit.KILOMETERS);
+        final GeoDistance geoDistance = randomFrom(GeoDistance.ARC, GeoDistance.SLOPPY_ARC, GeoDistance.PLANE);
+        final GeoDistance.FixedSourceDistance fixedSourceDistance = geoDistance.fixedSourceDistance(lat, lon, DistanceUnit.DEFAULT);
+        final GeoDistanceFilter.DistanceShape shape = new GeoDistanceFilter.DistanceShape(fixedSourceDistance, distance,
+                GeoDistance.distanceBoundingCheck(lat, lon, distance, DistanceUnit.DEFAULT));
+        final GeohashCellCovering covering = GeohashCellCovering.build("location.geohash", GeoHashUtils.PRECISION, shape);
+        assertThat(covering.boundary().length, lessThanOrEqualTo(GeohashCellCovering.MAX_BOUNDARY_CELLS));
+
+        // the origin is always covered
+        assertCovered(covering, GeoHashUtils.encode(lat, lon));
+        for (int i = 0; i < 1000; i++) {
+            final double pointLat = lat + randomDoubleBetween(-5, 5, true);
+            final double pointLon = lon + randomDoubleBetween(-5, 5, true);
+            final String geohash = GeoHashUtils.encode(pointLat, pointLon);
+            final boolean matches = fixedSourceDistance.calculate(pointLat, pointLon) < distance;
+            if (matches) {
+                assertCovered(covering, geohash);
+            }
+            if (isWithin(covering, geohash)) {
+                assertTrue("point [" + pointLat + ", " + pointLon + "] is in a cell within the circle", matches);
+            }
+        }
+    }
+
+    @Test
+    public void testPolygonCovering() {
+        final GeoPoint[] points = new GeoPoint[] {
+                new GeoPoint(40.7, -74.1), new GeoPoint(40.8, -73.9), new GeoPoint(40.75, -73.85),
+                new GeoPoint(40.6, -73.95), new GeoPoint(40.7, -74.1)
+        };
+        final GeohashCellCovering covering = GeohashCellCovering.build("location.geohash", GeoHashUtils.PRECISION,
+                new GeoPolygonFilter.PolygonShape(points));
+        assertThat(covering.within().length, greaterThan(0));
+        assertThat(covering.boundary().length, greaterThan(0));
+
+        for (int i = 0; i < 1000; i++) {
+            final double lat = randomDoubleBetween(40.5, 40.9, true);
+            final double lon = randomDoubleBetween(-74.2, -73.8, true);
+            final String geohash = GeoHashUtils.encode(lat, lon);
+            final boolean matches = GeoPolygonFilter.GeoPolygonDocIdSet.pointInPolygon(points, lat, lon);
+            if (matches) {
+                assertCovered(covering, geohash);
+            }
+            if (isWithin(covering, geohash)) {
+                assertTrue("point [" + lat + ", " + lon + "] is in a cell within the polygon", matches);
+            }
+        }
+    }
+
+    @Test
+    public void testDisjointShape() {
+        final GeohashCellCovering covering = GeohashCellCovering.build("location.geohash", GeoHashUtils.PRECISION, new GeohashCellCovering.Shape() {
+            @Override
+            public GeohashCellCovering.Relation relate(double minLat, double maxLat, double minLon, double maxLon) {
+                return GeohashCellCovering.Relation.DISJOINT;
+            }
+        });
+        assertEquals(0, covering.within().length);
+        assertEquals(0, covering.boundary().length);
+    }
+
+    private static void assertCovered(GeohashCellCovering covering, String geohash) {
+        Set<String> prefixes = prefixes(geohash);
+        for (BytesRef cell : covering.within()) {
+            if (prefixes.contains(cell.utf8ToString())) {
+                return;
+            }
+        }
+        for (BytesRef cell : covering.boundary()) {
+            if (prefixes.contains(cell.utf8ToString())) {
+                return;
+            }
+        }
+        fail("geohash [" + geohash + "] is not covered");
+    }
+
+    private static boolean isWithin(GeohashCellCovering covering, String geohash) {
+        Set<String> prefixes = prefixes(geohash);
+        for (BytesRef cell : covering.within()) {
+            if (prefixes.contains(cell.utf8ToString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> prefixes(String geohash) {
+        Set<String> prefixes = new HashSet<>();
+        for (int i = 1; i <= geohash.length(); i++) {
+            prefixes.add(geohash.substring(0, i));
+        }
+        return prefixes;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.index.sort;
+
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ElasticsearchSingleNodeTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class IndexSortTests extends ElasticsearchSingleNodeTest {
+
+    @Test
+    public void testEarlyTermination() throws Exception {
+        createIndex("test", ImmutableSettings.settingsBuilder()
+                .put("index.number_of_shards", 1)
+                .put("index.number_of_replicas", 0)
+                .put(IndexSort.INDEX_SORT_FIELD, "timestamp")
+                .put(IndexSort.INDEX_SORT_ORDER, "desc")
+                .build(), "type", "timestamp", "type=long,doc_values=true");
+
+        final int numDocs = scaledRandomIntBetween(100, 1000);
+        final long[] timestamps = new long[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            timestamps[i] = randomInt(10000);
+            client().prepareIndex("test", "type", Integer.toString(i)).setSource("timestamp", timestamps[i]).get();
+            if (i == numDocs / 2) {
+                client().admin().indices().prepareRefresh("test").get();
+            }
+        }
+        // sort all documents into a single merged segment
+        client().admin().indices().prepareOptimize("test").setMaxNumSegments(1).get();
+        client().admin().indices().prepareRefresh("test").get();
+        Arrays.sort(timestamps);
+
+        final int size = randomIntBetween(1, 20);
+        // total hits are exact unless the request opts out
+        SearchResponse response = client().prepareSearch("test").addSort("timestamp", SortOrder.DESC).setSize(size).get();
+        assertThat(response.getHits().getAt(0).sortValues()[0], equalTo((Object) timestamps[numDocs - 1]));
+        assertThat(response.isTerminatedEarly(), nullValue());
+        assertThat(response.getHits().totalHits(), equalTo((long) numDocs));
+
+        response = client().prepareSearch("test").addSort("timestamp", SortOrder.DESC).setSize(size)
+                .setTrackTotalHits(false).get();
+        assertThat(response.getHits().hits().length, equalTo(size));
+        for (int i = 0; i < size; i++) {
+            assertThat(response.getHits().getAt(i).sortValues()[0], equalTo((Object) timestamps[numDocs - 1 - i]));
+        }
+        assertThat(response.isTerminatedEarly(), equalTo(true));
+        assertThat(response.getHits().totalHits(), lessThan((long) numDocs));
+
+        // the opposite order needs to collect all documents
+        response = client().prepareSearch("test").addSort("timestamp", SortOrder.ASC).setSize(size)
+                .setTrackTotalHits(false).get();
+        assertThat(response.getHits().getAt(0).sortValues()[0], equalTo((Object) timestamps[0]));
+        assertThat(response.isTerminatedEarly(), nullValue());
+        assertThat(response.getHits().totalHits(), equalTo((long) numDocs));
+
+        // and so do aggregations
+        response = client().prepareSearch("test").addSort("timestamp", SortOrder.DESC).setSize(size)
+                .setTrackTotalHits(false).addAggregation(AggregationBuilders.max("max").field("timestamp")).get();
+        assertThat(response.getHits().getAt(0).sortValues()[0], equalTo((Object) timestamps[numDocs - 1]));
+        assertThat(response.isTerminatedEarly(), nullValue());
+        assertThat(response.getHits().totalHits(), equalTo((long) numDocs));
+    }
+
+    @Test
+    public void testInvalidIndexSortIsRejectedOnCreation() {
+        assertInvalidIndexSort("desc", null, "must be mapped when the index is created");
+        assertInvalidIndexSort("desc", "type=double,doc_values=true", "must be a long, integer, short, byte or date field");
+        assertInvalidIndexSort("desc", "type=string,index=not_analyzed,doc_values=true", "must be a long, integer, short, byte or date field");
+        assertInvalidIndexSort("desc", "type=long", "must have doc values");
+        assertInvalidIndexSort("descending", "type=long,doc_values=true", "must be one of [asc, desc]");
+        assertFalse(client().admin().indices().prepareExists("test").get().isExists());
+    }
+
+    private void assertInvalidIndexSort(String order, String mapping, String message) {
+        CreateIndexRequestBuilder request = client().admin().indices().prepareCreate("test").setSettings(ImmutableSettings.settingsBuilder()
+                .put(IndexSort.INDEX_SORT_FIELD, "timestamp")
+                .put(IndexSort.INDEX_SORT_ORDER, order));
+        if (mapping != null) {
+            request.addMapping("type", "timestamp", mapping);
+        }
+        try {
+            request.get();
+            fail("index sort on [" + mapping + "] in order [" + order + "] should have been rejected");
+        } catch (ElasticsearchIllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString(message));
+        }
+    }
+
+    @Test
+    public void testIndexSortCannotBeUpdated() {
+        createIndex("test", ImmutableSettings.settingsBuilder()
+                .put(IndexSort.INDEX_SORT_FIELD, "timestamp")
+                .build(), "type", "timestamp", "type=date,doc_values=true");
+        for (String setting : new String[] {IndexSort.INDEX_SORT_FIELD, IndexSort.INDEX_SORT_ORDER}) {
+            // closed indices accept changes to static settings otherwise
+            if (randomBoolean()) {
+                client().admin().indices().prepareClose("test").get();
+            } else {
+                client().admin().indices().prepareOpen("test").get();
+            }
+            try {
+                client().admin().indices().prepareUpdateSettings("test").setSettings(ImmutableSettings.settingsBuilder()
+                        .put(setting, setting.equals(IndexSort.INDEX_SORT_ORDER) ? "desc" : "other")).get();
+                fail("updating [" + setting + "] should have been rejected");
+            } catch (ElasticsearchIllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("can't change the index sort"));
+            }
+        }
+        assertThat(client().admin().indices().prepareGetSettings("test").get().getSetting("test", IndexSort.INDEX_SORT_FIELD), equalTo("timestamp"));
+    }
+}
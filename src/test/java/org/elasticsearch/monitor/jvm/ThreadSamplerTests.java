@@ -0,0 +1,80 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.monitor.jvm;
+
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ */
+public class ThreadSamplerTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testCollapse() {
+        ThreadSampler.CallTree tree = new ThreadSampler.CallTree(100);
+        tree.add("search", stack("a.B.leaf", "a.B.middle", "a.B.root"));
+        tree.add("search", stack("a.B.leaf", "a.B.middle", "a.B.root"));
+        tree.add("search", stack("a.B.middle", "a.B.root"));
+        tree.add("bulk", stack("a.B.other", "a.B.root"));
+
+        Map<String, Long> stacks = new TreeMap<>();
+        tree.collapse(stacks);
+        assertThat(stacks.size(), equalTo(3));
+        assertThat(stacks.get("search;a.B.root;a.B.middle;a.B.leaf"), equalTo(2L));
+        assertThat(stacks.get("search;a.B.root;a.B.middle"), equalTo(1L));
+        assertThat(stacks.get("bulk;a.B.root;a.B.other"), equalTo(1L));
+        assertThat(tree.numNodes(), equalTo(7));
+
+        // collapsing another tree into the same map sums the samples
+        tree.collapse(stacks);
+        assertThat(stacks.get("search;a.B.root;a.B.middle;a.B.leaf"), equalTo(4L));
+    }
+
+    @Test
+    public void testMaxNodes() {
+        ThreadSampler.CallTree tree = new ThreadSampler.CallTree(3);
+        tree.add("search", stack("a.B.leaf", "a.B.middle", "a.B.root"));
+        tree.add("search", stack("a.B.leaf", "a.B.other", "a.B.root"));
+        tree.add("search", stack("a.B.leaf", "a.B.middle", "a.B.root"));
+        tree.add("bulk", stack("a.B.root"));
+        assertThat(tree.numNodes(), equalTo(3));
+
+        Map<String, Long> stacks = new TreeMap<>();
+        tree.collapse(stacks);
+        assertThat(stacks.get("search;a.B.root;a.B.middle;" + ThreadSampler.TRUNCATED), equalTo(2L));
+        assertThat(stacks.get("search;a.B.root;" + ThreadSampler.TRUNCATED), equalTo(1L));
+        assertThat(stacks.get(ThreadSampler.TRUNCATED), equalTo(1L));
+    }
+
+    // frames from the leaf to the root, as returned by the JVM
+    private static StackTraceElement[] stack(String... frames) {
+        StackTraceElement[] stack = new StackTraceElement[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            int dot = frames[i].lastIndexOf('.');
+            stack[i] = new StackTraceElement(frames[i].substring(0, dot), frames[i].substring(dot + 1), null, -1);
+        }
+        return stack;
+    }
+}
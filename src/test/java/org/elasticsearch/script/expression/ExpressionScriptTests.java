@@ -21,12 +21,15 @@ package org.elasticsearch.script.expression;
 
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.get.GetRequestBuilder;
+import org.elasticsearch.action.index.IndexRequestBuilder;
 import org.elasticsearch.action.search.*;
 import org.elasticsearch.common.xcontent.ToXContent;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilder;
 import org.elasticsearch.index.query.functionscore.ScoreFunctionBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.metrics.stats.Stats;
@@ -41,6 +44,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 
@@ -90,6 +94,54 @@ public class ExpressionScriptTests extends ElasticsearchIntegrationTest {
         assertEquals("2", hits.getAt(2).getId());
     }
 
+    public void testBatchScoreMatchesPerDocScore() throws Exception {
+        ElasticsearchAssertions.assertAcked(prepareCreate("test").addMapping("doc", "text", "type=string", "x", "type=long", "y", "type=double"));
+        ensureGreen("test");
+        int numDocs = scaledRandomIntBetween(200, 1000);
+        IndexRequestBuilder[] docs = new IndexRequestBuilder[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            int repeat = between(1, 5);
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < repeat; j++) {
+                text.append("hello ");
+            }
+            text.append(randomBoolean() ? "goodbye" : "world");
+            docs[i] = client().prepareIndex("test", "doc", Integer.toString(i))
+                    .setSource("text", text.toString(), "x", between(0, 100), "y", randomDouble() * 10);
+        }
+        indexRandom(true, docs);
+
+        String script = "_score * doc['x'].value + doc['y'].value";
+        // a single unfiltered function scores whole blocks of documents through runAsDoubles
+        SearchResponse batch = new SearchRequestBuilder(client()).setIndices("test")
+                .setQuery(QueryBuilders.functionScoreQuery(QueryBuilders.termQuery("text", "hello"),
+                        ScoreFunctionBuilders.scriptFunction(script, "expression")).boostMode("replace"))
+                .setSearchType(SearchType.DFS_QUERY_THEN_FETCH)
+                .setSize(numDocs).get();
+        // the same function behind a filter that matches every document is evaluated one document at a time
+        SearchResponse perDoc = new SearchRequestBuilder(client()).setIndices("test")
+                .setQuery(QueryBuilders.functionScoreQuery(QueryBuilders.termQuery("text", "hello"))
+                        .add(FilterBuilders.existsFilter("text"), ScoreFunctionBuilders.scriptFunction(script, "expression"))
+                        .boostMode("replace"))
+                .setSearchType(SearchType.DFS_QUERY_THEN_FETCH)
+                .setSize(numDocs).get();
+        ElasticsearchAssertions.assertSearchResponse(batch);
+        ElasticsearchAssertions.assertSearchResponse(perDoc);
+        assertEquals(numDocs, batch.getHits().getTotalHits());
+        assertEquals(numDocs, perDoc.getHits().getTotalHits());
+
+        Map<String, Float> perDocScores = new HashMap<>();
+        for (SearchHit hit : perDoc.getHits()) {
+            perDocScores.put(hit.getId(), hit.getScore());
+        }
+        for (SearchHit hit : batch.getHits()) {
+            Float expected = perDocScores.get(hit.getId());
+            assertNotNull("missing hit [" + hit.getId() + "]", expected);
+            assertThat("score of [" + hit.getId() + "]", (double) hit.getScore(),
+                    closeTo(expected, Math.max(1e-5, Math.abs(expected) * 1e-5)));
+        }
+    }
+
     public void testSparseField() throws Exception {
         ElasticsearchAssertions.assertAcked(prepareCreate("test").addMapping("doc", "x", "type=long", "y", "type=long"));
         ensureGreen("test");
@@ -27,6 +27,7 @@ import org.elasticsearch.search.aggregations.bucket.histogram.Histogram.Order;
 import org.elasticsearch.search.aggregations.metrics.percentiles.Percentile;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentileRanks;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentileRanksBuilder;
+import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesMethod;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -157,6 +158,24 @@ public class PercentileRanksTests extends AbstractNumericTests {
         assertConsistent(pcts, percentiles, minValue, maxValue);
     }
 
+    @Test
+    public void testSingleValuedField_HDR() throws Exception {
+        final double[] pcts = randomPercents(minValue, maxValue);
+        SearchResponse searchResponse = client().prepareSearch("idx", "idx_unmapped")
+                .setQuery(matchAllQuery())
+                .addAggregation(percentileRanks("percentile_ranks")
+                        .method(PercentilesMethod.HDR)
+                        .numberOfSignificantValueDigits(randomIntBetween(0, 5))
+                        .field("value")
+                        .percentiles(pcts))
+                .execute().actionGet();
+
+        assertThat(searchResponse.getHits().getTotalHits(), equalTo(10l));
+
+        final PercentileRanks percentiles = searchResponse.getAggregations().get("percentile_ranks");
+        assertConsistent(pcts, percentiles, minValue, maxValue);
+    }
+
     @Test
     public void testSingleValuedField_getProperty() throws Exception {
         final double[] pcts = randomPercents(minValue, maxValue);
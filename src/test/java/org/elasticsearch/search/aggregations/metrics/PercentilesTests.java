@@ -27,6 +27,7 @@ import org.elasticsearch.search.aggregations.bucket.histogram.Histogram.Order;
 import org.elasticsearch.search.aggregations.metrics.percentiles.Percentile;
 import org.elasticsearch.search.aggregations.metrics.percentiles.Percentiles;
 import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesBuilder;
+import org.elasticsearch.search.aggregations.metrics.percentiles.PercentilesMethod;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -157,6 +158,24 @@ public class PercentilesTests extends AbstractNumericTests {
         assertConsistent(pcts, percentiles, minValue, maxValue);
     }
 
+    @Test
+    public void testSingleValuedField_HDR() throws Exception {
+        final double[] pcts = randomPercentiles();
+        SearchResponse searchResponse = client().prepareSearch("idx", "idx_unmapped")
+                .setQuery(matchAllQuery())
+                .addAggregation(percentiles("percentiles")
+                        .method(PercentilesMethod.HDR)
+                        .numberOfSignificantValueDigits(randomIntBetween(0, 5))
+                        .field("value")
+                        .percentiles(pcts))
+                .execute().actionGet();
+
+        assertThat(searchResponse.getHits().getTotalHits(), equalTo(10l));
+
+        final Percentiles percentiles = searchResponse.getAggregations().get("percentiles");
+        assertConsistent(pcts, percentiles, minValue, maxValue);
+    }
+
     @Test
     public void testSingleValuedField_getProperty() throws Exception {
         final double[] pcts = randomPercentiles();
@@ -0,0 +1,162 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.metrics.percentiles.hdr;
+
+import org.elasticsearch.ElasticsearchIllegalArgumentException;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class HdrHistogramStateTests extends ElasticsearchTestCase {
+
+    private static double[] randomValues() {
+        final double[] values = new double[scaledRandomIntBetween(100, 10000)];
+        final double scale = Math.pow(10, randomIntBetween(-3, 6));
+        for (int i = 0; i < values.length; ++i) {
+            switch (randomInt(20)) {
+            case 0:
+                values[i] = 0;
+                break;
+            default:
+                // long tailed, like latencies
+                values[i] = scale * Math.exp(randomGaussian() * 2);
+                break;
+            }
+        }
+        return values;
+    }
+
+    private static HdrHistogramState histogram(int digits, double[] values, int from, int to) {
+        final HdrHistogramState state = new HdrHistogramState(digits, BigArrays.NON_RECYCLING_INSTANCE);
+        for (int i = from; i < to; ++i) {
+            state.add(values[i]);
+        }
+        return state;
+    }
+
+    @Test
+    public void testAccuracy() {
+        final int digits = randomIntBetween(1, 4);
+        final double[] values = randomValues();
+        final HdrHistogramState state = histogram(digits, values, 0, values.length);
+        assertThat(state.count(), equalTo((long) values.length));
+        Arrays.sort(values);
+
+        final double maxError = Math.pow(10, -digits);
+        assertThat(state.quantile(0), equalTo(values[0]));
+        assertThat(state.quantile(1), equalTo(values[values.length - 1]));
+        for (int i = 0; i < 100; ++i) {
+            final double q = randomDouble();
+            final double expected = values[(int) Math.max(0, Math.ceil(q * values.length) - 1)];
+            final double actual = state.quantile(q);
+            assertEquals("quantile " + q, expected, actual, expected * maxError);
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            final double value = values[randomInt(values.length - 1)];
+            // all values that are less than or equal to the given value are counted, and maybe the ones that are
+            // in the same cell
+            int lessOrEqual = 0, inSameCell = 0;
+            for (double v : values) {
+                if (v <= value) {
+                    lessOrEqual++;
+                } else if (v <= value * (1 + maxError)) {
+                    inSameCell++;
+                }
+            }
+            final double cdf = state.cdf(value);
+            assertThat(cdf, greaterThanOrEqualTo((double) lessOrEqual / values.length));
+            assertThat(cdf, lessThanOrEqualTo((double) (lessOrEqual + inSameCell) / values.length));
+        }
+        assertThat(state.cdf(-1), equalTo(0d));
+        assertThat(state.cdf(values[values.length - 1]), equalTo(1d));
+    }
+
+    @Test
+    public void testMerge() {
+        final int digits = randomIntBetween(0, 5);
+        final double[] values = randomValues();
+        final HdrHistogramState single = histogram(digits, values, 0, values.length);
+        final int split = randomInt(values.length);
+        final HdrHistogramState merged = new HdrHistogramState(digits, BigArrays.NON_RECYCLING_INSTANCE);
+        merged.add(histogram(digits, values, split, values.length));
+        merged.add(histogram(digits, values, 0, split));
+        merged.add(new HdrHistogramState(digits, BigArrays.NON_RECYCLING_INSTANCE));
+
+        assertThat(merged.count(), equalTo(single.count()));
+        for (int i = 0; i < 100; ++i) {
+            final double q = randomDouble();
+            assertThat(merged.quantile(q), equalTo(single.quantile(q)));
+        }
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        final int digits = randomIntBetween(0, 5);
+        final double[] values = randomBoolean() ? new double[0] : randomValues();
+        final HdrHistogramState state = histogram(digits, values, 0, values.length);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        HdrHistogramState.write(state, out);
+        HdrHistogramState read = HdrHistogramState.read(new BytesStreamInput(out.bytes()), BigArrays.NON_RECYCLING_INSTANCE);
+
+        assertThat(read.numberOfSignificantValueDigits(), equalTo(digits));
+        assertThat(read.count(), equalTo(state.count()));
+        for (int i = 0; i < 100; ++i) {
+            final double q = randomDouble();
+            assertThat(read.quantile(q), equalTo(state.quantile(q)));
+        }
+    }
+
+    @Test
+    public void testDynamicRange() {
+        final HdrHistogramState state = new HdrHistogramState(3, BigArrays.NON_RECYCLING_INSTANCE);
+        state.add(1e-20);
+        state.add(1e10);
+        state.add(1e10);
+        state.add(1e-30);
+        // the small values are counted in the lowest cell, but min and max are still exact
+        assertThat(state.count(), equalTo(4l));
+        assertThat(state.quantile(0), equalTo(1e-30));
+        assertThat(state.quantile(1), equalTo(1e10));
+        assertThat(state.quantile(0.5), lessThanOrEqualTo(1e10 / (1l << (HdrHistogramState.MAX_OCTAVES - 1))));
+        assertEquals(1e10, state.quantile(0.75), 1e10 * 1e-3);
+    }
+
+    @Test
+    public void testEmpty() {
+        final HdrHistogramState state = new HdrHistogramState(3, BigArrays.NON_RECYCLING_INSTANCE);
+        assertThat(state.quantile(0.5), equalTo(Double.NaN));
+        assertThat(state.cdf(1), equalTo(Double.NaN));
+    }
+
+    @Test(expected = ElasticsearchIllegalArgumentException.class)
+    public void testNegativeValue() {
+        new HdrHistogramState(3, BigArrays.NON_RECYCLING_INSTANCE).add(-1);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.search.internal.InternalSearchHit;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ */
+public class LeafHitsTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testGroup() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(new KeywordAnalyzer()));
+        final int numDocs = scaledRandomIntBetween(10, 500);
+        for (int i = 0; i < numDocs; i++) {
+            w.addDocument(new Document());
+            if (rarely()) {
+                w.commit();
+            }
+        }
+        IndexReader reader = DirectoryReader.open(w, true);
+        w.close();
+
+        // hits come in score order, not doc id order
+        Set<Integer> docIds = new HashSet<>();
+        final int numHits = randomIntBetween(0, numDocs);
+        while (docIds.size() < numHits) {
+            docIds.add(randomInt(numDocs - 1));
+        }
+        InternalSearchHit[] hits = new InternalSearchHit[numHits];
+        int i = 0;
+        for (int docId : docIds) {
+            hits[i++] = new InternalSearchHit(docId, Integer.toString(docId), null, null);
+        }
+
+        List<LeafHits> groups = LeafHits.group(reader, hits);
+        int count = 0;
+        int previousOrd = -1;
+        for (LeafHits leafHits : groups) {
+            LeafReaderContext context = leafHits.readerContext();
+            assertThat(context.ord, greaterThan(previousOrd));
+            previousOrd = context.ord;
+            assertThat(leafHits.size(), greaterThan(0));
+            for (int j = 0; j < leafHits.size(); j++) {
+                assertThat(leafHits.docId(j), equalTo(leafHits.hit(j).docId() - context.docBase));
+                assertThat(leafHits.docId(j), lessThan(context.reader().maxDoc()));
+                if (j > 0) {
+                    assertThat(leafHits.docId(j), greaterThan(leafHits.docId(j - 1)));
+                }
+                assertTrue(docIds.remove(leafHits.hit(j).docId()));
+                count++;
+            }
+        }
+        assertThat(count, equalTo(numHits));
+        assertTrue(docIds.isEmpty());
+
+        reader.close();
+        dir.close();
+    }
+}
@@ -315,6 +315,40 @@ public class SearchFieldsTests extends ElasticsearchIntegrationTest {
         assertThat(((Map) sObj2Arr3.get(0)).get("arr3_field1").toString(), equalTo("arr3_value1"));
     }
 
+    @Test
+    public void testScriptFieldUsingFetchedSource() throws Exception {
+        createIndex("test");
+        ensureYellow();
+
+        int numDocs = scaledRandomIntBetween(10, 50);
+        List<IndexRequestBuilder> builders = new ArrayList<>();
+        for (int i = 0; i < numDocs; i++) {
+            builders.add(client().prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject()
+                    .field("num", i)
+                    .startObject("obj1").field("test", "value" + i).endObject()
+                    .endObject()));
+        }
+        indexRandom(true, builders);
+
+        // the source is loaded for the response and reused by the scripts, which run in doc id order rather than in
+        // the order of the hits
+        SearchResponse response = client().prepareSearch("test")
+                .setQuery(matchAllQuery())
+                .setFetchSource(true)
+                .addScriptField("s_obj1_test", "_source.obj1.test")
+                .addSort("num", SortOrder.DESC)
+                .setSize(numDocs)
+                .get();
+        assertSearchResponse(response);
+        assertHitCount(response, numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            SearchHit hit = response.getHits().getAt(i);
+            assertThat(hit.id(), equalTo(Integer.toString(numDocs - 1 - i)));
+            assertThat(hit.field("s_obj1_test").value().toString(), equalTo("value" + hit.id()));
+            assertThat(((Map) hit.sourceAsMap().get("obj1")).get("test").toString(), equalTo("value" + hit.id()));
+        }
+    }
+
     @Test
     public void testPartialFields() throws Exception {
         createIndex("test");
@@ -138,6 +138,56 @@ public class InnerHitsTests extends ElasticsearchIntegrationTest {
         assertThat(innerHits.getAt(0).getFields().get("script").getValue().toString(), equalTo("eat"));
     }
 
+    @Test
+    public void testNestedScriptFieldsUsingSource() throws Exception {
+        assertAcked(prepareCreate("articles").addMapping("article", jsonBuilder().startObject().startObject("article").startObject("properties")
+                .startObject("comments")
+                    .field("type", "nested")
+                    .startObject("properties")
+                        .startObject("message")
+                            .field("type", "string")
+                        .endObject()
+                    .endObject()
+                .endObject()
+                .startObject("title")
+                    .field("type", "string")
+                .endObject()
+                .endObject().endObject().endObject()));
+
+        List<IndexRequestBuilder> requests = new ArrayList<>();
+        requests.add(client().prepareIndex("articles", "article", "1").setSource(jsonBuilder().startObject()
+                .field("title", "quick brown fox")
+                .startArray("comments")
+                .startObject().field("message", "fox eat quick").endObject()
+                .startObject().field("message", "fox ate rabbit x y z").endObject()
+                .startObject().field("message", "rabbit got away").endObject()
+                .endArray()
+                .endObject()));
+        indexRandom(true, requests);
+
+        // the _source of a nested hit is the source of its nested object, which the nested Lucene doc doesn't store
+        SearchResponse response = client().prepareSearch("articles")
+                .setQuery(nestedQuery("comments", matchQuery("comments.message", "fox")))
+                .setFetchSource(true)
+                .addScriptField("title", "_source.title")
+                .addInnerHit("comment", new InnerHitsBuilder.InnerHit().setPath("comments")
+                        .setQuery(matchQuery("comments.message", "fox"))
+                        .setFetchSource(true)
+                        .addScriptField("message", "_source.message")
+                ).get();
+        assertNoFailures(response);
+        assertHitCount(response, 1);
+        assertThat(response.getHits().getAt(0).field("title").getValue().toString(), equalTo("quick brown fox"));
+        SearchHits innerHits = response.getHits().getAt(0).getInnerHits().get("comment");
+        assertThat(innerHits.getHits().length, equalTo(2));
+        for (SearchHit innerHit : innerHits) {
+            String message = innerHit.sourceAsMap().get("message").toString();
+            assertThat(innerHit.field("message").getValue().toString(), equalTo(message));
+        }
+        assertThat(innerHits.getAt(0).field("message").getValue().toString(), equalTo("fox eat quick"));
+        assertThat(innerHits.getAt(1).field("message").getValue().toString(), equalTo("fox ate rabbit x y z"));
+    }
+
     @Test
     public void testRandomNested() throws Exception {
         assertAcked(prepareCreate("idx").addMapping("type", "field1", "type=nested", "field2", "type=nested"));
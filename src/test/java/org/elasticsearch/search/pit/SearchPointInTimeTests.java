@@ -0,0 +1,174 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.pit;
+
+import org.elasticsearch.action.search.ClosePointInTimeResponse;
+import org.elasticsearch.action.search.OpenPointInTimeResponse;
+import org.elasticsearch.action.search.SearchPhaseExecutionException;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.ImmutableSettings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.index.query.QueryBuilders.matchAllQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ */
+public class SearchPointInTimeTests extends ElasticsearchIntegrationTest {
+
+    @Test
+    public void testSearchPointInTime() throws Exception {
+        createIndex("test");
+        ensureGreen();
+        for (int i = 0; i < 20; i++) {
+            client().prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject().field("field", i).endObject()).get();
+        }
+        refresh();
+
+        OpenPointInTimeResponse openResponse = client().prepareOpenPointInTime("test").setKeepAlive(TimeValue.timeValueMinutes(1)).get();
+        assertThat(openResponse.getFailedShards(), equalTo(0));
+        assertThat(openResponse.getSuccessfulShards(), greaterThan(0));
+        final String id = openResponse.getId();
+
+        // changes after the point in time was opened are not visible to searches that reference it
+        for (int i = 20; i < 30; i++) {
+            client().prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject().field("field", i).endObject()).get();
+        }
+        client().prepareDelete("test", "type1", "0").get();
+        refresh();
+
+        assertHitCount(client().prepareSearch("test").setQuery(matchAllQuery()).get(), 29);
+
+        // paging through the point in time sees the documents it was opened with
+        int expected = 0;
+        for (int from = 0; from < 20; from += 7) {
+            SearchResponse searchResponse = client().prepareSearch("test")
+                    .setPointInTime(id, TimeValue.timeValueMinutes(1))
+                    .setQuery(matchAllQuery())
+                    .addSort("field", SortOrder.ASC)
+                    .setFrom(from).setSize(7)
+                    .get();
+            assertNoFailures(searchResponse);
+            assertHitCount(searchResponse, 20);
+            for (SearchHit hit : searchResponse.getHits()) {
+                assertThat(((Number) hit.sortValues()[0]).intValue(), equalTo(expected++));
+            }
+        }
+        assertThat(expected, equalTo(20));
+
+        ClosePointInTimeResponse closeResponse = client().prepareClosePointInTime("test").setId(id).get();
+        assertThat(closeResponse.getNumFreed(), equalTo(openResponse.getSuccessfulShards()));
+
+        try {
+            client().prepareSearch("test").setPointInTime(id, null).setQuery(matchAllQuery()).get();
+            fail("the point in time was closed");
+        } catch (SearchPhaseExecutionException e) {
+            // expected
+        }
+
+        closeResponse = client().prepareClosePointInTime("test").setId(id).get();
+        assertThat(closeResponse.getNumFreed(), equalTo(0));
+    }
+
+    @Test
+    public void testSearchPointInTimeWithReplicasWhileIndexing() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        assertAcked(prepareCreate("test").setSettings(ImmutableSettings.builder().put(indexSettings()).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)));
+        ensureGreen();
+        final int numDocs = scaledRandomIntBetween(20, 100);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject().field("field", i).endObject()).get();
+        }
+        refresh();
+
+        OpenPointInTimeResponse openResponse = client().prepareOpenPointInTime("test").setKeepAlive(TimeValue.timeValueMinutes(1)).get();
+        assertThat(openResponse.getFailedShards(), equalTo(0));
+        // only one copy of every shard holds the point in time
+        assertThat(openResponse.getTotalShards(), equalTo(getNumShards("test").numPrimaries));
+        assertThat(openResponse.getSuccessfulShards(), equalTo(getNumShards("test").numPrimaries));
+        final String id = openResponse.getId();
+
+        // keep changing the index, so that the copies of the shards refresh to different documents
+        final AtomicBoolean stop = new AtomicBoolean();
+        final AtomicReference<Throwable> indexingFailure = new AtomicReference<>();
+        final Random random = new Random(randomLong());
+        Thread indexer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    int i = numDocs;
+                    while (stop.get() == false) {
+                        client().prepareIndex("test", "type1", Integer.toString(i)).setSource(jsonBuilder().startObject().field("field", i).endObject()).get();
+                        client().prepareDelete("test", "type1", Integer.toString(random.nextInt(numDocs))).get();
+                        if (++i % 10 == 0) {
+                            client().admin().indices().prepareRefresh("test").get();
+                        }
+                    }
+                } catch (Throwable t) {
+                    indexingFailure.set(t);
+                }
+            }
+        };
+        indexer.start();
+        try {
+            final int size = randomIntBetween(3, 10);
+            for (int iteration = 0; iteration < 3; iteration++) {
+                int expected = 0;
+                for (int from = 0; from < numDocs; from += size) {
+                    SearchResponse searchResponse = client().prepareSearch("test")
+                            .setPointInTime(id, TimeValue.timeValueMinutes(1))
+                            .setQuery(matchAllQuery())
+                            .addSort("field", SortOrder.ASC)
+                            .setFrom(from).setSize(size)
+                            .get();
+                    assertNoFailures(searchResponse);
+                    assertHitCount(searchResponse, numDocs);
+                    for (SearchHit hit : searchResponse.getHits()) {
+                        assertThat(((Number) hit.sortValues()[0]).intValue(), equalTo(expected++));
+                    }
+                }
+                assertThat(expected, equalTo(numDocs));
+            }
+        } finally {
+            stop.set(true);
+            indexer.join();
+        }
+        assertThat(indexingFailure.get(), nullValue());
+
+        ClosePointInTimeResponse closeResponse = client().prepareClosePointInTime("test").setId(id).get();
+        assertThat(closeResponse.getNumFreed(), equalTo(getNumShards("test").numPrimaries));
+    }
+}
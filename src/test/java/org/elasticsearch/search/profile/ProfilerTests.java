@@ -0,0 +1,117 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.profile;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.test.ElasticsearchTestCase;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ */
+public class ProfilerTests extends ElasticsearchTestCase {
+
+    @Test
+    public void testProfileQueryAndCollector() throws Exception {
+        Directory dir = new RAMDirectory();
+        IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(new KeywordAnalyzer()));
+        final int numDocs = scaledRandomIntBetween(100, 1000);
+        for (int i = 0; i < numDocs; i++) {
+            Document doc = new Document();
+            doc.add(new StringField("all", "xxx", Field.Store.NO));
+            if (randomInt(4) == 0) {
+                doc.add(new StringField("sparse", "yyy", Field.Store.NO));
+            }
+            w.addDocument(doc);
+            if (rarely()) {
+                w.commit();
+            }
+        }
+        IndexReader reader = DirectoryReader.open(w, true);
+        w.close();
+        IndexSearcher searcher = new IndexSearcher(reader);
+
+        BooleanQuery query = new BooleanQuery();
+        query.add(new TermQuery(new Term("all", "xxx")), BooleanClause.Occur.MUST);
+        query.add(new TermQuery(new Term("sparse", "yyy")), BooleanClause.Occur.SHOULD);
+        TopDocs expected = searcher.search(query, numDocs);
+
+        Profiler profiler = new Profiler();
+        Query profiled = profiler.wrapQuery(query);
+        TopScoreDocCollector topDocsCollector = TopScoreDocCollector.create(numDocs, false);
+        searcher.search(profiled, profiler.wrapCollector(topDocsCollector, CollectorProfile.REASON_SEARCH_TOP_HITS));
+        TopDocs actual = topDocsCollector.topDocs();
+        assertThat(actual.totalHits, equalTo(expected.totalHits));
+        for (int i = 0; i < expected.scoreDocs.length; i++) {
+            assertThat(actual.scoreDocs[i].doc, equalTo(expected.scoreDocs[i].doc));
+            assertThat(actual.scoreDocs[i].score, equalTo(expected.scoreDocs[i].score));
+        }
+
+        ProfileShardResult result = profiler.result();
+        assertThat(result.queryResults().size(), equalTo(1));
+        ProfileResult bool = result.queryResults().get(0);
+        assertThat(bool.type(), equalTo("BooleanQuery"));
+        assertThat(bool.children().size(), equalTo(2));
+        assertThat(bool.breakdown().get("create_weight_count"), equalTo(1L));
+        assertThat(bool.breakdown().get("build_scorer_count"), greaterThan(0L));
+        // the searcher scores the segments through the bulk scorer of the top level query
+        assertThat(bool.breakdown().get("bulk_score_count"), greaterThan(0L));
+        for (ProfileResult child : bool.children()) {
+            assertThat(child.type(), equalTo("TermQuery"));
+            assertThat(child.time(), greaterThan(0L));
+        }
+        assertThat(result.collectorResults().size(), equalTo(1));
+        assertThat(result.collectorResults().get(0).description(), equalTo(CollectorProfile.REASON_SEARCH_TOP_HITS));
+
+        // results are reset after they are read
+        assertThat(profiler.result().queryResults().size(), equalTo(0));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        result.writeTo(out);
+        ProfileShardResult read = ProfileShardResult.readProfileShardResult(new BytesStreamInput(out.bytes()));
+        assertThat(read.queryResults().get(0).children().size(), equalTo(2));
+        assertThat(read.queryResults().get(0).time(), equalTo(bool.time()));
+        assertThat(read.collectorResults().get(0).time(), equalTo(result.collectorResults().get(0).time()));
+
+        reader.close();
+        dir.close();
+    }
+}
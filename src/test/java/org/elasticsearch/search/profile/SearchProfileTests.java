@@ -0,0 +1,199 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.elasticsearch.search.profile;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.io.stream.BytesStreamInput;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.test.ElasticsearchIntegrationTest;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.elasticsearch.common.settings.ImmutableSettings.settingsBuilder;
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.*;
+
+public class SearchProfileTests extends ElasticsearchIntegrationTest {
+
+    private int indexDocs() throws Exception {
+        int numShards = between(2, 5);
+        assertAcked(prepareCreate("test")
+                .setSettings(settingsBuilder().put(indexSettings()).put("index.number_of_shards", numShards).put("index.number_of_replicas", 0))
+                .addMapping("type1", "tag", "type=string,index=not_analyzed", "value", "type=long"));
+        int numDocs = scaledRandomIntBetween(50, 200);
+        IndexRequestBuilder[] docs = new IndexRequestBuilder[numDocs];
+        for (int i = 0; i < numDocs; i++) {
+            docs[i] = client().prepareIndex("test", "type1", Integer.toString(i))
+                    .setSource("tag", "tag" + (i % 5), "text", i % 3 == 0 ? "foo bar" : "foo", "value", i);
+        }
+        indexRandom(true, docs);
+        return numShards;
+    }
+
+    private SearchResponse profiledSearch() {
+        SearchResponse response = client().prepareSearch("test")
+                .setQuery(QueryBuilders.boolQuery()
+                        .must(QueryBuilders.termQuery("text", "foo"))
+                        .should(QueryBuilders.termQuery("text", "bar")))
+                .addAggregation(AggregationBuilders.terms("tags").field("tag"))
+                .addAggregation(AggregationBuilders.avg("avg_value").field("value"))
+                .setProfile(true)
+                .get();
+        assertNoFailures(response);
+        return response;
+    }
+
+    @Test
+    public void testProfileOfEveryShard() throws Exception {
+        int numShards = indexDocs();
+        SearchResponse response = profiledSearch();
+        assertThat(response.getSuccessfulShards(), equalTo(numShards));
+
+        Map<String, ProfileShardResult> profiles = response.getProfileResults();
+        assertThat(profiles, notNullValue());
+        // the profiles of the shards are merged, one per shard
+        assertThat(profiles.size(), equalTo(numShards));
+        for (ProfileShardResult profile : profiles.values()) {
+            assertThat(profile.queryResults().size(), equalTo(1));
+            ProfileResult bool = profile.queryResults().get(0);
+            assertThat(bool.type(), equalTo("BooleanQuery"));
+            assertThat(bool.children().size(), equalTo(2));
+            assertThat(bool.breakdown().get("create_weight_count"), equalTo(1L));
+            assertThat(bool.breakdown().get("build_scorer_count"), greaterThan(0L));
+            assertThat(bool.time(), greaterThan(0L));
+
+            // every aggregation gets its own profile under the collector that feeds the aggregations
+            Set<String> aggregations = new HashSet<>();
+            for (ProfileResult collector : profile.collectorResults()) {
+                collectAggregations(collector, aggregations);
+            }
+            assertThat(aggregations, containsInAnyOrder("tags", "avg_value"));
+        }
+
+        response = client().prepareSearch("test").setQuery(QueryBuilders.termQuery("text", "foo")).get();
+        assertNoFailures(response);
+        assertThat(response.getProfileResults(), nullValue());
+    }
+
+    private static void collectAggregations(ProfileResult collector, Set<String> aggregations) {
+        if (CollectorProfile.REASON_AGGREGATION.equals(collector.description())) {
+            aggregations.add(collector.type());
+        }
+        for (ProfileResult child : collector.children()) {
+            collectAggregations(child, aggregations);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRendering() throws Exception {
+        int numShards = indexDocs();
+        SearchResponse response = profiledSearch();
+
+        XContentBuilder builder = jsonBuilder().startObject();
+        response.toXContent(builder, ToXContent.EMPTY_PARAMS);
+        builder.endObject();
+        Map<String, Object> rendered = XContentHelper.convertToMap(builder.bytes(), true).v2();
+
+        Map<String, Object> profile = (Map<String, Object>) rendered.get("profile");
+        assertThat(profile, notNullValue());
+        List<Map<String, Object>> shards = (List<Map<String, Object>>) profile.get("shards");
+        assertThat(shards.size(), equalTo(numShards));
+        for (Map<String, Object> shard : shards) {
+            assertThat(shard.get("id"), notNullValue());
+            List<Map<String, Object>> query = (List<Map<String, Object>>) shard.get("query");
+            assertThat(query.size(), equalTo(1));
+            assertThat(query.get(0).get("type"), equalTo((Object) "BooleanQuery"));
+            assertThat(query.get(0).get("time_in_nanos"), notNullValue());
+            Map<String, Object> breakdown = (Map<String, Object>) query.get(0).get("breakdown");
+            for (ProfileBreakdown.TimingType timingType : ProfileBreakdown.TimingType.values()) {
+                assertThat(breakdown, hasKey(timingType.toString()));
+                assertThat(breakdown, hasKey(timingType + "_count"));
+            }
+            assertThat(((List<?>) query.get(0).get("children")).size(), equalTo(2));
+            List<Map<String, Object>> collector = (List<Map<String, Object>>) shard.get("collector");
+            assertThat(collector.size(), greaterThan(0));
+            // collectors have no breakdown
+            assertThat(collector.get(0), not(hasKey("breakdown")));
+        }
+    }
+
+    @Test
+    public void testStreamingIsVersionGated() throws Exception {
+        indexDocs();
+        SearchResponse response = profiledSearch();
+        ProfileShardResult shardProfile = response.getProfileResults().values().iterator().next();
+
+        // the merged response
+        BytesStreamOutput out = new BytesStreamOutput();
+        response.writeTo(out);
+        SearchResponse read = SearchResponse.readSearchResponse(new BytesStreamInput(out.bytes()));
+        assertThat(read.getProfileResults().keySet(), equalTo(response.getProfileResults().keySet()));
+
+        Version oldVersion = Version.V_1_4_0;
+        out = new BytesStreamOutput();
+        out.setVersion(oldVersion);
+        response.writeTo(out);
+        BytesStreamInput in = new BytesStreamInput(out.bytes());
+        in.setVersion(oldVersion);
+        read = SearchResponse.readSearchResponse(in);
+        assertThat(read.getProfileResults(), nullValue());
+        assertThat(read.getHits().totalHits(), equalTo(response.getHits().totalHits()));
+        assertThat(read.getTookInMillis(), equalTo(response.getTookInMillis()));
+
+        // the result of a shard
+        QuerySearchResult result = new QuerySearchResult(1, null);
+        result.topDocs(new TopDocs(0, new ScoreDoc[0], Float.NaN));
+        result.profileResult(shardProfile);
+        out = new BytesStreamOutput();
+        result.writeTo(out);
+        QuerySearchResult readResult = QuerySearchResult.readQuerySearchResult(new BytesStreamInput(out.bytes()));
+        assertThat(readResult.profileResult(), notNullValue());
+        assertThat(readResult.profileResult().queryResults().get(0).time(), equalTo(shardProfile.queryResults().get(0).time()));
+        assertThat(readResult.profileResult().collectorResults().size(), equalTo(shardProfile.collectorResults().size()));
+
+        out = new BytesStreamOutput();
+        out.setVersion(oldVersion);
+        result.writeTo(out);
+        in = new BytesStreamInput(out.bytes());
+        in.setVersion(oldVersion);
+        readResult = QuerySearchResult.readQuerySearchResult(in);
+        assertThat(readResult.profileResult(), nullValue());
+        // nothing is left behind for the fields that follow the result
+        assertThat(in.position(), equalTo(out.bytes().length()));
+    }
+}